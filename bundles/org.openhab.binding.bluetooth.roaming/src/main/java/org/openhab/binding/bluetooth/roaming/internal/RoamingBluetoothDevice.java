@@ -18,7 +18,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -36,11 +38,31 @@ import org.openhab.binding.bluetooth.notification.BluetoothScanNotification;
  * The {@link RoamingBluetoothDevice} acts as a roaming device by delegating
  * its operations to actual adapters.
  *
+ * The delegate is the device of the adapter hearing the device best, based on an exponentially smoothed RSSI per
+ * adapter. Adapters that have not heard the device recently or that already have many connections are avoided, and
+ * the delegate only changes if another adapter is clearly better, so the device does not flap between adapters.
+ *
  * @author Connor Petty - Initial contribution
+ * @author Michal Boronski - Smoothed RSSI and connection aware delegate selection
  */
 @NonNullByDefault
 public class RoamingBluetoothDevice extends DelegateBluetoothDevice {
 
+    // weight of a new RSSI sample in the smoothed RSSI
+    private static final double RSSI_SMOOTHING = 0.25;
+    // minimum advantage in dB another adapter needs before the delegate changes
+    private static final double RSSI_HYSTERESIS = 5;
+    // penalty in dB per connection already made through an adapter, spreads connections over the adapters
+    private static final double CONNECTION_PENALTY = 3;
+    // adapters that have not heard the device recently, or that are congested, are only used as last resort
+    private static final double LAST_RESORT_PENALTY = 1000;
+    private static final long STALE_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final RoamingBridgeHandler roamingAdapter;
+
+    // source of System.nanoTime() values, replaced by tests
+    private final LongSupplier nanoClock;
+
     private final Map<BluetoothDevice, Listener> devices = new ConcurrentHashMap<>();
 
     private final List<BluetoothDeviceListener> eventListeners = new CopyOnWriteArrayList<>();
@@ -48,7 +70,13 @@ public class RoamingBluetoothDevice extends DelegateBluetoothDevice {
     private final AtomicReference<@Nullable BluetoothDevice> currentDelegateRef = new AtomicReference<>();
 
     protected RoamingBluetoothDevice(RoamingBridgeHandler roamingAdapter, BluetoothAddress address) {
+        this(roamingAdapter, address, System::nanoTime);
+    }
+
+    RoamingBluetoothDevice(RoamingBridgeHandler roamingAdapter, BluetoothAddress address, LongSupplier nanoClock) {
         super(roamingAdapter, address);
+        this.roamingAdapter = roamingAdapter;
+        this.nanoClock = nanoClock;
     }
 
     public void addBluetoothDevice(BluetoothDevice device) {
@@ -56,9 +84,10 @@ public class RoamingBluetoothDevice extends DelegateBluetoothDevice {
     }
 
     public void removeBluetoothDevice(BluetoothDevice device) {
-        BluetoothDeviceListener listener = devices.remove(device);
+        Listener listener = devices.remove(device);
         if (listener != null) {
             device.removeListener(listener);
+            listener.updateConnection(false);
         }
     }
 
@@ -70,20 +99,8 @@ public class RoamingBluetoothDevice extends DelegateBluetoothDevice {
     @Override
     @SuppressWarnings("PMD.CompareObjectsWithEquals")
     protected @Nullable BluetoothDevice getDelegate() {
-        BluetoothDevice newDelegate = null;
-        int newRssi = Integer.MIN_VALUE;
-        for (BluetoothDevice device : devices.keySet()) {
-            ConnectionState state = device.getConnectionState();
-            if (state == ConnectionState.CONNECTING || state == ConnectionState.CONNECTED) {
-                newDelegate = device;
-                break;
-            }
-            Integer rssi = device.getRssi();
-            if (rssi != null && (newDelegate == null || rssi > newRssi)) {
-                newRssi = rssi;
-                newDelegate = device;
-            }
-        }
+        BluetoothDevice currentDelegate = currentDelegateRef.get();
+        BluetoothDevice newDelegate = selectDelegate(currentDelegate);
         BluetoothDevice oldDelegate = currentDelegateRef.getAndSet(newDelegate);
         if (oldDelegate != newDelegate) { // using reference comparison is valid in this case
             notifyListeners(BluetoothEventType.ADAPTER_CHANGED, getAdapter(newDelegate));
@@ -91,6 +108,40 @@ public class RoamingBluetoothDevice extends DelegateBluetoothDevice {
         return newDelegate;
     }
 
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    private @Nullable BluetoothDevice selectDelegate(@Nullable BluetoothDevice currentDelegate) {
+        long now = nanoClock.getAsLong();
+        BluetoothDevice bestDelegate = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        double currentScore = Double.NaN;
+        for (Listener listener : devices.values()) {
+            BluetoothDevice device = listener.device;
+            if (isConnecting(device.getConnectionState())) {
+                // connections stay with their adapter
+                return device;
+            }
+            double score = listener.getScore(now);
+            if (Double.isNaN(score)) {
+                continue;
+            }
+            if (device == currentDelegate) {
+                currentScore = score;
+            }
+            if (bestDelegate == null || score > bestScore) {
+                bestScore = score;
+                bestDelegate = device;
+            }
+        }
+        if (!Double.isNaN(currentScore) && bestScore - currentScore < RSSI_HYSTERESIS) {
+            return currentDelegate;
+        }
+        return bestDelegate;
+    }
+
+    private static boolean isConnecting(ConnectionState state) {
+        return state == ConnectionState.CONNECTING || state == ConnectionState.CONNECTED;
+    }
+
     private BluetoothAdapter getAdapter(@Nullable BluetoothDevice delegate) {
         if (delegate != null) {
             return delegate.getAdapter();
@@ -108,12 +159,57 @@ public class RoamingBluetoothDevice extends DelegateBluetoothDevice {
 
         private BluetoothDevice device;
 
+        private volatile double smoothedRssi = Double.NaN;
+        private volatile long lastHeardNanos;
+        private boolean connected;
+
         public Listener(BluetoothDevice device) {
             this.device = device;
         }
 
+        /**
+         * Returns how well the adapter of this device is suited as delegate, higher is better
+         *
+         * @param now the current {@link System#nanoTime()}
+         * @return the score, or NaN if the adapter has never heard the device
+         */
+        private double getScore(long now) {
+            double rssi = smoothedRssi;
+            if (Double.isNaN(rssi)) {
+                Integer lastRssi = device.getRssi();
+                if (lastRssi == null) {
+                    return Double.NaN;
+                }
+                rssi = lastRssi;
+            } else if (now - lastHeardNanos > STALE_NANOS) {
+                rssi -= LAST_RESORT_PENALTY;
+            }
+            BluetoothAdapter adapter = device.getAdapter();
+            if (roamingAdapter.isCongested(adapter)) {
+                rssi -= LAST_RESORT_PENALTY;
+            }
+            return rssi - CONNECTION_PENALTY * roamingAdapter.getConnectionCount(adapter);
+        }
+
+        private synchronized void updateConnection(boolean connected) {
+            if (this.connected != connected) {
+                this.connected = connected;
+                if (connected) {
+                    roamingAdapter.connectionOpened(device.getAdapter());
+                } else {
+                    roamingAdapter.connectionClosed(device.getAdapter());
+                }
+            }
+        }
+
         @Override
         public void onScanRecordReceived(BluetoothScanNotification scanNotification) {
+            int rssi = scanNotification.getRssi();
+            if (rssi != Integer.MIN_VALUE) {
+                double previous = smoothedRssi;
+                smoothedRssi = Double.isNaN(previous) ? rssi : previous + RSSI_SMOOTHING * (rssi - previous);
+                lastHeardNanos = nanoClock.getAsLong();
+            }
             if (device == getDelegate()) {
                 notifyListeners(BluetoothEventType.SCAN_RECORD, scanNotification);
             }
@@ -121,6 +217,7 @@ public class RoamingBluetoothDevice extends DelegateBluetoothDevice {
 
         @Override
         public void onConnectionStateChange(BluetoothConnectionStatusNotification connectionNotification) {
+            updateConnection(isConnecting(connectionNotification.getConnectionState()));
             if (device == getDelegate()) {
                 notifyListeners(BluetoothEventType.CONNECTION_STATE, connectionNotification);
             }
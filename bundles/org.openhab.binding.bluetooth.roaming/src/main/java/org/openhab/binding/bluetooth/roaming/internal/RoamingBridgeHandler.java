@@ -16,7 +16,9 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -39,6 +41,7 @@ import org.openhab.core.types.Command;
  * sent to one of the channels.
  *
  * @author Connor Petty - Initial contribution
+ * @author Michal Boronski - Connection counting per adapter
  */
 @NonNullByDefault
 public class RoamingBridgeHandler extends BaseBridgeHandler implements RoamingBluetoothAdapter {
@@ -48,9 +51,16 @@ public class RoamingBridgeHandler extends BaseBridgeHandler implements RoamingBl
     /*
      * Note: this will only populate from handlers calling getDevice(BluetoothAddress), so we don't need
      * to do periodic cleanup.
+     * Adapters are added and removed while holding the lock on this map, so registering a device never adds the device
+     * of an adapter which is being removed.
      */
-    private Map<BluetoothAddress, RoamingBluetoothDevice> devices = new HashMap<>();
+    private final Map<BluetoothAddress, RoamingBluetoothDevice> devices = new HashMap<>();
+
+    // number of roaming device connections (connecting or connected) per adapter
+    private final Map<ThingUID, AtomicInteger> connectionCounts = new ConcurrentHashMap<>();
+
     private ThingUID[] groupUIDs = new ThingUID[0];
+    private volatile int maxConnectionsPerAdapter = 0;
 
     public RoamingBridgeHandler(Bridge bridge) {
         super(bridge);
@@ -66,6 +76,13 @@ public class RoamingBridgeHandler extends BaseBridgeHandler implements RoamingBl
             groupUIDs = Stream.of(groupIds.split(",")).map(ThingUID::new).toArray(ThingUID[]::new);
         }
 
+        Object maxConnections = getConfig().get(RoamingBindingConstants.CONFIGURATION_MAX_CONNECTIONS_PER_ADAPTER);
+        if (maxConnections instanceof Number) {
+            maxConnectionsPerAdapter = ((Number) maxConnections).intValue();
+        } else {
+            maxConnectionsPerAdapter = 0;
+        }
+
         if (adapters.stream().map(BluetoothAdapter::getUID).anyMatch(this::isGroupMember)) {
             updateStatus(ThingStatus.ONLINE);
         } else {
@@ -148,10 +165,10 @@ public class RoamingBridgeHandler extends BaseBridgeHandler implements RoamingBl
             return;
         }
 
-        this.adapters.add(adapter);
+        synchronized (devices) {
+            this.adapters.add(adapter);
 
-        if (isRoamingMember(adapter)) {
-            synchronized (devices) {
+            if (isRoamingMember(adapter)) {
                 for (RoamingBluetoothDevice roamingDevice : devices.values()) {
                     roamingDevice.addBluetoothDevice(adapter.getDevice(roamingDevice.getAddress()));
                 }
@@ -168,10 +185,10 @@ public class RoamingBridgeHandler extends BaseBridgeHandler implements RoamingBl
         if (adapter == this) {
             return;
         }
-        this.adapters.remove(adapter);
+        synchronized (devices) {
+            this.adapters.remove(adapter);
 
-        if (isRoamingMember(adapter)) {
-            synchronized (devices) {
+            if (isRoamingMember(adapter)) {
                 for (RoamingBluetoothDevice roamingDevice : devices.values()) {
                     roamingDevice.removeBluetoothDevice(adapter.getDevice(roamingDevice.getAddress()));
                 }
@@ -227,6 +244,39 @@ public class RoamingBridgeHandler extends BaseBridgeHandler implements RoamingBl
         }
     }
 
+    /**
+     * Returns the number of roaming devices connecting or connected through an adapter
+     *
+     * @param adapter the physical adapter
+     * @return the number of connections
+     */
+    public int getConnectionCount(BluetoothAdapter adapter) {
+        AtomicInteger count = connectionCounts.get(adapter.getUID());
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Checks whether an adapter has reached the configured maximum number of roaming device connections
+     *
+     * @param adapter the physical adapter
+     * @return true if new connections should rather be made through other adapters
+     */
+    public boolean isCongested(BluetoothAdapter adapter) {
+        int maxConnections = maxConnectionsPerAdapter;
+        return maxConnections > 0 && getConnectionCount(adapter) >= maxConnections;
+    }
+
+    void connectionOpened(BluetoothAdapter adapter) {
+        connectionCounts.computeIfAbsent(adapter.getUID(), uid -> new AtomicInteger()).incrementAndGet();
+    }
+
+    void connectionClosed(BluetoothAdapter adapter) {
+        AtomicInteger count = connectionCounts.get(adapter.getUID());
+        if (count != null) {
+            count.updateAndGet(value -> Math.max(0, value - 1));
+        }
+    }
+
     @Override
     public boolean hasHandlerForDevice(BluetoothAddress address) {
         String addrStr = address.toString();
@@ -0,0 +1,278 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.bluetooth.roaming.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.bluetooth.BluetoothAdapter;
+import org.openhab.binding.bluetooth.BluetoothAddress;
+import org.openhab.binding.bluetooth.BluetoothDevice.ConnectionState;
+import org.openhab.binding.bluetooth.BluetoothDeviceListener;
+import org.openhab.binding.bluetooth.MockBluetoothAdapter;
+import org.openhab.binding.bluetooth.MockBluetoothDevice;
+import org.openhab.binding.bluetooth.TestUtils;
+import org.openhab.binding.bluetooth.notification.BluetoothConnectionStatusNotification;
+import org.openhab.binding.bluetooth.notification.BluetoothScanNotification;
+import org.openhab.core.config.core.Configuration;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.ThingStatus;
+import org.openhab.core.thing.ThingUID;
+
+/**
+ * Tests the delegate selection of the {@link RoamingBluetoothDevice} and the connection counting of the
+ * {@link RoamingBridgeHandler}.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class RoamingBluetoothDeviceTest {
+
+    private final TestAdapter adapter1 = new TestAdapter();
+    private final TestAdapter adapter2 = new TestAdapter();
+
+    private long nanoTime = 0;
+
+    private RoamingBridgeHandler createHandler(int maxConnectionsPerAdapter) {
+        Bridge bridge = mock(Bridge.class);
+        when(bridge.getUID()).thenReturn(new ThingUID("bluetooth", "roaming", "test"));
+        when(bridge.getStatus()).thenReturn(ThingStatus.ONLINE);
+        when(bridge.getConfiguration()).thenReturn(new Configuration(
+                Map.of(RoamingBindingConstants.CONFIGURATION_MAX_CONNECTIONS_PER_ADAPTER, maxConnectionsPerAdapter)));
+        RoamingBridgeHandler handler = new RoamingBridgeHandler(bridge);
+        handler.initialize();
+        handler.addBluetoothAdapter(adapter1);
+        handler.addBluetoothAdapter(adapter2);
+        return handler;
+    }
+
+    private RoamingBluetoothDevice createDevice(RoamingBridgeHandler handler, BluetoothAddress address) {
+        RoamingBluetoothDevice device = new RoamingBluetoothDevice(handler, address, () -> nanoTime);
+        device.addBluetoothDevice(adapter1.getDevice(address));
+        device.addBluetoothDevice(adapter2.getDevice(address));
+        return device;
+    }
+
+    @Test
+    public void testDelegateIsBestAdapter() {
+        RoamingBridgeHandler handler = createHandler(0);
+        RoamingBluetoothDevice device = createDevice(handler, TestUtils.randomAddress());
+        assertNull(device.getDelegate());
+
+        adapter1.getDevice(device.getAddress()).scan(-80);
+        adapter2.getDevice(device.getAddress()).scan(-60);
+
+        assertSame(adapter2.getDevice(device.getAddress()), device.getDelegate());
+        assertSame(adapter2, device.getAdapter());
+    }
+
+    @Test
+    public void testDelegateUsesLastRssiOfUnheardAdapters() {
+        RoamingBridgeHandler handler = createHandler(0);
+        RoamingBluetoothDevice device = createDevice(handler, TestUtils.randomAddress());
+
+        adapter1.getDevice(device.getAddress()).setRssi(-70);
+        adapter2.getDevice(device.getAddress()).setRssi(-50);
+
+        assertSame(adapter2.getDevice(device.getAddress()), device.getDelegate());
+    }
+
+    @Test
+    public void testDelegateChangesOnlyBeyondHysteresis() {
+        RoamingBridgeHandler handler = createHandler(0);
+        RoamingBluetoothDevice device = createDevice(handler, TestUtils.randomAddress());
+        BluetoothDeviceListener listener = mock(BluetoothDeviceListener.class);
+        device.addListener(listener);
+
+        adapter1.getDevice(device.getAddress()).scan(-60);
+        assertSame(adapter1.getDevice(device.getAddress()), device.getDelegate());
+        verify(listener).onAdapterChanged(adapter1);
+
+        // 3 dB better is not enough
+        adapter2.getDevice(device.getAddress()).scan(-57);
+        assertSame(adapter1.getDevice(device.getAddress()), device.getDelegate());
+
+        // the smoothed RSSI of adapter2 moves to -52.75 dB, more than 5 dB better
+        adapter2.getDevice(device.getAddress()).scan(-40);
+        assertSame(adapter2.getDevice(device.getAddress()), device.getDelegate());
+        verify(listener).onAdapterChanged(adapter2);
+        verify(listener, times(2)).onAdapterChanged(any());
+    }
+
+    @Test
+    public void testScanRecordsAreForwardedFromDelegateOnly() {
+        RoamingBridgeHandler handler = createHandler(0);
+        RoamingBluetoothDevice device = createDevice(handler, TestUtils.randomAddress());
+        BluetoothDeviceListener listener = mock(BluetoothDeviceListener.class);
+        device.addListener(listener);
+
+        adapter1.getDevice(device.getAddress()).scan(-50);
+        adapter2.getDevice(device.getAddress()).scan(-90);
+
+        verify(listener, times(1)).onScanRecordReceived(any());
+    }
+
+    @Test
+    public void testStaleAdapterIsOnlyLastResort() {
+        RoamingBridgeHandler handler = createHandler(0);
+        RoamingBluetoothDevice device = createDevice(handler, TestUtils.randomAddress());
+
+        adapter1.getDevice(device.getAddress()).scan(-50);
+        adapter2.getDevice(device.getAddress()).scan(-90);
+        assertSame(adapter1.getDevice(device.getAddress()), device.getDelegate());
+
+        nanoTime += TimeUnit.SECONDS.toNanos(31);
+        adapter2.getDevice(device.getAddress()).scan(-90);
+        assertSame(adapter2.getDevice(device.getAddress()), device.getDelegate());
+
+        // stale adapters are still used as last resort, the best one first
+        nanoTime += TimeUnit.SECONDS.toNanos(31);
+        assertSame(adapter1.getDevice(device.getAddress()), device.getDelegate());
+    }
+
+    @Test
+    public void testConnectionsAreCounted() {
+        RoamingBridgeHandler handler = createHandler(0);
+        RoamingBluetoothDevice device = createDevice(handler, TestUtils.randomAddress());
+        TestDevice device1 = adapter1.getDevice(device.getAddress());
+
+        device1.changeConnectionState(ConnectionState.CONNECTING);
+        device1.changeConnectionState(ConnectionState.CONNECTED);
+        assertEquals(1, handler.getConnectionCount(adapter1));
+        assertEquals(0, handler.getConnectionCount(adapter2));
+
+        device1.changeConnectionState(ConnectionState.DISCONNECTED);
+        device1.changeConnectionState(ConnectionState.DISCONNECTED);
+        assertEquals(0, handler.getConnectionCount(adapter1));
+    }
+
+    @Test
+    public void testConnectedDelegateIsKept() {
+        RoamingBridgeHandler handler = createHandler(0);
+        RoamingBluetoothDevice device = createDevice(handler, TestUtils.randomAddress());
+
+        adapter1.getDevice(device.getAddress()).scan(-80);
+        adapter1.getDevice(device.getAddress()).changeConnectionState(ConnectionState.CONNECTED);
+        adapter2.getDevice(device.getAddress()).scan(-40);
+
+        assertSame(adapter1.getDevice(device.getAddress()), device.getDelegate());
+    }
+
+    @Test
+    public void testConnectionsSpreadOverAdapters() {
+        RoamingBridgeHandler handler = createHandler(0);
+        BluetoothAddress address = TestUtils.randomAddress();
+        adapter1.getDevice(address).setRssi(-60);
+        adapter2.getDevice(address).setRssi(-64);
+
+        assertSame(adapter1.getDevice(address), createDevice(handler, address).getDelegate());
+
+        // each connection costs 3 dB
+        for (int i = 0; i < 2; i++) {
+            RoamingBluetoothDevice other = createDevice(handler, TestUtils.randomAddress());
+            adapter1.getDevice(other.getAddress()).changeConnectionState(ConnectionState.CONNECTED);
+        }
+        assertEquals(2, handler.getConnectionCount(adapter1));
+        assertFalse(handler.isCongested(adapter1));
+
+        assertSame(adapter2.getDevice(address), createDevice(handler, address).getDelegate());
+    }
+
+    @Test
+    public void testCongestedAdapterIsOnlyLastResort() {
+        RoamingBridgeHandler handler = createHandler(1);
+        RoamingBluetoothDevice other = createDevice(handler, TestUtils.randomAddress());
+        adapter1.getDevice(other.getAddress()).changeConnectionState(ConnectionState.CONNECTED);
+        assertTrue(handler.isCongested(adapter1));
+        assertFalse(handler.isCongested(adapter2));
+
+        RoamingBluetoothDevice device = createDevice(handler, TestUtils.randomAddress());
+        adapter1.getDevice(device.getAddress()).scan(-40);
+        adapter2.getDevice(device.getAddress()).scan(-85);
+        assertSame(adapter2.getDevice(device.getAddress()), device.getDelegate());
+
+        adapter1.getDevice(other.getAddress()).changeConnectionState(ConnectionState.DISCONNECTED);
+        assertFalse(handler.isCongested(adapter1));
+        assertSame(adapter1.getDevice(device.getAddress()), device.getDelegate());
+    }
+
+    @Test
+    public void testUnlimitedConnectionsPerAdapter() {
+        RoamingBridgeHandler handler = createHandler(0);
+        for (int i = 0; i < 10; i++) {
+            RoamingBluetoothDevice other = createDevice(handler, TestUtils.randomAddress());
+            adapter1.getDevice(other.getAddress()).changeConnectionState(ConnectionState.CONNECTED);
+        }
+
+        assertEquals(10, handler.getConnectionCount(adapter1));
+        assertFalse(handler.isCongested(adapter1));
+    }
+
+    @Test
+    public void testRemovedAdapterIsNotUsed() {
+        RoamingBridgeHandler handler = createHandler(0);
+        BluetoothAddress address = TestUtils.randomAddress();
+        RoamingBluetoothDevice device = handler.getDevice(address);
+        TestDevice device1 = adapter1.getDevice(address);
+        device1.changeConnectionState(ConnectionState.CONNECTED);
+        assertTrue(device1.hasListeners());
+        assertEquals(1, handler.getConnectionCount(adapter1));
+
+        handler.removeBluetoothAdapter(adapter1);
+
+        assertFalse(device1.hasListeners());
+        assertEquals(0, handler.getConnectionCount(adapter1));
+        assertSame(device, handler.getDevice(address));
+        assertFalse(device1.hasListeners());
+        assertTrue(adapter2.getDevice(address).hasListeners());
+    }
+
+    private static class TestAdapter extends MockBluetoothAdapter {
+
+        private final Map<BluetoothAddress, TestDevice> devices = new ConcurrentHashMap<>();
+
+        @Override
+        public TestDevice getDevice(BluetoothAddress address) {
+            return Objects.requireNonNull(devices.computeIfAbsent(address, addr -> new TestDevice(this, addr)));
+        }
+    }
+
+    /**
+     * A device notifying its listeners synchronously
+     */
+    private static class TestDevice extends MockBluetoothDevice {
+
+        public TestDevice(BluetoothAdapter adapter, BluetoothAddress address) {
+            super(adapter, address);
+        }
+
+        public void scan(int rssi) {
+            BluetoothScanNotification notification = new BluetoothScanNotification();
+            notification.setRssi(rssi);
+            getListeners().forEach(listener -> listener.onScanRecordReceived(notification));
+        }
+
+        public void changeConnectionState(ConnectionState state) {
+            connectionState = state;
+            BluetoothConnectionStatusNotification notification = new BluetoothConnectionStatusNotification(state);
+            getListeners().forEach(listener -> listener.onConnectionStateChange(notification));
+        }
+    }
+}
@@ -61,6 +61,8 @@ public abstract class AbstractBluetoothBridgeHandler<BD extends BaseBluetoothDev
 
     private @Nullable ScheduledFuture<?> inactiveRemovalJob;
 
+    private volatile @Nullable ScanNotificationFilter scanNotificationFilter;
+
     /**
      * Constructor
      *
@@ -88,6 +90,7 @@ public abstract class AbstractBluetoothBridgeHandler<BD extends BaseBluetoothDev
     @Override
     public void initialize() {
         config = getConfigAs(BaseBluetoothBridgeHandlerConfiguration.class);
+        scanNotificationFilter = ScanNotificationFilter.fromConfiguration(config);
 
         int intervalSecs = config.inactiveDeviceCleanupInterval;
         inactiveRemovalJob = scheduler.scheduleWithFixedDelay(this::removeInactiveDevices, intervalSecs, intervalSecs,
@@ -113,7 +116,21 @@ public abstract class AbstractBluetoothBridgeHandler<BD extends BaseBluetoothDev
     public void handleCommand(ChannelUID channelUID, Command command) {
     }
 
+    /**
+     * Returns the filter scan notifications of the devices of this adapter pass before they are delivered to the
+     * device listeners
+     *
+     * @return the filter, or null if notifications are not filtered
+     */
+    public @Nullable ScanNotificationFilter getScanNotificationFilter() {
+        return scanNotificationFilter;
+    }
+
     private void removeInactiveDevices() {
+        ScanNotificationFilter filter = scanNotificationFilter;
+        if (filter != null) {
+            filter.logStatistics(this);
+        }
         // clean up orphaned entries
         synchronized (devices) {
             for (BD device : devices.values()) {
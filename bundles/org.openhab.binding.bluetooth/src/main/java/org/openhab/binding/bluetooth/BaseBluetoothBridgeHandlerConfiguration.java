@@ -13,6 +13,7 @@
 package org.openhab.binding.bluetooth;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 
 /**
  * This is the base configuration that all bluetooth bridge implementations will use.
@@ -26,4 +27,7 @@ public class BaseBluetoothBridgeHandlerConfiguration {
     public boolean backgroundDiscovery = false;
     public int inactiveDeviceCleanupInterval = 60;
     public int inactiveDeviceCleanupThreshold = 300;
+    public @Nullable String scanAddressAllowlist;
+    public int scanDeduplicationWindow = 0;
+    public int scanRateLimit = 0;
 }
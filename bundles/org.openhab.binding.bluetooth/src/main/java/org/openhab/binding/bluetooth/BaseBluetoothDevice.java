@@ -26,6 +26,7 @@ import java.util.concurrent.locks.ReentrantLock;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.bluetooth.notification.BluetoothScanNotification;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -90,6 +91,8 @@ public abstract class BaseBluetoothDevice extends BluetoothDevice {
 
     private volatile boolean servicesDiscovered = false;
 
+    private final ScanNotificationFilter.DeviceState scanFilterState = new ScanNotificationFilter.DeviceState();
+
     /**
      * Construct a Bluetooth device taking the Bluetooth address
      *
@@ -340,6 +343,12 @@ public abstract class BaseBluetoothDevice extends BluetoothDevice {
             default:
                 break;
         }
+        if (event == BluetoothEventType.SCAN_RECORD && adapter instanceof AbstractBluetoothBridgeHandler) {
+            ScanNotificationFilter filter = ((AbstractBluetoothBridgeHandler<?>) adapter).getScanNotificationFilter();
+            if (filter != null && !filter.accept(address, scanFilterState, (BluetoothScanNotification) args[0])) {
+                return;
+            }
+        }
         super.notifyListeners(event, args);
     }
 
@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.bluetooth;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.bluetooth.notification.BluetoothScanNotification;
+import org.openhab.binding.bluetooth.notification.BluetoothScanNotification.BluetoothBeaconType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link ScanNotificationFilter} is the stage scan notifications of an adapter pass before they are delivered to
+ * the {@link BluetoothDeviceListener}s of a device. It drops notifications
+ * <ul>
+ * <li>of devices which are not in the address allowlist (if one is configured),</li>
+ * <li>with the same payload as the notification last delivered for the device within the deduplication window,</li>
+ * <li>exceeding the rate limit of the device.</li>
+ * </ul>
+ * The RSSI is not part of the payload, so notifications differing only in RSSI are delivered once per window.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class ScanNotificationFilter {
+
+    private final Logger logger = LoggerFactory.getLogger(ScanNotificationFilter.class);
+
+    private final Set<BluetoothAddress> allowedAddresses;
+    private final long deduplicationWindowNanos;
+    private final int rateLimit;
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder droppedNotAllowed = new LongAdder();
+    private final LongAdder droppedDuplicate = new LongAdder();
+    private final LongAdder droppedRateLimited = new LongAdder();
+
+    /**
+     * The filter state of a single device. It is kept by the device, so it is discarded together with the device.
+     */
+    public static class DeviceState {
+        private boolean delivered;
+        private long lastDeliveredNanos;
+        private byte @Nullable [] data;
+        private byte @Nullable [] manufacturerData;
+        private @Nullable String name;
+        private @Nullable BluetoothBeaconType beaconType;
+
+        private boolean rateLimited;
+        private long refillNanos;
+        private double tokens;
+
+        private synchronized boolean isDuplicate(BluetoothScanNotification notification, long windowNanos,
+                long now) {
+            return delivered && now - lastDeliveredNanos < windowNanos && Arrays.equals(data, notification.getData())
+                    && Arrays.equals(manufacturerData, notification.getManufacturerData())
+                    && Objects.equals(name, notification.getDeviceName())
+                    && beaconType == notification.getBeaconType();
+        }
+
+        private synchronized boolean tryAcquire(int rateLimit, long now) {
+            if (!rateLimited) {
+                rateLimited = true;
+                tokens = rateLimit;
+            } else {
+                double refill = (double) (now - refillNanos) * rateLimit / TimeUnit.SECONDS.toNanos(1);
+                tokens = Math.min(rateLimit, tokens + refill);
+            }
+            refillNanos = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        private synchronized void delivered(BluetoothScanNotification notification, long now) {
+            delivered = true;
+            lastDeliveredNanos = now;
+            data = notification.getData();
+            manufacturerData = notification.getManufacturerData();
+            name = notification.getDeviceName();
+            beaconType = notification.getBeaconType();
+        }
+    }
+
+    /**
+     * Creates a filter
+     *
+     * @param allowedAddresses the addresses whose notifications are delivered, or an empty set to deliver all
+     * @param deduplicationWindowMillis the window in milliseconds in which a repeated payload is dropped, or 0 to
+     *            deliver repeated payloads
+     * @param rateLimit the maximum number of notifications per second delivered for a device, or 0 for no limit
+     */
+    public ScanNotificationFilter(Set<BluetoothAddress> allowedAddresses, long deduplicationWindowMillis,
+            int rateLimit) {
+        this.allowedAddresses = Set.copyOf(allowedAddresses);
+        this.deduplicationWindowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, deduplicationWindowMillis));
+        this.rateLimit = Math.max(0, rateLimit);
+    }
+
+    /**
+     * Creates a filter from the configuration of a bridge. Invalid addresses in the allowlist are ignored.
+     *
+     * @param config the bridge configuration
+     * @return the filter, or null if the configuration does not filter any notifications
+     */
+    public static @Nullable ScanNotificationFilter fromConfiguration(BaseBluetoothBridgeHandlerConfiguration config) {
+        Set<BluetoothAddress> allowedAddresses = new HashSet<>();
+        String allowlist = config.scanAddressAllowlist;
+        if (allowlist != null) {
+            for (String address : allowlist.split(",")) {
+                if (address.isBlank()) {
+                    continue;
+                }
+                try {
+                    allowedAddresses.add(new BluetoothAddress(address.trim().toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    LoggerFactory.getLogger(ScanNotificationFilter.class)
+                            .warn("Ignoring invalid address '{}' in scan address allowlist: {}", address,
+                                    e.getMessage());
+                }
+            }
+        }
+        if (allowedAddresses.isEmpty() && config.scanDeduplicationWindow <= 0 && config.scanRateLimit <= 0) {
+            return null;
+        }
+        return new ScanNotificationFilter(allowedAddresses, config.scanDeduplicationWindow, config.scanRateLimit);
+    }
+
+    /**
+     * Checks whether a scan notification is delivered to the listeners of a device
+     *
+     * @param address the address of the device
+     * @param state the filter state of the device
+     * @param notification the received notification
+     * @return true if the notification should be delivered, false if it is dropped
+     */
+    public boolean accept(BluetoothAddress address, DeviceState state, BluetoothScanNotification notification) {
+        return accept(address, state, notification, System.nanoTime());
+    }
+
+    boolean accept(BluetoothAddress address, DeviceState state, BluetoothScanNotification notification, long now) {
+        if (!allowedAddresses.isEmpty() && !allowedAddresses.contains(address)) {
+            droppedNotAllowed.increment();
+            return false;
+        }
+        if (deduplicationWindowNanos > 0 && state.isDuplicate(notification, deduplicationWindowNanos, now)) {
+            droppedDuplicate.increment();
+            return false;
+        }
+        if (rateLimit > 0 && !state.tryAcquire(rateLimit, now)) {
+            droppedRateLimited.increment();
+            return false;
+        }
+        if (deduplicationWindowNanos > 0) {
+            state.delivered(notification, now);
+        }
+        delivered.increment();
+        return true;
+    }
+
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedNotAllowed.sum() + droppedDuplicate.sum() + droppedRateLimited.sum();
+    }
+
+    /**
+     * Logs the counters of delivered and dropped notifications
+     *
+     * @param adapter the adapter the filter belongs to
+     */
+    public void logStatistics(BluetoothAdapter adapter) {
+        logger.debug(
+                "Scan notifications of adapter '{}': {} delivered, {} dropped ({} not allowed, {} duplicate, {} rate limited)",
+                adapter.getUID(), delivered.sum(), getDroppedCount(), droppedNotAllowed.sum(), droppedDuplicate.sum(),
+                droppedRateLimited.sum());
+    }
+}
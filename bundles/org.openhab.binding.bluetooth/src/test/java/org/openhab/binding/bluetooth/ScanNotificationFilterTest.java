@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.bluetooth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.bluetooth.notification.BluetoothScanNotification;
+
+/**
+ * Tests {@link ScanNotificationFilter}.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class ScanNotificationFilterTest {
+
+    private static final BluetoothAddress ADDRESS = new BluetoothAddress("12:34:56:78:9A:BC");
+    private static final BluetoothAddress OTHER_ADDRESS = new BluetoothAddress("12:34:56:78:9A:BD");
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static BluetoothScanNotification notification(int rssi, byte... manufacturerData) {
+        BluetoothScanNotification notification = new BluetoothScanNotification();
+        notification.setRssi(rssi);
+        notification.setManufacturerData(manufacturerData);
+        return notification;
+    }
+
+    @Test
+    public void testAllowlist() {
+        ScanNotificationFilter filter = new ScanNotificationFilter(Set.of(ADDRESS), 0, 0);
+
+        assertTrue(filter.accept(ADDRESS, new ScanNotificationFilter.DeviceState(), notification(-50)));
+        assertFalse(filter.accept(OTHER_ADDRESS, new ScanNotificationFilter.DeviceState(), notification(-50)));
+        assertEquals(1, filter.getDeliveredCount());
+        assertEquals(1, filter.getDroppedCount());
+    }
+
+    @Test
+    public void testDeduplication() {
+        ScanNotificationFilter filter = new ScanNotificationFilter(Set.of(), 1000, 0);
+        ScanNotificationFilter.DeviceState state = new ScanNotificationFilter.DeviceState();
+
+        assertTrue(filter.accept(ADDRESS, state, notification(-50, (byte) 1), 0));
+        // RSSI is not part of the payload
+        assertFalse(filter.accept(ADDRESS, state, notification(-60, (byte) 1), 500 * MILLIS));
+        assertTrue(filter.accept(ADDRESS, state, notification(-60, (byte) 2), 600 * MILLIS));
+        assertTrue(filter.accept(ADDRESS, state, notification(-60, (byte) 1), 700 * MILLIS));
+        // the window starts with the last delivered notification
+        assertFalse(filter.accept(ADDRESS, state, notification(-60, (byte) 1), 1600 * MILLIS));
+        assertTrue(filter.accept(ADDRESS, state, notification(-60, (byte) 1), 1700 * MILLIS));
+        assertEquals(4, filter.getDeliveredCount());
+        assertEquals(2, filter.getDroppedCount());
+    }
+
+    @Test
+    public void testRateLimit() {
+        ScanNotificationFilter filter = new ScanNotificationFilter(Set.of(), 0, 2);
+        ScanNotificationFilter.DeviceState state = new ScanNotificationFilter.DeviceState();
+        ScanNotificationFilter.DeviceState otherState = new ScanNotificationFilter.DeviceState();
+
+        assertTrue(filter.accept(ADDRESS, state, notification(-50), 0));
+        assertTrue(filter.accept(ADDRESS, state, notification(-50), 10 * MILLIS));
+        assertFalse(filter.accept(ADDRESS, state, notification(-50), 20 * MILLIS));
+        // the limit applies per device
+        assertTrue(filter.accept(OTHER_ADDRESS, otherState, notification(-50), 20 * MILLIS));
+        // one notification per 500 ms is refilled
+        assertTrue(filter.accept(ADDRESS, state, notification(-50), 520 * MILLIS));
+        assertFalse(filter.accept(ADDRESS, state, notification(-50), 530 * MILLIS));
+    }
+
+    @Test
+    public void testFromConfiguration() {
+        BaseBluetoothBridgeHandlerConfiguration config = new BaseBluetoothBridgeHandlerConfiguration();
+        assertNull(ScanNotificationFilter.fromConfiguration(config));
+
+        config.scanAddressAllowlist = " 12:34:56:78:9a:bc, invalid,";
+        ScanNotificationFilter filter = ScanNotificationFilter.fromConfiguration(config);
+        assertNotNull(filter);
+        assertTrue(filter.accept(ADDRESS, new ScanNotificationFilter.DeviceState(), notification(-50)));
+        assertFalse(filter.accept(OTHER_ADDRESS, new ScanNotificationFilter.DeviceState(), notification(-50)));
+    }
+}
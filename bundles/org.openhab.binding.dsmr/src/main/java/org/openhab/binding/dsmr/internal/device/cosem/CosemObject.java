@@ -16,8 +16,6 @@ import java.text.ParseException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.openhab.core.types.State;
@@ -28,15 +26,11 @@ import org.slf4j.LoggerFactory;
  * Class for Cosem Object implementation
  *
  * @author M. Volaart - Initial contribution
+ * @author Michal Boronski - Find values without regular expressions
  */
 @NonNullByDefault
 public class CosemObject {
 
-    /**
-     * Regular expression for finding CosemValues
-     */
-    private static final Pattern COSEM_VALUES_PATTERN = Pattern.compile("(\\(([^\\(\\)]*)\\))");
-
     private final Logger logger = LoggerFactory.getLogger(CosemObject.class);
 
     /**
@@ -115,16 +109,18 @@ public class CosemObject {
     public void parseCosemValues(String cosemValueString) throws ParseException {
         logger.trace("Parsing CosemValue string {}", cosemValueString);
 
-        Matcher cosemValueMatcher = COSEM_VALUES_PATTERN.matcher(cosemValueString);
-        int nrOfCosemValues = countCosemValues(cosemValueMatcher);
+        int nrOfCosemValues = countCosemValues(cosemValueString);
 
         if (type.supportsNrOfValues(nrOfCosemValues)) {
             logger.trace("Received items: {} is supported", nrOfCosemValues);
 
             int cosemValueItr = 0;
-            while (cosemValueMatcher.find()) {
+            int start = findCosemValue(cosemValueString, 0);
+            while (start >= 0) {
+                int end = cosemValueString.indexOf(')', start);
+                String cosemStringValue = cosemValueString.substring(start, end);
                 Entry<String, CosemValueDescriptor<?>> valueDescriptorEntry = type.getDescriptor(cosemValueItr);
-                State cosemValue = valueDescriptorEntry.getValue().getStateValue(cosemValueMatcher.group(2));
+                State cosemValue = valueDescriptorEntry.getValue().getStateValue(cosemStringValue);
 
                 if (cosemValue != null) {
                     if (!cosemValues.containsKey(valueDescriptorEntry.getKey())) {
@@ -135,20 +131,41 @@ public class CosemObject {
                     }
                 }
                 cosemValueItr++;
+                start = findCosemValue(cosemValueString, end + 1);
             }
         } else {
             throw new ParseException(type + " does not support " + nrOfCosemValues + " items", 0);
         }
     }
 
-    private int countCosemValues(Matcher cosemValueMatcher) {
+    private static int countCosemValues(String cosemValueString) {
         int nrOfCosemValues = 0;
 
-        while (cosemValueMatcher.find()) {
+        int start = findCosemValue(cosemValueString, 0);
+        while (start >= 0) {
             nrOfCosemValues++;
+            start = findCosemValue(cosemValueString, cosemValueString.indexOf(')', start) + 1);
         }
-        // We need the matcher again, reset to initial state
-        cosemValueMatcher.reset();
         return nrOfCosemValues;
     }
+
+    /**
+     * Finds the next value enclosed in parentheses, that does not contain parentheses itself.
+     *
+     * @param cosemValueString the List of COSEM String values
+     * @param fromIndex the index to start searching from
+     * @return the index of the first character of the value, or -1 if there are no more values
+     */
+    private static int findCosemValue(String cosemValueString, int fromIndex) {
+        int open = cosemValueString.indexOf('(', fromIndex);
+        if (open < 0) {
+            return -1;
+        }
+        int close = cosemValueString.indexOf(')', open + 1);
+        if (close < 0) {
+            return -1;
+        }
+        // a '(' between the found parentheses starts the actual value
+        return cosemValueString.lastIndexOf('(', close) + 1;
+    }
 }
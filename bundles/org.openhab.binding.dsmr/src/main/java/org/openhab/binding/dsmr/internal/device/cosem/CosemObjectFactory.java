@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -27,6 +28,7 @@ import org.slf4j.LoggerFactory;
  * Factory for constructing Cosem Objects from Strings
  *
  * @author M. Volaart - Initial contribution
+ * @author Michal Boronski - Cache parsed OBIS Identifiers
  */
 @NonNullByDefault
 public class CosemObjectFactory {
@@ -52,6 +54,32 @@ public class CosemObjectFactory {
      */
     private final List<CosemObjectType> obisWildcardCosemTypeList = new ArrayList<>();
 
+    /**
+     * Maximum number of parsed OBIS Identifier strings to keep. A meter sends the same identifiers in every telegram,
+     * this only limits the memory used if corrupted data results in many different identifiers.
+     */
+    private static final int MAX_PARSED_OBIS_IDS = 256;
+
+    /**
+     * Lookup cache for the OBIS Identifier strings received, with the parsed and reduced OBIS Identifiers
+     */
+    private final Map<String, ParsedOBISIdentifier> parsedObisIds = new ConcurrentHashMap<>();
+
+    /**
+     * An OBIS Identifier string parsed into the identifiers used to lookup the Cosem Object type
+     */
+    private static class ParsedOBISIdentifier {
+        private final OBISIdentifier obisId;
+        private final OBISIdentifier reducedObisId;
+        private final OBISIdentifier reducedObisIdGroupE;
+
+        private ParsedOBISIdentifier(OBISIdentifier obisId) {
+            this.obisId = obisId;
+            reducedObisId = obisId.getReducedOBISIdentifier();
+            reducedObisIdGroupE = obisId.getReducedOBISIdentifierGroupE();
+        }
+    }
+
     /**
      * Creates a new CosemObjectFactory
      */
@@ -91,18 +119,22 @@ public class CosemObjectFactory {
      * @return CosemObject or null if parsing failed
      */
     public @Nullable CosemObject getCosemObject(String obisIdString, String cosemStringValues) {
-        OBISIdentifier obisId;
-        OBISIdentifier reducedObisId;
-        OBISIdentifier reducedObisIdGroupE;
-
-        try {
-            obisId = new OBISIdentifier(obisIdString);
-            reducedObisId = obisId.getReducedOBISIdentifier();
-            reducedObisIdGroupE = obisId.getReducedOBISIdentifierGroupE();
-        } catch (final ParseException pe) {
-            logger.debug("Received invalid OBIS identifier: {}", obisIdString);
-            return null;
+        ParsedOBISIdentifier parsedObisId = parsedObisIds.get(obisIdString);
+
+        if (parsedObisId == null) {
+            try {
+                parsedObisId = new ParsedOBISIdentifier(new OBISIdentifier(obisIdString));
+            } catch (final ParseException pe) {
+                logger.debug("Received invalid OBIS identifier: {}", obisIdString);
+                return null;
+            }
+            if (parsedObisIds.size() < MAX_PARSED_OBIS_IDS) {
+                parsedObisIds.put(obisIdString, parsedObisId);
+            }
         }
+        OBISIdentifier obisId = parsedObisId.obisId;
+        OBISIdentifier reducedObisId = parsedObisId.reducedObisId;
+        OBISIdentifier reducedObisIdGroupE = parsedObisId.reducedObisIdGroupE;
 
         logger.trace("Received obisIdString {}, obisId: {}, values: {}", obisIdString, obisId, cosemStringValues);
 
@@ -48,6 +48,11 @@ public class OBISIdentifier {
 
     private boolean conflict;
 
+    /**
+     * Cached hash code, the identifiers are used as lookup keys for every value received
+     */
+    private int hash;
+
     /**
      * Constructs a new OBIS Identifier (A-B:C.D.E.F)
      *
@@ -243,8 +248,13 @@ public class OBISIdentifier {
 
     @Override
     public int hashCode() {
-        return Objects.hash(groupA, (groupB != null ? groupB : 0), groupC, groupD, (groupE != null ? groupE : 0),
-                (groupF != null ? groupF : 0));
+        int h = hash;
+        if (h == 0) {
+            h = Objects.hash(groupA, (groupB != null ? groupB : 0), groupC, groupD, (groupE != null ? groupE : 0),
+                    (groupF != null ? groupF : 0));
+            hash = h;
+        }
+        return h;
     }
 
     /**
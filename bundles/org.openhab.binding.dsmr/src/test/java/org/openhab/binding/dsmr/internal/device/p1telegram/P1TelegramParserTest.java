@@ -12,14 +12,17 @@
  */
 package org.openhab.binding.dsmr.internal.device.p1telegram;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.openhab.binding.dsmr.internal.TelegramReaderUtil;
 import org.openhab.binding.dsmr.internal.device.p1telegram.P1Telegram.TelegramState;
 
@@ -60,4 +63,17 @@ public class P1TelegramParserTest {
                 telegram.getCosemObjects().stream().mapToInt(co -> co.getCosemValues().size()).sum(),
                 "Expected number of objects");
     }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "E361", "E36", "E3G0", "e360" })
+    public void testInvalidCrc(final String crc) {
+        String telegram = new String(TelegramReaderUtil.readRawTelegram("dsmr_50"), StandardCharsets.UTF_8);
+        byte[] data = telegram.replace("!E360", "!" + crc).getBytes(StandardCharsets.UTF_8);
+        AtomicReference<P1Telegram> p1Telegram = new AtomicReference<>();
+        P1TelegramParser parser = new P1TelegramParser(p1Telegram::set);
+
+        parser.parse(data, data.length);
+        assertNotNull(p1Telegram.get(), "Telegram should have been received");
+        assertEquals(TelegramState.CRC_ERROR, p1Telegram.get().getTelegramState());
+    }
 }
@@ -47,11 +47,13 @@ import org.openhab.binding.http.internal.converter.ItemValueConverter;
 import org.openhab.binding.http.internal.converter.NumberItemConverter;
 import org.openhab.binding.http.internal.converter.PlayerItemConverter;
 import org.openhab.binding.http.internal.converter.RollershutterItemConverter;
+import org.openhab.binding.http.internal.extract.ValueExtractor;
 import org.openhab.binding.http.internal.http.Content;
 import org.openhab.binding.http.internal.http.HttpAuthException;
 import org.openhab.binding.http.internal.http.HttpResponseListener;
 import org.openhab.binding.http.internal.http.RateLimitedHttpClient;
 import org.openhab.binding.http.internal.http.RefreshingUrlCache;
+import org.openhab.binding.http.internal.http.RefreshingUrlCacheRegistry;
 import org.openhab.binding.http.internal.transform.ValueTransformationProvider;
 import org.openhab.core.library.types.DateTimeType;
 import org.openhab.core.library.types.PointType;
@@ -86,21 +88,25 @@ public class HttpThingHandler extends BaseThingHandler {
     private HttpClient httpClient;
     private RateLimitedHttpClient rateLimitedHttpClient;
     private final HttpDynamicStateDescriptionProvider httpDynamicStateDescriptionProvider;
+    private final RefreshingUrlCacheRegistry refreshingUrlCacheRegistry;
 
     private HttpThingConfig config = new HttpThingConfig();
-    private final Map<String, RefreshingUrlCache> urlHandlers = new HashMap<>();
+    private final Map<String, RefreshingUrlCache.Subscription> urlHandlers = new HashMap<>();
     private final Map<ChannelUID, ItemValueConverter> channels = new HashMap<>();
     private final Map<ChannelUID, String> channelUrls = new HashMap<>();
+    private final Map<ChannelUID, ValueExtractor> channelExtractors = new HashMap<>();
 
     public HttpThingHandler(Thing thing, HttpClientProvider httpClientProvider,
             ValueTransformationProvider valueTransformationProvider,
-            HttpDynamicStateDescriptionProvider httpDynamicStateDescriptionProvider) {
+            HttpDynamicStateDescriptionProvider httpDynamicStateDescriptionProvider,
+            RefreshingUrlCacheRegistry refreshingUrlCacheRegistry) {
         super(thing);
         this.httpClientProvider = httpClientProvider;
         this.httpClient = httpClientProvider.getSecureClient();
         this.rateLimitedHttpClient = new RateLimitedHttpClient(httpClient, scheduler);
         this.valueTransformationProvider = valueTransformationProvider;
         this.httpDynamicStateDescriptionProvider = httpDynamicStateDescriptionProvider;
+        this.refreshingUrlCacheRegistry = refreshingUrlCacheRegistry;
     }
 
     @Override
@@ -114,10 +120,15 @@ public class HttpThingHandler extends BaseThingHandler {
         if (command instanceof RefreshType) {
             String key = channelUrls.get(channelUID);
             if (key != null) {
-                RefreshingUrlCache refreshingUrlCache = urlHandlers.get(key);
-                if (refreshingUrlCache != null) {
+                RefreshingUrlCache.Subscription subscription = urlHandlers.get(key);
+                if (subscription != null) {
                     try {
-                        refreshingUrlCache.get().ifPresent(itemValueConverter::process);
+                        ValueExtractor extractor = channelExtractors.get(channelUID);
+                        if (extractor != null) {
+                            subscription.get(extractor).ifPresent(itemValueConverter::processValue);
+                        } else {
+                            subscription.get().ifPresent(itemValueConverter::process);
+                        }
                     } catch (IllegalArgumentException | IllegalStateException e) {
                         logger.warn("Failed processing REFRESH command for channel {}: {}", channelUID, e.getMessage());
                     }
@@ -209,13 +220,14 @@ public class HttpThingHandler extends BaseThingHandler {
     @Override
     public void dispose() {
         // stop update tasks
-        urlHandlers.values().forEach(RefreshingUrlCache::stop);
+        urlHandlers.values().forEach(RefreshingUrlCache.Subscription::cancel);
         rateLimitedHttpClient.shutdown();
 
         // clear lists
         urlHandlers.clear();
         channels.clear();
         channelUrls.clear();
+        channelExtractors.clear();
 
         // remove state descriptions
         httpDynamicStateDescriptionProvider.removeDescriptionsForThing(thing.getUID());
@@ -287,13 +299,37 @@ public class HttpThingHandler extends BaseThingHandler {
                 return;
         }
 
+        boolean receiveStates = channelConfig.mode != HttpChannelMode.WRITEONLY;
+        ValueExtractor extractor = null;
+        String stateExtractor = channelConfig.stateExtractor;
+        if (stateExtractor != null && !stateExtractor.isBlank()) {
+            if ("Image".equals(acceptedItemType)) {
+                logger.warn("Ignoring state extractor of image channel '{}'", channelUID);
+            } else {
+                try {
+                    extractor = ValueExtractor.fromString(stateExtractor);
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Invalid state extractor for channel '{}', no states will be received: {}",
+                            channelUID, e.getMessage());
+                    receiveStates = false;
+                }
+            }
+        }
+
         channels.put(channelUID, itemValueConverter);
-        if (channelConfig.mode != HttpChannelMode.WRITEONLY) {
+        if (receiveStates) {
             // we need a key consisting of stateContent and URL, only if both are equal, we can use the same cache
             String key = channelConfig.stateContent + "$" + stateUrl;
             channelUrls.put(channelUID, key);
-            urlHandlers.computeIfAbsent(key, k -> new RefreshingUrlCache(scheduler, rateLimitedHttpClient, stateUrl,
-                    config, channelConfig.stateContent)).addConsumer(itemValueConverter::process);
+            RefreshingUrlCache.Subscription subscription = urlHandlers.computeIfAbsent(key,
+                    k -> refreshingUrlCacheRegistry.subscribe(rateLimitedHttpClient, stateUrl, config,
+                            channelConfig.stateContent));
+            if (extractor != null) {
+                channelExtractors.put(channelUID, extractor);
+                subscription.addConsumer(extractor, itemValueConverter::processValue);
+            } else {
+                subscription.addConsumer(itemValueConverter::process);
+            }
         }
 
         StateDescription stateDescription = StateDescriptionFragmentBuilder.create()
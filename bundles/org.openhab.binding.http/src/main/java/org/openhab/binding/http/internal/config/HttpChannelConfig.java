@@ -43,6 +43,7 @@ public class HttpChannelConfig {
 
     public @Nullable String stateExtension;
     public @Nullable String commandExtension;
+    public @Nullable String stateExtractor;
     public @Nullable String stateTransformation;
     public @Nullable String commandTransformation;
     public String stateContent = "";
@@ -51,8 +51,13 @@ public abstract class AbstractTransformingItemConverter implements ItemValueConv
 
     @Override
     public void process(Content content) {
+        processValue(content.getAsString());
+    }
+
+    @Override
+    public void processValue(String value) {
         if (channelConfig.mode != HttpChannelMode.WRITEONLY) {
-            stateTransformations.apply(content.getAsString()).ifPresent(transformedValue -> {
+            stateTransformations.apply(value).ifPresent(transformedValue -> {
                 Command command = toCommand(transformedValue);
                 if (command != null) {
                     postCommand.accept(command);
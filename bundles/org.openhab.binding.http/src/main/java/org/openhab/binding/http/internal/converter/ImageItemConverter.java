@@ -41,6 +41,11 @@ public class ImageItemConverter implements ItemValueConverter {
                 new RawType(content.getRawContent(), mediaType != null ? mediaType : RawType.DEFAULT_MIME_TYPE));
     }
 
+    @Override
+    public void processValue(String value) {
+        throw new IllegalStateException("Image channels do not support extractors");
+    }
+
     @Override
     public void send(Command command) {
         throw new IllegalStateException("Read-only channel");
@@ -32,6 +32,13 @@ public interface ItemValueConverter {
      */
     void process(Content content);
 
+    /**
+     * called to process a value extracted from the content for this channel
+     *
+     * @param value the extracted value
+     */
+    void processValue(String value);
+
     /**
      * called to send a command to this channel
      *
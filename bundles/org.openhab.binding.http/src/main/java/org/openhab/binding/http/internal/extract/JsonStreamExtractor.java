@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.http.internal.extract;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * The {@link JsonStreamExtractor} evaluates JSON path extractors with a pull parser. Values that are not on the path
+ * of any extractor are skipped without being materialized. If an object has duplicate keys, the first value is
+ * extracted.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+class JsonStreamExtractor {
+    private final Map<List<String>, List<ValueExtractor>> targets = new HashMap<>();
+    private final Set<List<String>> prefixes = new HashSet<>();
+    private final Map<ValueExtractor, String> result = new HashMap<>();
+    private final Set<List<String>> found = new HashSet<>();
+    private int remaining;
+
+    private JsonStreamExtractor(Collection<ValueExtractor> extractors) {
+        for (ValueExtractor extractor : extractors) {
+            List<String> steps = extractor.getSteps();
+            targets.computeIfAbsent(steps, k -> new ArrayList<>()).add(extractor);
+            for (int i = 0; i < steps.size(); i++) {
+                prefixes.add(steps.subList(0, i));
+            }
+        }
+        remaining = targets.size();
+    }
+
+    static String indexStep(int index) {
+        return "[" + index + "]";
+    }
+
+    /**
+     * name steps are prefixed, so that a key like "[0]" cannot be confused with an index step
+     */
+    static String nameStep(String name) {
+        return "." + name;
+    }
+
+    static Map<ValueExtractor, String> extract(InputStream inputStream, Charset charset,
+            Collection<ValueExtractor> extractors) throws IOException {
+        JsonStreamExtractor extractor = new JsonStreamExtractor(extractors);
+        try (JsonReader reader = new JsonReader(new InputStreamReader(inputStream, charset))) {
+            reader.setLenient(true);
+            extractor.walk(reader, new ArrayList<>());
+        } catch (JsonParseException | IllegalStateException | NumberFormatException e) {
+            throw new IOException("Malformed JSON: " + e.getMessage(), e);
+        }
+        return extractor.result;
+    }
+
+    private void walk(JsonReader reader, List<String> path) throws IOException {
+        List<ValueExtractor> matching = targets.get(path);
+        if (matching != null) {
+            if (!found.add(List.copyOf(path))) {
+                // a duplicate key, the first value was already extracted
+                reader.skipValue();
+                return;
+            }
+            String value = readValue(reader);
+            if (value != null) {
+                matching.forEach(extractor -> result.put(extractor, value));
+            }
+            remaining--;
+        } else if (!prefixes.contains(path)) {
+            reader.skipValue();
+        } else {
+            switch (reader.peek()) {
+                case BEGIN_OBJECT:
+                    reader.beginObject();
+                    while (remaining > 0 && reader.hasNext()) {
+                        path.add(nameStep(reader.nextName()));
+                        walk(reader, path);
+                        path.remove(path.size() - 1);
+                    }
+                    if (remaining > 0) {
+                        reader.endObject();
+                    }
+                    break;
+                case BEGIN_ARRAY:
+                    reader.beginArray();
+                    for (int i = 0; remaining > 0 && reader.hasNext(); i++) {
+                        path.add(indexStep(i));
+                        walk(reader, path);
+                        path.remove(path.size() - 1);
+                    }
+                    if (remaining > 0) {
+                        reader.endArray();
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+    }
+
+    private @Nullable String readValue(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return Boolean.toString(reader.nextBoolean());
+            case NULL:
+                reader.nextNull();
+                return null;
+            default:
+                // only objects and arrays selected by an extractor are built
+                return JsonParser.parseReader(reader).toString();
+        }
+    }
+}
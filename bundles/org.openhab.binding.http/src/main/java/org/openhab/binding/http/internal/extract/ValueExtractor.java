@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.http.internal.extract;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link ValueExtractor} describes a single field that is extracted from a response while it is parsed. Unlike a
+ * transformation it does not need the response as a string, all extractors of a response are evaluated in a single
+ * pass of a streaming parser and only the matching fields are materialized.
+ *
+ * Supported are fields selected by a subset of the JSON path syntax ({@code JSONFIELD:$.device.values[0].temperature})
+ * and by a subset of the XPath syntax ({@code XMLFIELD:/device/value[2]/text()} or {@code XMLFIELD:/device/@id}). As
+ * the semantics differ in details from the JSONPATH and XPATH transformations, e.g. the first of duplicate keys is
+ * selected, the extractors have their own names.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class ValueExtractor {
+    private static final Pattern EXTRACTOR_PATTERN = Pattern.compile("(?<type>[a-zA-Z]+)\\s*:(?<path>.*)");
+    private static final Pattern JSON_STEP_PATTERN = Pattern
+            .compile("\\.(?<name>[^.\\[]+)|\\[(?<index>\\d+)]|\\['(?<quoted>[^']*)']");
+    private static final Pattern XML_STEP_PATTERN = Pattern.compile("(?<name>[^\\[@]+)(\\[(?<index>\\d+)])?");
+
+    public enum Format {
+        JSON,
+        XML
+    }
+
+    private final String specification;
+    private final Format format;
+    private final List<String> steps;
+    private final @Nullable String attribute;
+
+    private ValueExtractor(String specification, Format format, List<String> steps, @Nullable String attribute) {
+        this.specification = specification;
+        this.format = format;
+        this.steps = List.copyOf(steps);
+        this.attribute = attribute;
+    }
+
+    /**
+     * Create an extractor from its specification
+     *
+     * @param specification the specification, e.g. {@code JSONFIELD:$.a.b}
+     * @return the extractor
+     * @throws IllegalArgumentException if the specification is invalid or not supported
+     */
+    public static ValueExtractor fromString(String specification) throws IllegalArgumentException {
+        Matcher matcher = EXTRACTOR_PATTERN.matcher(specification.trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Extractor '" + specification + "' has no type");
+        }
+        String path = matcher.group("path").trim();
+        switch (matcher.group("type").toUpperCase()) {
+            case "JSONFIELD":
+                return fromJsonPath(specification, path);
+            case "XMLFIELD":
+                return fromXPath(specification, path);
+            case "JSONPATH":
+            case "XPATH":
+                throw new IllegalArgumentException("Extractor '" + specification
+                        + "' is a transformation, use JSONFIELD or XMLFIELD for a state extractor");
+            default:
+                throw new IllegalArgumentException("Unsupported extractor type in '" + specification + "'");
+        }
+    }
+
+    private static ValueExtractor fromJsonPath(String specification, String path) {
+        if (!path.startsWith("$")) {
+            throw new IllegalArgumentException("JSON path '" + path + "' needs to start with '$'");
+        }
+        List<String> steps = new ArrayList<>();
+        Matcher matcher = JSON_STEP_PATTERN.matcher(path);
+        int position = 1;
+        while (position < path.length()) {
+            if (!matcher.find(position) || matcher.start() != position) {
+                throw new IllegalArgumentException("Unsupported JSON path '" + path + "'");
+            }
+            String index = matcher.group("index");
+            if (index != null) {
+                steps.add(JsonStreamExtractor.indexStep(Integer.parseInt(index)));
+            } else {
+                String name = matcher.group("name");
+                steps.add(JsonStreamExtractor.nameStep(name != null ? name : matcher.group("quoted")));
+            }
+            position = matcher.end();
+        }
+        return new ValueExtractor(specification, Format.JSON, steps, null);
+    }
+
+    private static ValueExtractor fromXPath(String specification, String path) {
+        if (!path.startsWith("/") || path.startsWith("//")) {
+            throw new IllegalArgumentException("XPath '" + path + "' needs to be an absolute path");
+        }
+        List<String> steps = new ArrayList<>();
+        String attribute = null;
+        String[] parts = path.substring(1).split("/");
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            boolean last = i == parts.length - 1;
+            if (last && "text()".equals(part)) {
+                break;
+            } else if (last && part.startsWith("@") && part.length() > 1) {
+                attribute = part.substring(1);
+                break;
+            }
+            Matcher matcher = XML_STEP_PATTERN.matcher(part);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Unsupported XPath '" + path + "'");
+            }
+            String index = matcher.group("index");
+            int position = index == null ? 1 : Integer.parseInt(index);
+            steps.add(XmlStreamExtractor.elementStep(matcher.group("name"), position));
+        }
+        if (steps.isEmpty()) {
+            throw new IllegalArgumentException("XPath '" + path + "' does not select an element");
+        }
+        return new ValueExtractor(specification, Format.XML, steps, attribute);
+    }
+
+    /**
+     * Extract the values of all given extractors from a response in a single pass. Parsing stops as soon as all values
+     * are found.
+     *
+     * @param inputStream the response body
+     * @param charset the encoding of the response body
+     * @param format the format of the response
+     * @param extractors the extractors, all of the given format
+     * @return a map containing the value of each extractor that matched
+     * @throws IOException if reading the response fails or the response is malformed
+     */
+    public static Map<ValueExtractor, String> extract(InputStream inputStream, Charset charset, Format format,
+            Collection<ValueExtractor> extractors) throws IOException {
+        if (format == Format.JSON) {
+            return JsonStreamExtractor.extract(inputStream, charset, extractors);
+        } else {
+            return XmlStreamExtractor.extract(inputStream, charset, extractors);
+        }
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    List<String> getSteps() {
+        return steps;
+    }
+
+    @Nullable String getAttribute() {
+        return attribute;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ValueExtractor that = (ValueExtractor) o;
+        return format == that.format && steps.equals(that.steps) && Objects.equals(attribute, that.attribute);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(format, steps, attribute);
+    }
+
+    @Override
+    public String toString() {
+        return specification;
+    }
+}
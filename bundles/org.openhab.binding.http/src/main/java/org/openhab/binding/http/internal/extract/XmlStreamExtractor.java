@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.http.internal.extract;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link XmlStreamExtractor} evaluates XPath extractors with a StAX pull parser. Only the text of the selected
+ * elements is collected.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+class XmlStreamExtractor {
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private final Map<List<String>, List<ValueExtractor>> targets = new HashMap<>();
+    private final Set<List<String>> prefixes = new HashSet<>();
+    private final Map<ValueExtractor, String> result = new HashMap<>();
+    private final Map<ValueExtractor, Collector> collectors = new HashMap<>();
+    private int remaining;
+
+    private static class Collector {
+        private final int depth;
+        private final StringBuilder text = new StringBuilder();
+
+        private Collector(int depth) {
+            this.depth = depth;
+        }
+    }
+
+    private XmlStreamExtractor(Collection<ValueExtractor> extractors) {
+        for (ValueExtractor extractor : extractors) {
+            List<String> steps = extractor.getSteps();
+            targets.computeIfAbsent(steps, k -> new ArrayList<>()).add(extractor);
+            for (int i = 1; i < steps.size(); i++) {
+                prefixes.add(steps.subList(0, i));
+            }
+        }
+        remaining = extractors.size();
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // responses are untrusted, never resolve external entities
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
+    static String elementStep(String name, int position) {
+        return name + "[" + position + "]";
+    }
+
+    static Map<ValueExtractor, String> extract(InputStream inputStream, Charset charset,
+            Collection<ValueExtractor> extractors) throws IOException {
+        XmlStreamExtractor extractor = new XmlStreamExtractor(extractors);
+        try (InputStreamReader streamReader = new InputStreamReader(inputStream, charset)) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(streamReader);
+            try {
+                extractor.parse(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed XML: " + e.getMessage(), e);
+        }
+        return extractor.result;
+    }
+
+    private void parse(XMLStreamReader reader) throws XMLStreamException {
+        List<String> path = new ArrayList<>();
+        Deque<Map<String, Integer>> childCounts = new ArrayDeque<>();
+        childCounts.push(new HashMap<>());
+        // depth of the outermost element that is not on the path of any extractor
+        int skipDepth = 0;
+
+        while (remaining > 0 && reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if (skipDepth > 0) {
+                        skipDepth++;
+                        break;
+                    }
+                    String name = reader.getLocalName();
+                    int position = childCounts.getFirst().merge(name, 1, Integer::sum);
+                    path.add(elementStep(name, position));
+                    childCounts.push(new HashMap<>());
+                    List<ValueExtractor> matching = targets.get(path);
+                    if (matching != null) {
+                        startElement(reader, matching, path.size());
+                    } else if (collectors.isEmpty() && !prefixes.contains(path)) {
+                        skipDepth = 1;
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (skipDepth > 0) {
+                        skipDepth--;
+                        if (skipDepth > 0) {
+                            break;
+                        }
+                    }
+                    endElement(path.size());
+                    path.remove(path.size() - 1);
+                    childCounts.pop();
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (!collectors.isEmpty()) {
+                        String text = reader.getText();
+                        collectors.values().forEach(collector -> collector.text.append(text));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void startElement(XMLStreamReader reader, List<ValueExtractor> matching, int depth) {
+        for (ValueExtractor extractor : matching) {
+            String attribute = extractor.getAttribute();
+            if (attribute == null) {
+                collectors.put(extractor, new Collector(depth));
+                continue;
+            }
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                if (attribute.equals(reader.getAttributeLocalName(i))) {
+                    result.put(extractor, reader.getAttributeValue(i));
+                    break;
+                }
+            }
+            remaining--;
+        }
+    }
+
+    private void endElement(int depth) {
+        Iterator<Map.Entry<ValueExtractor, Collector>> iterator = collectors.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<ValueExtractor, Collector> entry = iterator.next();
+            if (entry.getValue().depth == depth) {
+                result.put(entry.getKey(), entry.getValue().text.toString());
+                iterator.remove();
+                remaining--;
+            }
+        }
+    }
+}
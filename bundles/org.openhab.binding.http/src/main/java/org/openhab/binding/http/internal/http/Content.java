@@ -14,6 +14,8 @@ package org.openhab.binding.http.internal.http;
 
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -28,10 +30,26 @@ public class Content {
     private final byte[] rawContent;
     private final Charset encoding;
     private final @Nullable String mediaType;
+    private final @Nullable String eTag;
+    private final @Nullable String lastModified;
 
     public Content(byte[] rawContent, String encoding, @Nullable String mediaType) {
+        this(rawContent, encoding, mediaType, null, null);
+    }
+
+    /**
+     * @param rawContent the response body
+     * @param encoding the encoding of the response body
+     * @param mediaType the media type of the response body
+     * @param eTag the value of the ETag response header, if any
+     * @param lastModified the value of the Last-Modified response header, if any
+     */
+    public Content(byte[] rawContent, String encoding, @Nullable String mediaType, @Nullable String eTag,
+            @Nullable String lastModified) {
         this.rawContent = rawContent;
         this.mediaType = mediaType;
+        this.eTag = eTag;
+        this.lastModified = lastModified;
 
         Charset finalEncoding = StandardCharsets.UTF_8;
         try {
@@ -45,6 +63,10 @@ public class Content {
         return rawContent;
     }
 
+    public Charset getEncoding() {
+        return encoding;
+    }
+
     public String getAsString() {
         return new String(rawContent, encoding);
     }
@@ -52,4 +74,23 @@ public class Content {
     public @Nullable String getMediaType() {
         return mediaType;
     }
+
+    public @Nullable String getETag() {
+        return eTag;
+    }
+
+    public @Nullable String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * check if the raw content and media type are equal to those of another content
+     *
+     * @param other the other content
+     * @return true if both contents would be processed to the same result
+     */
+    public boolean isSameAs(Content other) {
+        return Arrays.equals(rawContent, other.rawContent) && encoding.equals(other.encoding)
+                && Objects.equals(mediaType, other.mediaType);
+    }
 }
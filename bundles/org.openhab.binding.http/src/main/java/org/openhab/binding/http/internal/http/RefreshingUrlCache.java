@@ -12,85 +12,285 @@
  */
 package org.openhab.binding.http.internal.http;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jetty.client.api.Authentication;
 import org.eclipse.jetty.client.api.AuthenticationStore;
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.client.api.Response;
+import org.eclipse.jetty.client.util.InputStreamResponseListener;
+import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.MimeTypes;
 import org.openhab.binding.http.internal.Util;
 import org.openhab.binding.http.internal.config.HttpThingConfig;
+import org.openhab.binding.http.internal.extract.ValueExtractor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * The {@link RefreshingUrlCache} is responsible for requesting from a single URL and passing the content to the
- * channels
+ * channels.
+ *
+ * A cache is shared by all things and channels requesting the same resource (see {@link RefreshingUrlCacheRegistry}).
+ * It refreshes at the shortest interval of all {@link Subscription}s and never has more than one request in flight.
+ *
+ * Consumers either receive the complete {@link Content} or only the value of a {@link ValueExtractor}. If all consumers
+ * use extractors of the same format, the response is not buffered but parsed while it is received, so large responses
+ * do not need to be held in memory and only the extracted values are materialized. The pull parsers block while
+ * waiting for more data, so these responses are parsed on a dedicated stream executor. All other responses are
+ * received asynchronously into a buffer, and the values are then extracted from it in a single pass without
+ * converting it to a string.
  *
  * @author Jan N. Klug - Initial contribution
+ * @author Michal Boronski - Share caches between things
  */
 @NonNullByDefault
 public class RefreshingUrlCache {
+    private static final int STATISTICS_LOG_INTERVAL = 100;
+
     private final Logger logger = LoggerFactory.getLogger(RefreshingUrlCache.class);
 
+    private final ScheduledExecutorService executor;
+    private final ExecutorService streamExecutor;
     private final String url;
-    private final RateLimitedHttpClient httpClient;
-    private final int timeout;
-    private final int bufferSize;
     private final @Nullable String fallbackEncoding;
-    private final Set<Consumer<Content>> consumers = ConcurrentHashMap.newKeySet();
     private final List<String> headers;
     private final HttpMethod httpMethod;
     private final String httpContent;
+    private final Consumer<Subscription> unsubscribe;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean requestInProgress = new AtomicBoolean();
+    private final AtomicBoolean consumersChanged = new AtomicBoolean();
 
-    private final ScheduledFuture<?> future;
-    private @Nullable Content lastContent;
+    private @Nullable ScheduledFuture<?> future;
+    private int refresh;
+    private volatile int timeout;
+    private volatile int bufferSize;
+    private volatile @Nullable Content lastContent;
+    private final Map<ValueExtractor, String> lastValues = new ConcurrentHashMap<>();
+    private volatile @Nullable String lastETag;
+    private volatile @Nullable String lastModified;
 
-    public RefreshingUrlCache(ScheduledExecutorService executor, RateLimitedHttpClient httpClient, String url,
-            HttpThingConfig thingConfig, String httpContent) {
-        this.httpClient = httpClient;
+    // statistics, reported in the debug log
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger updatedCount = new AtomicInteger();
+    private final AtomicInteger unchangedCount = new AtomicInteger();
+    private final AtomicInteger notModifiedCount = new AtomicInteger();
+    private final AtomicInteger coalescedCount = new AtomicInteger();
+    private final AtomicInteger streamedCount = new AtomicInteger();
+
+    /**
+     * A subscription of a single thing to the cache. The request parameters of all subscriptions of a cache are equal,
+     * the refresh interval, timeout, buffer size and rate limit may differ.
+     */
+    public class Subscription {
+        private final RateLimitedHttpClient httpClient;
+        private final int refresh;
+        private final int timeout;
+        private final int bufferSize;
+        private final Set<Consumer<Content>> consumers = ConcurrentHashMap.newKeySet();
+        private final Map<Consumer<String>, ValueExtractor> valueConsumers = new ConcurrentHashMap<>();
+
+        private Subscription(RateLimitedHttpClient httpClient, HttpThingConfig thingConfig) {
+            this.httpClient = httpClient;
+            this.refresh = thingConfig.refresh;
+            this.timeout = thingConfig.timeout;
+            this.bufferSize = thingConfig.bufferSize;
+        }
+
+        /**
+         * Add a consumer for the content. If the cache already holds content, it is passed to the new consumer
+         * immediately, because unchanged content is not passed to the consumers again.
+         *
+         * @param consumer the consumer
+         */
+        public void addConsumer(Consumer<Content> consumer) {
+            consumers.add(consumer);
+            Content content = lastContent;
+            if (content != null) {
+                executor.execute(() -> processContent(consumer, content));
+            } else {
+                consumersChanged.set(true);
+            }
+        }
+
+        /**
+         * Add a consumer for a value extracted from the content. If the value is already known, it is passed to the
+         * new consumer immediately, otherwise the next response is processed completely.
+         *
+         * @param extractor the extractor for the value
+         * @param consumer the consumer
+         */
+        public void addConsumer(ValueExtractor extractor, Consumer<String> consumer) {
+            valueConsumers.put(consumer, extractor);
+            String value = lastValues.get(extractor);
+            if (value != null) {
+                executor.execute(() -> processValue(consumer, value));
+            } else {
+                consumersChanged.set(true);
+            }
+        }
+
+        public Optional<Content> get() {
+            return RefreshingUrlCache.this.get();
+        }
+
+        public Optional<String> get(ValueExtractor extractor) {
+            return Optional.ofNullable(lastValues.get(extractor));
+        }
+
+        /**
+         * Cancel the subscription. The cache is stopped when the last subscription is cancelled.
+         */
+        public void cancel() {
+            consumers.clear();
+            valueConsumers.clear();
+            unsubscribe.accept(this);
+        }
+
+        RefreshingUrlCache getCache() {
+            return RefreshingUrlCache.this;
+        }
+    }
+
+    /**
+     * @param executor the executor used for scheduling the refreshes
+     * @param streamExecutor the executor used for parsing responses while they are received
+     * @param url the URL
+     * @param thingConfig the configuration defining the request parameters
+     * @param httpContent the content for the state requests
+     * @param unsubscribe called when a subscription is cancelled
+     */
+    RefreshingUrlCache(ScheduledExecutorService executor, ExecutorService streamExecutor, String url,
+            HttpThingConfig thingConfig, String httpContent, Consumer<Subscription> unsubscribe) {
+        this.executor = executor;
+        this.streamExecutor = streamExecutor;
         this.url = url;
-        this.timeout = thingConfig.timeout;
-        this.bufferSize = thingConfig.bufferSize;
-        this.headers = thingConfig.headers;
+        this.headers = List.copyOf(thingConfig.headers);
         this.httpMethod = thingConfig.stateMethod;
         this.httpContent = httpContent;
-        fallbackEncoding = thingConfig.encoding;
+        this.fallbackEncoding = thingConfig.encoding;
+        this.unsubscribe = unsubscribe;
+    }
+
+    /**
+     * Add a new subscription
+     *
+     * @param httpClient the rate limited client of the subscribing thing
+     * @param thingConfig the configuration of the subscribing thing
+     * @return the subscription
+     */
+    synchronized Subscription subscribe(RateLimitedHttpClient httpClient, HttpThingConfig thingConfig) {
+        Subscription subscription = new Subscription(httpClient, thingConfig);
+        subscriptions.add(subscription);
+        updateSchedule();
+        return subscription;
+    }
 
-        future = executor.scheduleWithFixedDelay(this::refresh, 1, thingConfig.refresh, TimeUnit.SECONDS);
-        logger.trace("Started refresh task for URL '{}' with interval {}s", url, thingConfig.refresh);
+    /**
+     * Remove a subscription
+     *
+     * @param subscription the subscription
+     * @return true if there are no subscriptions left
+     */
+    synchronized boolean removeSubscription(Subscription subscription) {
+        subscriptions.remove(subscription);
+        if (subscriptions.isEmpty()) {
+            return true;
+        }
+        updateSchedule();
+        return false;
+    }
+
+    private void updateSchedule() {
+        timeout = subscriptions.stream().mapToInt(s -> s.timeout).max().orElse(0);
+        bufferSize = subscriptions.stream().mapToInt(s -> s.bufferSize).max().orElse(0);
+        int newRefresh = subscriptions.stream().mapToInt(s -> s.refresh).min().orElse(0);
+        ScheduledFuture<?> future = this.future;
+        if (future == null || newRefresh != refresh) {
+            if (future != null) {
+                future.cancel(false);
+            }
+            refresh = newRefresh;
+            this.future = executor.scheduleWithFixedDelay(this::refresh, lastContent == null ? 1 : refresh, refresh,
+                    TimeUnit.SECONDS);
+            logger.trace("Started refresh task for URL '{}' with interval {}s", url, refresh);
+        }
     }
 
     private void refresh() {
+        if (!requestInProgress.compareAndSet(false, true)) {
+            // the response of the pending request is passed to all consumers anyway
+            logger.trace("Request to URL '{}' still in progress, skipping refresh", url);
+            coalescedCount.incrementAndGet();
+            return;
+        }
         refresh(false);
     }
 
     private void refresh(boolean isRetry) {
-        if (consumers.isEmpty()) {
+        List<RateLimitedHttpClient> httpClients = subscriptions.stream().map(subscription -> subscription.httpClient)
+                .distinct().collect(Collectors.toList());
+        if (httpClients.isEmpty()) {
             // do not refresh if we don't have listeners
+            requestInProgress.set(false);
             return;
         }
+        // the request is sent by the client of the first thing, which also holds the authentication results
+        RateLimitedHttpClient httpClient = httpClients.get(0);
+        int timeout = this.timeout;
+        // new consumers need the complete response, even if it did not change
+        boolean processAll = consumersChanged.getAndSet(false);
+        Map<ValueExtractor.Format, Set<ValueExtractor>> extractors = getExtractors();
+        boolean streaming = extractors.size() == 1 && subscriptions.stream().allMatch(s -> s.consumers.isEmpty());
 
         // format URL
         try {
             URI uri = Util.uriFromString(String.format(this.url, new Date()));
             logger.trace("Requesting refresh (retry={}) from '{}' with timeout {}ms", isRetry, uri, timeout);
 
-            httpClient.newRequest(uri, httpMethod, httpContent).thenAccept(request -> {
+            // the shared request counts against the rate limit of every subscribed thing, so it waits for all of them
+            List<CompletableFuture<Request>> requests = httpClients.stream()
+                    .map(client -> client.newRequest(uri, httpMethod, httpContent)).collect(Collectors.toList());
+            CompletableFuture<Request> sharedRequest = CompletableFuture
+                    .allOf(requests.toArray(new CompletableFuture<?>[0])).thenApply(v -> requests.get(0).join());
+
+            sharedRequest.thenAccept(request -> {
                 request.timeout(timeout, TimeUnit.MILLISECONDS);
 
                 headers.forEach(header -> {
@@ -102,53 +302,173 @@ public class RefreshingUrlCache {
                     }
                 });
 
-                CompletableFuture<@Nullable Content> response = new CompletableFuture<>();
-                response.exceptionally(e -> {
-                    if (e instanceof HttpAuthException) {
-                        if (isRetry) {
-                            logger.warn("Retry after authentication failure failed again for '{}', failing here", uri);
-                        } else {
-                            AuthenticationStore authStore = httpClient.getAuthenticationStore();
-                            Authentication.Result authResult = authStore.findAuthenticationResult(uri);
-                            if (authResult != null) {
-                                authStore.removeAuthenticationResult(authResult);
-                                logger.debug("Cleared authentication result for '{}', retrying immediately", uri);
-                                refresh(true);
-                            } else {
-                                logger.warn("Could not find authentication result for '{}', failing here", uri);
-                            }
-                        }
+                // let the server tell us if the content has not changed instead of sending it again
+                if (!processAll && httpMethod == HttpMethod.GET) {
+                    String eTag = lastETag;
+                    if (eTag != null) {
+                        request.header(HttpHeader.IF_NONE_MATCH, eTag);
+                    }
+                    String lastModified = this.lastModified;
+                    if (lastModified != null) {
+                        request.header(HttpHeader.IF_MODIFIED_SINCE, lastModified);
                     }
-                    return null;
-                }).thenAccept(this::processResult);
+                }
 
                 if (logger.isTraceEnabled()) {
                     logger.trace("Sending to '{}': {}", uri, Util.requestToLogString(request));
                 }
 
-                request.send(new HttpResponseListener(response, fallbackEncoding, bufferSize));
+                requestCount.incrementAndGet();
+                if (streaming) {
+                    InputStreamResponseListener listener = new InputStreamResponseListener();
+                    request.send(listener);
+                    // the parser blocks until more content arrives, so it must not run on the shared scheduler
+                    Map.Entry<ValueExtractor.Format, Set<ValueExtractor>> entry = extractors.entrySet().iterator()
+                            .next();
+                    streamExecutor.execute(() -> receiveStream(listener, uri, httpClient, timeout, entry.getKey(),
+                            entry.getValue(), processAll, isRetry));
+                } else {
+                    // the response is received asynchronously, no thread waits for it
+                    CompletableFuture<@Nullable Content> response = new CompletableFuture<>();
+                    response.whenComplete((content, e) -> {
+                        if (e == null) {
+                            processResult(content, extractors, processAll);
+                            requestInProgress.set(false);
+                        } else {
+                            processFailure(e, uri, httpClient, isRetry);
+                        }
+                    });
+                    request.send(new HttpResponseListener(response, fallbackEncoding, bufferSize));
+                }
             }).exceptionally(e -> {
-                if (e instanceof CancellationException) {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof CancellationException) {
                     logger.debug("Request to URL {} was cancelled by thing handler.", uri);
                 } else {
-                    logger.warn("Request to URL {} failed: {}", uri, e.getMessage());
+                    logger.warn("Request to URL {} failed: {}", uri, cause.getMessage());
                 }
+                requestInProgress.set(false);
                 return null;
             });
         } catch (IllegalArgumentException | URISyntaxException | MalformedURLException e) {
             logger.warn("Creating request for '{}' failed: {}", url, e.getMessage());
+            requestInProgress.set(false);
         }
     }
 
-    public void stop() {
-        // clearing all listeners to prevent further updates
-        consumers.clear();
-        future.cancel(false);
-        logger.trace("Stopped refresh task for URL '{}'", url);
+    private void receiveStream(InputStreamResponseListener listener, URI uri, RateLimitedHttpClient httpClient,
+            int timeout, ValueExtractor.Format format, Set<ValueExtractor> extractors, boolean processAll,
+            boolean isRetry) {
+        try {
+            Response response = listener.get(timeout, TimeUnit.MILLISECONDS);
+            // closing the stream before the response is complete aborts the rest of the transfer
+            try (InputStream inputStream = listener.getInputStream()) {
+                switch (response.getStatus()) {
+                    case HttpStatus.OK_200:
+                        String contentType = response.getHeaders().get(HttpHeader.CONTENT_TYPE);
+                        Map<ValueExtractor, String> values = ValueExtractor.extract(inputStream,
+                                getCharset(contentType), format, extractors);
+                        lastContent = null;
+                        lastETag = response.getHeaders().get(HttpHeader.ETAG);
+                        lastModified = response.getHeaders().get(HttpHeader.LAST_MODIFIED);
+                        streamedCount.incrementAndGet();
+                        if (processValues(values, processAll)) {
+                            updatedCount.incrementAndGet();
+                        } else {
+                            logger.trace("Values extracted from URL '{}' unchanged, skipping update", url);
+                            unchangedCount.incrementAndGet();
+                        }
+                        reportProgress();
+                        requestInProgress.set(false);
+                        break;
+                    case HttpStatus.NOT_MODIFIED_304:
+                        processFailure(new HttpNotModifiedException(), uri, httpClient, isRetry);
+                        break;
+                    case HttpStatus.UNAUTHORIZED_401:
+                        logger.debug("Requesting '{}' failed: Authorization error", uri);
+                        processFailure(new HttpAuthException(), uri, httpClient, isRetry);
+                        break;
+                    default:
+                        logger.warn("Requesting '{}' failed: {} {}", uri, response.getStatus(), response.getReason());
+                        processFailure(new IllegalStateException("Response - Code" + response.getStatus()), uri,
+                                httpClient, isRetry);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            processFailure(e, uri, httpClient, isRetry);
+        } catch (TimeoutException | ExecutionException | IOException e) {
+            logger.warn("Requesting '{}' failed: {}", uri, e.getMessage());
+            processFailure(e, uri, httpClient, isRetry);
+        }
     }
 
-    public void addConsumer(Consumer<Content> consumer) {
-        consumers.add(consumer);
+    private void processFailure(Throwable e, URI uri, RateLimitedHttpClient httpClient, boolean isRetry) {
+        if (e instanceof HttpNotModifiedException) {
+            processNotModified();
+            requestInProgress.set(false);
+            return;
+        }
+        boolean retry = false;
+        if (e instanceof HttpAuthException) {
+            if (isRetry) {
+                logger.warn("Retry after authentication failure failed again for '{}', failing here", uri);
+            } else {
+                AuthenticationStore authStore = httpClient.getAuthenticationStore();
+                Authentication.Result authResult = authStore.findAuthenticationResult(uri);
+                if (authResult != null) {
+                    authStore.removeAuthenticationResult(authResult);
+                    logger.debug("Cleared authentication result for '{}', retrying immediately", uri);
+                    retry = true;
+                } else {
+                    logger.warn("Could not find authentication result for '{}', failing here", uri);
+                }
+            }
+        }
+        processResult(null, Map.of(), false);
+        if (retry) {
+            // the retry is still part of the pending request
+            refresh(true);
+            return;
+        }
+        requestInProgress.set(false);
+    }
+
+    private Charset getCharset(@Nullable String contentType) {
+        String encoding = contentType != null ? MimeTypes.getCharsetFromContentType(contentType) : null;
+        if (encoding == null) {
+            encoding = fallbackEncoding;
+        }
+        if (encoding != null) {
+            try {
+                return Charset.forName(encoding);
+            } catch (IllegalArgumentException e) {
+                logger.debug("Unsupported encoding '{}' for URL '{}', using UTF-8", encoding, url);
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private Map<ValueExtractor.Format, Set<ValueExtractor>> getExtractors() {
+        Map<ValueExtractor.Format, Set<ValueExtractor>> extractors = new EnumMap<>(ValueExtractor.Format.class);
+        for (Subscription subscription : subscriptions) {
+            for (ValueExtractor extractor : subscription.valueConsumers.values()) {
+                extractors.computeIfAbsent(extractor.getFormat(), k -> new HashSet<>()).add(extractor);
+            }
+        }
+        return extractors;
+    }
+
+    synchronized void stop() {
+        // clearing all listeners to prevent further updates
+        subscriptions.clear();
+        ScheduledFuture<?> future = this.future;
+        if (future != null) {
+            future.cancel(false);
+            this.future = null;
+        }
+        logStatistics();
+        logger.trace("Stopped refresh task for URL '{}'", url);
     }
 
     public Optional<Content> get() {
@@ -160,16 +480,99 @@ public class RefreshingUrlCache {
         }
     }
 
-    private void processResult(@Nullable Content content) {
+    private void processResult(@Nullable Content content, Map<ValueExtractor.Format, Set<ValueExtractor>> extractors,
+            boolean processAll) {
+        Content previousContent = lastContent;
+        lastContent = content;
+        lastETag = content != null ? content.getETag() : null;
+        lastModified = content != null ? content.getLastModified() : null;
         if (content != null) {
-            for (Consumer<Content> consumer : consumers) {
-                try {
-                    consumer.accept(content);
-                } catch (IllegalArgumentException | IllegalStateException e) {
-                    logger.warn("Failed processing result for URL {}: {}", url, e.getMessage());
+            if (!processAll && previousContent != null && content.isSameAs(previousContent)) {
+                // nothing changed, the consumers already processed the same content
+                logger.trace("Content of URL '{}' unchanged, skipping update", url);
+                unchangedCount.incrementAndGet();
+            } else {
+                updatedCount.incrementAndGet();
+                for (Subscription subscription : subscriptions) {
+                    for (Consumer<Content> consumer : subscription.consumers) {
+                        processContent(consumer, content);
+                    }
                 }
+                Map<ValueExtractor, String> values = new HashMap<>();
+                extractors.forEach((format, formatExtractors) -> {
+                    try {
+                        values.putAll(ValueExtractor.extract(new ByteArrayInputStream(content.getRawContent()),
+                                content.getEncoding(), format, formatExtractors));
+                    } catch (IOException e) {
+                        logger.debug("Extracting values from the content of URL '{}' failed: {}", url,
+                                e.getMessage());
+                    }
+                });
+                processValues(values, processAll);
             }
         }
-        lastContent = content;
+        reportProgress();
+    }
+
+    /**
+     * pass extracted values to their consumers
+     *
+     * @param values the extracted values
+     * @param processAll true if unchanged values shall also be passed
+     * @return true if at least one value changed
+     */
+    private boolean processValues(Map<ValueExtractor, String> values, boolean processAll) {
+        Set<ValueExtractor> changed = new HashSet<>();
+        values.forEach((extractor, value) -> {
+            if (!value.equals(lastValues.put(extractor, value)) || processAll) {
+                changed.add(extractor);
+            }
+        });
+        if (!changed.isEmpty()) {
+            for (Subscription subscription : subscriptions) {
+                subscription.valueConsumers.forEach((consumer, extractor) -> {
+                    String value = values.get(extractor);
+                    if (value != null && changed.contains(extractor)) {
+                        processValue(consumer, value);
+                    }
+                });
+            }
+        }
+        return !changed.isEmpty();
+    }
+
+    private void processContent(Consumer<Content> consumer, Content content) {
+        try {
+            consumer.accept(content);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            logger.warn("Failed processing result for URL {}: {}", url, e.getMessage());
+        }
+    }
+
+    private void processValue(Consumer<String> consumer, String value) {
+        try {
+            consumer.accept(value);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            logger.warn("Failed processing value for URL {}: {}", url, e.getMessage());
+        }
+    }
+
+    private void processNotModified() {
+        logger.trace("URL '{}' reported content as not modified, skipping update", url);
+        notModifiedCount.incrementAndGet();
+        reportProgress();
+    }
+
+    private void reportProgress() {
+        if (requestCount.get() % STATISTICS_LOG_INTERVAL == 0) {
+            logStatistics();
+        }
+    }
+
+    private void logStatistics() {
+        logger.debug(
+                "Statistics for URL '{}': {} requests, {} updates, {} unchanged, {} not modified, {} coalesced, {} streamed, {} subscriptions",
+                url, requestCount.get(), updatedCount.get(), unchangedCount.get(), notModifiedCount.get(),
+                coalescedCount.get(), streamedCount.get(), subscriptions.size());
     }
 }
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.http.internal.http;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jetty.http.HttpMethod;
+import org.openhab.binding.http.internal.config.HttpThingConfig;
+
+/**
+ * The {@link RefreshingUrlCacheRegistry} holds the {@link RefreshingUrlCache}s of all things. Things requesting the
+ * same resource (same method, URL, headers and content) share a single cache, so the resource is requested only once
+ * per refresh cycle, no matter how many things and channels use it. Caches are reference counted by their
+ * subscriptions and stopped when the last subscription is cancelled.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class RefreshingUrlCacheRegistry {
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService streamExecutor;
+    private final Map<RequestKey, RefreshingUrlCache> caches = new HashMap<>();
+
+    /**
+     * @param scheduler the executor used for scheduling the refreshes
+     * @param streamExecutor the executor used for parsing responses while they are received, should be bounded
+     */
+    public RefreshingUrlCacheRegistry(ScheduledExecutorService scheduler, ExecutorService streamExecutor) {
+        this.scheduler = scheduler;
+        this.streamExecutor = streamExecutor;
+    }
+
+    /**
+     * Subscribe to the content of a resource
+     *
+     * @param httpClient the rate limited client of the subscribing thing
+     * @param url the URL of the resource
+     * @param thingConfig the configuration of the subscribing thing
+     * @param httpContent the content for the state requests
+     * @return the subscription, needs to be cancelled if no longer needed
+     */
+    public synchronized RefreshingUrlCache.Subscription subscribe(RateLimitedHttpClient httpClient, String url,
+            HttpThingConfig thingConfig, String httpContent) {
+        RefreshingUrlCache cache = caches.computeIfAbsent(new RequestKey(url, thingConfig, httpContent),
+                key -> new RefreshingUrlCache(scheduler, streamExecutor, url, thingConfig, httpContent,
+                        this::unsubscribe));
+        return cache.subscribe(httpClient, thingConfig);
+    }
+
+    private synchronized void unsubscribe(RefreshingUrlCache.Subscription subscription) {
+        RefreshingUrlCache cache = subscription.getCache();
+        if (cache.removeSubscription(subscription)) {
+            cache.stop();
+            caches.values().remove(cache);
+        }
+    }
+
+    /**
+     * Stop all caches
+     */
+    public synchronized void dispose() {
+        caches.values().forEach(RefreshingUrlCache::stop);
+        caches.clear();
+    }
+
+    /**
+     * All parameters which influence the response of a state request
+     */
+    private static class RequestKey {
+        private final String url;
+        private final HttpMethod method;
+        private final List<String> headers;
+        private final String content;
+        private final @Nullable String encoding;
+        private final boolean ignoreSSLErrors;
+
+        private RequestKey(String url, HttpThingConfig thingConfig, String content) {
+            this.url = url;
+            this.method = thingConfig.stateMethod;
+            this.headers = List.copyOf(thingConfig.headers);
+            this.content = content;
+            this.encoding = thingConfig.encoding;
+            this.ignoreSSLErrors = thingConfig.ignoreSSLErrors;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            RequestKey that = (RequestKey) o;
+            return ignoreSSLErrors == that.ignoreSSLErrors && url.equals(that.url) && method == that.method
+                    && headers.equals(that.headers) && content.equals(that.content)
+                    && Objects.equals(encoding, that.encoding);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(url, method, headers, content, encoding, ignoreSSLErrors);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.http.internal.extract;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The {@link ValueExtractorTest} is a test class for the streaming value extractors
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class ValueExtractorTest {
+    private static final String JSON = "{\"device\":{\"name\":\"Meter\",\"ignored\":{\"a\":[1,2,3]},"
+            + "\"values\":[{\"temperature\":23.2},{\"temperature\":-1.5,\"on\":true}],\"status\":{\"code\":0}}}";
+    private static final String XML = "<?xml version=\"1.0\"?><device id=\"4711\"><ignored><value>0</value></ignored>"
+            + "<value>1.5</value><value unit=\"W\">230</value><status><code>ok</code></status></device>";
+
+    @Test
+    public void jsonExtraction() throws IOException {
+        ValueExtractor name = ValueExtractor.fromString("JSONFIELD:$.device.name");
+        ValueExtractor temperature = ValueExtractor.fromString("JSONFIELD:$.device.values[1].temperature");
+        ValueExtractor on = ValueExtractor.fromString("JSONFIELD:$['device'].values[1].on");
+        ValueExtractor status = ValueExtractor.fromString("JSONFIELD:$.device.status");
+        ValueExtractor missing = ValueExtractor.fromString("JSONFIELD:$.device.missing");
+
+        Map<ValueExtractor, String> values = extract(JSON, ValueExtractor.Format.JSON,
+                List.of(name, temperature, on, status, missing));
+
+        Assertions.assertEquals("Meter", values.get(name));
+        Assertions.assertEquals("-1.5", values.get(temperature));
+        Assertions.assertEquals("true", values.get(on));
+        Assertions.assertEquals("{\"code\":0}", values.get(status));
+        Assertions.assertFalse(values.containsKey(missing));
+    }
+
+    @Test
+    public void jsonExtractionStopsEarly() throws IOException {
+        ValueExtractor name = ValueExtractor.fromString("JSONFIELD:$.device.name");
+
+        // the malformed remainder is never parsed
+        Map<ValueExtractor, String> values = extract("{\"device\":{\"name\":\"Meter\",\"values\":[}",
+                ValueExtractor.Format.JSON, List.of(name));
+
+        Assertions.assertEquals("Meter", values.get(name));
+    }
+
+    @Test
+    public void xmlExtraction() throws IOException {
+        ValueExtractor id = ValueExtractor.fromString("XMLFIELD:/device/@id");
+        ValueExtractor first = ValueExtractor.fromString("XMLFIELD:/device/value/text()");
+        ValueExtractor second = ValueExtractor.fromString("XMLFIELD:/device/value[2]");
+        ValueExtractor unit = ValueExtractor.fromString("XMLFIELD:/device/value[2]/@unit");
+        ValueExtractor status = ValueExtractor.fromString("XmlField:/device/status");
+
+        Map<ValueExtractor, String> values = extract(XML, ValueExtractor.Format.XML,
+                List.of(id, first, second, unit, status));
+
+        Assertions.assertEquals("4711", values.get(id));
+        Assertions.assertEquals("1.5", values.get(first));
+        Assertions.assertEquals("230", values.get(second));
+        Assertions.assertEquals("W", values.get(unit));
+        Assertions.assertEquals("ok", values.get(status));
+    }
+
+    @Test
+    public void invalidExtractors() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ValueExtractor.fromString("$.device"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ValueExtractor.fromString("REGEX:(.*)"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ValueExtractor.fromString("JSONFIELD:$..temperature"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ValueExtractor.fromString("XMLFIELD://value"));
+        // the transformations are not evaluated by the extractors
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ValueExtractor.fromString("JSONPATH:$.device"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ValueExtractor.fromString("XPATH:/device"));
+    }
+
+    @Test
+    public void jsonKeyLooksLikeIndex() throws IOException {
+        ValueExtractor key = ValueExtractor.fromString("JSONFIELD:$.a['[0]']");
+        ValueExtractor index = ValueExtractor.fromString("JSONFIELD:$.b[0]");
+        ValueExtractor keyInObject = ValueExtractor.fromString("JSONFIELD:$.b['[0]']");
+
+        Map<ValueExtractor, String> values = extract("{\"a\":{\"[0]\":\"key\"},\"b\":[\"index\"]}",
+                ValueExtractor.Format.JSON, List.of(key, index, keyInObject));
+
+        Assertions.assertEquals("key", values.get(key));
+        Assertions.assertEquals("index", values.get(index));
+        Assertions.assertFalse(values.containsKey(keyInObject));
+        Assertions.assertNotEquals(key, ValueExtractor.fromString("JSONFIELD:$.a[0]"));
+
+        Map<ValueExtractor, String> arrayValues = extract("{\"a\":[\"index\"],\"b\":{\"[0]\":\"key\"}}",
+                ValueExtractor.Format.JSON, List.of(key, index));
+
+        Assertions.assertTrue(arrayValues.isEmpty());
+    }
+
+    @Test
+    public void jsonDuplicateKeys() throws IOException {
+        ValueExtractor duplicate = ValueExtractor.fromString("JSONFIELD:$.a");
+        ValueExtractor last = ValueExtractor.fromString("JSONFIELD:$.c");
+        ValueExtractor nested = ValueExtractor.fromString("JSONFIELD:$.d.e");
+
+        // the duplicate must not count as a second found value, which would stop parsing before c
+        Map<ValueExtractor, String> values = extract(
+                "{\"a\":1,\"d\":{\"e\":2,\"e\":3},\"a\":{\"x\":[4]},\"b\":5,\"c\":6}",
+                ValueExtractor.Format.JSON, List.of(duplicate, last, nested));
+
+        Assertions.assertEquals("1", values.get(duplicate));
+        Assertions.assertEquals("2", values.get(nested));
+        Assertions.assertEquals("6", values.get(last));
+    }
+
+    @Test
+    public void jsonExtractorsWithSamePath() throws IOException {
+        ValueExtractor dotted = ValueExtractor.fromString("JSONFIELD:$.device.name");
+        ValueExtractor quoted = ValueExtractor.fromString("jsonfield:$['device']['name']");
+        ValueExtractor temperature = ValueExtractor.fromString("JSONFIELD:$.device.values[0].temperature");
+
+        Map<ValueExtractor, String> values = extract(JSON, ValueExtractor.Format.JSON,
+                List.of(dotted, quoted, temperature));
+
+        Assertions.assertEquals(dotted, quoted);
+        Assertions.assertEquals("Meter", values.get(dotted));
+        Assertions.assertEquals("23.2", values.get(temperature));
+    }
+
+    @Test
+    public void malformedResponses() {
+        ValueExtractor json = ValueExtractor.fromString("JSONFIELD:$.device.missing");
+        ValueExtractor xml = ValueExtractor.fromString("XMLFIELD:/device/missing");
+
+        Assertions.assertThrows(IOException.class,
+                () -> extract("{\"device\":{\"name\":[}", ValueExtractor.Format.JSON, List.of(json)));
+        Assertions.assertThrows(IOException.class,
+                () -> extract("<device><value></device>", ValueExtractor.Format.XML, List.of(xml)));
+    }
+
+    @Test
+    public void equalExtractors() {
+        Assertions.assertEquals(ValueExtractor.fromString("XMLFIELD:/device/value[1]/text()"),
+                ValueExtractor.fromString("XMLFIELD:/device/value"));
+        Assertions.assertNotEquals(ValueExtractor.fromString("JSONFIELD:$.a[0]"),
+                ValueExtractor.fromString("JSONFIELD:$.a[1]"));
+    }
+
+    private Map<ValueExtractor, String> extract(String content, ValueExtractor.Format format,
+            List<ValueExtractor> extractors) throws IOException {
+        return ValueExtractor.extract(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                StandardCharsets.UTF_8, format, extractors);
+    }
+}
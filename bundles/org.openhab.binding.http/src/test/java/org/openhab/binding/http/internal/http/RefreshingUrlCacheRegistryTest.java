@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.http.internal.http;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.client.api.Response;
+import org.eclipse.jetty.client.api.Result;
+import org.eclipse.jetty.client.util.InputStreamResponseListener;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.util.Callback;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.http.internal.config.HttpThingConfig;
+import org.openhab.binding.http.internal.extract.ValueExtractor;
+
+/**
+ * The {@link RefreshingUrlCacheRegistryTest} is a test class for the sharing of caches between things
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class RefreshingUrlCacheRegistryTest {
+    private static final String URL = "http://localhost/state";
+
+    private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+    private final ExecutorService streamExecutor = mock(ExecutorService.class);
+    private final RefreshingUrlCacheRegistry registry = new RefreshingUrlCacheRegistry(scheduler, streamExecutor);
+    private final Request request = mock(Request.class);
+    private final List<Runnable> refreshTasks = new ArrayList<>();
+    private final List<ScheduledFuture<?>> refreshFutures = new ArrayList<>();
+    private final List<Runnable> streamTasks = new ArrayList<>();
+    private final List<Response.Listener> sentRequests = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        doAnswer(invocation -> {
+            refreshTasks.add(invocation.getArgument(0));
+            ScheduledFuture<?> future = mock(ScheduledFuture.class);
+            refreshFutures.add(future);
+            return future;
+        }).when(scheduler).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(scheduler).execute(any());
+        doAnswer(invocation -> {
+            streamTasks.add(invocation.getArgument(0));
+            return null;
+        }).when(streamExecutor).execute(any());
+        when(request.getURI()).thenReturn(URI.create(URL));
+        doAnswer(invocation -> {
+            sentRequests.add(invocation.getArgument(0));
+            return null;
+        }).when(request).send(any(Response.CompleteListener.class));
+    }
+
+    private RateLimitedHttpClient client() {
+        RateLimitedHttpClient client = mock(RateLimitedHttpClient.class);
+        when(client.newRequest(any(), any(), anyString()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(request));
+        return client;
+    }
+
+    private static HttpThingConfig config(int refresh) {
+        HttpThingConfig config = new HttpThingConfig();
+        config.refresh = refresh;
+        return config;
+    }
+
+    private void respond(String body) {
+        Response.Listener listener = sentRequests.get(sentRequests.size() - 1);
+        Response response = mock(Response.class);
+        when(response.getStatus()).thenReturn(200);
+        when(response.getHeaders()).thenReturn(new HttpFields());
+        ByteBuffer content = ByteBuffer.wrap(body.getBytes(StandardCharsets.UTF_8));
+        if (listener instanceof InputStreamResponseListener) {
+            // extractor-only responses are parsed by a stream task, the complete response is queued before it runs
+            listener.onHeaders(response);
+            listener.onContent(response, content, Callback.NOOP);
+            listener.onSuccess(response);
+            listener.onComplete(new Result(request, response));
+            streamTasks.remove(0).run();
+        } else {
+            listener.onContent(response, content);
+            listener.onComplete(new Result(request, response));
+        }
+    }
+
+    @Test
+    public void thingsRequestingSameResourceShareRequest() {
+        ValueExtractor extractor = ValueExtractor.fromString("JSONFIELD:$.power");
+        List<String> values1 = new ArrayList<>();
+        List<String> values2 = new ArrayList<>();
+        registry.subscribe(client(), URL, config(30), "").addConsumer(extractor, values1::add);
+        registry.subscribe(client(), URL, config(30), "").addConsumer(extractor, values2::add);
+
+        // only a single refresh task for both things
+        Assertions.assertEquals(1, refreshTasks.size());
+        refreshTasks.get(0).run();
+        Assertions.assertEquals(1, sentRequests.size());
+
+        respond("{\"power\":42}");
+        Assertions.assertEquals(List.of("42"), values1);
+        Assertions.assertEquals(List.of("42"), values2);
+    }
+
+    @Test
+    public void differentRequestsAreNotShared() {
+        HttpThingConfig withHeader = config(30);
+        withHeader.headers.add("Accept=application/json");
+        registry.subscribe(client(), URL, config(30), "");
+        registry.subscribe(client(), URL + "?other", config(30), "");
+        registry.subscribe(client(), URL, withHeader, "");
+
+        Assertions.assertEquals(3, refreshTasks.size());
+    }
+
+    @Test
+    public void sharedCacheRefreshesAtShortestInterval() {
+        registry.subscribe(client(), URL, config(30), "");
+        RefreshingUrlCache.Subscription fast = registry.subscribe(client(), URL, config(10), "");
+
+        verify(scheduler).scheduleWithFixedDelay(any(), anyLong(), eq(30L), eq(TimeUnit.SECONDS));
+        verify(scheduler).scheduleWithFixedDelay(any(), anyLong(), eq(10L), eq(TimeUnit.SECONDS));
+        verify(refreshFutures.get(0)).cancel(false);
+
+        fast.cancel();
+        verify(scheduler, times(2)).scheduleWithFixedDelay(any(), anyLong(), eq(30L), eq(TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void refreshIsCoalescedWithPendingRequest() {
+        RateLimitedHttpClient client = client();
+        registry.subscribe(client, URL, config(30), "");
+
+        refreshTasks.get(0).run();
+        // the response to the first request is still pending
+        refreshTasks.get(0).run();
+        Assertions.assertEquals(1, sentRequests.size());
+        verify(client, times(1)).newRequest(any(), any(), anyString());
+
+        respond("{}");
+        refreshTasks.get(0).run();
+        Assertions.assertEquals(2, sentRequests.size());
+    }
+
+    @Test
+    public void cacheIsReleasedWithLastSubscription() {
+        RefreshingUrlCache.Subscription subscription1 = registry.subscribe(client(), URL, config(30), "");
+        RefreshingUrlCache.Subscription subscription2 = registry.subscribe(client(), URL, config(30), "");
+
+        subscription1.cancel();
+        verify(refreshFutures.get(0), never()).cancel(anyBoolean());
+        refreshTasks.get(0).run();
+        Assertions.assertEquals(1, sentRequests.size());
+        respond("{}");
+
+        subscription2.cancel();
+        verify(refreshFutures.get(0)).cancel(false);
+        // a stopped cache does not send requests anymore
+        refreshTasks.get(0).run();
+        Assertions.assertEquals(1, sentRequests.size());
+
+        // a new subscription creates a new cache
+        registry.subscribe(client(), URL, config(30), "");
+        Assertions.assertEquals(2, refreshTasks.size());
+    }
+
+    @Test
+    public void sharedRequestRespectsRateLimitOfAllThings() {
+        RateLimitedHttpClient client1 = client();
+        RateLimitedHttpClient client2 = mock(RateLimitedHttpClient.class);
+        CompletableFuture<Request> delayedRequest = new CompletableFuture<>();
+        when(client2.newRequest(any(), any(), anyString())).thenReturn(delayedRequest);
+        registry.subscribe(client1, URL, config(30), "");
+        registry.subscribe(client2, URL, config(30), "");
+
+        refreshTasks.get(0).run();
+        verify(client1).newRequest(any(), any(), anyString());
+        verify(client2).newRequest(any(), any(), anyString());
+        // the rate limit of the second thing delays the request
+        Assertions.assertEquals(0, sentRequests.size());
+
+        delayedRequest.complete(mock(Request.class));
+        Assertions.assertEquals(1, sentRequests.size());
+    }
+}
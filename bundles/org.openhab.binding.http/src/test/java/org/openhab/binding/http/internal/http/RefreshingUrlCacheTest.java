@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.http.internal.http;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.client.api.Response;
+import org.eclipse.jetty.client.api.Result;
+import org.eclipse.jetty.client.util.InputStreamResponseListener;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.util.Callback;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.http.internal.config.HttpThingConfig;
+import org.openhab.binding.http.internal.extract.ValueExtractor;
+
+/**
+ * The {@link RefreshingUrlCacheTest} is a test class for the suppression of unchanged content
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class RefreshingUrlCacheTest {
+    private static final String URL = "http://localhost/state";
+
+    private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+    private final Request request = mock(Request.class);
+    private final RateLimitedHttpClient httpClient = mock(RateLimitedHttpClient.class);
+    private final HttpThingConfig config = new HttpThingConfig();
+    private final ExecutorService streamExecutor = mock(ExecutorService.class);
+    private final RefreshingUrlCache cache = new RefreshingUrlCache(scheduler, streamExecutor, URL, config, "",
+            subscription -> {
+            });
+    private final List<Runnable> refreshTasks = new ArrayList<>();
+    private final List<Runnable> streamTasks = new ArrayList<>();
+    private final List<Response.Listener> sentRequests = new ArrayList<>();
+    private final List<String> contents = new ArrayList<>();
+    private final List<String> powerValues = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        doAnswer(invocation -> {
+            refreshTasks.add(invocation.getArgument(0));
+            return mock(ScheduledFuture.class);
+        }).when(scheduler).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(scheduler).execute(any());
+        doAnswer(invocation -> {
+            streamTasks.add(invocation.getArgument(0));
+            return null;
+        }).when(streamExecutor).execute(any());
+        when(request.getURI()).thenReturn(URI.create(URL));
+        doAnswer(invocation -> {
+            sentRequests.add(invocation.getArgument(0));
+            return null;
+        }).when(request).send(any(Response.CompleteListener.class));
+        when(httpClient.newRequest(any(), any(), anyString()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(request));
+    }
+
+    private RefreshingUrlCache.Subscription subscribe() {
+        RefreshingUrlCache.Subscription subscription = cache.subscribe(httpClient, config);
+        subscription.addConsumer(content -> contents.add(content.getAsString()));
+        subscription.addConsumer(ValueExtractor.fromString("JSONFIELD:$.power"), powerValues::add);
+        return subscription;
+    }
+
+    private void refresh(int status, String body) {
+        refresh(status, body, new HttpFields());
+    }
+
+    private void refresh(int status, String body, HttpFields headers) {
+        refreshTasks.get(refreshTasks.size() - 1).run();
+        HttpResponseListener listener = (HttpResponseListener) sentRequests.get(sentRequests.size() - 1);
+        Response response = mock(Response.class);
+        when(response.getStatus()).thenReturn(status);
+        when(response.getHeaders()).thenReturn(headers);
+        if (!body.isEmpty()) {
+            listener.onContent(response, ByteBuffer.wrap(body.getBytes(StandardCharsets.UTF_8)));
+        }
+        listener.onComplete(new Result(request, response));
+    }
+
+    @Test
+    public void notModifiedResponseDoesNotUpdateChannels() {
+        RefreshingUrlCache.Subscription subscription = subscribe();
+        HttpFields headers = new HttpFields();
+        headers.put(HttpHeader.ETAG, "\"v1\"");
+        refresh(HttpStatus.OK_200, "{\"power\":5}", headers);
+        Assertions.assertEquals(List.of("{\"power\":5}"), contents);
+        Assertions.assertEquals(List.of("5"), powerValues);
+
+        // the next request is conditional and the server reports the content as unchanged
+        refresh(HttpStatus.NOT_MODIFIED_304, "");
+        verify(request).header(HttpHeader.IF_NONE_MATCH, "\"v1\"");
+
+        Assertions.assertEquals(List.of("{\"power\":5}"), contents);
+        Assertions.assertEquals(List.of("5"), powerValues);
+        Assertions.assertEquals("{\"power\":5}", subscription.get().map(Content::getAsString).orElse(null));
+    }
+
+    @Test
+    public void identicalContentDoesNotUpdateChannels() {
+        subscribe();
+        refresh(HttpStatus.OK_200, "{\"power\":5}");
+        refresh(HttpStatus.OK_200, "{\"power\":5}");
+
+        Assertions.assertEquals(List.of("{\"power\":5}"), contents);
+        Assertions.assertEquals(List.of("5"), powerValues);
+        // without validators, the requests are not conditional
+        verify(request, never()).header(eq(HttpHeader.IF_NONE_MATCH), anyString());
+        verify(request, never()).header(eq(HttpHeader.IF_MODIFIED_SINCE), anyString());
+
+        refresh(HttpStatus.OK_200, "{\"power\":6}");
+        Assertions.assertEquals(List.of("{\"power\":5}", "{\"power\":6}"), contents);
+        Assertions.assertEquals(List.of("5", "6"), powerValues);
+    }
+
+    @Test
+    public void unchangedValueDoesNotUpdateChannel() {
+        subscribe();
+        refresh(HttpStatus.OK_200, "{\"power\":5,\"time\":1}");
+        refresh(HttpStatus.OK_200, "{\"power\":5,\"time\":2}");
+
+        Assertions.assertEquals(2, contents.size());
+        Assertions.assertEquals(List.of("5"), powerValues);
+    }
+
+    @Test
+    public void newConsumerReceivesUnchangedContent() {
+        RefreshingUrlCache.Subscription subscription = subscribe();
+        refresh(HttpStatus.OK_200, "{\"power\":5,\"energy\":7}");
+
+        List<String> energyValues = new ArrayList<>();
+        subscription.addConsumer(ValueExtractor.fromString("JSONFIELD:$.energy"), energyValues::add);
+        Assertions.assertEquals(List.of(), energyValues);
+
+        // the new consumer needs the complete response, even if it did not change
+        refresh(HttpStatus.OK_200, "{\"power\":5,\"energy\":7}");
+        Assertions.assertEquals(List.of("7"), energyValues);
+
+        // from now on unchanged content is suppressed again
+        refresh(HttpStatus.OK_200, "{\"power\":5,\"energy\":7}");
+        Assertions.assertEquals(List.of("7"), energyValues);
+        Assertions.assertEquals(2, contents.size());
+    }
+
+    @Test
+    public void extractorOnlyResponseIsParsedWhileReceived() throws Exception {
+        cache.subscribe(httpClient, config).addConsumer(ValueExtractor.fromString("JSONFIELD:$.power"),
+                powerValues::add);
+        refreshTasks.get(0).run();
+
+        // the response is not buffered but read by a task of the stream executor
+        InputStreamResponseListener listener = (InputStreamResponseListener) sentRequests.get(0);
+        Assertions.assertEquals(1, streamTasks.size());
+        Response response = mock(Response.class);
+        when(response.getStatus()).thenReturn(HttpStatus.OK_200);
+        when(response.getHeaders()).thenReturn(new HttpFields());
+        listener.onHeaders(response);
+        CompletableFuture<Void> parsed = CompletableFuture.runAsync(streamTasks.get(0));
+        listener.onContent(response, ByteBuffer.wrap("{\"power\":5,".getBytes(StandardCharsets.UTF_8)),
+                Callback.NOOP);
+
+        // the value is passed as soon as it is parsed, without waiting for the rest of the response
+        parsed.get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(List.of("5"), powerValues);
+        Assertions.assertEquals(Optional.empty(), cache.get());
+    }
+}
@@ -93,6 +93,9 @@ public class HueBindingConstants {
     public static final String PROTOCOL = "protocol";
     public static final String USER_NAME = "userName";
 
+    // Bridge properties
+    public static final String PROPERTY_CERTIFICATE_PIN = "certificatePin";
+
     // Thing configuration properties
     public static final String LIGHT_ID = "lightId";
     public static final String SENSOR_ID = "sensorId";
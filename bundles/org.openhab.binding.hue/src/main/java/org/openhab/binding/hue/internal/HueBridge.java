@@ -258,6 +258,26 @@ public class HueBridge {
         return sensorList;
     }
 
+    /**
+     * Returns detailed information for the given sensor.
+     *
+     * @param id id of the sensor
+     * @return detailed sensor information
+     * @throws UnauthorizedException thrown if the user no longer exists
+     * @throws EntityNotAvailableException thrown if a sensor with the given id doesn't exist
+     */
+    public FullSensor getSensor(String id) throws IOException, ApiException {
+        requireAuthentication();
+
+        Result result = http.get(getRelativeURL("sensors/" + enc(id)));
+
+        handleErrors(result);
+
+        FullSensor sensor = safeFromJson(result.getBody(), FullSensor.class);
+        sensor.setId(id);
+        return sensor;
+    }
+
     /**
      * Returns the last time a search for new lights was started.
      * If a search is currently running, the current time will be
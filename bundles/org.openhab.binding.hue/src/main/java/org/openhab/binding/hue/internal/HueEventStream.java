@@ -0,0 +1,318 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.client.api.Response;
+import org.eclipse.jetty.client.api.Result;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
+import org.openhab.binding.hue.internal.dto.clip2.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Client for the server-sent events stream of the API v2 of the bridge. The bridge pushes every change of its
+ * resources to this stream, so changes are known within milliseconds without polling the full state.
+ *
+ * The stream is read asynchronously by the given HTTP client. If the connection fails, it is reconnected with an
+ * increasing delay. A connection without any event within the read timeout is reconnected at once, without reporting
+ * a disconnect. A bridge without the API v2 answers with 404, then the stream stops for good.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class HueEventStream {
+
+    /**
+     * Receives the events and the connection changes of the stream. All methods are called on the threads of the
+     * HTTP client.
+     */
+    public interface Listener {
+        /**
+         * Called whenever the stream is (re)connected. Events may have been missed before.
+         */
+        void onEventStreamConnected();
+
+        void onEvents(List<Event> events);
+
+        /**
+         * Called when a connected stream is lost. The stream keeps trying to reconnect, unless it is not supported.
+         *
+         * @param reason the reason of the disconnect
+         */
+        void onEventStreamDisconnected(String reason);
+    }
+
+    private static final String PATH = "/eventstream/clip/v2";
+    private static final long READ_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+    private static final long MIN_RETRY_DELAY = TimeUnit.SECONDS.toMillis(1);
+    private static final long MAX_RETRY_DELAY = TimeUnit.MINUTES.toMillis(1);
+
+    private final Logger logger = LoggerFactory.getLogger(HueEventStream.class);
+    private final Gson gson = new Gson();
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService scheduler;
+    private final String url;
+    private final String applicationKey;
+    private final Listener listener;
+    private final long readTimeout;
+    private final long minRetryDelay;
+
+    // guarded by this
+    private boolean running;
+    private boolean connected;
+    private long retryDelay;
+    private @Nullable Request request;
+    private @Nullable ScheduledFuture<?> connectJob;
+
+    /**
+     * @param httpClient the HTTP client trusting the certificate of the bridge
+     * @param scheduler the scheduler for the reconnects
+     * @param ip the address of the bridge
+     * @param port the HTTPS port of the bridge
+     * @param applicationKey the user name of the binding on the bridge
+     * @param listener the listener for the events
+     */
+    public HueEventStream(HttpClient httpClient, ScheduledExecutorService scheduler, String ip, int port,
+            String applicationKey, Listener listener) {
+        this(httpClient, scheduler, createUrl(ip, port), applicationKey, listener, READ_TIMEOUT, MIN_RETRY_DELAY);
+    }
+
+    /**
+     * Test constructor
+     */
+    HueEventStream(HttpClient httpClient, ScheduledExecutorService scheduler, String url, String applicationKey,
+            Listener listener, long readTimeout, long minRetryDelay) {
+        this.httpClient = httpClient;
+        this.scheduler = scheduler;
+        this.url = url;
+        this.applicationKey = applicationKey;
+        this.listener = listener;
+        this.readTimeout = readTimeout;
+        this.minRetryDelay = minRetryDelay;
+    }
+
+    private static String createUrl(String ip, int port) {
+        try {
+            return new URI("https", null, ip, port, PATH, null, null).toString();
+        } catch (URISyntaxException e) {
+            return "https://" + ip + ":" + port + PATH;
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        connected = false;
+        retryDelay = minRetryDelay;
+        scheduleConnect(0);
+    }
+
+    public synchronized void stop() {
+        running = false;
+        ScheduledFuture<?> job = connectJob;
+        if (job != null) {
+            job.cancel(false);
+            connectJob = null;
+        }
+        Request localRequest = request;
+        if (localRequest != null) {
+            // the completion of the aborted request is ignored, as it is no longer the current one
+            request = null;
+            localRequest.abort(new CancellationException("Event stream stopped"));
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    private void scheduleConnect(long delay) {
+        connectJob = scheduler.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void connect() {
+        Request localRequest;
+        synchronized (this) {
+            connectJob = null;
+            if (!running) {
+                return;
+            }
+            localRequest = httpClient.newRequest(url).header("hue-application-key", applicationKey)
+                    .header(HttpHeader.ACCEPT, "text/event-stream").idleTimeout(readTimeout, TimeUnit.MILLISECONDS);
+            request = localRequest;
+        }
+        // sent outside of the lock, as a failing request may complete on the calling thread
+        localRequest.send(new StreamListener(localRequest));
+    }
+
+    /**
+     * @return true if the connected stream is still the current one
+     */
+    private synchronized boolean onConnected(Request connectedRequest) {
+        if (request != connectedRequest) {
+            return false;
+        }
+        connected = true;
+        retryDelay = minRetryDelay;
+        return true;
+    }
+
+    private void onEnded(Request endedRequest, boolean supported, boolean idle, String reason) {
+        boolean wasConnected;
+        synchronized (this) {
+            if (request != endedRequest) {
+                return; // stopped or restarted meanwhile
+            }
+            request = null;
+            if (!running) {
+                return;
+            }
+            wasConnected = connected;
+            if (!supported) {
+                running = false;
+                connected = false;
+            } else if (idle) {
+                scheduleConnect(0);
+            } else {
+                connected = false;
+                scheduleConnect(retryDelay);
+                retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+            }
+        }
+        if (!supported) {
+            logger.info("Hue bridge does not support the event stream, keep on polling: {}", reason);
+            if (wasConnected) {
+                listener.onEventStreamDisconnected("Event stream not supported");
+            }
+        } else if (idle) {
+            logger.debug("No events within {} ms, reconnecting the event stream.", readTimeout);
+        } else {
+            logger.debug("Event stream disconnected: {}", reason);
+            if (wasConnected) {
+                listener.onEventStreamDisconnected(reason);
+            }
+        }
+    }
+
+    private void dispatch(String data) {
+        logger.trace("Received events: {}", data);
+        Event[] events;
+        try {
+            events = gson.fromJson(data, Event[].class);
+        } catch (JsonParseException e) {
+            logger.debug("Ignoring invalid event data '{}': {}", data, e.getMessage());
+            return;
+        }
+        if (events != null && events.length > 0) {
+            listener.onEvents(Arrays.asList(events));
+        }
+    }
+
+    /**
+     * Splits the content of one response of the stream into lines and dispatches the events.
+     */
+    private class StreamListener extends Response.Listener.Adapter {
+        private final Request request;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private final StringBuilder data = new StringBuilder();
+        private boolean streaming;
+
+        StreamListener(Request request) {
+            this.request = request;
+        }
+
+        @Override
+        public void onHeaders(@Nullable Response response) {
+            if (response == null || response.getStatus() != HttpStatus.OK_200 || !onConnected(request)) {
+                return;
+            }
+            streaming = true;
+            logger.debug("Connected to the event stream {}", url);
+            listener.onEventStreamConnected();
+        }
+
+        @Override
+        public void onContent(@Nullable Response response, @Nullable ByteBuffer content) {
+            if (!streaming || content == null) {
+                return;
+            }
+            while (content.hasRemaining()) {
+                byte b = content.get();
+                if (b == '\n') {
+                    onLine(new String(line.toByteArray(), StandardCharsets.UTF_8));
+                    line.reset();
+                } else if (b != '\r') {
+                    line.write(b);
+                }
+            }
+        }
+
+        private void onLine(String line) {
+            if (line.isEmpty()) {
+                // an empty line ends an event
+                if (data.length() > 0) {
+                    dispatch(data.toString());
+                    data.setLength(0);
+                }
+            } else if (line.startsWith("data:")) {
+                if (data.length() > 0) {
+                    data.append('\n');
+                }
+                data.append(line.substring(line.startsWith("data: ") ? 6 : 5));
+            }
+            // comments (":"), "id:" and "event:" lines are not needed
+        }
+
+        @Override
+        public void onComplete(@Nullable Result result) {
+            if (result == null) {
+                return;
+            }
+            int status = result.getResponse().getStatus();
+            Throwable failure = result.getFailure();
+            if (!streaming && status == HttpStatus.NOT_FOUND_404) {
+                onEnded(request, false, false, "HTTP " + status);
+            } else if (failure != null) {
+                onEnded(request, true, streaming && failure instanceof TimeoutException,
+                        String.valueOf(failure.getMessage()));
+            } else if (streaming) {
+                onEnded(request, true, false, "Event stream closed by the bridge");
+            } else {
+                onEnded(request, true, false, "HTTP " + status);
+            }
+        }
+    }
+}
@@ -21,6 +21,7 @@ import java.util.stream.Stream;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jetty.client.HttpClient;
 import org.openhab.binding.hue.internal.handler.HueBridgeHandler;
 import org.openhab.binding.hue.internal.handler.HueGroupHandler;
 import org.openhab.binding.hue.internal.handler.HueLightHandler;
@@ -33,6 +34,7 @@ import org.openhab.binding.hue.internal.handler.sensors.PresenceHandler;
 import org.openhab.binding.hue.internal.handler.sensors.TapSwitchHandler;
 import org.openhab.binding.hue.internal.handler.sensors.TemperatureHandler;
 import org.openhab.core.config.core.Configuration;
+import org.openhab.core.io.net.http.HttpClientFactory;
 import org.openhab.core.thing.Bridge;
 import org.openhab.core.thing.Thing;
 import org.openhab.core.thing.ThingTypeUID;
@@ -68,10 +70,13 @@ public class HueThingHandlerFactory extends BaseThingHandlerFactory {
             .flatMap(i -> i).collect(Collectors.toSet()));
 
     private final HueStateDescriptionProvider stateDescriptionProvider;
+    private final HttpClient httpClient;
 
     @Activate
-    public HueThingHandlerFactory(final @Reference HueStateDescriptionProvider stateDescriptionProvider) {
+    public HueThingHandlerFactory(final @Reference HueStateDescriptionProvider stateDescriptionProvider,
+            final @Reference HttpClientFactory httpClientFactory) {
         this.stateDescriptionProvider = stateDescriptionProvider;
+        this.httpClient = httpClientFactory.getCommonHttpClient();
     }
 
     @Override
@@ -142,7 +147,7 @@ public class HueThingHandlerFactory extends BaseThingHandlerFactory {
     @Override
     protected @Nullable ThingHandler createHandler(Thing thing) {
         if (HueBridgeHandler.SUPPORTED_THING_TYPES.contains(thing.getThingTypeUID())) {
-            return new HueBridgeHandler((Bridge) thing, stateDescriptionProvider);
+            return new HueBridgeHandler((Bridge) thing, stateDescriptionProvider, httpClient);
         } else if (HueLightHandler.SUPPORTED_THING_TYPES.contains(thing.getThingTypeUID())) {
             return new HueLightHandler(thing, stateDescriptionProvider);
         } else if (DimmerSwitchHandler.SUPPORTED_THING_TYPES.contains(thing.getThingTypeUID())) {
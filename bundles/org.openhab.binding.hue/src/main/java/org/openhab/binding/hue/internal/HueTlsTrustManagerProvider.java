@@ -0,0 +1,256 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertPath;
+import java.security.cert.CertPathValidator;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.PKIXParameters;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import javax.naming.InvalidNameException;
+import javax.naming.ldap.LdapName;
+import javax.naming.ldap.Rdn;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedTrustManager;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.io.net.http.TlsTrustManagerProvider;
+
+/**
+ * Provides the trust manager for the HTTPS connections to a Hue bridge. The bridge presents a certificate issued for
+ * its bridge id, not for its address, so the common name of the certificate must be the id of the bridge.
+ *
+ * Current firmware uses certificates issued by the Hue bridge root CA of Signify, which is shipped with the binding.
+ * Older firmware uses self-signed certificates. Such a certificate is pinned when it is seen first and only this
+ * certificate is accepted afterwards. Once a bridge presented a certificate of the root CA, self-signed certificates
+ * are never accepted again.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class HueTlsTrustManagerProvider implements TlsTrustManagerProvider {
+
+    /**
+     * The pin of bridges using a certificate issued by the Hue bridge root CA
+     */
+    public static final String PIN_ROOT_CA = "root-bridge";
+
+    private static final String ROOT_CA_RESOURCE = "HueBridgeRootCA.pem";
+
+    private final String hostName;
+    private final BridgeTrustManager trustManager;
+
+    /**
+     * @param ip the address of the bridge
+     * @param port the HTTPS port of the bridge
+     * @param bridgeId the id of the bridge the certificate must be issued for
+     * @param pinnedCertificate the pin of the bridge certificate, or null if no certificate was seen yet
+     * @param pinListener is called with the new pin, when a certificate is pinned
+     * @throws CertificateException if the root CA cannot be loaded
+     */
+    public HueTlsTrustManagerProvider(String ip, int port, String bridgeId, @Nullable String pinnedCertificate,
+            Consumer<String> pinListener) throws CertificateException {
+        this(ip, port, bridgeId, pinnedCertificate, pinListener, loadRootCertificate());
+    }
+
+    HueTlsTrustManagerProvider(String ip, int port, String bridgeId, @Nullable String pinnedCertificate,
+            Consumer<String> pinListener, X509Certificate rootCertificate) throws CertificateException {
+        this.hostName = ip + ":" + port;
+        this.trustManager = new BridgeTrustManager(bridgeId, rootCertificate, pinnedCertificate, pinListener);
+    }
+
+    private static X509Certificate loadRootCertificate() throws CertificateException {
+        try (InputStream stream = HueTlsTrustManagerProvider.class.getResourceAsStream(ROOT_CA_RESOURCE)) {
+            if (stream == null) {
+                throw new CertificateException("Hue bridge root CA not found");
+            }
+            return (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(stream);
+        } catch (IOException e) {
+            throw new CertificateException("Hue bridge root CA cannot be read", e);
+        }
+    }
+
+    @Override
+    public String getHostName() {
+        return hostName;
+    }
+
+    @Override
+    public X509ExtendedTrustManager getTrustManager() {
+        return trustManager;
+    }
+
+    static class BridgeTrustManager extends X509ExtendedTrustManager {
+        private final String bridgeId;
+        private final X509Certificate rootCertificate;
+        private final PKIXParameters parameters;
+        private final Consumer<String> pinListener;
+        private @Nullable String pinnedCertificate;
+
+        BridgeTrustManager(String bridgeId, X509Certificate rootCertificate, @Nullable String pinnedCertificate,
+                Consumer<String> pinListener) throws CertificateException {
+            this.bridgeId = bridgeId;
+            this.rootCertificate = rootCertificate;
+            this.pinnedCertificate = pinnedCertificate;
+            this.pinListener = pinListener;
+            try {
+                parameters = new PKIXParameters(Set.of(new TrustAnchor(rootCertificate, null)));
+            } catch (GeneralSecurityException e) {
+                throw new CertificateException("Invalid Hue bridge root CA", e);
+            }
+            parameters.setRevocationEnabled(false);
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate @Nullable [] chain, @Nullable String authType)
+                throws CertificateException {
+            if (chain == null || chain.length == 0) {
+                throw new CertificateException("Hue bridge presented no certificate");
+            }
+            X509Certificate certificate = chain[0];
+            String commonName = getCommonName(certificate);
+            if (!bridgeId.equalsIgnoreCase(commonName)) {
+                throw new CertificateException(
+                        "Certificate of '" + commonName + "' does not belong to Hue bridge '" + bridgeId + "'");
+            }
+            if (isIssuedByRootCertificate(chain)) {
+                pin(PIN_ROOT_CA);
+            } else {
+                checkPinnedCertificate(certificate);
+            }
+        }
+
+        private boolean isIssuedByRootCertificate(X509Certificate[] chain) {
+            List<X509Certificate> path = new ArrayList<>();
+            for (X509Certificate certificate : chain) {
+                if (!certificate.equals(rootCertificate)) {
+                    path.add(certificate);
+                }
+            }
+            try {
+                CertPath certPath = CertificateFactory.getInstance("X.509").generateCertPath(path);
+                CertPathValidator.getInstance("PKIX").validate(certPath, parameters);
+                return true;
+            } catch (GeneralSecurityException e) {
+                return false;
+            }
+        }
+
+        private synchronized void checkPinnedCertificate(X509Certificate certificate) throws CertificateException {
+            String pin = getPin(certificate);
+            String localPinnedCertificate = pinnedCertificate;
+            if (localPinnedCertificate == null) {
+                certificate.checkValidity();
+                try {
+                    if (!certificate.getIssuerX500Principal().equals(certificate.getSubjectX500Principal())) {
+                        throw new CertificateException("Certificate is not self-signed");
+                    }
+                    certificate.verify(certificate.getPublicKey());
+                } catch (GeneralSecurityException e) {
+                    throw new CertificateException("Certificate of Hue bridge is neither self-signed nor issued by "
+                            + "the Hue bridge root CA", e);
+                }
+                pin(pin);
+            } else if (PIN_ROOT_CA.equals(localPinnedCertificate)) {
+                throw new CertificateException("Certificate of Hue bridge is not issued by the Hue bridge root CA");
+            } else if (!localPinnedCertificate.equals(pin)) {
+                throw new CertificateException("Certificate of Hue bridge does not match the pinned certificate");
+            }
+        }
+
+        private synchronized void pin(String pin) {
+            if (!pin.equals(pinnedCertificate)) {
+                pinnedCertificate = pin;
+                pinListener.accept(pin);
+            }
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate @Nullable [] chain, @Nullable String authType,
+                @Nullable Socket socket) throws CertificateException {
+            checkServerTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate @Nullable [] chain, @Nullable String authType,
+                @Nullable SSLEngine engine) throws CertificateException {
+            checkServerTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate @Nullable [] chain, @Nullable String authType)
+                throws CertificateException {
+            throw new CertificateException("Client certificates are not supported");
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate @Nullable [] chain, @Nullable String authType,
+                @Nullable Socket socket) throws CertificateException {
+            checkClientTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate @Nullable [] chain, @Nullable String authType,
+                @Nullable SSLEngine engine) throws CertificateException {
+            checkClientTrusted(chain, authType);
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[] { rootCertificate };
+        }
+
+        /**
+         * @return the SHA-256 fingerprint of the certificate
+         */
+        static String getPin(X509Certificate certificate) throws CertificateException {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(certificate.getEncoded());
+                StringBuilder pin = new StringBuilder("sha256:");
+                for (byte b : digest) {
+                    pin.append(String.format("%02x", b));
+                }
+                return pin.toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new CertificateException(e);
+            }
+        }
+
+        private static @Nullable String getCommonName(X509Certificate certificate) throws CertificateException {
+            try {
+                for (Rdn rdn : new LdapName(certificate.getSubjectX500Principal().getName()).getRdns()) {
+                    if ("CN".equalsIgnoreCase(rdn.getType())) {
+                        return String.valueOf(rdn.getValue());
+                    }
+                }
+                return null;
+            } catch (InvalidNameException e) {
+                throw new CertificateException("Invalid certificate subject", e);
+            }
+        }
+    }
+}
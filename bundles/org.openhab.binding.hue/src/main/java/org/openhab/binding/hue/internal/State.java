@@ -219,6 +219,10 @@ public class State {
         return reachable;
     }
 
+    public void setReachable(boolean reachable) {
+        this.reachable = reachable;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
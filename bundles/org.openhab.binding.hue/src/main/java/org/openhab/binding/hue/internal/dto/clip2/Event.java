@@ -0,0 +1,30 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal.dto.clip2;
+
+import java.util.List;
+
+/**
+ * An event of the API v2 event stream of the bridge, containing the changed resources.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+public class Event {
+    public static final String TYPE_UPDATE = "update";
+    public static final String TYPE_ADD = "add";
+    public static final String TYPE_DELETE = "delete";
+
+    public String id;
+    public String type;
+    public List<Resource> data;
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal.dto.clip2;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * A resource of an API v2 event. Only the changed attributes of the resource are set.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+public class Resource {
+    public static final String TYPE_LIGHT = "light";
+    public static final String TYPE_ZIGBEE_CONNECTIVITY = "zigbee_connectivity";
+    public static final String STATUS_CONNECTED = "connected";
+
+    public static final String LIGHTS_PREFIX = "/lights/";
+    public static final String SENSORS_PREFIX = "/sensors/";
+
+    public String id;
+    @SerializedName("id_v1")
+    public String idV1;
+    public String type;
+
+    public On on;
+    public Dimming dimming;
+    @SerializedName("color_temperature")
+    public ColorTemperature colorTemperature;
+    public Color color;
+    public String status;
+
+    public static class On {
+        public boolean on;
+    }
+
+    public static class Dimming {
+        public double brightness;
+    }
+
+    public static class ColorTemperature {
+        public Integer mirek;
+    }
+
+    public static class Color {
+        public XY xy;
+    }
+
+    public static class XY {
+        public double x;
+        public double y;
+    }
+}
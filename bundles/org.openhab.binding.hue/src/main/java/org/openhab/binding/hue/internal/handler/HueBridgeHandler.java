@@ -16,10 +16,13 @@ import static org.openhab.binding.hue.internal.HueBindingConstants.*;
 import static org.openhab.core.thing.Thing.*;
 
 import java.io.IOException;
+import java.security.cert.CertificateException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -33,6 +36,7 @@ import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jetty.client.HttpClient;
 import org.openhab.binding.hue.internal.ApiVersionUtils;
 import org.openhab.binding.hue.internal.Config;
 import org.openhab.binding.hue.internal.ConfigUpdate;
@@ -42,11 +46,15 @@ import org.openhab.binding.hue.internal.FullLight;
 import org.openhab.binding.hue.internal.FullSensor;
 import org.openhab.binding.hue.internal.HueBridge;
 import org.openhab.binding.hue.internal.HueConfigStatusMessage;
+import org.openhab.binding.hue.internal.HueEventStream;
+import org.openhab.binding.hue.internal.HueTlsTrustManagerProvider;
 import org.openhab.binding.hue.internal.Scene;
 import org.openhab.binding.hue.internal.State;
 import org.openhab.binding.hue.internal.StateUpdate;
 import org.openhab.binding.hue.internal.config.HueBridgeConfig;
 import org.openhab.binding.hue.internal.discovery.HueDeviceDiscoveryService;
+import org.openhab.binding.hue.internal.dto.clip2.Event;
+import org.openhab.binding.hue.internal.dto.clip2.Resource;
 import org.openhab.binding.hue.internal.exceptions.ApiException;
 import org.openhab.binding.hue.internal.exceptions.DeviceOffException;
 import org.openhab.binding.hue.internal.exceptions.EntityNotAvailableException;
@@ -54,6 +62,7 @@ import org.openhab.binding.hue.internal.exceptions.LinkButtonException;
 import org.openhab.binding.hue.internal.exceptions.UnauthorizedException;
 import org.openhab.core.config.core.Configuration;
 import org.openhab.core.config.core.status.ConfigStatusMessage;
+import org.openhab.core.io.net.http.TlsTrustManagerProvider;
 import org.openhab.core.library.types.HSBType;
 import org.openhab.core.library.types.OnOffType;
 import org.openhab.core.library.types.StringType;
@@ -66,9 +75,13 @@ import org.openhab.core.thing.binding.ConfigStatusBridgeHandler;
 import org.openhab.core.thing.binding.ThingHandlerService;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.StateOption;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.ServiceRegistration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.Gson;
+
 /**
  * {@link HueBridgeHandler} is the handler for a hue bridge and connects it to
  * the framework. All {@link HueLightHandler}s use the {@link HueBridgeHandler} to execute the actual commands.
@@ -84,6 +97,7 @@ import org.slf4j.LoggerFactory;
  * @author Samuel Leisering - Added support for sensor API
  * @author Christoph Weitkamp - Added support for sensor API
  * @author Laurent Garnier - Added support for groups
+ * @author Michal Boronski - Added event stream mode
  */
 @NonNullByDefault
 public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueClient {
@@ -98,6 +112,7 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
 
     private final Logger logger = LoggerFactory.getLogger(HueBridgeHandler.class);
     private final HueStateDescriptionProvider stateDescriptionOptionProvider;
+    private final HttpClient httpClient;
 
     private final Map<String, FullLight> lastLightStates = new ConcurrentHashMap<>();
     private final Map<String, FullSensor> lastSensorStates = new ConcurrentHashMap<>();
@@ -110,6 +125,30 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
 
     final ReentrantLock pollingLock = new ReentrantLock();
 
+    private final Gson gson = new Gson();
+    private @Nullable HueEventStream eventStream;
+    private @Nullable ServiceRegistration<?> tlsTrustManagerProviderRegistration;
+    private final Set<String> pendingSensorIds = new LinkedHashSet<>();
+
+    private final HueEventStream.Listener eventStreamListener = new HueEventStream.Listener() {
+        @Override
+        public void onEventStreamConnected() {
+            onEventStreamStateChanged(true);
+        }
+
+        @Override
+        public void onEvents(List<Event> events) {
+            handleEvents(events);
+        }
+
+        @Override
+        public void onEventStreamDisconnected(String reason) {
+            logger.debug("Event stream of Hue Bridge {} lost ({}), falling back to polling.",
+                    hueBridgeConfig.getIpAddress(), reason);
+            onEventStreamStateChanged(false);
+        }
+    };
+
     abstract class PollingRunnable implements Runnable {
         @Override
         public void run() {
@@ -284,51 +323,7 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
             final HueDeviceDiscoveryService discovery = discoveryService;
 
             for (final FullGroup fullGroup : groups) {
-                State groupState = new State();
-                boolean on = false;
-                int sumBri = 0;
-                int nbBri = 0;
-                State colorRef = null;
-                HSBType firstColorHsb = null;
-                for (String lightId : fullGroup.getLightIds()) {
-                    FullLight light = lastLightStates.get(lightId);
-                    if (light != null) {
-                        final State lightState = light.getState();
-                        logger.trace("Group {}: light {}: on {} bri {} hue {} sat {} temp {} mode {} XY {}",
-                                fullGroup.getName(), light.getName(), lightState.isOn(), lightState.getBrightness(),
-                                lightState.getHue(), lightState.getSaturation(), lightState.getColorTemperature(),
-                                lightState.getColorMode(), lightState.getXY());
-                        if (lightState.isOn()) {
-                            on = true;
-                            sumBri += lightState.getBrightness();
-                            nbBri++;
-                            if (lightState.getColorMode() != null) {
-                                HSBType lightHsb = LightStateConverter.toHSBType(lightState);
-                                if (firstColorHsb == null) {
-                                    // first color light
-                                    firstColorHsb = lightHsb;
-                                    colorRef = lightState;
-                                } else if (!lightHsb.equals(firstColorHsb)) {
-                                    colorRef = null;
-                                }
-                            }
-                        }
-                    }
-                }
-                groupState.setOn(on);
-                groupState.setBri(nbBri == 0 ? 0 : sumBri / nbBri);
-                if (colorRef != null) {
-                    groupState.setColormode(colorRef.getColorMode());
-                    groupState.setHue(colorRef.getHue());
-                    groupState.setSaturation(colorRef.getSaturation());
-                    groupState.setColorTemperature(colorRef.getColorTemperature());
-                    groupState.setXY(colorRef.getXY());
-                }
-                fullGroup.setState(groupState);
-                logger.trace("Group {} ({}): on {} bri {} hue {} sat {} temp {} mode {} XY {}", fullGroup.getName(),
-                        fullGroup.getType(), groupState.isOn(), groupState.getBrightness(), groupState.getHue(),
-                        groupState.getSaturation(), groupState.getColorTemperature(), groupState.getColorMode(),
-                        groupState.getXY());
+                fullGroup.setState(computeGroupState(fullGroup));
 
                 String groupId = fullGroup.getId();
 
@@ -403,9 +398,11 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
 
     private List<String> consoleScenesList = new ArrayList<>();
 
-    public HueBridgeHandler(Bridge bridge, HueStateDescriptionProvider stateDescriptionOptionProvider) {
+    public HueBridgeHandler(Bridge bridge, HueStateDescriptionProvider stateDescriptionOptionProvider,
+            HttpClient httpClient) {
         super(bridge);
         this.stateDescriptionOptionProvider = stateDescriptionOptionProvider;
+        this.httpClient = httpClient;
     }
 
     @Override
@@ -585,6 +582,57 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
         }
     }
 
+    /**
+     * Computes the state of a group from the cached states of its lights.
+     */
+    private State computeGroupState(FullGroup fullGroup) {
+        State groupState = new State();
+        boolean on = false;
+        int sumBri = 0;
+        int nbBri = 0;
+        State colorRef = null;
+        HSBType firstColorHsb = null;
+        for (String lightId : fullGroup.getLightIds()) {
+            FullLight light = lastLightStates.get(lightId);
+            if (light != null) {
+                final State lightState = light.getState();
+                logger.trace("Group {}: light {}: on {} bri {} hue {} sat {} temp {} mode {} XY {}",
+                        fullGroup.getName(), light.getName(), lightState.isOn(), lightState.getBrightness(),
+                        lightState.getHue(), lightState.getSaturation(), lightState.getColorTemperature(),
+                        lightState.getColorMode(), lightState.getXY());
+                if (lightState.isOn()) {
+                    on = true;
+                    sumBri += lightState.getBrightness();
+                    nbBri++;
+                    if (lightState.getColorMode() != null) {
+                        HSBType lightHsb = LightStateConverter.toHSBType(lightState);
+                        if (firstColorHsb == null) {
+                            // first color light
+                            firstColorHsb = lightHsb;
+                            colorRef = lightState;
+                        } else if (!lightHsb.equals(firstColorHsb)) {
+                            colorRef = null;
+                        }
+                    }
+                }
+            }
+        }
+        groupState.setOn(on);
+        groupState.setBri(nbBri == 0 ? 0 : sumBri / nbBri);
+        if (colorRef != null) {
+            groupState.setColormode(colorRef.getColorMode());
+            groupState.setHue(colorRef.getHue());
+            groupState.setSaturation(colorRef.getSaturation());
+            groupState.setColorTemperature(colorRef.getColorTemperature());
+            groupState.setXY(colorRef.getXY());
+        }
+        logger.trace("Group {} ({}): on {} bri {} hue {} sat {} temp {} mode {} XY {}", fullGroup.getName(),
+                fullGroup.getType(), groupState.isOn(), groupState.getBrightness(), groupState.getHue(),
+                groupState.getSaturation(), groupState.getColorTemperature(), groupState.getColorMode(),
+                groupState.getXY());
+        return groupState;
+    }
+
     private void startLightPolling() {
         ScheduledFuture<?> job = lightPollingJob;
         if (job == null || job.isCancelled()) {
@@ -656,6 +704,234 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
         scenePollingJob = null;
     }
 
+    private void startEventStream() throws IOException, ApiException {
+        String userName = hueBridgeConfig.getUserName();
+        if (!hueBridgeConfig.isUseEventStream() || eventStream != null || userName == null) {
+            return;
+        }
+        // the certificate of the bridge is issued for its id, which is derived from the stored serial number
+        String serialNumber = getThing().getProperties().get(PROPERTY_SERIAL_NUMBER);
+        if (serialNumber == null || serialNumber.length() != 12) {
+            logger.debug("Serial number of the bridge is unknown, not using the event stream");
+            return;
+        }
+        String bridgeId = serialNumber.substring(0, 6) + "fffe" + serialNumber.substring(6);
+        // the API v2 is only available by HTTPS
+        int port = HueBridgeConfig.HTTPS.equals(hueBridgeConfig.getProtocol()) ? hueBridgeConfig.getPort() : 443;
+        synchronized (this) {
+            if (eventStream != null) {
+                return;
+            }
+            String ip = hueBridge.getIPAddress();
+            HueTlsTrustManagerProvider tlsTrustManagerProvider;
+            try {
+                tlsTrustManagerProvider = new HueTlsTrustManagerProvider(ip, port, bridgeId,
+                        getThing().getProperties().get(PROPERTY_CERTIFICATE_PIN),
+                        pin -> updateProperty(PROPERTY_CERTIFICATE_PIN, pin));
+            } catch (CertificateException e) {
+                logger.warn("Cannot verify the certificate of the bridge, not using the event stream: {}",
+                        e.getMessage());
+                return;
+            }
+            tlsTrustManagerProviderRegistration = FrameworkUtil.getBundle(getClass()).getBundleContext()
+                    .registerService(TlsTrustManagerProvider.class.getName(), tlsTrustManagerProvider, null);
+            HueEventStream stream = new HueEventStream(httpClient, scheduler, ip, port, userName,
+                    eventStreamListener);
+            eventStream = stream;
+            stream.start();
+        }
+    }
+
+    private synchronized void stopEventStream() {
+        HueEventStream stream = eventStream;
+        if (stream != null) {
+            stream.stop();
+        }
+        eventStream = null;
+        ServiceRegistration<?> registration = tlsTrustManagerProviderRegistration;
+        if (registration != null) {
+            registration.unregister();
+        }
+        tlsTrustManagerProviderRegistration = null;
+    }
+
+    /**
+     * Stops polling lights and sensors while the event stream is connected, and polls them again once it is lost.
+     */
+    private synchronized void onEventStreamStateChanged(boolean connected) {
+        if (eventStream == null) {
+            return; // already stopped
+        }
+        if (connected) {
+            stopLightPolling();
+            stopSensorPolling();
+            // changes may have been missed while the stream was not connected
+            scheduleFullUpdate();
+        } else {
+            startLightPolling();
+            startSensorPolling();
+        }
+    }
+
+    /**
+     * Fetches the full state of the lights, groups and sensors once, e.g. when lights were added or removed.
+     */
+    private void scheduleFullUpdate() {
+        scheduler.execute(lightPollingRunnable);
+        if (hueBridgeConfig.getSensorPollingInterval() > 0) {
+            scheduler.execute(sensorPollingRunnable);
+        }
+    }
+
+    /**
+     * Applies the changed resources of event stream events to the cached states and informs the listeners.
+     * Light changes are applied directly. Sensors are fetched on their own, as their API v1 state cannot be derived
+     * from the events. They are fetched by the scheduler, so that the stream is never blocked by a request to the
+     * bridge. Added or removed resources cause a full update.
+     */
+    void handleEvents(List<Event> events) {
+        if (hueBridge == null) {
+            return;
+        }
+        boolean fullUpdate = false;
+        Set<String> changedLightIds = new HashSet<>();
+        Set<String> sensorIds = new LinkedHashSet<>();
+        pollingLock.lock();
+        try {
+            for (Event event : events) {
+                if (event.data == null) {
+                    continue;
+                }
+                if (!Event.TYPE_UPDATE.equals(event.type)) {
+                    fullUpdate |= Event.TYPE_ADD.equals(event.type) || Event.TYPE_DELETE.equals(event.type);
+                    continue;
+                }
+                for (Resource resource : event.data) {
+                    String idV1 = resource.idV1;
+                    if (idV1 == null) {
+                        continue;
+                    }
+                    if (idV1.startsWith(Resource.LIGHTS_PREFIX)) {
+                        String lightId = idV1.substring(Resource.LIGHTS_PREFIX.length());
+                        if (applyLightEvent(lightId, resource)) {
+                            changedLightIds.add(lightId);
+                        }
+                    } else if (idV1.startsWith(Resource.SENSORS_PREFIX)) {
+                        sensorIds.add(idV1.substring(Resource.SENSORS_PREFIX.length()));
+                    }
+                }
+            }
+            if (!changedLightIds.isEmpty()) {
+                updateGroupStates(changedLightIds);
+            }
+        } finally {
+            pollingLock.unlock();
+        }
+        if (!sensorIds.isEmpty() && hueBridgeConfig.getSensorPollingInterval() > 0) {
+            boolean scheduled;
+            synchronized (pendingSensorIds) {
+                scheduled = !pendingSensorIds.isEmpty();
+                pendingSensorIds.addAll(sensorIds);
+            }
+            if (!scheduled) {
+                scheduler.execute(this::updatePendingSensors);
+            }
+        }
+        if (fullUpdate) {
+            scheduleFullUpdate();
+        }
+    }
+
+    private boolean applyLightEvent(String lightId, Resource resource) {
+        if (!Resource.TYPE_LIGHT.equals(resource.type) && !Resource.TYPE_ZIGBEE_CONNECTIVITY.equals(resource.type)) {
+            return false;
+        }
+        FullLight lastLightState = lastLightStates.get(lightId);
+        if (lastLightState == null) {
+            return false; // added by the next full update
+        }
+        // the cached light is also held by its handler, so it must not be modified
+        FullLight fullLight = copy(lastLightState, FullLight.class);
+        LightStateConverter.applyEventResource(fullLight.getState(), resource);
+        if (fullLight.getState().equals(lastLightState.getState())) {
+            return false;
+        }
+        // unlike a polled state, an event is always newer than the cached state, even during a poll bypass
+        lastLightStates.put(lightId, fullLight);
+        final LightStatusListener lightStatusListener = lightStatusListeners.get(lightId);
+        if (lightStatusListener != null) {
+            lightStatusListener.onLightStateChanged(fullLight);
+        }
+        return true;
+    }
+
+    private void updateGroupStates(Set<String> changedLightIds) {
+        lastGroupStates.forEach((groupId, lastGroupState) -> {
+            if (Collections.disjoint(lastGroupState.getLightIds(), changedLightIds)) {
+                return;
+            }
+            FullGroup fullGroup = copy(lastGroupState, FullGroup.class);
+            fullGroup.setState(computeGroupState(fullGroup));
+            if (fullGroup.getState().equals(lastGroupState.getState())) {
+                return;
+            }
+            lastGroupStates.put(groupId, fullGroup);
+            final GroupStatusListener groupStatusListener = groupStatusListeners.get(groupId);
+            if (groupStatusListener != null) {
+                groupStatusListener.onGroupStateChanged(fullGroup);
+            }
+        });
+    }
+
+    /**
+     * Fetches the sensors changed by events. Events arriving meanwhile add their sensors to the pending ones, which
+     * are fetched by the same run.
+     */
+    private void updatePendingSensors() {
+        while (true) {
+            String sensorId;
+            synchronized (pendingSensorIds) {
+                if (pendingSensorIds.isEmpty()) {
+                    return;
+                }
+                sensorId = pendingSensorIds.iterator().next();
+            }
+            try {
+                updateSensor(sensorId);
+            } finally {
+                synchronized (pendingSensorIds) {
+                    pendingSensorIds.remove(sensorId);
+                }
+            }
+        }
+    }
+
+    private void updateSensor(String sensorId) {
+        HueBridge localBridge = hueBridge;
+        if (localBridge == null) {
+            return;
+        }
+        try {
+            // fetched without the polling lock, only the update of the cached state is synchronized with polls
+            FullSensor sensor = localBridge.getSensor(sensorId);
+            pollingLock.lock();
+            try {
+                final SensorStatusListener sensorStatusListener = sensorStatusListeners.get(sensorId);
+                if (sensorStatusListener == null || sensorStatusListener.onSensorStateChanged(sensor)) {
+                    lastSensorStates.put(sensorId, sensor);
+                }
+            } finally {
+                pollingLock.unlock();
+            }
+        } catch (IOException | ApiException e) {
+            logger.debug("Failed to update sensor {} after event: {}", sensorId, e.getMessage());
+        }
+    }
+
+    private <T> T copy(T object, Class<T> type) {
+        return gson.fromJson(gson.toJson(object), type);
+    }
+
     @Override
     public void dispose() {
         logger.debug("Handler disposed.");
@@ -663,6 +939,10 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
         if (job != null) {
             job.cancel(true);
         }
+        stopEventStream();
+        synchronized (pendingSensorIds) {
+            pendingSensorIds.clear();
+        }
         stopLightPolling();
         stopSensorPolling();
         stopScenePolling();
@@ -735,7 +1015,12 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
                 Map<String, String> properties = editProperties();
                 String serialNumber = config.getBridgeId().substring(0, 6) + config.getBridgeId().substring(10);
                 serialNumber = serialNumber.toLowerCase();
-                properties.put(PROPERTY_SERIAL_NUMBER, serialNumber);
+                // the serial number identifies the bridge, e.g. for its certificate, so a known one is kept
+                String knownSerialNumber = properties.putIfAbsent(PROPERTY_SERIAL_NUMBER, serialNumber);
+                if (knownSerialNumber != null && !knownSerialNumber.equals(serialNumber)) {
+                    logger.warn("Bridge at {} reports serial number {} instead of {}", hueBridge.getIPAddress(),
+                            serialNumber, knownSerialNumber);
+                }
                 properties.put(PROPERTY_MODEL_ID, config.getModelId());
                 properties.put(PROPERTY_MAC_ADDRESS, config.getMACAddress());
                 properties.put(PROPERTY_FIRMWARE_VERSION, config.getSoftwareVersion());
@@ -762,6 +1047,7 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
             return false;
         } else {
             onConnectionResumed();
+            startEventStream();
             return true;
         }
     }
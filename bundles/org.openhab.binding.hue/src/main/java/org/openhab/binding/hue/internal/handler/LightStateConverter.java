@@ -20,6 +20,7 @@ import org.openhab.binding.hue.internal.State.ColorMode;
 import org.openhab.binding.hue.internal.State.Effect;
 import org.openhab.binding.hue.internal.StateUpdate;
 import org.openhab.binding.hue.internal.dto.ColorTemperature;
+import org.openhab.binding.hue.internal.dto.clip2.Resource;
 import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.library.types.HSBType;
 import org.openhab.core.library.types.IncreaseDecreaseType;
@@ -37,6 +38,7 @@ import org.openhab.core.library.types.StringType;
  * @author Yordan Zhelev - added method for alert
  * @author Denis Dudnik - switched to internally integrated source of Jue library, minor code cleanup
  * @author Christoph Weitkamp - Added support for bulbs using CIE XY colormode only
+ * @author Michal Boronski - Added conversion of event stream resources
  */
 @NonNullByDefault
 public class LightStateConverter {
@@ -332,6 +334,41 @@ public class LightStateConverter {
         return stateUpdate;
     }
 
+    /**
+     * Applies the changed attributes of a light or connectivity resource of the event stream to a light state.
+     *
+     * @param lightState light state to update
+     * @param resource resource containing the changed attributes only
+     */
+    public static void applyEventResource(State lightState, Resource resource) {
+        if (Resource.TYPE_ZIGBEE_CONNECTIVITY.equals(resource.type)) {
+            if (resource.status != null) {
+                lightState.setReachable(Resource.STATUS_CONNECTED.equals(resource.status));
+            }
+            return;
+        }
+        Resource.On on = resource.on;
+        if (on != null) {
+            lightState.setOn(on.on);
+        }
+        Resource.Dimming dimming = resource.dimming;
+        if (dimming != null) {
+            int brightness = (int) Math.round(dimming.brightness * BRIGHTNESS_FACTOR);
+            lightState.setBri(Math.max(1, Math.min(brightness, (int) (BRIGHTNESS_FACTOR * 100))));
+        }
+        Resource.ColorTemperature colorTemperature = resource.colorTemperature;
+        // the mirek is not set if the light is not in color temperature mode
+        if (colorTemperature != null && colorTemperature.mirek != null) {
+            lightState.setColorTemperature(colorTemperature.mirek);
+            lightState.setColormode(ColorMode.CT);
+        }
+        Resource.Color color = resource.color;
+        if (color != null && color.xy != null) {
+            lightState.setXY(new float[] { (float) color.xy.x, (float) color.xy.y });
+            lightState.setColormode(ColorMode.XY);
+        }
+    }
+
     private static int restrictToBounds(int percentValue) {
         if (percentValue < 0) {
             return 0;
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jetty.client.HttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.hue.internal.dto.clip2.Event;
+import org.openhab.binding.hue.internal.dto.clip2.Resource;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests {@link HueEventStream} against a local server standing in for the event stream of the bridge.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class HueEventStreamTest {
+
+    private static final String APPLICATION_KEY = "application-key";
+    private static final String EVENT = "[{\"creationtime\":\"2021-10-01T10:00:00Z\",\"data\":[{\"id\":\"1a2b\","
+            + "\"id_v1\":\"/lights/3\",\"on\":{\"on\":true},\"dimming\":{\"brightness\":42.5},\"type\":\"light\"}],"
+            + "\"id\":\"e1\",\"type\":\"update\"}]";
+
+    private @NonNullByDefault({}) HttpServer server;
+    private final HttpClient httpClient = new HttpClient();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private @Nullable HueEventStream stream;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final BlockingQueue<String> callbacks = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+    private volatile int responseCode = 200;
+
+    private final HueEventStream.Listener listener = new HueEventStream.Listener() {
+        @Override
+        public void onEventStreamConnected() {
+            callbacks.add("connected");
+        }
+
+        @Override
+        public void onEvents(List<Event> received) {
+            events.addAll(received);
+        }
+
+        @Override
+        public void onEventStreamDisconnected(String reason) {
+            callbacks.add("disconnected");
+        }
+    };
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        httpClient.start();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/eventstream/clip/v2", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        HueEventStream localStream = stream;
+        if (localStream != null) {
+            localStream.stop();
+        }
+        server.stop(0);
+        scheduler.shutdownNow();
+        httpClient.stop();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        if (!APPLICATION_KEY.equals(exchange.getRequestHeaders().getFirst("hue-application-key"))) {
+            exchange.sendResponseHeaders(403, -1);
+            exchange.close();
+            return;
+        }
+        if (responseCode != 200) {
+            exchange.sendResponseHeaders(responseCode, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(": hi\n\n".getBytes(StandardCharsets.UTF_8));
+            out.write(("id: 1:0\ndata: " + EVENT + "\n\n").getBytes(StandardCharsets.UTF_8));
+            out.write("data: not json\n\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+    }
+
+    private HueEventStream createStream(String applicationKey) {
+        HueEventStream localStream = new HueEventStream(httpClient, scheduler,
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/eventstream/clip/v2", applicationKey, listener,
+                2000, 10);
+        stream = localStream;
+        return localStream;
+    }
+
+    @Test
+    public void testEventsAreReceivedAndStreamIsReconnected() throws InterruptedException {
+        createStream(APPLICATION_KEY).start();
+
+        Event event = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(Event.TYPE_UPDATE, event.type);
+        assertEquals(1, event.data.size());
+        Resource resource = event.data.get(0);
+        assertEquals("/lights/3", resource.idV1);
+        assertEquals(Resource.TYPE_LIGHT, resource.type);
+        assertTrue(resource.on.on);
+        assertEquals(42.5, resource.dimming.brightness);
+
+        // the server closes every stream after the events, which is reported and reconnected
+        assertEquals("connected", callbacks.poll(5, TimeUnit.SECONDS));
+        assertEquals("disconnected", callbacks.poll(5, TimeUnit.SECONDS));
+        assertEquals("connected", callbacks.poll(5, TimeUnit.SECONDS));
+        assertNotNull(events.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFailedConnectionIsNotReportedAsDisconnect() throws InterruptedException {
+        createStream("wrong-key").start();
+
+        long timeout = System.currentTimeMillis() + 5000;
+        while (requests.get() < 3 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertTrue(requests.get() >= 3);
+        assertTrue(callbacks.isEmpty());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testStreamStopsIfNotSupported() throws InterruptedException {
+        responseCode = 404;
+        HueEventStream localStream = createStream(APPLICATION_KEY);
+        localStream.start();
+
+        long timeout = System.currentTimeMillis() + 5000;
+        while (localStream.isRunning() && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertFalse(localStream.isRunning());
+        assertEquals(1, requests.get());
+        assertTrue(callbacks.isEmpty());
+    }
+}
@@ -0,0 +1,261 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.net.ssl.X509ExtendedTrustManager;
+import javax.security.auth.x500.X500Principal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the verification of the bridge certificate by {@link HueTlsTrustManagerProvider}. The certificates are
+ * generated by the test, with a test CA in place of the Hue bridge root CA.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class HueTlsTrustManagerProviderTest {
+
+    private static final String BRIDGE_ID = "001788fffe123456";
+    private static final String ROOT_SUBJECT = "C=NL, O=Philips Hue, CN=root-bridge";
+    private static final Duration VALIDITY = Duration.ofDays(365);
+
+    private final KeyPair rootKeys = generateKeyPair();
+    private final X509Certificate root = certificate(ROOT_SUBJECT, rootKeys, ROOT_SUBJECT, rootKeys.getPrivate());
+    private final List<String> pins = new ArrayList<>();
+
+    private static KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(256);
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] der(int tag, byte[]... contents) {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (byte[] bytes : contents) {
+            content.writeBytes(bytes);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(tag);
+        int length = content.size();
+        if (length < 0x80) {
+            out.write(length);
+        } else {
+            byte[] lengthBytes = BigInteger.valueOf(length).toByteArray();
+            int start = lengthBytes[0] == 0 ? 1 : 0;
+            out.write(0x80 | (lengthBytes.length - start));
+            out.write(lengthBytes, start, lengthBytes.length - start);
+        }
+        out.writeBytes(content.toByteArray());
+        return out.toByteArray();
+    }
+
+    private static byte[] time(Instant instant) {
+        String utcTime = DateTimeFormatter.ofPattern("yyMMddHHmmss'Z'").withZone(ZoneOffset.UTC).format(instant);
+        return der(0x17, utcTime.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Generates a X.509 v1 certificate signed with ECDSA
+     */
+    private static X509Certificate certificate(String subject, KeyPair subjectKeys, String issuer,
+            PrivateKey issuerKey, Instant notBefore, Instant notAfter) {
+        try {
+            // ecdsa-with-SHA256
+            byte[] algorithm = der(0x30, der(0x06, new byte[] { 0x2a, (byte) 0x86, 0x48, (byte) 0xce, 0x3d, 0x04,
+                    0x03, 0x02 }));
+            byte[] serialNumber = der(0x02, BigInteger.valueOf(System.nanoTime()).toByteArray());
+            byte[] tbsCertificate = der(0x30, serialNumber, algorithm, new X500Principal(issuer).getEncoded(),
+                    der(0x30, time(notBefore), time(notAfter)), new X500Principal(subject).getEncoded(),
+                    subjectKeys.getPublic().getEncoded());
+            Signature signature = Signature.getInstance("SHA256withECDSA");
+            signature.initSign(issuerKey);
+            signature.update(tbsCertificate);
+            byte[] signatureBits = der(0x03, new byte[] { 0 }, signature.sign());
+            return (X509Certificate) CertificateFactory.getInstance("X.509")
+                    .generateCertificate(new ByteArrayInputStream(der(0x30, tbsCertificate, algorithm, signatureBits)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static X509Certificate certificate(String subject, KeyPair subjectKeys, String issuer,
+            PrivateKey issuerKey) {
+        Instant now = Instant.now();
+        return certificate(subject, subjectKeys, issuer, issuerKey, now.minus(VALIDITY), now.plus(VALIDITY));
+    }
+
+    private X509Certificate issuedByRoot(String subject) {
+        return certificate(subject, generateKeyPair(), ROOT_SUBJECT, rootKeys.getPrivate());
+    }
+
+    private static X509Certificate selfSigned(String subject) {
+        KeyPair keys = generateKeyPair();
+        return certificate(subject, keys, subject, keys.getPrivate());
+    }
+
+    private HueTlsTrustManagerProvider provider(@Nullable String pinnedCertificate) throws CertificateException {
+        return new HueTlsTrustManagerProvider("192.168.0.2", 443, BRIDGE_ID, pinnedCertificate, pins::add, root);
+    }
+
+    private X509ExtendedTrustManager trustManager(@Nullable String pinnedCertificate) throws CertificateException {
+        return provider(pinnedCertificate).getTrustManager();
+    }
+
+    @Test
+    public void testHostNameIncludesPort() throws CertificateException {
+        assertEquals("192.168.0.2:443", provider(null).getHostName());
+    }
+
+    @Test
+    public void testRootCertificateIsShipped() throws CertificateException {
+        new HueTlsTrustManagerProvider("192.168.0.2", 443, BRIDGE_ID, null, pins::add);
+    }
+
+    @Test
+    public void testCertificateIssuedByRootIsTrusted() throws CertificateException {
+        X509ExtendedTrustManager trustManager = trustManager(null);
+
+        trustManager.checkServerTrusted(new X509Certificate[] { issuedByRoot("C=NL, O=Philips Hue, CN=" + BRIDGE_ID) },
+                "EC");
+        trustManager.checkServerTrusted(
+                new X509Certificate[] { issuedByRoot("C=NL, O=Philips Hue, CN=001788FFFE123456"), root }, "EC");
+        assertEquals(List.of(HueTlsTrustManagerProvider.PIN_ROOT_CA), pins);
+    }
+
+    @Test
+    public void testCertificateOfOtherBridgeIsRejected() throws CertificateException {
+        X509ExtendedTrustManager trustManager = trustManager(null);
+
+        assertThrows(CertificateException.class, () -> trustManager
+                .checkServerTrusted(new X509Certificate[] { issuedByRoot("CN=001788fffe654321"), root }, "EC"));
+        assertThrows(CertificateException.class, () -> trustManager
+                .checkServerTrusted(new X509Certificate[] { issuedByRoot("CN=192.168.0.2") }, "EC"));
+        assertThrows(CertificateException.class, () -> trustManager
+                .checkServerTrusted(new X509Certificate[] { issuedByRoot("O=Philips Hue") }, "EC"));
+        assertThrows(CertificateException.class, () -> trustManager.checkServerTrusted(new X509Certificate[0], "EC"));
+        assertEquals(List.of(), pins);
+    }
+
+    @Test
+    public void testExpiredCertificateIsRejected() throws CertificateException {
+        Instant now = Instant.now();
+        X509Certificate certificate = certificate("CN=" + BRIDGE_ID, generateKeyPair(), ROOT_SUBJECT,
+                rootKeys.getPrivate(), now.minus(VALIDITY), now.minus(Duration.ofDays(1)));
+        KeyPair keys = generateKeyPair();
+        X509Certificate selfSigned = certificate("CN=" + BRIDGE_ID, keys, "CN=" + BRIDGE_ID, keys.getPrivate(),
+                now.minus(VALIDITY), now.minus(Duration.ofDays(1)));
+        X509ExtendedTrustManager trustManager = trustManager(null);
+
+        assertThrows(CertificateException.class,
+                () -> trustManager.checkServerTrusted(new X509Certificate[] { certificate, root }, "EC"));
+        assertThrows(CertificateException.class,
+                () -> trustManager.checkServerTrusted(new X509Certificate[] { selfSigned }, "EC"));
+    }
+
+    @Test
+    public void testCertificateOfForgedRootIsRejected() throws CertificateException {
+        // a consistent chain of another CA with the same name as the Hue bridge root CA
+        KeyPair forgedRootKeys = generateKeyPair();
+        X509Certificate forgedRoot = certificate(ROOT_SUBJECT, forgedRootKeys, ROOT_SUBJECT,
+                forgedRootKeys.getPrivate());
+        X509Certificate certificate = certificate("CN=" + BRIDGE_ID, generateKeyPair(), ROOT_SUBJECT,
+                forgedRootKeys.getPrivate());
+
+        X509ExtendedTrustManager trustManager = trustManager(null);
+        assertThrows(CertificateException.class,
+                () -> trustManager.checkServerTrusted(new X509Certificate[] { certificate, forgedRoot }, "EC"));
+        assertThrows(CertificateException.class,
+                () -> trustManager.checkServerTrusted(new X509Certificate[] { certificate }, "EC"));
+        assertEquals(List.of(), pins);
+    }
+
+    @Test
+    public void testSelfSignedCertificateIsPinnedOnFirstUse() throws CertificateException {
+        X509Certificate certificate = selfSigned("CN=" + BRIDGE_ID);
+        X509ExtendedTrustManager trustManager = trustManager(null);
+
+        trustManager.checkServerTrusted(new X509Certificate[] { certificate }, "EC");
+        trustManager.checkServerTrusted(new X509Certificate[] { certificate }, "EC");
+        assertEquals(1, pins.size());
+        assertTrue(pins.get(0).startsWith("sha256:"));
+
+        // a certificate generated by anyone else is rejected afterwards
+        assertThrows(CertificateException.class, () -> trustManager
+                .checkServerTrusted(new X509Certificate[] { selfSigned("CN=" + BRIDGE_ID) }, "EC"));
+        // as well as by a new trust manager using the stored pin
+        trustManager(pins.get(0)).checkServerTrusted(new X509Certificate[] { certificate }, "EC");
+        assertThrows(CertificateException.class, () -> trustManager(pins.get(0))
+                .checkServerTrusted(new X509Certificate[] { selfSigned("CN=" + BRIDGE_ID) }, "EC"));
+        assertEquals(1, pins.size());
+    }
+
+    @Test
+    public void testNewSelfSignedCertificateIsRejectedForBridgeWithRootCertificate() throws CertificateException {
+        X509Certificate certificate = selfSigned("C=NL, O=Philips Hue, CN=" + BRIDGE_ID);
+        X509ExtendedTrustManager trustManager = trustManager(HueTlsTrustManagerProvider.PIN_ROOT_CA);
+
+        assertThrows(CertificateException.class,
+                () -> trustManager.checkServerTrusted(new X509Certificate[] { certificate }, "EC"));
+        assertThrows(CertificateException.class,
+                () -> trustManager.checkServerTrusted(new X509Certificate[] { certificate, root }, "EC"));
+        trustManager.checkServerTrusted(new X509Certificate[] { issuedByRoot("CN=" + BRIDGE_ID) }, "EC");
+        assertEquals(List.of(), pins);
+    }
+
+    @Test
+    public void testCertificateNotSignedByIssuerIsRejected() throws CertificateException {
+        // issued for the root CA, but signed by another key
+        KeyPair keys = generateKeyPair();
+        X509Certificate certificate = certificate("CN=" + BRIDGE_ID, keys, ROOT_SUBJECT, keys.getPrivate());
+
+        X509ExtendedTrustManager trustManager = trustManager(null);
+        assertThrows(CertificateException.class,
+                () -> trustManager.checkServerTrusted(new X509Certificate[] { certificate, root }, "EC"));
+        assertEquals(List.of(), pins);
+    }
+
+    @Test
+    public void testClientCertificatesAreRejected() throws CertificateException {
+        X509ExtendedTrustManager trustManager = trustManager(null);
+        assertThrows(CertificateException.class, () -> trustManager
+                .checkClientTrusted(new X509Certificate[] { issuedByRoot("CN=" + BRIDGE_ID) }, "EC"));
+    }
+}
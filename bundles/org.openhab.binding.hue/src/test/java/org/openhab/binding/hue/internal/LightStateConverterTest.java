@@ -15,11 +15,12 @@ package org.openhab.binding.hue.internal;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.api.Test;
 import org.openhab.binding.hue.internal.State.ColorMode;
 import org.openhab.binding.hue.internal.dto.ColorTemperature;
+import org.openhab.binding.hue.internal.dto.clip2.Resource;
 import org.openhab.binding.hue.internal.handler.LightStateConverter;
 import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.library.types.HSBType;
@@ -210,4 +211,41 @@ public class LightStateConverterTest {
             assertTrue(LightStateConverter.toHSBType(lightState).getSaturation().intValue() > 0);
         }
     }
+
+    @Test
+    public void eventResourceIsAppliedToLightState() {
+        final State lightState = new State();
+        lightState.colormode = ColorMode.XY.toString();
+        Resource resource = new Resource();
+        resource.type = Resource.TYPE_LIGHT;
+        resource.on = new Resource.On();
+        resource.on.on = true;
+        resource.dimming = new Resource.Dimming();
+        resource.dimming.brightness = 50.0;
+        resource.colorTemperature = new Resource.ColorTemperature();
+        resource.colorTemperature.mirek = 366;
+
+        LightStateConverter.applyEventResource(lightState, resource);
+
+        assertTrue(lightState.isOn());
+        assertThat(lightState.getBrightness(), is(127));
+        assertThat(lightState.getColorTemperature(), is(366));
+        assertThat(lightState.getColorMode(), is(ColorMode.CT));
+
+        // attributes not contained in the resource are kept
+        resource = new Resource();
+        resource.type = Resource.TYPE_LIGHT;
+        resource.dimming = new Resource.Dimming();
+        resource.dimming.brightness = 0.2;
+        LightStateConverter.applyEventResource(lightState, resource);
+        assertTrue(lightState.isOn());
+        assertThat(lightState.getBrightness(), is(1));
+        assertThat(lightState.getColorTemperature(), is(366));
+
+        resource = new Resource();
+        resource.type = Resource.TYPE_ZIGBEE_CONNECTIVITY;
+        resource.status = "connectivity_issue";
+        LightStateConverter.applyEventResource(lightState, resource);
+        assertFalse(lightState.isReachable());
+    }
 }
@@ -17,10 +17,14 @@ import java.io.InputStream;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -61,10 +65,27 @@ import biweekly.util.com.google.ical.compat.javautil.DateIterator;
  * @author Michael Wodniok - Added logic for events moved with "RECURRENCE-ID" (issue 9647)
  * @author Michael Wodniok - Extended logic for defined behavior with parallel current events
  *         (issue 10808)
+ * @author Michal Boronski - Index of occurrences instead of expanding recurrences on every query
  */
 @NonNullByDefault
 class BiweeklyPresentableCalendar extends AbstractPresentableCalendar {
+    /**
+     * Time before the first queried instant covered by a new occurrence index, for events which just ended.
+     */
+    private static final Duration INDEX_LOOKBACK = Duration.ofDays(1);
+    /**
+     * Minimum time after the first queried instant covered by a new occurrence index.
+     */
+    private static final Duration INDEX_HORIZON = Duration.ofDays(32);
+    /**
+     * Maximum time covered by an occurrence index. Queries for longer frames expand the recurrences directly.
+     */
+    private static final Duration INDEX_MAXIMUM_SPAN = Duration.ofDays(400);
+
     private final ICalendar usedCalendar;
+    private final List<VEvent> positiveEvents = new ArrayList<>();
+    private final Map<String, List<VEvent>> negativeEventsByUid = new HashMap<>();
+    private volatile @Nullable OccurrenceIndex occurrenceIndex;
 
     BiweeklyPresentableCalendar(InputStream streamed) throws IOException, CalendarException {
         try (final ICalReader reader = new ICalReader(streamed)) {
@@ -74,6 +95,15 @@ class BiweeklyPresentableCalendar extends AbstractPresentableCalendar {
             }
             this.usedCalendar = currentCalendar;
         }
+        final List<VEvent> negativeEvents = new ArrayList<>();
+        classifyEvents(positiveEvents, negativeEvents);
+        for (final VEvent negativeEvent : negativeEvents) {
+            final Uid negativeEventUid = negativeEvent.getUid();
+            if (negativeEventUid != null && negativeEventUid.getValue() != null) {
+                negativeEventsByUid.computeIfAbsent(negativeEventUid.getValue(), uid -> new ArrayList<>())
+                        .add(negativeEvent);
+            }
+        }
     }
 
     @Override
@@ -100,10 +130,16 @@ class BiweeklyPresentableCalendar extends AbstractPresentableCalendar {
 
     @Override
     public @Nullable Event getNextEvent(Instant instant) {
+        final OccurrenceIndex index = getOccurrenceIndex(instant, instant);
+        if (index != null) {
+            final VEventWPeriod nextOccurrence = index.getNext(instant);
+            if (nextOccurrence != null) {
+                return nextOccurrence.toEvent();
+            }
+            // the next event is beyond the index, if there is any
+        }
+
         final Collection<VEventWPeriod> candidates = new ArrayList<VEventWPeriod>();
-        final Collection<VEvent> negativeEvents = new ArrayList<VEvent>();
-        final Collection<VEvent> positiveEvents = new ArrayList<VEvent>();
-        classifyEvents(positiveEvents, negativeEvents);
         for (final VEvent currentEvent : positiveEvents) {
             final DateIterator startDates = this.getRecurredEventDateIterator(currentEvent);
             final Duration duration = getEventLength(currentEvent);
@@ -114,8 +150,7 @@ class BiweeklyPresentableCalendar extends AbstractPresentableCalendar {
             while (startDates.hasNext()) {
                 final Instant startInstant = startDates.next().toInstant();
                 if (startInstant.isAfter(instant)) {
-                    final Uid currentEventUid = currentEvent.getUid();
-                    if (currentEventUid == null || !isCounteredBy(startInstant, currentEventUid, negativeEvents)) {
+                    if (!isCountered(startInstant, currentEvent)) {
                         candidates.add(new VEventWPeriod(currentEvent, startInstant, startInstant.plus(duration)));
                         break;
                     }
@@ -220,9 +255,11 @@ class BiweeklyPresentableCalendar extends AbstractPresentableCalendar {
      */
     private List<VEventWPeriod> getVEventWPeriodsBetween(Instant frameBegin, Instant frameEnd, int maximumPerSeries,
             boolean searchByEnd) {
-        final List<VEvent> positiveEvents = new ArrayList<>();
-        final List<VEvent> negativeEvents = new ArrayList<>();
-        classifyEvents(positiveEvents, negativeEvents);
+        final OccurrenceIndex index = getOccurrenceIndex(frameBegin, frameEnd);
+        if (index != null) {
+            return searchByEnd ? index.getEndingBetween(frameBegin, frameEnd, maximumPerSeries)
+                    : index.getBeginningBetween(frameBegin, frameEnd, maximumPerSeries);
+        }
 
         final List<VEventWPeriod> eventList = new ArrayList<>();
         for (final VEvent positiveEvent : positiveEvents) {
@@ -246,16 +283,7 @@ class BiweeklyPresentableCalendar extends AbstractPresentableCalendar {
                 }
 
                 final VEventWPeriod resultingVEWP = new VEventWPeriod(positiveEvent, begInst, begInst.plus(duration));
-                final Uid eventUid = positiveEvent.getUid();
-                if (eventUid != null) {
-                    if (!isCounteredBy(begInst, eventUid, negativeEvents)) {
-                        eventList.add(resultingVEWP);
-                        foundInSeries++;
-                        if (maximumPerSeries != 0 && foundInSeries >= maximumPerSeries) {
-                            break;
-                        }
-                    }
-                } else {
+                if (!isCountered(begInst, positiveEvent)) {
                     eventList.add(resultingVEWP);
                     foundInSeries++;
                     if (maximumPerSeries != 0 && foundInSeries >= maximumPerSeries) {
@@ -297,9 +325,10 @@ class BiweeklyPresentableCalendar extends AbstractPresentableCalendar {
      * @return A VEventWPeriod describing the event or null if there is none.
      */
     private @Nullable VEventWPeriod getCurrentComponentWPeriod(Instant instant) {
-        final List<VEvent> negativeEvents = new ArrayList<VEvent>();
-        final List<VEvent> positiveEvents = new ArrayList<VEvent>();
-        classifyEvents(positiveEvents, negativeEvents);
+        final OccurrenceIndex index = getOccurrenceIndex(instant, instant);
+        if (index != null) {
+            return index.getCurrent(instant);
+        }
 
         VEventWPeriod earliestEndingEvent = null;
 
@@ -314,8 +343,7 @@ class BiweeklyPresentableCalendar extends AbstractPresentableCalendar {
                 final Instant startInstant = startDates.next().toInstant();
                 final Instant endInstant = startInstant.plus(duration);
                 if (startInstant.isBefore(instant) && endInstant.isAfter(instant)) {
-                    final Uid eventUid = currentEvent.getUid();
-                    if (eventUid == null || !isCounteredBy(startInstant, eventUid, negativeEvents)) {
+                    if (!isCountered(startInstant, currentEvent)) {
                         if (earliestEndingEvent == null || endInstant.isBefore(earliestEndingEvent.end)) {
                             earliestEndingEvent = new VEventWPeriod(currentEvent, startInstant, endInstant);
                         }
@@ -330,6 +358,74 @@ class BiweeklyPresentableCalendar extends AbstractPresentableCalendar {
         return earliestEndingEvent;
     }
 
+    /**
+     * Returns an index of the occurrences covering the given frame, if the frame is not too long to be indexed. The
+     * index is reused as long as it covers the queried frames, else it is replaced by one covering the new frame.
+     *
+     * @param frameBegin Begin of the queried frame.
+     * @param frameEnd End of the queried frame (inclusive).
+     * @return The index or null, if the frame has to be searched without index.
+     */
+    private @Nullable OccurrenceIndex getOccurrenceIndex(Instant frameBegin, Instant frameEnd) {
+        final OccurrenceIndex currentIndex = occurrenceIndex;
+        if (currentIndex != null && currentIndex.covers(frameBegin, frameEnd)) {
+            return currentIndex;
+        }
+        if (frameEnd.isBefore(frameBegin)) {
+            return null;
+        }
+        Instant indexBegin = frameBegin.minus(INDEX_LOOKBACK);
+        final Instant horizon = frameBegin.plus(INDEX_HORIZON);
+        Instant indexEnd = frameEnd.isAfter(horizon) ? frameEnd : horizon;
+        if (Duration.between(indexBegin, indexEnd).compareTo(INDEX_MAXIMUM_SPAN) > 0) {
+            return null;
+        }
+        if (currentIndex != null) {
+            // keep covering the frames of the current index if possible, for callers querying different frames
+            final Instant joinedBegin = currentIndex.begin.isBefore(indexBegin) ? currentIndex.begin : indexBegin;
+            final Instant joinedEnd = currentIndex.end.isAfter(indexEnd) ? currentIndex.end : indexEnd;
+            if (Duration.between(joinedBegin, joinedEnd).compareTo(INDEX_MAXIMUM_SPAN) <= 0) {
+                indexBegin = joinedBegin;
+                indexEnd = joinedEnd;
+            }
+        }
+        final OccurrenceIndex newIndex = buildOccurrenceIndex(indexBegin, indexEnd);
+        occurrenceIndex = newIndex;
+        return newIndex;
+    }
+
+    /**
+     * Expands all positive events into the occurrences which end at or after indexBegin and begin at or before
+     * indexEnd, leaving out the countered ones.
+     *
+     * @param indexBegin Begin of the time frame to index.
+     * @param indexEnd End of the time frame to index.
+     * @return The index of the occurrences.
+     */
+    private OccurrenceIndex buildOccurrenceIndex(Instant indexBegin, Instant indexEnd) {
+        final List<IndexedPeriod> occurrences = new ArrayList<>();
+        for (int seriesIndex = 0; seriesIndex < positiveEvents.size(); seriesIndex++) {
+            final VEvent positiveEvent = positiveEvents.get(seriesIndex);
+            final Duration eventLength = getEventLength(positiveEvent);
+            final Duration duration = eventLength == null ? Duration.ZERO : eventLength;
+            final DateIterator startDates = getRecurredEventDateIterator(positiveEvent);
+            startDates.advanceTo(Date.from(indexBegin.minus(duration)));
+            while (startDates.hasNext()) {
+                final Instant startInstant = startDates.next().toInstant();
+                if (startInstant.isAfter(indexEnd)) {
+                    break;
+                }
+                final Instant endInstant = startInstant.plus(duration);
+                if (endInstant.isBefore(indexBegin) || isCountered(startInstant, positiveEvent)) {
+                    continue;
+                }
+                occurrences.add(new IndexedPeriod(positiveEvent, startInstant, endInstant, seriesIndex,
+                        eventLength != null));
+            }
+        }
+        return new OccurrenceIndex(indexBegin, indexEnd, occurrences);
+    }
+
     /**
      * Finds a duration of the event.
      *
@@ -371,43 +467,47 @@ class BiweeklyPresentableCalendar extends AbstractPresentableCalendar {
     }
 
     /**
-     * Checks whether an counter event blocks an event with given uid and start.
+     * Checks whether a counter event blocks an occurrence of an event.
      *
-     * @param startInstant The start of the event.
-     * @param eventUid The uid of the event.
-     * @param counterEvents Events that may counter.
+     * @param startInstant The start of the occurrence.
+     * @param event The event of the occurrence.
      * @return True if a counter event exists that matches uid and start, else false.
      */
-    private boolean isCounteredBy(Instant startInstant, Uid eventUid, Collection<VEvent> counterEvents) {
+    private boolean isCountered(Instant startInstant, VEvent event) {
+        final Uid eventUid = event.getUid();
+        if (eventUid == null || eventUid.getValue() == null) {
+            return false;
+        }
+        final List<VEvent> counterEvents = negativeEventsByUid.get(eventUid.getValue());
+        if (counterEvents == null) {
+            return false;
+        }
         for (final VEvent counterEvent : counterEvents) {
-            final Uid counterEventUid = counterEvent.getUid();
-            if (counterEventUid != null && eventUid.getValue().contentEquals(counterEventUid.getValue())) {
-                final RecurrenceId counterRecurrenceId = counterEvent.getRecurrenceId();
-                if (counterRecurrenceId != null) {
-                    ICalDate recurrenceDate = counterRecurrenceId.getValue();
-                    if (recurrenceDate != null) {
-                        Instant recurrenceInstant = Instant.ofEpochMilli(recurrenceDate.getTime());
-                        if (recurrenceInstant.equals(startInstant)) {
-                            return true;
-                        }
-                        Range futureOrPast = counterRecurrenceId.getRange();
-                        if (futureOrPast != null && futureOrPast.equals(Range.THIS_AND_FUTURE)
-                                && startInstant.isAfter(recurrenceInstant)) {
-                            return true;
-                        }
-                        if (futureOrPast != null && futureOrPast.equals(Range.THIS_AND_PRIOR)
-                                && startInstant.isBefore(recurrenceInstant)) {
-                            return true;
-                        }
+            final RecurrenceId counterRecurrenceId = counterEvent.getRecurrenceId();
+            if (counterRecurrenceId != null) {
+                ICalDate recurrenceDate = counterRecurrenceId.getValue();
+                if (recurrenceDate != null) {
+                    Instant recurrenceInstant = Instant.ofEpochMilli(recurrenceDate.getTime());
+                    if (recurrenceInstant.equals(startInstant)) {
+                        return true;
                     }
-                } else {
-                    final DateIterator counterStartDates = getRecurredEventDateIterator(counterEvent);
-                    counterStartDates.advanceTo(Date.from(startInstant));
-                    if (counterStartDates.hasNext()) {
-                        final Instant counterStartInstant = counterStartDates.next().toInstant();
-                        if (counterStartInstant.equals(startInstant)) {
-                            return true;
-                        }
+                    Range futureOrPast = counterRecurrenceId.getRange();
+                    if (futureOrPast != null && futureOrPast.equals(Range.THIS_AND_FUTURE)
+                            && startInstant.isAfter(recurrenceInstant)) {
+                        return true;
+                    }
+                    if (futureOrPast != null && futureOrPast.equals(Range.THIS_AND_PRIOR)
+                            && startInstant.isBefore(recurrenceInstant)) {
+                        return true;
+                    }
+                }
+            } else {
+                final DateIterator counterStartDates = getRecurredEventDateIterator(counterEvent);
+                counterStartDates.advanceTo(Date.from(startInstant));
+                if (counterStartDates.hasNext()) {
+                    final Instant counterStartInstant = counterStartDates.next().toInstant();
+                    if (counterStartInstant.equals(startInstant)) {
+                        return true;
                     }
                 }
             }
@@ -439,4 +539,171 @@ class BiweeklyPresentableCalendar extends AbstractPresentableCalendar {
             return new Event(title, start, end, description);
         }
     }
+
+    /**
+     * An occurrence of a positive event stored in the {@link OccurrenceIndex}.
+     */
+    private static class IndexedPeriod extends VEventWPeriod {
+        /**
+         * Position of the event in the calendar, results are ordered by it like without index.
+         */
+        final int seriesIndex;
+        /**
+         * Whether the event has a length, events without are not used as current or next event.
+         */
+        final boolean hasLength;
+
+        IndexedPeriod(VEvent vEvent, Instant start, Instant end, int seriesIndex, boolean hasLength) {
+            super(vEvent, start, end);
+            this.seriesIndex = seriesIndex;
+            this.hasLength = hasLength;
+        }
+    }
+
+    /**
+     * Sorted occurrences of the positive events within a time frame. The index contains every occurrence which ends at
+     * or after the begin of the frame and begins at or before its end.
+     */
+    private static class OccurrenceIndex {
+        private static final Comparator<IndexedPeriod> BY_START = Comparator
+                .comparing((IndexedPeriod period) -> period.start).thenComparingInt(period -> period.seriesIndex);
+        private static final Comparator<IndexedPeriod> BY_END = Comparator
+                .comparing((IndexedPeriod period) -> period.end).thenComparingInt(period -> period.seriesIndex);
+        private static final Comparator<IndexedPeriod> BY_SERIES = Comparator
+                .comparingInt((IndexedPeriod period) -> period.seriesIndex).thenComparing(period -> period.start);
+
+        final Instant begin;
+        final Instant end;
+        private final IndexedPeriod[] byStart;
+        private final IndexedPeriod[] byEnd;
+        private final Duration maximumLength;
+
+        OccurrenceIndex(Instant begin, Instant end, List<IndexedPeriod> occurrences) {
+            this.begin = begin;
+            this.end = end;
+            byStart = occurrences.toArray(new IndexedPeriod[0]);
+            Arrays.sort(byStart, BY_START);
+            byEnd = occurrences.toArray(new IndexedPeriod[0]);
+            Arrays.sort(byEnd, BY_END);
+            Duration longest = Duration.ZERO;
+            for (final IndexedPeriod occurrence : byStart) {
+                final Duration length = Duration.between(occurrence.start, occurrence.end);
+                if (length.compareTo(longest) > 0) {
+                    longest = length;
+                }
+            }
+            maximumLength = longest;
+        }
+
+        boolean covers(Instant frameBegin, Instant frameEnd) {
+            return !frameBegin.isBefore(begin) && !frameEnd.isAfter(end);
+        }
+
+        /**
+         * @see BiweeklyPresentableCalendar#getCurrentComponentWPeriod(Instant)
+         */
+        @Nullable VEventWPeriod getCurrent(Instant instant) {
+            IndexedPeriod earliestEnding = null;
+            final Instant earliestStart = instant.minus(maximumLength);
+            for (int i = firstStartingAfter(instant, true) - 1; i >= 0; i--) {
+                final IndexedPeriod occurrence = byStart[i];
+                if (!occurrence.start.isAfter(earliestStart)) {
+                    break;
+                }
+                if (occurrence.hasLength && occurrence.start.isBefore(instant) && occurrence.end.isAfter(instant)
+                        && (earliestEnding == null || BY_END.compare(occurrence, earliestEnding) < 0)) {
+                    earliestEnding = occurrence;
+                }
+            }
+            return earliestEnding;
+        }
+
+        /**
+         * Finds the next occurrence beginning after the given instant.
+         *
+         * @param instant The Instant after which the next occurrence should be searched.
+         * @return The next occurrence or null, if there is none until the end of the index.
+         */
+        @Nullable VEventWPeriod getNext(Instant instant) {
+            for (int i = firstStartingAfter(instant, false); i < byStart.length; i++) {
+                if (byStart[i].hasLength) {
+                    return byStart[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @see BiweeklyPresentableCalendar#getVEventWPeriodsBetween(Instant, Instant, int)
+         */
+        List<VEventWPeriod> getBeginningBetween(Instant frameBegin, Instant frameEnd, int maximumPerSeries) {
+            final List<IndexedPeriod> found = new ArrayList<>();
+            for (int i = firstStartingAfter(frameBegin, true); i < byStart.length
+                    && byStart[i].start.isBefore(frameEnd); i++) {
+                found.add(byStart[i]);
+            }
+            return inSeriesOrder(found, maximumPerSeries);
+        }
+
+        /**
+         * @see BiweeklyPresentableCalendar#getVEventWPeriodsBetween(Instant, Instant, int, boolean)
+         */
+        List<VEventWPeriod> getEndingBetween(Instant frameBegin, Instant frameEnd, int maximumPerSeries) {
+            int low = 0;
+            int high = byEnd.length;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (byEnd[middle].end.isBefore(frameBegin)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            final List<IndexedPeriod> found = new ArrayList<>();
+            for (int i = low; i < byEnd.length && !byEnd[i].end.isAfter(frameEnd); i++) {
+                found.add(byEnd[i]);
+            }
+            return inSeriesOrder(found, maximumPerSeries);
+        }
+
+        /**
+         * Binary search in the occurrences ordered by start.
+         *
+         * @param instant The Instant to search.
+         * @param inclusive Whether occurrences starting at the instant are included.
+         * @return The position of the first occurrence starting after (or at) the instant.
+         */
+        private int firstStartingAfter(Instant instant, boolean inclusive) {
+            int low = 0;
+            int high = byStart.length;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                final Instant start = byStart[middle].start;
+                if (start.isBefore(instant) || (!inclusive && start.equals(instant))) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Orders the occurrences by series like the expansion of the events one after another does.
+         */
+        private static List<VEventWPeriod> inSeriesOrder(List<IndexedPeriod> occurrences, int maximumPerSeries) {
+            occurrences.sort(BY_SERIES);
+            final List<VEventWPeriod> result = new ArrayList<>(occurrences.size());
+            int foundInSeries = 0;
+            int lastSeries = -1;
+            for (final IndexedPeriod occurrence : occurrences) {
+                foundInSeries = occurrence.seriesIndex == lastSeries ? foundInSeries + 1 : 1;
+                lastSeries = occurrence.seriesIndex;
+                if (maximumPerSeries == 0 || foundInSeries <= maximumPerSeries) {
+                    result.add(occurrence);
+                }
+            }
+            return result;
+        }
+    }
 }
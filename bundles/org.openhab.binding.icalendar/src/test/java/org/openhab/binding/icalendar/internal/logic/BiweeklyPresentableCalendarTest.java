@@ -42,6 +42,7 @@ import org.openhab.core.types.Command;
  * @author Andrew Fiddian-Green - Tests for Command Tag code
  * @author Michael Wodniok - Extended Tests for filtered Events
  * @author Michael Wodniok - Extended Test for parallel current events
+ * @author Michal Boronski - Test for queries far apart
  */
 public class BiweeklyPresentableCalendarTest {
     private AbstractPresentableCalendar calendar;
@@ -647,4 +648,39 @@ public class BiweeklyPresentableCalendarTest {
                 Instant.parse("2021-08-16T16:45:00.123456Z"), Instant.parse("2021-08-16T16:46:00.768643Z"), null, 3);
         assertEquals(0, realFilteredEvents9.size());
     }
+
+    /**
+     * Queries far apart from each other, which do not use the same index of occurrences, and queries too long to be
+     * indexed must give the same results as close queries.
+     */
+    @SuppressWarnings("null")
+    @Test
+    public void testQueriesFarApart() {
+        Event nextEvent = calendar2.getNextEvent(Instant.parse("2019-11-20T00:00:00Z"));
+        assertNotNull(nextEvent);
+        assertEquals(Instant.parse("2019-12-01T10:00:00Z"), nextEvent.start);
+
+        Event futureEvent = calendar2.getCurrentEvent(Instant.parse("2023-01-01T10:30:00Z"));
+        assertNotNull(futureEvent);
+        assertEquals(Instant.parse("2023-01-01T10:00:00Z"), futureEvent.start);
+        assertEquals(Instant.parse("2023-01-01T11:45:00Z"), futureEvent.end);
+        Event nextFutureEvent = calendar2.getNextEvent(Instant.parse("2023-01-01T12:00:00Z"));
+        assertNotNull(nextFutureEvent);
+        assertEquals(Instant.parse("2023-01-08T10:00:00Z"), nextFutureEvent.start);
+
+        assertNull(calendar2.getCurrentEvent(Instant.parse("2019-11-24T10:30:00Z")));
+        assertNotNull(calendar2.getCurrentEvent(Instant.parse("2019-12-01T10:30:00Z")));
+        List<Event> endedEvents = calendar2.getJustEndedEvents(Instant.parse("2019-11-17T11:40:00Z"),
+                Instant.parse("2019-11-17T11:45:00Z"));
+        assertEquals(1, endedEvents.size());
+        assertEquals(Instant.parse("2019-11-17T11:45:00Z"), endedEvents.get(0).end);
+
+        Event[] expectedFilteredEvents = new Event[] {
+                new Event("Evt", Instant.parse("2019-11-10T10:00:00Z"), Instant.parse("2019-11-10T11:45:00Z"), ""),
+                new Event("Evt", Instant.parse("2019-11-17T10:00:00Z"), Instant.parse("2019-11-17T11:45:00Z"), ""),
+                new Event("Evt", Instant.parse("2019-12-01T10:00:00Z"), Instant.parse("2019-12-01T11:45:00Z"), "") };
+        List<Event> realFilteredEvents = calendar2.getFilteredEventsBetween(Instant.parse("2019-11-08T06:00:00Z"),
+                Instant.parse("2021-12-31T06:00:00Z"), null, 3);
+        assertArrayEquals(expectedFilteredEvents, realFilteredEvents.toArray(new Event[] {}));
+    }
 }
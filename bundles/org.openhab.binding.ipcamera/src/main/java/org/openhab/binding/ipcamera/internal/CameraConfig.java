@@ -48,6 +48,9 @@ public class CameraConfig {
     private String motionOptions = "";
     private boolean ptzContinuous;
     private int gifPreroll;
+    private String snapshotMotionZones = "";
+    private int snapshotMotionCellThreshold = 20;
+    private int snapshotMotionThreshold;
 
     public int getOnvifMediaProfile() {
         return onvifMediaProfile;
@@ -69,6 +72,18 @@ public class CameraConfig {
         return motionOptions;
     }
 
+    public String getSnapshotMotionZones() {
+        return snapshotMotionZones;
+    }
+
+    public int getSnapshotMotionCellThreshold() {
+        return snapshotMotionCellThreshold;
+    }
+
+    public int getSnapshotMotionThreshold() {
+        return snapshotMotionThreshold;
+    }
+
     public String getMp4OutOptions() {
         return mp4OutOptions;
     }
@@ -45,6 +45,7 @@ public class IpCameraBindingConstants {
 
     public static final BigDecimal BIG_DECIMAL_SCALE_MOTION = new BigDecimal(5000);
     public static final long HLS_STARTUP_DELAY_MS = 4500;
+    public static final String MOTION_DETECTION_THREADPOOL_NAME = "ipcamera-motion";
     @SuppressWarnings("null")
     public static final int SERVLET_PORT = Integer.getInteger("org.osgi.service.http.port", 8080);
 
@@ -105,6 +106,7 @@ public class IpCameraBindingConstants {
     public static final String CHANNEL_ENABLE_MOTION_ALARM = "enableMotionAlarm";
     public static final String CHANNEL_FFMPEG_MOTION_CONTROL = "ffmpegMotionControl";
     public static final String CHANNEL_FFMPEG_MOTION_ALARM = "ffmpegMotionAlarm";
+    public static final String CHANNEL_SNAPSHOT_MOTION_ALARM = "snapshotMotionAlarm";
     public static final String CHANNEL_ENABLE_LINE_CROSSING_ALARM = "enableLineCrossingAlarm";
     public static final String CHANNEL_ENABLE_AUDIO_ALARM = "enableAudioAlarm";
     public static final String CHANNEL_THRESHOLD_AUDIO_ALARM = "thresholdAudioAlarm";
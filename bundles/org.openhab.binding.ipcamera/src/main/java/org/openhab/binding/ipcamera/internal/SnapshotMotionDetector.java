@@ -0,0 +1,277 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ipcamera.internal;
+
+import static org.openhab.binding.ipcamera.internal.IpCameraBindingConstants.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.ipcamera.internal.handler.IpCameraHandler;
+import org.openhab.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link SnapshotMotionDetector} detects motion by comparing the snapshots of a camera, so cameras without motion
+ * events can raise alarms without running FFmpeg. Each snapshot is decoded with a reduced resolution and averaged to a
+ * small grid of luminance values. A cell has changed when its luminance differs from the previous snapshot by the
+ * cell threshold, after the change in overall brightness is taken away so switching on a light or the camera adjusting
+ * its exposure does not count as motion. Motion is detected when the changed cells reach the zone threshold in any of
+ * the zones.
+ *
+ * Snapshots are analysed on a thread pool shared by all cameras. While a snapshot of a camera is analysed, further
+ * snapshots of that camera are skipped.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+
+@NonNullByDefault
+public class SnapshotMotionDetector {
+    static final int GRID_COLUMNS = 32;
+    static final int GRID_ROWS = 24;
+    // the decoded image has about this many pixels per cell in each direction
+    private static final int PIXELS_PER_CELL = 4;
+    private static final int QUIET_SNAPSHOTS_FOR_NO_MOTION = 3;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final ExecutorService executor = ThreadPoolManager.getPool(MOTION_DETECTION_THREADPOOL_NAME);
+    private final IpCameraHandler ipCameraHandler;
+    private final List<Zone> zones;
+    private final int cellThreshold;
+    private final int zoneThreshold;
+    private final AtomicBoolean analysing = new AtomicBoolean();
+    private int @Nullable [] previousGrid;
+    private boolean motion;
+    private int quietSnapshots;
+    private volatile boolean stopped;
+
+    /**
+     * A rectangle of grid cells which is checked for motion on its own
+     */
+    static class Zone {
+        final int firstColumn;
+        final int firstRow;
+        final int lastColumn;
+        final int lastRow;
+
+        Zone(int firstColumn, int firstRow, int lastColumn, int lastRow) {
+            this.firstColumn = firstColumn;
+            this.firstRow = firstRow;
+            this.lastColumn = lastColumn;
+            this.lastRow = lastRow;
+        }
+
+        int getNumberOfCells() {
+            return (lastColumn - firstColumn + 1) * (lastRow - firstRow + 1);
+        }
+    }
+
+    /**
+     * @param handle the camera the snapshots belong to
+     * @param zones the zones as "left,top,right,bottom" in percent of the image, separated by ";". Leave empty to use
+     *            the whole image.
+     * @param cellThreshold the change in luminance (1-255) for a cell to count as changed
+     * @param zoneThreshold the percentage of changed cells in a zone to detect motion
+     */
+    public SnapshotMotionDetector(IpCameraHandler handle, String zones, int cellThreshold, int zoneThreshold) {
+        ipCameraHandler = handle;
+        this.zones = parseZones(zones);
+        this.cellThreshold = Math.max(1, cellThreshold);
+        this.zoneThreshold = Math.max(1, Math.min(100, zoneThreshold));
+    }
+
+    List<Zone> parseZones(String zonesConfig) {
+        List<Zone> zones = new ArrayList<>();
+        for (String zoneConfig : zonesConfig.split(";")) {
+            if (zoneConfig.isBlank()) {
+                continue;
+            }
+            String[] values = zoneConfig.split(",");
+            try {
+                if (values.length != 4) {
+                    throw new NumberFormatException("4 values expected");
+                }
+                int left = Integer.parseInt(values[0].trim());
+                int top = Integer.parseInt(values[1].trim());
+                int right = Integer.parseInt(values[2].trim());
+                int bottom = Integer.parseInt(values[3].trim());
+                if (left < 0 || top < 0 || right > 100 || bottom > 100 || left >= right || top >= bottom) {
+                    throw new NumberFormatException("values must be percentages with left < right and top < bottom");
+                }
+                zones.add(new Zone(left * GRID_COLUMNS / 100, top * GRID_ROWS / 100,
+                        (right * GRID_COLUMNS - 1) / 100, (bottom * GRID_ROWS - 1) / 100));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid motion detection zone '{}': {}", zoneConfig, e.getMessage());
+            }
+        }
+        if (zones.isEmpty()) {
+            zones.add(new Zone(0, 0, GRID_COLUMNS - 1, GRID_ROWS - 1));
+        }
+        return zones;
+    }
+
+    /**
+     * Queues a snapshot for analysis, unless the previous snapshot of the camera is still being analysed.
+     */
+    public void analyse(byte[] jpeg) {
+        if (stopped) {
+            return;
+        }
+        if (!analysing.compareAndSet(false, true)) {
+            logger.trace("Skipping snapshot, the previous one is still being analysed.");
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    int[] grid = decodeToGrid(jpeg);
+                    if (grid != null) {
+                        processGrid(grid);
+                    }
+                } finally {
+                    analysing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            analysing.set(false);
+        }
+    }
+
+    private int @Nullable [] decodeToGrid(byte[] jpeg) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(jpeg))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                logger.debug("Snapshot is not in a supported image format.");
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                // Skipping pixels while decoding is far cheaper than scaling the full image afterwards.
+                int step = Math.max(1, Math.min(width / (GRID_COLUMNS * PIXELS_PER_CELL),
+                        height / (GRID_ROWS * PIXELS_PER_CELL)));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return toLuminanceGrid(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Could not decode snapshot for motion detection: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    static int[] toLuminanceGrid(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] sums = new int[GRID_COLUMNS * GRID_ROWS];
+        int[] counts = new int[GRID_COLUMNS * GRID_ROWS];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int cellRow = y * GRID_ROWS / height * GRID_COLUMNS;
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                int luminance = (77 * ((rgb >> 16) & 0xff) + 150 * ((rgb >> 8) & 0xff) + 29 * (rgb & 0xff)) >> 8;
+                int cell = cellRow + x * GRID_COLUMNS / width;
+                sums[cell] += luminance;
+                counts[cell]++;
+            }
+        }
+        for (int cell = 0; cell < sums.length; cell++) {
+            if (counts[cell] > 0) {
+                sums[cell] /= counts[cell];
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Compares a grid with the grid of the previous snapshot
+     *
+     * @return true if enough cells of any zone changed
+     */
+    boolean isMotion(int[] previous, int[] current) {
+        int brightnessChange = 0;
+        for (int cell = 0; cell < current.length; cell++) {
+            brightnessChange += current[cell] - previous[cell];
+        }
+        brightnessChange /= current.length;
+        for (Zone zone : zones) {
+            int changedCells = 0;
+            for (int row = zone.firstRow; row <= zone.lastRow; row++) {
+                for (int column = zone.firstColumn; column <= zone.lastColumn; column++) {
+                    int cell = row * GRID_COLUMNS + column;
+                    if (Math.abs(current[cell] - previous[cell] - brightnessChange) >= cellThreshold) {
+                        changedCells++;
+                    }
+                }
+            }
+            if (changedCells * 100 >= zoneThreshold * zone.getNumberOfCells()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized void processGrid(int[] grid) {
+        if (stopped) {
+            return;
+        }
+        int[] previous = previousGrid;
+        previousGrid = grid;
+        if (previous == null) {
+            return;
+        }
+        if (isMotion(previous, grid)) {
+            quietSnapshots = 0;
+            if (!motion) {
+                motion = true;
+                ipCameraHandler.motionDetected(CHANNEL_SNAPSHOT_MOTION_ALARM);
+            }
+        } else if (motion && ++quietSnapshots >= QUIET_SNAPSHOTS_FOR_NO_MOTION) {
+            motion = false;
+            ipCameraHandler.noMotionDetected(CHANNEL_SNAPSHOT_MOTION_ALARM);
+        }
+    }
+
+    /**
+     * Stops the detection and turns an active alarm off, as no further snapshots will end it.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        previousGrid = null;
+        if (motion) {
+            motion = false;
+            ipCameraHandler.noMotionDetected(CHANNEL_SNAPSHOT_MOTION_ALARM);
+        }
+    }
+}
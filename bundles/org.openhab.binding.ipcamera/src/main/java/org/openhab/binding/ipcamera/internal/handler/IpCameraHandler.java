@@ -25,6 +25,7 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -56,6 +57,7 @@ import org.openhab.binding.ipcamera.internal.IpCameraActions;
 import org.openhab.binding.ipcamera.internal.IpCameraBindingConstants.FFmpegFormat;
 import org.openhab.binding.ipcamera.internal.IpCameraDynamicStateDescriptionProvider;
 import org.openhab.binding.ipcamera.internal.MyNettyAuthHandler;
+import org.openhab.binding.ipcamera.internal.SnapshotMotionDetector;
 import org.openhab.binding.ipcamera.internal.onvif.OnvifConnection;
 import org.openhab.binding.ipcamera.internal.servlet.CameraServlet;
 import org.openhab.core.OpenHAB;
@@ -185,6 +187,7 @@ public class IpCameraHandler extends BaseThingHandler {
     public boolean audioAlarmEnabled = false;
     public boolean ffmpegSnapshotGeneration = false;
     public boolean snapshotPolling = false;
+    private @Nullable SnapshotMotionDetector snapshotMotionDetector;
     public OnvifConnection onvifCamera = new OnvifConnection(this, "", "", "");
 
     // These methods handle the response from all camera brands, nothing specific to 1 brand.
@@ -263,19 +266,22 @@ public class IpCameraHandler extends BaseThingHandler {
                     if (mjpegUri.equals(requestUrl)) {
                         // multiple MJPEG stream packets come back as this.
                         HttpContent content = (HttpContent) msg;
-                        byte[] chunkedFrame = new byte[content.content().readableBytes()];
-                        content.content().getBytes(content.content().readerIndex(), chunkedFrame);
                         CameraServlet localServlet = servlet;
                         if (localServlet != null) {
-                            localServlet.openStreams.queueFrame(chunkedFrame);
+                            // shared by all streams without a copy, the streams release it once sent
+                            localServlet.openStreams.queueFrame(content.content().retainedDuplicate());
                         }
                     } else {
                         HttpContent content = (HttpContent) msg;
                         // Found some cameras use Content-Type: image/jpg instead of image/jpeg
                         if (contentType.contains("image/jp")) {
-                            for (int i = 0; i < content.content().capacity(); i++) {
-                                incomingJpeg[bytesAlreadyRecieved++] = content.content().getByte(i);
+                            ByteBuf buffer = content.content();
+                            int readableBytes = buffer.readableBytes();
+                            if (bytesAlreadyRecieved + readableBytes > incomingJpeg.length) {
+                                incomingJpeg = Arrays.copyOf(incomingJpeg, bytesAlreadyRecieved + readableBytes);
                             }
+                            buffer.getBytes(buffer.readerIndex(), incomingJpeg, bytesAlreadyRecieved, readableBytes);
+                            bytesAlreadyRecieved += readableBytes;
                             if (content instanceof LastHttpContent) {
                                 processSnapshot(incomingJpeg);
                                 // testing next line and if works need to do a full cleanup of this function.
@@ -665,6 +671,10 @@ public class IpCameraHandler extends BaseThingHandler {
             lockCurrentSnapshot.unlock();
             currentSnapshotTime = Instant.now();
         }
+        SnapshotMotionDetector localDetector = snapshotMotionDetector;
+        if (localDetector != null) {
+            localDetector.analyse(incommingSnapshot);
+        }
 
         if (updateImageChannel) {
             updateState(CHANNEL_IMAGE, new RawType(incommingSnapshot, "image/jpeg"));
@@ -1317,7 +1327,12 @@ public class IpCameraHandler extends BaseThingHandler {
         if (localFuture != null) {
             localFuture.cancel(false);
         }
-        if (cameraConfig.getGifPreroll() > 0 || cameraConfig.getUpdateImageWhen().contains("1")) {
+        if (cameraConfig.getSnapshotMotionThreshold() > 0) {
+            snapshotMotionDetector = new SnapshotMotionDetector(this, cameraConfig.getSnapshotMotionZones(),
+                    cameraConfig.getSnapshotMotionCellThreshold(), cameraConfig.getSnapshotMotionThreshold());
+        }
+        if (cameraConfig.getGifPreroll() > 0 || cameraConfig.getUpdateImageWhen().contains("1")
+                || snapshotMotionDetector != null) {
             snapshotPolling = true;
             snapshotJob = threadPool.scheduleWithFixedDelay(this::snapshotRunnable, 1000, cameraConfig.getPollTime(),
                     TimeUnit.MILLISECONDS);
@@ -1444,6 +1459,9 @@ public class IpCameraHandler extends BaseThingHandler {
 
     public void stopSnapshotPolling() {
         Future<?> localFuture;
+        if (snapshotMotionDetector != null) {
+            return; // the snapshots are needed to detect motion
+        }
         if (!streamingSnapshotMjpeg && cameraConfig.getGifPreroll() == 0
                 && !cameraConfig.getUpdateImageWhen().contains("1")) {
             snapshotPolling = false;
@@ -1643,6 +1661,11 @@ public class IpCameraHandler extends BaseThingHandler {
     private void offline() {
         isOnline = false;
         snapshotPolling = false;
+        SnapshotMotionDetector localDetector = snapshotMotionDetector;
+        if (localDetector != null) {
+            localDetector.stop();
+        }
+        snapshotMotionDetector = null;
         Future<?> localFuture = pollCameraJob;
         if (localFuture != null) {
             localFuture.cancel(true);
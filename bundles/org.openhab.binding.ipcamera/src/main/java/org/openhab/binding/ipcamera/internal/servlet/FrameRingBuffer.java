@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ipcamera.internal.servlet;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * The {@link FrameRingBuffer} holds the most recent frames (or chunks of a stream) once for all viewers of a stream.
+ * Every viewer reads through its own {@link Reader}. A viewer that falls behind by more than the capacity loses the
+ * frames it missed, and continues with the oldest frame that starts a new image, so a slow viewer never holds up the
+ * camera or the other viewers.
+ *
+ * The buffer owns one reference of each frame it holds, and releases it once the frame is overwritten.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+class FrameRingBuffer {
+    private final @Nullable ByteBuf[] frames;
+    private final boolean[] frameStarts;
+    // sequence number of the next frame that is added
+    private long nextSequence;
+    private boolean closed;
+
+    /**
+     * Reads the frames of the buffer for one viewer
+     */
+    class Reader {
+        private long sequence;
+        private long dropped;
+
+        private Reader(long sequence) {
+            this.sequence = sequence;
+        }
+
+        /**
+         * Waits for the next frame
+         *
+         * @return the frame, which must be released by the caller once written
+         * @throws InterruptedException if the buffer was closed or the thread interrupted
+         */
+        ByteBuf next() throws InterruptedException {
+            return FrameRingBuffer.this.next(this);
+        }
+
+        /**
+         * Returns the number of frames this viewer missed because it was too slow
+         */
+        long getDropped() {
+            return dropped;
+        }
+    }
+
+    FrameRingBuffer(int capacity) {
+        frames = new ByteBuf[capacity];
+        frameStarts = new boolean[capacity];
+    }
+
+    /**
+     * Adds a frame, overwriting the oldest frame if the buffer is full
+     *
+     * @param frame the frame, the buffer takes over the reference of the caller
+     * @param frameStart true if the frame starts a new image, i.e. a viewer can start reading with it
+     */
+    synchronized void add(ByteBuf frame, boolean frameStart) {
+        if (closed) {
+            frame.release();
+            return;
+        }
+        int slot = slot(nextSequence);
+        ByteBuf oldFrame = frames[slot];
+        if (oldFrame != null) {
+            oldFrame.release();
+        }
+        frames[slot] = frame;
+        frameStarts[slot] = frameStart;
+        nextSequence++;
+        notifyAll();
+    }
+
+    /**
+     * Creates a reader starting with the most recent frame that starts an image, or with the next frame if the buffer
+     * does not hold such a frame
+     */
+    synchronized Reader newReader() {
+        for (long sequence = nextSequence - 1; sequence >= oldestSequence(); sequence--) {
+            if (frameStarts[slot(sequence)]) {
+                return new Reader(sequence);
+            }
+        }
+        return new Reader(nextSequence);
+    }
+
+    /**
+     * Releases all frames and wakes up all readers. The buffer does not accept frames afterwards.
+     */
+    synchronized void close() {
+        closed = true;
+        for (int i = 0; i < frames.length; i++) {
+            ByteBuf frame = frames[i];
+            if (frame != null) {
+                frame.release();
+                frames[i] = null;
+            }
+        }
+        notifyAll();
+    }
+
+    private synchronized ByteBuf next(Reader reader) throws InterruptedException {
+        while (!closed) {
+            long oldestSequence = oldestSequence();
+            if (reader.sequence < oldestSequence) {
+                // the viewer is too slow, continue with the oldest image still available
+                long sequence = oldestSequence;
+                while (sequence < nextSequence && !frameStarts[slot(sequence)]) {
+                    sequence++;
+                }
+                if (sequence == nextSequence) {
+                    sequence = oldestSequence;
+                }
+                reader.dropped += sequence - reader.sequence;
+                reader.sequence = sequence;
+            }
+            if (reader.sequence < nextSequence) {
+                ByteBuf frame = frames[slot(reader.sequence)];
+                reader.sequence++;
+                if (frame != null) {
+                    return frame.retainedDuplicate();
+                }
+            } else {
+                wait();
+            }
+        }
+        throw new InterruptedException("Stream closed");
+    }
+
+    private long oldestSequence() {
+        return Math.max(0, nextSequence - frames.length);
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % frames.length);
+    }
+}
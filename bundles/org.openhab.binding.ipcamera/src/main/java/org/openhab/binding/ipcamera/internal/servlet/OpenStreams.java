@@ -12,30 +12,47 @@
  */
 package org.openhab.binding.ipcamera.internal.servlet;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ByteProcessor;
+
 /**
- * The {@link OpenStreams} Keeps track of all open mjpeg streams so the byte[] can be given to all FIFO buffers to allow
- * 1 to many streams without needing to open more than 1 source stream.
+ * The {@link OpenStreams} Keeps track of all open mjpeg streams so the frames can be shared by all streams to allow
+ * 1 to many streams without needing to open more than 1 source stream. Frames are stored once in a
+ * {@link FrameRingBuffer} that each stream reads at its own pace, so queueing a frame does not depend on the number
+ * of streams and a slow stream only drops its own frames. The chunks of a mjpeg stream are split at the multipart
+ * boundaries, so a stream always starts with a complete jpeg.
  *
  *
  * @author Matthew Skinner - Initial contribution
+ * @author Michal Boronski - Share frames between streams through a ring buffer
  */
 
 @NonNullByDefault
 public class OpenStreams {
+    private static final int RING_BUFFER_CAPACITY = 32;
     private List<StreamOutput> openStreams = Collections.synchronizedList(new ArrayList<StreamOutput>());
+    private volatile FrameRingBuffer frames = new FrameRingBuffer(RING_BUFFER_CAPACITY);
+    private final BoundaryFinder boundaryFinder = new BoundaryFinder();
 
     public synchronized void addStream(StreamOutput stream) {
+        stream.setReader(frames.newReader());
         openStreams.add(stream);
     }
 
     public synchronized void removeStream(StreamOutput stream) {
         openStreams.remove(stream);
+        if (openStreams.isEmpty()) {
+            // do not send old frames to the next stream once the source stream is reopened
+            resetFrames();
+        }
     }
 
     public synchronized int getNumberOfStreams() {
@@ -47,14 +64,54 @@ public class OpenStreams {
     }
 
     public synchronized void updateContentType(String contentType) {
+        boundaryFinder.reset(contentType);
         for (StreamOutput stream : openStreams) {
             stream.updateContentType(contentType);
         }
     }
 
-    public synchronized void queueFrame(byte[] frame) {
-        for (StreamOutput stream : openStreams) {
-            stream.queueFrame(frame);
+    /**
+     * Queues a complete jpeg for all streams.
+     */
+    public void queueFrame(byte[] frame) {
+        frames.add(Unpooled.wrappedBuffer(frame), true);
+    }
+
+    /**
+     * Queues a chunk of a mjpeg stream for all streams without copying it. A chunk containing a multipart boundary is
+     * queued as two slices, so the slice starting with the boundary can be the first one sent to a stream.
+     *
+     * @param chunk the chunk, the reference of the caller is taken over and released once no stream needs it anymore
+     */
+    public synchronized void queueFrame(ByteBuf chunk) {
+        FrameRingBuffer localFrames = frames;
+        int partStart = chunk.readerIndex();
+        int end = chunk.writerIndex();
+        boolean partFrameStart = false;
+        int index = partStart;
+        while (index < end) {
+            int matchEnd = chunk.forEachByte(index, end - index, boundaryFinder);
+            if (matchEnd == -1) {
+                break;
+            }
+            index = matchEnd + 1;
+            int boundaryStart = boundaryFinder.getBoundaryStart(matchEnd);
+            if (boundaryStart > partStart) {
+                localFrames.add(chunk.retainedSlice(partStart, boundaryStart - partStart), partFrameStart);
+                partStart = boundaryStart;
+                partFrameStart = true;
+            } else if (boundaryStart == partStart) {
+                partFrameStart = true;
+            }
+            // else the boundary started in the previous chunk, which cannot be split anymore
+        }
+        if (partStart == chunk.readerIndex()) {
+            localFrames.add(chunk, partFrameStart);
+        } else {
+            if (partStart < end) {
+                localFrames.add(chunk.retainedSlice(partStart, end - partStart), partFrameStart);
+            }
+            chunk.release();
         }
     }
 
@@ -63,5 +120,103 @@ public class OpenStreams {
             stream.close();
         }
         openStreams.clear();
+        resetFrames();
+    }
+
+    private void resetFrames() {
+        FrameRingBuffer oldFrames = frames;
+        frames = new FrameRingBuffer(RING_BUFFER_CAPACITY);
+        oldFrames.close();
+        boundaryFinder.reset();
+    }
+
+    /**
+     * Finds the multipart delimiter <code>CRLF--boundary</code> in the chunks of a stream, also if it is split over
+     * two chunks. If the content type does not name the boundary, any <code>CRLF--</code> is taken as delimiter.
+     */
+    private static class BoundaryFinder implements ByteProcessor {
+        private static final int CRLF_LENGTH = 2;
+
+        private byte[] delimiter = delimiter("");
+        private int[] fallback = fallback(delimiter);
+        // number of delimiter bytes matched by the bytes processed so far
+        private int matched;
+
+        BoundaryFinder() {
+            reset();
+        }
+
+        /**
+         * Starts a new stream with the boundary named by the content type
+         */
+        void reset(String contentType) {
+            String boundary = "";
+            int index = contentType.indexOf("boundary=");
+            if (index != -1) {
+                boundary = contentType.substring(index + "boundary=".length());
+                int end = boundary.indexOf(';');
+                if (end != -1) {
+                    boundary = boundary.substring(0, end);
+                }
+                boundary = boundary.trim();
+                if (boundary.length() >= 2 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+                    boundary = boundary.substring(1, boundary.length() - 1);
+                }
+            }
+            delimiter = delimiter(boundary);
+            fallback = fallback(delimiter);
+            reset();
+        }
+
+        /**
+         * Starts a new stream, whose first boundary is not preceded by a line break
+         */
+        void reset() {
+            matched = CRLF_LENGTH;
+        }
+
+        /**
+         * Returns the index of the <code>--boundary</code> that ended at the index where the processing stopped
+         */
+        int getBoundaryStart(int matchEnd) {
+            return matchEnd - delimiter.length + 1 + CRLF_LENGTH;
+        }
+
+        @Override
+        public boolean process(byte value) {
+            while (matched > 0 && delimiter[matched] != value) {
+                matched = fallback[matched - 1];
+            }
+            if (delimiter[matched] == value) {
+                matched++;
+            }
+            if (matched == delimiter.length) {
+                matched = fallback[matched - 1];
+                return false;
+            }
+            return true;
+        }
+
+        private static byte[] delimiter(String boundary) {
+            return ("\r\n--" + boundary).getBytes(StandardCharsets.US_ASCII);
+        }
+
+        /**
+         * Returns for each prefix of the delimiter the length of its longest proper prefix that is also its suffix
+         */
+        private static int[] fallback(byte[] delimiter) {
+            int[] fallback = new int[delimiter.length];
+            int length = 0;
+            for (int i = 1; i < delimiter.length; i++) {
+                while (length > 0 && delimiter[i] != delimiter[length]) {
+                    length = fallback[length - 1];
+                }
+                if (delimiter[i] == delimiter[length]) {
+                    length++;
+                }
+                fallback[i] = length;
+            }
+            return fallback;
+        }
     }
 }
@@ -13,18 +13,20 @@
 package org.openhab.binding.ipcamera.internal.servlet;
 
 import java.io.IOException;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.netty.buffer.ByteBuf;
 
 /**
  * The {@link StreamOutput} Streams mjpeg out to a client
  *
  * @author Matthew Skinner - Initial contribution
+ * @author Michal Boronski - Read frames from the shared ring buffer
  */
 
 @NonNullByDefault
@@ -33,7 +35,7 @@ public class StreamOutput {
     private final String boundary;
     private String contentType;
     private final ServletOutputStream output;
-    private BlockingQueue<byte[]> fifo = new ArrayBlockingQueue<byte[]>(6);
+    private FrameRingBuffer.@Nullable Reader reader;
     private boolean connected = false;
     public boolean isSnapshotBased = false;
 
@@ -72,8 +74,24 @@ public class StreamOutput {
         output.write("\r\n".getBytes());
     }
 
-    public void queueFrame(byte[] frame) {
-        fifo.add(frame);
+    private void sendSnapshotBasedFrame(ByteBuf currentSnapshot) throws IOException {
+        String header = "--" + boundary + "\r\n" + "Content-Type: image/jpeg" + "\r\n" + "Content-Length: "
+                + currentSnapshot.readableBytes() + "\r\n\r\n";
+        if (!connected) {
+            sendInitialHeaders();
+            // iOS needs to have two jpgs sent for the picture to appear instantly.
+            output.write(header.getBytes());
+            currentSnapshot.getBytes(currentSnapshot.readerIndex(), output, currentSnapshot.readableBytes());
+            output.write("\r\n".getBytes());
+            connected = true;
+        }
+        output.write(header.getBytes());
+        currentSnapshot.getBytes(currentSnapshot.readerIndex(), output, currentSnapshot.readableBytes());
+        output.write("\r\n".getBytes());
+    }
+
+    void setReader(FrameRingBuffer.Reader reader) {
+        this.reader = reader;
     }
 
     public void updateContentType(String contentType) {
@@ -85,10 +103,22 @@ public class StreamOutput {
     }
 
     public void sendFrame() throws IOException, InterruptedException {
-        if (isSnapshotBased) {
-            sendSnapshotBasedFrame(fifo.take());
-        } else if (connected) {
-            output.write(fifo.take());
+        FrameRingBuffer.Reader localReader = reader;
+        if (localReader == null) {
+            throw new InterruptedException("Stream was not added to the open streams");
+        }
+        if (!isSnapshotBased && !connected) {
+            return;
+        }
+        ByteBuf frame = localReader.next();
+        try {
+            if (isSnapshotBased) {
+                sendSnapshotBasedFrame(frame);
+            } else {
+                frame.getBytes(frame.readerIndex(), output, frame.readableBytes());
+            }
+        } finally {
+            frame.release();
         }
     }
 
@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ipcamera.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.openhab.binding.ipcamera.internal.IpCameraBindingConstants.CHANNEL_SNAPSHOT_MOTION_ALARM;
+import static org.openhab.binding.ipcamera.internal.SnapshotMotionDetector.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.ipcamera.internal.SnapshotMotionDetector.Zone;
+import org.openhab.binding.ipcamera.internal.handler.IpCameraHandler;
+
+/**
+ * Tests the comparison of snapshots by the {@link SnapshotMotionDetector}.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class SnapshotMotionDetectorTest {
+
+    private final IpCameraHandler handler = mock(IpCameraHandler.class);
+
+    private SnapshotMotionDetector detector(String zones, int cellThreshold, int zoneThreshold) {
+        return new SnapshotMotionDetector(handler, zones, cellThreshold, zoneThreshold);
+    }
+
+    private static int[] grid(int luminance) {
+        int[] grid = new int[GRID_COLUMNS * GRID_ROWS];
+        Arrays.fill(grid, luminance);
+        return grid;
+    }
+
+    /**
+     * changes the luminance of a rectangle of cells
+     */
+    private static int[] change(int[] grid, int firstColumn, int firstRow, int lastColumn, int lastRow, int delta) {
+        int[] changed = grid.clone();
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                changed[row * GRID_COLUMNS + column] += delta;
+            }
+        }
+        return changed;
+    }
+
+    private static void assertZone(int firstColumn, int firstRow, int lastColumn, int lastRow, Zone zone) {
+        assertEquals(List.of(firstColumn, firstRow, lastColumn, lastRow),
+                List.of(zone.firstColumn, zone.firstRow, zone.lastColumn, zone.lastRow));
+    }
+
+    @Test
+    public void testParseZones() {
+        SnapshotMotionDetector detector = detector("", 20, 5);
+
+        List<Zone> zones = detector.parseZones("");
+        assertEquals(1, zones.size());
+        assertZone(0, 0, GRID_COLUMNS - 1, GRID_ROWS - 1, zones.get(0));
+        assertEquals(GRID_COLUMNS * GRID_ROWS, zones.get(0).getNumberOfCells());
+
+        zones = detector.parseZones("0,0,50,50; 50, 50, 100, 100;;");
+        assertEquals(2, zones.size());
+        assertZone(0, 0, 15, 11, zones.get(0));
+        assertZone(16, 12, 31, 23, zones.get(1));
+
+        // a zone smaller than a cell still covers the cell
+        zones = detector.parseZones("1,1,2,2");
+        assertZone(0, 0, 0, 0, zones.get(0));
+        assertEquals(1, zones.get(0).getNumberOfCells());
+    }
+
+    @Test
+    public void testInvalidZonesAreIgnored() {
+        SnapshotMotionDetector detector = detector("", 20, 5);
+
+        List<Zone> zones = detector.parseZones("a,b,c,d;0,0,50;50,0,10,100;0,0,50,101;-1,0,50,50;25,25,75,75");
+        assertEquals(1, zones.size());
+        assertZone(8, 6, 23, 17, zones.get(0));
+
+        // without any valid zone the whole image is used
+        zones = detector.parseZones("0,0,0,0");
+        assertEquals(1, zones.size());
+        assertZone(0, 0, GRID_COLUMNS - 1, GRID_ROWS - 1, zones.get(0));
+    }
+
+    @Test
+    public void testLuminanceGrid() {
+        BufferedImage image = new BufferedImage(GRID_COLUMNS * 4, GRID_ROWS * 4, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, image.getWidth() / 2, image.getHeight());
+        graphics.setColor(Color.RED);
+        graphics.fillRect(image.getWidth() / 2, 0, image.getWidth() / 2, image.getHeight() / 2);
+        // a cell half black, half white
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(image.getWidth() - 2, image.getHeight() - 4, 2, 4);
+        graphics.dispose();
+
+        int[] grid = toLuminanceGrid(image);
+
+        assertEquals(GRID_COLUMNS * GRID_ROWS, grid.length);
+        assertEquals(255, grid[0]);
+        assertEquals(255, grid[(GRID_ROWS - 1) * GRID_COLUMNS + GRID_COLUMNS / 2 - 1]);
+        assertEquals(76, grid[GRID_COLUMNS / 2]);
+        assertEquals(0, grid[(GRID_ROWS - 1) * GRID_COLUMNS + GRID_COLUMNS / 2]);
+        assertEquals(127, grid[GRID_ROWS * GRID_COLUMNS - 1]);
+    }
+
+    @Test
+    public void testLuminanceGridOfOddSizedImage() {
+        BufferedImage image = new BufferedImage(50, 7, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, 50, 7);
+        graphics.dispose();
+
+        int[] grid = toLuminanceGrid(image);
+
+        // each pixel is averaged into exactly one cell, cells without pixels stay 0
+        assertEquals(GRID_COLUMNS * GRID_ROWS, grid.length);
+        assertTrue(Arrays.stream(grid).allMatch(luminance -> luminance == 0 || luminance == 255));
+        assertEquals(255, grid[0]);
+        assertEquals(255, grid[GRID_COLUMNS - 1]);
+        assertEquals(255, grid[20 * GRID_COLUMNS + GRID_COLUMNS - 1]);
+        assertEquals(0, grid[GRID_COLUMNS]);
+    }
+
+    @Test
+    public void testChangedCellsAreMotion() {
+        SnapshotMotionDetector detector = detector("", 20, 5);
+        int[] previous = grid(100);
+
+        assertFalse(detector.isMotion(previous, previous));
+        // 5% of 768 cells
+        assertTrue(detector.isMotion(previous, change(previous, 0, 0, 7, 4, 40)));
+        assertFalse(detector.isMotion(previous, change(previous, 0, 0, 7, 3, 40)));
+        // changes below the cell threshold
+        assertFalse(detector.isMotion(previous, change(previous, 0, 0, 15, 11, 10)));
+        assertTrue(detector.isMotion(previous, change(previous, 0, 0, 15, 11, -40)));
+    }
+
+    @Test
+    public void testBrightnessChangeIsNoMotion() {
+        SnapshotMotionDetector detector = detector("", 20, 5);
+        int[] previous = grid(100);
+
+        assertFalse(detector.isMotion(previous, grid(160)));
+        assertFalse(detector.isMotion(previous, grid(30)));
+        // motion is still detected in a brighter image
+        assertTrue(detector.isMotion(previous, change(grid(160), 0, 0, 7, 4, 40)));
+    }
+
+    @Test
+    public void testMotionIsOnlyDetectedInZones() {
+        SnapshotMotionDetector detector = detector("0,0,25,25;75,75,100,100", 20, 50);
+        int[] previous = grid(100);
+
+        assertFalse(detector.isMotion(previous, change(previous, 8, 6, 23, 17, 60)));
+        assertTrue(detector.isMotion(previous, change(previous, 0, 0, 7, 2, 60)));
+        assertFalse(detector.isMotion(previous, change(previous, 0, 0, 7, 1, 60)));
+        assertTrue(detector.isMotion(previous, change(previous, 24, 18, 31, 23, 60)));
+    }
+
+    @Test
+    public void testAlarmIsClearedAfterQuietSnapshots() {
+        SnapshotMotionDetector detector = detector("", 20, 5);
+        int[] quiet = grid(100);
+        int[] moving = change(quiet, 0, 0, 15, 11, 60);
+
+        detector.processGrid(quiet);
+        detector.processGrid(quiet);
+        verifyNoInteractions(handler);
+
+        detector.processGrid(moving);
+        detector.processGrid(quiet);
+        verify(handler, times(1)).motionDetected(CHANNEL_SNAPSHOT_MOTION_ALARM);
+
+        detector.processGrid(quiet);
+        detector.processGrid(quiet);
+        verify(handler, never()).noMotionDetected(CHANNEL_SNAPSHOT_MOTION_ALARM);
+        detector.processGrid(quiet);
+        verify(handler).noMotionDetected(CHANNEL_SNAPSHOT_MOTION_ALARM);
+    }
+
+    @Test
+    public void testStopClearsActiveAlarm() {
+        SnapshotMotionDetector detector = detector("", 20, 5);
+        int[] quiet = grid(100);
+
+        detector.processGrid(quiet);
+        detector.processGrid(change(quiet, 0, 0, 15, 11, 60));
+        verify(handler).motionDetected(CHANNEL_SNAPSHOT_MOTION_ALARM);
+
+        detector.stop();
+        verify(handler).noMotionDetected(CHANNEL_SNAPSHOT_MOTION_ALARM);
+
+        // snapshots still being analysed do not raise the alarm again
+        detector.processGrid(quiet);
+        detector.processGrid(change(quiet, 0, 0, 15, 11, 60));
+        detector.stop();
+        verifyNoMoreInteractions(handler);
+    }
+
+    @Test
+    public void testStopWithoutAlarm() {
+        SnapshotMotionDetector detector = detector("", 20, 5);
+
+        detector.processGrid(grid(100));
+        detector.stop();
+        verifyNoInteractions(handler);
+    }
+}
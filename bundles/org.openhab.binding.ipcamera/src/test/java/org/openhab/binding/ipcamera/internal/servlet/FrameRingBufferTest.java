@@ -0,0 +1,210 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ipcamera.internal.servlet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Tests the sharing of frames between the readers of the {@link FrameRingBuffer}.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class FrameRingBufferTest {
+
+    private static final int CAPACITY = 4;
+
+    private final FrameRingBuffer buffer = new FrameRingBuffer(CAPACITY);
+
+    private final List<ByteBuf> frames = new ArrayList<>();
+
+    private ByteBuf add(String content, boolean frameStart) {
+        ByteBuf frame = Unpooled.copiedBuffer(content, StandardCharsets.US_ASCII);
+        frames.add(frame);
+        buffer.add(frame, frameStart);
+        return frame;
+    }
+
+    private static String read(FrameRingBuffer.Reader reader) throws InterruptedException {
+        ByteBuf frame = reader.next();
+        try {
+            return frame.toString(StandardCharsets.US_ASCII);
+        } finally {
+            frame.release();
+        }
+    }
+
+    private CompletableFuture<String> readAsync(FrameRingBuffer.Reader reader) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                result.complete(read(reader));
+            } catch (InterruptedException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return result;
+    }
+
+    @Test
+    public void testReaderReadsAllFramesAcrossWrapAround() throws InterruptedException {
+        FrameRingBuffer.Reader reader = buffer.newReader();
+        for (int i = 0; i < 3 * CAPACITY; i++) {
+            add("frame" + i, i % 2 == 0);
+            assertEquals("frame" + i, read(reader));
+        }
+        assertEquals(0, reader.getDropped());
+    }
+
+    @Test
+    public void testSlowReaderSkipsToOldestFrameStart() throws InterruptedException {
+        FrameRingBuffer.Reader reader = buffer.newReader();
+        add("start0", true);
+        add("part1", false);
+        add("part2", false);
+        add("start3", true);
+        add("part4", false);
+        add("part5", false);
+
+        // frames 0 and 1 were overwritten and frame 2 does not start an image
+        assertEquals("start3", read(reader));
+        assertEquals(3, reader.getDropped());
+        assertEquals("part4", read(reader));
+        assertEquals("part5", read(reader));
+        assertEquals(3, reader.getDropped());
+    }
+
+    @Test
+    public void testSlowReaderWithoutFrameStartContinuesWithOldestFrame() throws InterruptedException {
+        FrameRingBuffer.Reader reader = buffer.newReader();
+        for (int i = 0; i < CAPACITY + 2; i++) {
+            add("part" + i, false);
+        }
+
+        assertEquals("part2", read(reader));
+        assertEquals(2, reader.getDropped());
+    }
+
+    @Test
+    public void testNewReaderStartsWithLatestFrameStart() throws InterruptedException {
+        add("start0", true);
+        add("part1", false);
+        add("start2", true);
+        add("part3", false);
+
+        FrameRingBuffer.Reader reader = buffer.newReader();
+
+        assertEquals("start2", read(reader));
+        assertEquals("part3", read(reader));
+        assertEquals(0, reader.getDropped());
+    }
+
+    @Test
+    public void testNewReaderWithoutFrameStartWaitsForNextFrame() throws InterruptedException {
+        add("part0", false);
+        add("part1", false);
+
+        FrameRingBuffer.Reader reader = buffer.newReader();
+        add("start2", true);
+
+        assertEquals("start2", read(reader));
+    }
+
+    @Test
+    public void testOverwrittenFramesAreReleased() throws InterruptedException {
+        FrameRingBuffer.Reader reader = buffer.newReader();
+        ByteBuf first = add("frame0", true);
+        ByteBuf read = reader.next();
+        assertEquals(2, first.refCnt());
+
+        for (int i = 1; i <= CAPACITY; i++) {
+            add("frame" + i, true);
+        }
+
+        // the buffer released the overwritten frame, the reader still holds its reference
+        assertEquals(1, first.refCnt());
+        read.release();
+        assertEquals(0, first.refCnt());
+        for (int i = 1; i <= CAPACITY; i++) {
+            assertEquals(1, frames.get(i).refCnt());
+        }
+    }
+
+    @Test
+    public void testCloseReleasesAllFrames() throws InterruptedException {
+        FrameRingBuffer.Reader reader = buffer.newReader();
+        for (int i = 0; i < CAPACITY + 2; i++) {
+            add("frame" + i, true);
+        }
+        ByteBuf read = reader.next();
+
+        buffer.close();
+        read.release();
+        // frames added after closing are released at once
+        add("late", true);
+
+        for (ByteBuf frame : frames) {
+            assertEquals(0, frame.refCnt());
+        }
+    }
+
+    @Test
+    public void testClosedBufferThrowsForReaders() {
+        FrameRingBuffer.Reader reader = buffer.newReader();
+        add("frame0", true);
+        buffer.close();
+
+        assertThrows(InterruptedException.class, () -> reader.next());
+    }
+
+    @Test
+    public void testWaitingReaderIsWokenUpByNewFrame()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        FrameRingBuffer.Reader reader = buffer.newReader();
+        CompletableFuture<String> result = readAsync(reader);
+        Thread.sleep(50);
+        assertFalse(result.isDone());
+
+        add("frame0", true);
+
+        assertEquals("frame0", result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testWaitingReaderIsWokenUpByClose() throws InterruptedException {
+        FrameRingBuffer.Reader reader = buffer.newReader();
+        CompletableFuture<String> result = readAsync(reader);
+        Thread.sleep(50);
+
+        buffer.close();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof InterruptedException);
+    }
+}
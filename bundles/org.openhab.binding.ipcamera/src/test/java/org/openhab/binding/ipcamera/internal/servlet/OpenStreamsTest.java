@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ipcamera.internal.servlet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Tests the splitting of mjpeg chunks at the multipart boundaries by the {@link OpenStreams}.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class OpenStreamsTest {
+
+    private static final String CONTENT_TYPE = "multipart/x-mixed-replace; boundary=\"myboundary\"";
+
+    private final OpenStreams openStreams = new OpenStreams();
+
+    private final List<ByteBuf> chunks = new ArrayList<>();
+
+    private void queue(String chunk) {
+        ByteBuf buffer = Unpooled.copiedBuffer(chunk, StandardCharsets.US_ASCII);
+        chunks.add(buffer);
+        openStreams.queueFrame(buffer);
+    }
+
+    private static String part(int number) {
+        return "--myboundary\r\nContent-Type: image/jpeg\r\n\r\njpeg" + number + "\r\n";
+    }
+
+    private static class TestStream extends StreamOutput {
+        private final ByteArrayOutputStream output;
+
+        private TestStream(HttpServletResponse response, ByteArrayOutputStream output) throws IOException {
+            super(response, CONTENT_TYPE);
+            this.output = output;
+        }
+
+        static TestStream create() throws IOException {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            HttpServletResponse response = mock(HttpServletResponse.class);
+            when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+                @Override
+                public void write(int b) {
+                    output.write(b);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(@NonNullByDefault({}) WriteListener writeListener) {
+                }
+            });
+            return new TestStream(response, output);
+        }
+
+        String read(int frames) throws IOException, InterruptedException {
+            for (int i = 0; i < frames; i++) {
+                sendFrame();
+            }
+            return output.toString(StandardCharsets.US_ASCII);
+        }
+    }
+
+    @Test
+    public void testNewStreamStartsAtBoundaryInsideChunk() throws IOException, InterruptedException {
+        openStreams.updateContentType(CONTENT_TYPE);
+        queue(part(1) + part(2).substring(0, 20));
+        queue(part(2).substring(20) + part(3).substring(0, 30));
+
+        TestStream stream = TestStream.create();
+        openStreams.addStream(stream);
+        queue(part(3).substring(30));
+
+        assertEquals(part(3), stream.read(2));
+    }
+
+    @Test
+    public void testBoundaryAtChunkStartIsFrameStart() throws IOException, InterruptedException {
+        openStreams.updateContentType(CONTENT_TYPE);
+        queue(part(1));
+        queue(part(2).substring(0, 20));
+        queue(part(2).substring(20));
+
+        TestStream stream = TestStream.create();
+        openStreams.addStream(stream);
+
+        assertEquals(part(2), stream.read(2));
+    }
+
+    @Test
+    public void testBoundarySplitOverChunksIsFound() throws IOException, InterruptedException {
+        openStreams.updateContentType(CONTENT_TYPE);
+        // the second boundary is split over the first two chunks
+        queue(part(1) + "--my");
+        queue("boundary\r\nContent-Type: image/jpeg\r\n\r\njpeg2\r\n--myboundary\r\n");
+
+        TestStream stream = TestStream.create();
+        openStreams.addStream(stream);
+        queue("Content-Type: image/jpeg\r\n\r\njpeg3\r\n");
+
+        // the second boundary starts in the first chunk, which cannot be split anymore, so the stream starts with the
+        // third one
+        assertEquals(part(3), stream.read(2));
+    }
+
+    @Test
+    public void testStreamReadsAllChunks() throws IOException, InterruptedException {
+        openStreams.updateContentType(CONTENT_TYPE);
+        TestStream stream = TestStream.create();
+        openStreams.addStream(stream);
+        String content = part(1) + part(2) + part(3);
+        queue(content.substring(0, 40));
+        queue(content.substring(40, 41));
+        queue(content.substring(41, 120));
+        queue(content.substring(120));
+
+        // the third chunk holds the second and third boundary and is queued as three slices
+        assertEquals(content, stream.read(6));
+    }
+
+    @Test
+    public void testUnnamedBoundaryIsFound() throws IOException, InterruptedException {
+        openStreams.updateContentType("multipart/x-mixed-replace");
+        queue(part(1) + part(2));
+
+        TestStream stream = TestStream.create();
+        openStreams.addStream(stream);
+
+        assertEquals(part(2), stream.read(1));
+    }
+
+    @Test
+    public void testChunksAreReleasedOnClose() throws IOException, InterruptedException {
+        openStreams.updateContentType(CONTENT_TYPE);
+        TestStream stream = TestStream.create();
+        openStreams.addStream(stream);
+        for (int i = 0; i < 40; i++) {
+            queue(part(i).substring(0, 10));
+            queue(part(i).substring(10) + part(i + 1).substring(0, 5));
+            queue(part(i + 1).substring(5));
+        }
+        stream.read(3);
+
+        openStreams.closeAllStreams();
+
+        for (ByteBuf chunk : chunks) {
+            assertEquals(0, chunk.refCnt());
+        }
+    }
+}
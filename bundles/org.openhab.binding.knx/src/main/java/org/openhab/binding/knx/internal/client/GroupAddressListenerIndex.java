@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.knx.internal.handler.GroupAddressListener;
+
+import tuwien.auto.calimero.GroupAddress;
+
+/**
+ * Maps each {@link GroupAddress} to the {@link GroupAddressListener}s interested in it.
+ *
+ * The index is rebuilt whenever a listener is added, removed or reconfigured, which happens rarely compared to the
+ * lookups done for every received telegram. Lookups are lock-free and operate on an immutable snapshot.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+class GroupAddressListenerIndex {
+
+    private final Set<GroupAddressListener> listeners = new LinkedHashSet<>();
+    private volatile Map<GroupAddress, List<GroupAddressListener>> index = Collections.emptyMap();
+
+    /**
+     * Add a listener and index its current group addresses.
+     *
+     * @param listener the listener
+     * @return {@code true} if it wasn't registered before
+     */
+    synchronized boolean add(GroupAddressListener listener) {
+        if (listeners.add(listener)) {
+            rebuild();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remove a listener from the index.
+     *
+     * @param listener the listener
+     * @return {@code true} if it was registered before
+     */
+    synchronized boolean remove(GroupAddressListener listener) {
+        if (listeners.remove(listener)) {
+            rebuild();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Re-read the group addresses of an already registered listener. Unknown listeners are ignored.
+     *
+     * @param listener the listener
+     */
+    synchronized void update(GroupAddressListener listener) {
+        if (listeners.contains(listener)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Get all listeners interested in the given destination.
+     *
+     * @param destination the group address
+     * @return an unmodifiable, possibly empty list of listeners
+     */
+    List<GroupAddressListener> getListeners(GroupAddress destination) {
+        List<GroupAddressListener> result = index.get(destination);
+        return result != null ? result : Collections.emptyList();
+    }
+
+    private void rebuild() {
+        Map<GroupAddress, List<GroupAddressListener>> newIndex = new HashMap<>();
+        for (GroupAddressListener listener : listeners) {
+            for (GroupAddress groupAddress : listener.getGroupAddresses()) {
+                newIndex.computeIfAbsent(groupAddress, ga -> new ArrayList<>(1)).add(listener);
+            }
+        }
+        newIndex.replaceAll((ga, list) -> Collections.unmodifiableList(list));
+        index = newIndex;
+    }
+}
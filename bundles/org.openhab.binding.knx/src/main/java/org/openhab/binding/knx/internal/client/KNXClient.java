@@ -76,6 +76,13 @@ public interface KNXClient {
      */
     boolean unregisterGroupAddressListener(GroupAddressListener listener);
 
+    /**
+     * Refresh the group addresses of an already registered listener, e.g. after its channels have been configured.
+     *
+     * @param listener the listener
+     */
+    void updateGroupAddressListener(GroupAddressListener listener);
+
     /**
      * Schedule the given data point for asynchronous reading.
      *
@@ -83,6 +90,15 @@ public interface KNXClient {
      */
     void readDatapoint(Datapoint datapoint);
 
+    /**
+     * Schedule the given data point for asynchronous reading.
+     *
+     * @param datapoint the datapoint
+     * @param priority {@code true} if the datapoint should be read before all non-prioritized ones, e.g. because a
+     *            user is waiting for its value
+     */
+    void readDatapoint(Datapoint datapoint, boolean priority);
+
     /**
      * Write a command to the KNX bus.
      *
@@ -58,10 +58,18 @@ public class NoOpClient implements KNXClient {
         return false;
     }
 
+    @Override
+    public void updateGroupAddressListener(GroupAddressListener listener) {
+    }
+
     @Override
     public void readDatapoint(Datapoint datapoint) {
     }
 
+    @Override
+    public void readDatapoint(Datapoint datapoint, boolean priority) {
+    }
+
     @Override
     public void writeToKNX(OutboundSpec commandSpec) throws KNXException {
     }
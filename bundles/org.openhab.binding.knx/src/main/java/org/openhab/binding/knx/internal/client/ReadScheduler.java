@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.KNXException;
+import tuwien.auto.calimero.datapoint.Datapoint;
+
+/**
+ * Schedules group read requests to the KNX bus.
+ *
+ * Read requests are sent without waiting for the corresponding response, so that up to {@code maxPendingReads}
+ * requests may be outstanding at the same time. Requests for the same group address are merged, prioritized requests
+ * are sent before all others and requests which are not answered within the response timeout are retried.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+class ReadScheduler {
+
+    private static final int PROGRESS_LOG_INTERVAL = 100;
+
+    @FunctionalInterface
+    interface ReadRequestSender {
+        void sendReadRequest(GroupAddress groupAddress) throws KNXException, InterruptedException;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(ReadScheduler.class);
+
+    private final String name;
+    private final int maxPendingReads;
+    private final long responseTimeoutNanos;
+    private final int readRetriesLimit;
+
+    private final Map<GroupAddress, ReadDatapoint> priorityQueue = new LinkedHashMap<>();
+    private final Map<GroupAddress, ReadDatapoint> queue = new LinkedHashMap<>();
+    private final Map<GroupAddress, PendingRead> pending = new HashMap<>();
+
+    private int requested;
+    private int completed;
+    private int failed;
+    private long startTime;
+
+    private static class PendingRead {
+        private final ReadDatapoint datapoint;
+        private final boolean priority;
+        private final long sentTime;
+
+        private PendingRead(ReadDatapoint datapoint, boolean priority, long sentTime) {
+            this.datapoint = datapoint;
+            this.priority = priority;
+            this.sentTime = sentTime;
+        }
+    }
+
+    /**
+     * @param name the name used in log messages, usually the UID of the bridge
+     * @param maxPendingReads the maximum number of read requests waiting for a response, at least 1
+     * @param responseTimeout the time in seconds to wait for a response before the request is retried
+     * @param readRetriesLimit the maximum number of attempts for each read request
+     */
+    ReadScheduler(String name, int maxPendingReads, int responseTimeout, int readRetriesLimit) {
+        this.name = name;
+        this.maxPendingReads = Math.max(1, maxPendingReads);
+        this.responseTimeoutNanos = TimeUnit.SECONDS.toNanos(responseTimeout);
+        this.readRetriesLimit = readRetriesLimit;
+    }
+
+    /**
+     * Queue the given datapoint for reading. Requests for a group address which is already queued or waiting for a
+     * response are ignored, unless a prioritized request moves a queued one to the front.
+     *
+     * @param datapoint the datapoint
+     * @param priority {@code true} if the request should be sent before all non-prioritized ones
+     */
+    synchronized void add(Datapoint datapoint, boolean priority) {
+        GroupAddress groupAddress = datapoint.getMainAddress();
+        if (pending.containsKey(groupAddress) || priorityQueue.containsKey(groupAddress)) {
+            return;
+        }
+        if (priority) {
+            ReadDatapoint queued = queue.remove(groupAddress);
+            priorityQueue.put(groupAddress, queued != null ? queued : newReadDatapoint(datapoint));
+        } else if (!queue.containsKey(groupAddress)) {
+            queue.put(groupAddress, newReadDatapoint(datapoint));
+        }
+    }
+
+    private ReadDatapoint newReadDatapoint(Datapoint datapoint) {
+        if (requested == completed + failed) {
+            startTime = System.nanoTime();
+        }
+        requested++;
+        return new ReadDatapoint(datapoint, readRetriesLimit);
+    }
+
+    /**
+     * Notify the scheduler about a group read response received from the bus.
+     *
+     * @param groupAddress the destination of the response
+     */
+    synchronized void onResponse(GroupAddress groupAddress) {
+        // a response to a request of another bus participant makes our own request obsolete as well
+        if (pending.remove(groupAddress) != null || priorityQueue.remove(groupAddress) != null
+                || queue.remove(groupAddress) != null) {
+            completed++;
+            reportProgress();
+        }
+    }
+
+    /**
+     * Send the next queued read request, if the number of pending requests allows to.
+     *
+     * @param sender the sender used to put the request on the bus
+     * @throws InterruptedException if interrupted while sending
+     */
+    void sendNext(ReadRequestSender sender) throws InterruptedException {
+        PendingRead read;
+        synchronized (this) {
+            expirePendingReads();
+            if (pending.size() >= maxPendingReads) {
+                return;
+            }
+            read = poll();
+            if (read == null) {
+                return;
+            }
+            read.datapoint.incrementRetries();
+            pending.put(read.datapoint.getDatapoint().getMainAddress(), read);
+        }
+
+        GroupAddress groupAddress = read.datapoint.getDatapoint().getMainAddress();
+        try {
+            logger.trace("Sending a Group Read Request telegram for {}", groupAddress);
+            sender.sendReadRequest(groupAddress);
+        } catch (KNXException e) {
+            synchronized (this) {
+                if (pending.remove(groupAddress) != null) {
+                    retryOrGiveUp(read, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop all queued and pending read requests, e.g. when the connection to the bus has been lost.
+     */
+    synchronized void clear() {
+        priorityQueue.clear();
+        queue.clear();
+        pending.clear();
+        requested = 0;
+        completed = 0;
+        failed = 0;
+    }
+
+    private @Nullable PendingRead poll() {
+        PendingRead read = poll(priorityQueue, true);
+        return read != null ? read : poll(queue, false);
+    }
+
+    private @Nullable PendingRead poll(Map<GroupAddress, ReadDatapoint> source, boolean priority) {
+        Iterator<ReadDatapoint> iterator = source.values().iterator();
+        if (iterator.hasNext()) {
+            ReadDatapoint datapoint = iterator.next();
+            iterator.remove();
+            return new PendingRead(datapoint, priority, System.nanoTime());
+        }
+        return null;
+    }
+
+    private void expirePendingReads() {
+        long now = System.nanoTime();
+        Iterator<PendingRead> iterator = pending.values().iterator();
+        while (iterator.hasNext()) {
+            PendingRead read = iterator.next();
+            if (now - read.sentTime >= responseTimeoutNanos) {
+                iterator.remove();
+                retryOrGiveUp(read, "no response");
+            }
+        }
+    }
+
+    private void retryOrGiveUp(PendingRead read, @Nullable String reason) {
+        ReadDatapoint datapoint = read.datapoint;
+        GroupAddress groupAddress = datapoint.getDatapoint().getMainAddress();
+        if (datapoint.getRetries() < datapoint.getLimit()) {
+            logger.debug("Could not read value for datapoint {}: {}. Going to retry.", groupAddress, reason);
+            (read.priority ? priorityQueue : queue).putIfAbsent(groupAddress, datapoint);
+        } else {
+            logger.warn("Giving up reading datapoint {}, the number of maximum retries ({}) is reached.",
+                    groupAddress, datapoint.getLimit());
+            failed++;
+            reportProgress();
+        }
+    }
+
+    private void reportProgress() {
+        int done = completed + failed;
+        if (done == requested) {
+            logger.debug("Bridge {} finished reading {} datapoints ({} failed) in {} ms", name, requested, failed,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            requested = 0;
+            completed = 0;
+            failed = 0;
+        } else if (done % PROGRESS_LOG_INTERVAL == 0) {
+            logger.debug("Bridge {} has read {} of {} datapoints ({} pending)", name, done, requested,
+                    pending.size());
+        }
+    }
+}
@@ -27,6 +27,7 @@ public class BridgeConfiguration {
     private BigDecimal readingPause;
     private BigDecimal readRetriesLimit;
     private BigDecimal responseTimeout;
+    private int maxPendingReads = 4;
 
     public int getAutoReconnectPeriod() {
         return autoReconnectPeriod;
@@ -44,6 +45,10 @@ public class BridgeConfiguration {
         return responseTimeout;
     }
 
+    public int getMaxPendingReads() {
+        return maxPendingReads;
+    }
+
     public void setAutoReconnectPeriod(int period) {
         autoReconnectPeriod = period;
     }
@@ -25,6 +25,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import org.openhab.binding.knx.internal.KNXTypeMapper;
 import org.openhab.core.library.types.DateTimeType;
@@ -108,6 +111,36 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
     /** stores the default KNX DPT to use for each openHAB type */
     private final Map<Class<? extends Type>, String> defaultDptMap;
 
+    /** caches the pre-computed decoding information for each KNX datapoint type id used so far */
+    private final Map<String, DatapointDecoder> decoders = new ConcurrentHashMap<>();
+
+    /**
+     * Pre-computed decoding information for a single KNX datapoint type id.
+     *
+     * If {@link #rawDecoder} is set, ASDUs of {@link #size} bytes are decoded directly into openHAB types, without
+     * creating a {@link DPTXlator} for each telegram.
+     */
+    private static final class DatapointDecoder {
+        private final int mainNumber;
+        private final int subNumber;
+        private final Class<? extends Type> typeClass;
+        private final int size;
+        private final Function<byte[], Type> rawDecoder;
+
+        private DatapointDecoder(int mainNumber, int subNumber, Class<? extends Type> typeClass, int size,
+                Function<byte[], Type> rawDecoder) {
+            this.mainNumber = mainNumber;
+            this.subNumber = subNumber;
+            this.typeClass = typeClass;
+            this.size = size;
+            this.rawDecoder = rawDecoder;
+        }
+
+        private boolean canDecode(byte[] data) {
+            return rawDecoder != null && data.length == size;
+        }
+    }
+
     public KNXCoreTypeMapper() {
         @SuppressWarnings("unused")
         final List<Class<?>> xlators = Arrays.<Class<?>> asList(DPTXlator1BitControlled.class,
@@ -673,6 +706,11 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
 
     @Override
     public Type toType(Datapoint datapoint, byte[] data) {
+        DatapointDecoder decoder = getDecoder(datapoint.getDPT());
+        if (decoder.canDecode(data)) {
+            return decoder.rawDecoder.apply(data);
+        }
+
         try {
             DPTXlator translator = TranslatorTypes.createTranslator(datapoint.getMainNumber(), datapoint.getDPT());
             translator.setData(data);
@@ -681,12 +719,15 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
             String id = translator.getType().getID();
             logger.trace("toType datapoint DPT = {}", datapoint.getDPT());
 
-            int mainNumber = getMainNumber(id);
+            if (!id.equals(datapoint.getDPT())) {
+                decoder = getDecoder(id);
+            }
+            int mainNumber = decoder.mainNumber;
             if (mainNumber == -1) {
                 logger.debug("toType: couldn't identify mainnumber in dptID: {}.", id);
                 return null;
             }
-            int subNumber = getSubNumber(id);
+            int subNumber = decoder.subNumber;
             if (subNumber == -1) {
                 logger.debug("toType: couldn't identify sub number in dptID: {}.", id);
                 return null;
@@ -813,7 +854,7 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
                     break;
             }
 
-            Class<? extends Type> typeClass = toTypeClass(id);
+            Class<? extends Type> typeClass = decoder.typeClass;
             if (typeClass == null) {
                 return null;
             }
@@ -860,6 +901,114 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
         return null;
     }
 
+    /**
+     * Returns the cached decoding information for the given datapoint type id, creating it on first use.
+     *
+     * @param dptId the datapoint type id
+     * @return the decoding information, never {@code null}
+     */
+    private DatapointDecoder getDecoder(String dptId) {
+        return decoders.computeIfAbsent(dptId, this::createDecoder);
+    }
+
+    private DatapointDecoder createDecoder(String dptId) {
+        int mainNumber = getMainNumber(dptId);
+        int subNumber = getSubNumber(dptId);
+        Class<? extends Type> typeClass = toTypeClass(dptId);
+        if (mainNumber == -1 || subNumber == -1 || typeClass == null) {
+            return new DatapointDecoder(mainNumber, subNumber, typeClass, 0, null);
+        }
+
+        int size;
+        try {
+            // make sure calimero knows the datapoint type, otherwise telegrams must be rejected as before
+            size = TranslatorTypes.createTranslator(mainNumber, dptId).getTypeSize();
+        } catch (KNXException e) {
+            return new DatapointDecoder(mainNumber, subNumber, typeClass, 0, null);
+        }
+        return new DatapointDecoder(mainNumber, subNumber, typeClass, Math.max(size, 1),
+                createRawDecoder(mainNumber, subNumber, typeClass));
+    }
+
+    /**
+     * Creates a decoder which maps the ASDU of the given datapoint type directly into an openHAB type.
+     *
+     * Only datapoint types whose raw encoding is simple and whose result is identical to the one of the
+     * corresponding {@link DPTXlator} are covered, all others return {@code null} and are decoded using calimero.
+     */
+    private Function<byte[], Type> createRawDecoder(int mainNumber, int subNumber,
+            Class<? extends Type> typeClass) {
+        switch (mainNumber) {
+            case 1:
+                switch (subNumber) {
+                    case 8:
+                        return data -> (data[0] & 0x01) != 0 ? UpDownType.DOWN : UpDownType.UP;
+                    case 9:
+                    case 19:
+                        return data -> (data[0] & 0x01) != 0 ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+                    case 10:
+                        return data -> (data[0] & 0x01) != 0 ? StopMoveType.MOVE : StopMoveType.STOP;
+                    case 22:
+                        return data -> new DecimalType(data[0] & 0x01);
+                    default:
+                        return data -> (data[0] & 0x01) != 0 ? OnOffType.ON : OnOffType.OFF;
+                }
+            case 5:
+                switch (subNumber) {
+                    case 1: // * 5.001: Scaling, values: 0...100 %
+                        return numericDecoder(typeClass, data -> (data[0] & 0xFF) * 100 / 255.0);
+                    case 4: // * 5.004: Percent, values: 0...255 %
+                    case 10: // * 5.010: Counter, values: 0...255
+                        return numericDecoder(typeClass, data -> data[0] & 0xFF);
+                    default:
+                        return null;
+                }
+            case 7:
+                if (subNumber == 3 || subNumber == 4) {
+                    // time periods with a resolution of 10ms and 100ms
+                    return null;
+                }
+                return numericDecoder(typeClass, data -> ((data[0] & 0xFF) << 8) | (data[1] & 0xFF));
+            case 9:
+                return numericDecoder(typeClass, data -> {
+                    int raw = ((data[0] & 0xFF) << 8) | (data[1] & 0xFF);
+                    int exponent = (raw >> 11) & 0x0F;
+                    int mantissa = raw & 0x07FF;
+                    if ((raw & 0x8000) != 0) {
+                        mantissa -= 2048;
+                    }
+                    return 0.01 * mantissa * (1 << exponent);
+                });
+            case 12:
+                return numericDecoder(typeClass, data -> readInt(data) & 0xFFFFFFFFL);
+            case 13:
+                return numericDecoder(typeClass, data -> readInt(data));
+            case 14:
+                return numericDecoder(typeClass, data -> Float.intBitsToFloat(readInt(data)));
+            case 232:
+                if (subNumber == 600) {
+                    return data -> HSBType.fromRGB(data[0] & 0xFF, data[1] & 0xFF, data[2] & 0xFF);
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private Function<byte[], Type> numericDecoder(Class<? extends Type> typeClass, ToDoubleFunction<byte[]> decoder) {
+        if (typeClass.equals(PercentType.class)) {
+            return data -> new PercentType(BigDecimal.valueOf(Math.round(decoder.applyAsDouble(data))));
+        }
+        if (typeClass.equals(DecimalType.class)) {
+            return data -> new DecimalType(decoder.applyAsDouble(data));
+        }
+        return null;
+    }
+
+    private static int readInt(byte[] data) {
+        return ((data[0] & 0xFF) << 24) | ((data[1] & 0xFF) << 16) | ((data[2] & 0xFF) << 8) | (data[3] & 0xFF);
+    }
+
     /**
      * Converts a datapoint type id into an openHAB type class
      *
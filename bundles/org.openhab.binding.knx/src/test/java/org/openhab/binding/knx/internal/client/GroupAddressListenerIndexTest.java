@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.knx.internal.handler.GroupAddressListener;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.IndividualAddress;
+
+/**
+ *
+ * @author Michal Boronski - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class GroupAddressListenerIndexTest {
+
+    private static final GroupAddress GA1 = new GroupAddress(1, 2, 3);
+    private static final GroupAddress GA2 = new GroupAddress(1, 2, 4);
+    private static final GroupAddress GA3 = new GroupAddress(3, 0, 1);
+
+    private static class TestListener implements GroupAddressListener {
+        private final Set<GroupAddress> groupAddresses = new HashSet<>();
+
+        TestListener(GroupAddress... groupAddresses) {
+            this.groupAddresses.addAll(List.of(groupAddresses));
+        }
+
+        @Override
+        public boolean listensTo(GroupAddress destination) {
+            return groupAddresses.contains(destination);
+        }
+
+        @Override
+        public Set<GroupAddress> getGroupAddresses() {
+            return groupAddresses;
+        }
+
+        @Override
+        public void onGroupWrite(AbstractKNXClient client, IndividualAddress source, GroupAddress destination,
+                byte[] asdu) {
+        }
+
+        @Override
+        public void onGroupRead(AbstractKNXClient client, IndividualAddress source, GroupAddress destination,
+                byte[] asdu) {
+        }
+
+        @Override
+        public void onGroupReadResponse(AbstractKNXClient client, IndividualAddress source,
+                GroupAddress destination, byte[] asdu) {
+        }
+    }
+
+    @Test
+    public void testLookup() {
+        GroupAddressListenerIndex index = new GroupAddressListenerIndex();
+        TestListener listener1 = new TestListener(GA1, GA2);
+        TestListener listener2 = new TestListener(GA2);
+
+        assertTrue(index.add(listener1));
+        assertTrue(index.add(listener2));
+        assertFalse(index.add(listener1));
+
+        assertEquals(List.of(listener1), index.getListeners(GA1));
+        assertEquals(List.of(listener1, listener2), index.getListeners(GA2));
+        assertTrue(index.getListeners(GA3).isEmpty());
+    }
+
+    @Test
+    public void testRemove() {
+        GroupAddressListenerIndex index = new GroupAddressListenerIndex();
+        TestListener listener = new TestListener(GA1);
+
+        index.add(listener);
+        assertTrue(index.remove(listener));
+        assertFalse(index.remove(listener));
+        assertTrue(index.getListeners(GA1).isEmpty());
+    }
+
+    @Test
+    public void testUpdate() {
+        GroupAddressListenerIndex index = new GroupAddressListenerIndex();
+        TestListener listener = new TestListener();
+        TestListener unregistered = new TestListener(GA3);
+
+        index.add(listener);
+        assertTrue(index.getListeners(GA1).isEmpty());
+
+        listener.groupAddresses.add(GA1);
+        index.update(listener);
+        assertEquals(List.of(listener), index.getListeners(GA1));
+
+        index.update(unregistered);
+        assertTrue(index.getListeners(GA3).isEmpty());
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.KNXException;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.datapoint.Datapoint;
+
+/**
+ *
+ * @author Michal Boronski - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class ReadSchedulerTest {
+
+    private static final GroupAddress GA1 = new GroupAddress(1, 0, 1);
+    private static final GroupAddress GA2 = new GroupAddress(1, 0, 2);
+    private static final GroupAddress GA3 = new GroupAddress(1, 0, 3);
+
+    private final List<GroupAddress> sent = new ArrayList<>();
+
+    private static Datapoint datapoint(GroupAddress groupAddress) {
+        return new CommandDP(groupAddress, "test", 0, "1.001");
+    }
+
+    private void sendAll(ReadScheduler scheduler, int ticks) throws InterruptedException {
+        for (int i = 0; i < ticks; i++) {
+            scheduler.sendNext(sent::add);
+        }
+    }
+
+    @Test
+    public void testPipelinedReads() throws InterruptedException {
+        ReadScheduler scheduler = new ReadScheduler("test", 2, 10, 3);
+        scheduler.add(datapoint(GA1), false);
+        scheduler.add(datapoint(GA2), false);
+        scheduler.add(datapoint(GA3), false);
+
+        sendAll(scheduler, 5);
+        assertEquals(List.of(GA1, GA2), sent);
+
+        scheduler.onResponse(GA1);
+        sendAll(scheduler, 5);
+        assertEquals(List.of(GA1, GA2, GA3), sent);
+    }
+
+    @Test
+    public void testDeduplication() throws InterruptedException {
+        ReadScheduler scheduler = new ReadScheduler("test", 4, 10, 3);
+        scheduler.add(datapoint(GA1), false);
+        scheduler.add(datapoint(GA1), false);
+        sendAll(scheduler, 1);
+        scheduler.add(datapoint(GA1), true);
+
+        sendAll(scheduler, 5);
+        assertEquals(List.of(GA1), sent);
+    }
+
+    @Test
+    public void testPriority() throws InterruptedException {
+        ReadScheduler scheduler = new ReadScheduler("test", 4, 10, 3);
+        scheduler.add(datapoint(GA1), false);
+        scheduler.add(datapoint(GA2), false);
+        scheduler.add(datapoint(GA3), true);
+        scheduler.add(datapoint(GA2), true);
+
+        sendAll(scheduler, 5);
+        assertEquals(List.of(GA3, GA2, GA1), sent);
+    }
+
+    @Test
+    public void testResponseFromOtherParticipant() throws InterruptedException {
+        ReadScheduler scheduler = new ReadScheduler("test", 4, 10, 3);
+        scheduler.add(datapoint(GA1), false);
+        scheduler.add(datapoint(GA2), false);
+        scheduler.onResponse(GA1);
+
+        sendAll(scheduler, 5);
+        assertEquals(List.of(GA2), sent);
+    }
+
+    @Test
+    public void testRetryOnTimeout() throws InterruptedException {
+        ReadScheduler scheduler = new ReadScheduler("test", 1, 0, 2);
+        scheduler.add(datapoint(GA1), false);
+
+        sendAll(scheduler, 5);
+        assertEquals(List.of(GA1, GA1), sent);
+    }
+
+    @Test
+    public void testRetryOnError() throws InterruptedException {
+        ReadScheduler scheduler = new ReadScheduler("test", 4, 10, 3);
+        scheduler.add(datapoint(GA1), false);
+
+        for (int i = 0; i < 5; i++) {
+            scheduler.sendNext(groupAddress -> {
+                sent.add(groupAddress);
+                throw new KNXException("test");
+            });
+        }
+        assertEquals(List.of(GA1, GA1, GA1), sent);
+    }
+}
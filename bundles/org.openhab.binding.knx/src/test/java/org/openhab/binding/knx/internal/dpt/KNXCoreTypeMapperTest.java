@@ -16,6 +16,14 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.api.Test;
 import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.PercentType;
+import org.openhab.core.types.Type;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.CommandDP;
 
 /**
  *
@@ -29,4 +37,52 @@ public class KNXCoreTypeMapperTest {
         assertEquals("3", new KNXCoreTypeMapper().toDPTValue(new DecimalType("3"), "17.001"));
         assertEquals("3", new KNXCoreTypeMapper().toDPTValue(new DecimalType("3.0"), "17.001"));
     }
+
+    @Test
+    public void testToType_boolean() {
+        assertEquals(OnOffType.ON, toType("1.001", 0x01));
+        assertEquals(OnOffType.OFF, toType("1.001", 0x00));
+        assertEquals(OpenClosedType.OPEN, toType("1.009", 0x01));
+        assertEquals(new DecimalType(1), toType("1.022", 0x01));
+    }
+
+    @Test
+    public void testToType_8BitUnsigned() {
+        assertEquals(PercentType.HUNDRED, toType("5.001", 0xFF));
+        assertEquals(new PercentType(50), toType("5.001", 0x80));
+        assertEquals(new DecimalType(200), toType("5.010", 0xC8));
+    }
+
+    @Test
+    public void testToType_2ByteFloat() {
+        assertEquals(new DecimalType(21.0), toType("9.001", 0x0C, 0x1A));
+        assertEquals(new DecimalType(-1.0), toType("9.001", 0x87, 0x9C));
+        assertEquals(new PercentType(42), toType("9.007", 0x14, 0x1A));
+    }
+
+    @Test
+    public void testToType_4Byte() {
+        assertEquals(new DecimalType(4294967295L), toType("12.001", 0xFF, 0xFF, 0xFF, 0xFF));
+        assertEquals(new DecimalType(-1), toType("13.010", 0xFF, 0xFF, 0xFF, 0xFF));
+        int bits = Float.floatToIntBits(1234.5f);
+        assertEquals(new DecimalType(1234.5), toType("14.056", bits >>> 24, bits >>> 16, bits >>> 8, bits));
+    }
+
+    @Test
+    public void testToType_rgb() {
+        assertEquals(HSBType.fromRGB(255, 128, 0), toType("232.600", 0xFF, 0x80, 0x00));
+    }
+
+    @Test
+    public void testToType_unknownDPT() {
+        assertNull(toType("9.999", 0x0C, 0x1A));
+    }
+
+    private Type toType(String dpt, int... asdu) {
+        byte[] data = new byte[asdu.length];
+        for (int i = 0; i < asdu.length; i++) {
+            data[i] = (byte) asdu[i];
+        }
+        return new KNXCoreTypeMapper().toType(new CommandDP(new GroupAddress(1, 2, 3), "test", 0, dpt), data);
+    }
 }
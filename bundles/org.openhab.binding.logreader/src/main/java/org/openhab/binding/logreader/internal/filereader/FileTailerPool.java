@@ -0,0 +1,270 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.logreader.internal.filereader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tails log files for several {@link PooledFileTailer}s. Each file is opened and read only once, no matter how many
+ * things are reading it, and all files are polled on a shared thread pool instead of a thread per thing.
+ *
+ * New data is read in large chunks and split into lines. Reading starts at the end of the file and a file is read
+ * again from the start when it is rotated. A file that is created after tailing started is read
+ * from the start, and a file reopened after a read error is read on from the last position, so no lines are lost.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class FileTailerPool {
+    private static final String THREADPOOL_NAME = "logreader";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(FileTailerPool.class);
+
+    private final ScheduledExecutorService scheduler;
+    private final Map<Path, TailedFile> files = new HashMap<>();
+
+    public FileTailerPool() {
+        this(ThreadPoolManager.getScheduledPool(THREADPOOL_NAME));
+    }
+
+    FileTailerPool(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Start tailing a file for the given reader. The file is polled at the smallest refresh rate of its readers.
+     *
+     * @param filePath file to tail
+     * @param refreshRate refresh rate in milliseconds
+     * @param reader reader receiving the lines of the file
+     */
+    synchronized void subscribe(String filePath, long refreshRate, PooledFileTailer reader) {
+        unsubscribe(reader);
+        Path path = Paths.get(filePath).toAbsolutePath().normalize();
+        TailedFile file = files.get(path);
+        if (file == null) {
+            file = new TailedFile(path);
+            files.put(path, file);
+            logger.debug("Start tailing file '{}'", path);
+        }
+        file.readers.add(reader);
+        file.schedule(Math.max(1, refreshRate));
+    }
+
+    /**
+     * Stop tailing for the given reader. The file is closed when it has no more readers.
+     *
+     * @param reader reader to remove
+     */
+    synchronized void unsubscribe(PooledFileTailer reader) {
+        files.values().removeIf(file -> {
+            if (file.readers.remove(reader) && file.readers.isEmpty()) {
+                logger.debug("Stop tailing file '{}'", file.path);
+                file.stop();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private class TailedFile {
+        private final Path path;
+        private final List<PooledFileTailer> readers = new CopyOnWriteArrayList<>();
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        // bytes of an incomplete line, kept until the end of the line is written
+        private byte[] line = new byte[256];
+        private int lineLength;
+
+        private @Nullable ScheduledFuture<?> job;
+        private long refreshRate = Long.MAX_VALUE;
+        private @Nullable FileChannel channel;
+        private @Nullable Object fileKey;
+        private long position;
+        private boolean readFromStart;
+        // reopened after a read error, continue at the position if it is still the same file
+        private boolean resume;
+
+        TailedFile(Path path) {
+            this.path = path;
+        }
+
+        synchronized void schedule(long rate) {
+            if (rate < refreshRate) {
+                ScheduledFuture<?> localJob = job;
+                if (localJob != null) {
+                    localJob.cancel(false);
+                }
+                refreshRate = rate;
+                job = scheduler.scheduleWithFixedDelay(this::poll, 0, rate, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        synchronized void stop() {
+            ScheduledFuture<?> localJob = job;
+            if (localJob != null) {
+                localJob.cancel(false);
+            }
+            job = null;
+            close();
+        }
+
+        private synchronized void poll() {
+            if (job == null) {
+                return;
+            }
+            try {
+                FileChannel localChannel = channel;
+                if (localChannel == null) {
+                    localChannel = open();
+                    if (localChannel == null) {
+                        return;
+                    }
+                } else if (isRotated(localChannel)) {
+                    // finish reading the old file before switching to the new one
+                    read(localChannel);
+                    if (lineLength > 0) {
+                        flushLine();
+                    }
+                    close();
+                    readFromStart = true;
+                    readers.forEach(PooledFileTailer::sendFileRotationToListeners);
+                    localChannel = open();
+                    if (localChannel == null) {
+                        return;
+                    }
+                }
+                read(localChannel);
+            } catch (IOException e) {
+                // only a file that was open is continued at its position when it is reopened
+                resume |= channel != null;
+                close();
+                readers.forEach(reader -> reader.sendExceptionToListeners(e));
+            }
+        }
+
+        private @Nullable FileChannel open() throws IOException {
+            BasicFileAttributes attributes;
+            FileChannel localChannel;
+            try {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                localChannel = FileChannel.open(path, StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                // everything written to the file once it is created is new
+                readFromStart = true;
+                readers.forEach(PooledFileTailer::sendFileNotFoundToListeners);
+                return null;
+            }
+            Object key = attributes.fileKey();
+            long size = localChannel.size();
+            if (resume && !readFromStart && Objects.equals(key, fileKey) && size >= position) {
+                logger.debug("Continue tailing file '{}' at position {}", path, position);
+            } else {
+                position = readFromStart || resume ? 0 : size;
+                lineLength = 0;
+            }
+            fileKey = key;
+            readFromStart = false;
+            resume = false;
+            channel = localChannel;
+            return localChannel;
+        }
+
+        private boolean isRotated(FileChannel localChannel) throws IOException {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                // moved away, the file is switched as soon as a new one is created
+                return false;
+            }
+            Object key = attributes.fileKey();
+            if (key != null && fileKey != null && !Objects.equals(key, fileKey)) {
+                return true;
+            }
+            return localChannel.size() < position;
+        }
+
+        private void read(FileChannel localChannel) throws IOException {
+            while (true) {
+                buffer.clear();
+                int count = localChannel.read(buffer, position);
+                if (count <= 0) {
+                    return;
+                }
+                position += count;
+                byte[] bytes = buffer.array();
+                int start = 0;
+                for (int i = 0; i < count; i++) {
+                    if (bytes[i] == '\n') {
+                        appendToLine(bytes, start, i - start);
+                        flushLine();
+                        start = i + 1;
+                    }
+                }
+                appendToLine(bytes, start, count - start);
+            }
+        }
+
+        private void appendToLine(byte[] bytes, int offset, int length) {
+            if (lineLength + length > line.length) {
+                line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+            }
+            System.arraycopy(bytes, offset, line, lineLength, length);
+            lineLength += length;
+        }
+
+        private void flushLine() {
+            int length = lineLength > 0 && line[lineLength - 1] == '\r' ? lineLength - 1 : lineLength;
+            String text = new String(line, 0, length, Charset.defaultCharset());
+            lineLength = 0;
+            readers.forEach(reader -> reader.sendLineToListeners(text));
+        }
+
+        private void close() {
+            FileChannel localChannel = channel;
+            channel = null;
+            if (localChannel != null) {
+                try {
+                    localChannel.close();
+                } catch (IOException e) {
+                    logger.debug("Failed to close file '{}'", path, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.logreader.internal.filereader;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.logreader.internal.filereader.api.FileReaderException;
+import org.openhab.binding.logreader.internal.filereader.api.LogFileReader;
+
+/**
+ * Log file reader sharing the tailing of a file with the other readers of the same {@link FileTailerPool}.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class PooledFileTailer extends AbstractLogFileReader implements LogFileReader {
+    private final FileTailerPool pool;
+
+    public PooledFileTailer(FileTailerPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void start(String filePath, long refreshRate) throws FileReaderException {
+        try {
+            pool.subscribe(filePath, refreshRate, this);
+        } catch (RuntimeException e) {
+            throw new FileReaderException(e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        pool.unsubscribe(this);
+    }
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.logreader.internal.searchengine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Checks a line against several search patterns at once.
+ *
+ * Patterns without any regular expression syntax are searched together with a single automaton (Aho-Corasick), so the
+ * line is scanned only once for all of them. The other patterns are combined into one alternation, except patterns
+ * which would change their meaning when combined (back references, quoting or inline flags), which are checked on
+ * their own.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+class MultiPatternMatcher {
+    private static final String REGEX_CHARACTERS = "\\^$.|?*+()[]{}";
+    private static final Pattern NOT_COMBINABLE = Pattern.compile("\\\\Q|\\(\\?|\\\\k<|\\\\[0-9]");
+    private static final int ASCII_SIZE = 128;
+
+    private final List<Pattern> patterns = new ArrayList<>();
+    private final LiteralAutomaton literals;
+
+    /**
+     * @param patternStrings the patterns, each is matched anywhere in the line
+     * @throws PatternSyntaxException if one of the patterns is not a valid regular expression
+     */
+    MultiPatternMatcher(List<String> patternStrings) throws PatternSyntaxException {
+        List<String> literalStrings = new ArrayList<>();
+        List<String> combinable = new ArrayList<>();
+        for (String patternString : patternStrings) {
+            // validates the pattern, even if it is matched differently
+            Pattern pattern = Pattern.compile(patternString);
+            if (isLiteral(patternString)) {
+                literalStrings.add(patternString);
+            } else if (NOT_COMBINABLE.matcher(patternString).find()) {
+                patterns.add(pattern);
+            } else {
+                combinable.add(patternString);
+            }
+        }
+        if (combinable.size() == 1) {
+            patterns.add(Pattern.compile(combinable.get(0)));
+        } else if (combinable.size() > 1) {
+            StringBuilder combined = new StringBuilder();
+            for (String patternString : combinable) {
+                if (combined.length() > 0) {
+                    combined.append('|');
+                }
+                combined.append("(?:").append(patternString).append(')');
+            }
+            patterns.add(Pattern.compile(combined.toString()));
+        }
+        literals = new LiteralAutomaton(literalStrings);
+    }
+
+    private static boolean isLiteral(String patternString) {
+        for (int i = 0; i < patternString.length(); i++) {
+            if (REGEX_CHARACTERS.indexOf(patternString.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isEmpty() {
+        return patterns.isEmpty() && literals.isEmpty();
+    }
+
+    /**
+     * Check if any of the patterns is found in the data.
+     *
+     * @param data data against search will be done.
+     * @return true if one of the patterns is found.
+     */
+    boolean find(String data) {
+        if (literals.find(data)) {
+            return true;
+        }
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(data).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deterministic automaton finding any of a set of strings in a single pass. Transitions are stored per state for
+     * the characters used in the strings, every other character leads back to the start state.
+     */
+    private static class LiteralAutomaton {
+        // index of each ASCII character in the alphabet, or the index of "any other character"
+        private final int[] asciiIndex = new int[ASCII_SIZE];
+        // sorted characters of the alphabet which are not ASCII
+        private final char[] otherChars;
+        private final int otherIndex;
+        private final int[][] transitions;
+        private final boolean[] accepting;
+        private final boolean matchesEverything;
+
+        private LiteralAutomaton(List<String> strings) {
+            TreeSet<Character> alphabet = new TreeSet<>();
+            boolean emptyString = false;
+            for (String string : strings) {
+                emptyString |= string.isEmpty();
+                for (int i = 0; i < string.length(); i++) {
+                    alphabet.add(string.charAt(i));
+                }
+            }
+            matchesEverything = emptyString;
+
+            otherIndex = alphabet.size();
+            Arrays.fill(asciiIndex, otherIndex);
+            List<Character> nonAscii = new ArrayList<>();
+            int index = 0;
+            for (char c : alphabet) {
+                if (c < ASCII_SIZE) {
+                    asciiIndex[c] = index;
+                } else {
+                    nonAscii.add(c);
+                }
+                index++;
+            }
+            otherChars = new char[nonAscii.size()];
+            for (int i = 0; i < otherChars.length; i++) {
+                otherChars[i] = nonAscii.get(i);
+            }
+
+            // build the trie, state 0 is the start state
+            List<int[]> trie = new ArrayList<>();
+            List<Boolean> output = new ArrayList<>();
+            trie.add(newState());
+            output.add(false);
+            for (String string : strings) {
+                int state = 0;
+                for (int i = 0; i < string.length(); i++) {
+                    int c = indexOf(string.charAt(i));
+                    if (trie.get(state)[c] < 0) {
+                        trie.get(state)[c] = trie.size();
+                        trie.add(newState());
+                        output.add(false);
+                    }
+                    state = trie.get(state)[c];
+                }
+                output.set(state, true);
+            }
+
+            // complete the transitions with the failure links, breadth first
+            transitions = trie.toArray(new int[0][]);
+            accepting = new boolean[transitions.length];
+            for (int i = 0; i < accepting.length; i++) {
+                accepting[i] = output.get(i);
+            }
+            int[] failure = new int[transitions.length];
+            Deque<Integer> queue = new ArrayDeque<>();
+            for (int c = 0; c <= otherIndex; c++) {
+                int next = transitions[0][c];
+                if (next < 0) {
+                    transitions[0][c] = 0;
+                } else {
+                    failure[next] = 0;
+                    queue.add(next);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                accepting[state] |= accepting[failure[state]];
+                for (int c = 0; c <= otherIndex; c++) {
+                    int next = transitions[state][c];
+                    if (next < 0) {
+                        transitions[state][c] = transitions[failure[state]][c];
+                    } else {
+                        failure[next] = transitions[failure[state]][c];
+                        queue.add(next);
+                    }
+                }
+            }
+        }
+
+        private int[] newState() {
+            int[] state = new int[otherIndex + 1];
+            Arrays.fill(state, -1);
+            return state;
+        }
+
+        private int indexOf(char c) {
+            if (c < ASCII_SIZE) {
+                return asciiIndex[c];
+            }
+            int i = Arrays.binarySearch(otherChars, c);
+            // the non ASCII characters follow the ASCII characters in the alphabet
+            return i >= 0 ? otherIndex - otherChars.length + i : otherIndex;
+        }
+
+        boolean isEmpty() {
+            return transitions.length == 1 && !matchesEverything;
+        }
+
+        boolean find(String data) {
+            if (matchesEverything) {
+                return true;
+            }
+            if (transitions.length == 1) {
+                return false;
+            }
+            int state = 0;
+            for (int i = 0; i < data.length(); i++) {
+                state = transitions[state][indexOf(data.charAt(i))];
+                if (accepting[state]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
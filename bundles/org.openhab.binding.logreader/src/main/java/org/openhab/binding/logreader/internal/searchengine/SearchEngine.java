@@ -14,8 +14,6 @@ package org.openhab.binding.logreader.internal.searchengine;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -25,12 +23,13 @@ import org.eclipse.jdt.annotation.Nullable;
  * This class implements logic for regular expression based searching.
  *
  * @author Pauli Anttila - Initial contribution
+ * @author Michal Boronski - Match all patterns in a single pass
  */
 @NonNullByDefault
 public class SearchEngine {
 
-    private List<Pattern> matchers;
-    private List<Pattern> blacklistingMatchers;
+    private MultiPatternMatcher matchers;
+    private MultiPatternMatcher blacklistingMatchers;
 
     private long matchCount;
 
@@ -53,7 +52,7 @@ public class SearchEngine {
      * @return true if one of the search patterns found.
      */
     public boolean isMatching(String data) {
-        if (isMatching(matchers, data)) {
+        if (matchers.find(data)) {
             if (notBlacklisted(data)) {
                 matchCount++;
                 return true;
@@ -75,37 +74,25 @@ public class SearchEngine {
     }
 
     /**
-     * Split pattern string and precompile search patterns.
+     * Split pattern string and precompile search patterns into a single matcher.
      *
      * @param patterns patterns which will handled.
-     * @return list of precompiled patterns. If pattern parameter is null, empty list is returned.
+     * @return matcher for all patterns. If pattern parameter is null, the matcher never matches.
      */
-    private List<Pattern> compilePatterns(@Nullable String patterns) throws PatternSyntaxException {
-        List<Pattern> patternsList = new ArrayList<>();
+    private MultiPatternMatcher compilePatterns(@Nullable String patterns) throws PatternSyntaxException {
+        List<String> patternsList = new ArrayList<>();
         if (patterns != null && !patterns.isEmpty()) {
             String list[] = patterns.split("\\|");
             if (list.length > 0) {
                 for (String patternStr : list) {
-                    patternsList.add(Pattern.compile(patternStr));
+                    patternsList.add(patternStr);
                 }
             }
         }
-        return patternsList;
+        return new MultiPatternMatcher(patternsList);
     }
 
     private boolean notBlacklisted(String data) {
-        return !isMatching(blacklistingMatchers, data);
-    }
-
-    private boolean isMatching(@Nullable List<Pattern> patterns, String data) {
-        if (patterns != null) {
-            for (Pattern pattern : patterns) {
-                Matcher matcher = pattern.matcher(data);
-                if (matcher.find()) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return blacklistingMatchers.isEmpty() || !blacklistingMatchers.find(data);
     }
 }
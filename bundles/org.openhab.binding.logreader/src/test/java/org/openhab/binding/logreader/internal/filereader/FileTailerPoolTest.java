@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.logreader.internal.filereader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openhab.binding.logreader.internal.filereader.api.FileReaderListener;
+
+/**
+ * Tests the tailing of files by the {@link FileTailerPool}.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class FileTailerPoolTest {
+    private static final long REFRESH_RATE = 10;
+    private static final String NOT_FOUND = "<not found>";
+    private static final String ROTATED = "<rotated>";
+
+    private @TempDir @NonNullByDefault({}) Path directory;
+    private @NonNullByDefault({}) Path file;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final FileTailerPool pool = new FileTailerPool(scheduler);
+    private final List<PooledFileTailer> tailers = new ArrayList<>();
+
+    private static class Events implements FileReaderListener {
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void fileNotFound() {
+            events.add(NOT_FOUND);
+        }
+
+        @Override
+        public void fileRotated() {
+            events.add(ROTATED);
+        }
+
+        @Override
+        public void handle(@Nullable String line) {
+            events.add(String.valueOf(line));
+        }
+
+        @Override
+        public void handle(@Nullable Exception ex) {
+            events.add("<" + ex + ">");
+        }
+
+        private @Nullable String next() throws InterruptedException {
+            return events.poll(5, TimeUnit.SECONDS);
+        }
+
+        /**
+         * skips the repeated reports of a missing file
+         */
+        private @Nullable String nextLine() throws InterruptedException {
+            String event;
+            do {
+                event = next();
+            } while (NOT_FOUND.equals(event));
+            return event;
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        file = directory.resolve("test.log");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tailers.forEach(PooledFileTailer::stop);
+        scheduler.shutdownNow();
+    }
+
+    private Events tail() throws Exception {
+        Events events = new Events();
+        PooledFileTailer tailer = new PooledFileTailer(pool);
+        tailer.registerListener(events);
+        tailer.start(file.toString(), REFRESH_RATE);
+        tailers.add(tailer);
+        // the first poll, which opens the file at its end, runs before this task
+        scheduler.submit(() -> {
+        }).get(5, TimeUnit.SECONDS);
+        return events;
+    }
+
+    private void append(String text) throws IOException {
+        Files.write(file, text.getBytes(Charset.defaultCharset()), StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * waits until the pool read everything written so far
+     */
+    private void sync(Events... events) throws IOException, InterruptedException {
+        append("sync\n");
+        for (Events e : events) {
+            assertEquals("sync", e.nextLine());
+        }
+    }
+
+    @Test
+    public void testLinesAreSplit() throws Exception {
+        append("existing line\n");
+        Events events = tail();
+        sync(events);
+
+        StringBuilder longLine = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            longLine.append("0123456789");
+        }
+        append("first\nsecond\r\n\nthird");
+        append(" continued\n" + longLine + "\n");
+
+        assertEquals("first", events.next());
+        assertEquals("second", events.next());
+        assertEquals("", events.next());
+        assertEquals("third continued", events.next());
+        assertEquals(longLine.toString(), events.next());
+    }
+
+    @Test
+    public void testIncompleteLineIsKeptUntilEndOfLine() throws Exception {
+        Events events = tail();
+        append("");
+        sync(events);
+
+        append("incomplete");
+        Thread.sleep(REFRESH_RATE * 5);
+        assertNull(events.events.poll());
+
+        append(" line\n");
+        assertEquals("incomplete line", events.next());
+    }
+
+    @Test
+    public void testFileCreatedLaterIsReadFromStart() throws Exception {
+        Events events = tail();
+        assertEquals(NOT_FOUND, events.next());
+
+        append("first line of new file\nsecond line\n");
+
+        assertEquals("first line of new file", events.nextLine());
+        assertEquals("second line", events.next());
+    }
+
+    @Test
+    public void testRotatedFileIsReadFromStart() throws Exception {
+        append("old\n");
+        Events events = tail();
+        sync(events);
+
+        append("last line of old file\n");
+        Files.move(file, directory.resolve("test.log.1"));
+        append("first line of new file\n");
+
+        assertEquals("last line of old file", events.nextLine());
+        assertEquals(ROTATED, events.next());
+        assertEquals("first line of new file", events.nextLine());
+    }
+
+    @Test
+    public void testReadersShareFile() throws Exception {
+        append("");
+        Events first = tail();
+        Events second = tail();
+        sync(first, second);
+
+        append("shared\n");
+        assertEquals("shared", first.next());
+        assertEquals("shared", second.next());
+
+        tailers.remove(0).stop();
+        append("only second\n");
+        assertEquals("only second", second.next());
+        assertNull(first.events.poll());
+    }
+}
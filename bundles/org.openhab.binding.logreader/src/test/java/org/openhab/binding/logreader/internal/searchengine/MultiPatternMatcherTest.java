@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.logreader.internal.searchengine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link MultiPatternMatcher}.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class MultiPatternMatcherTest {
+    private static final String[] PATTERNS = { "ab", "bab", "abc", "b", "ca", "é", "ñb", "a.b", "b+c", "[ab]c",
+            "(a|c)b", "^ab", "c$", "(a)\\1", "(?i)AB", "(?:ba)+c", "\\Qa.b\\E", "a{2}", "\\d", "" };
+    private static final String LINE_CHARACTERS = "abcé.ñAB 1";
+
+    /**
+     * Matches like the search engine did before, with one {@link Pattern} after the other
+     */
+    private static boolean findEach(List<String> patternStrings, String data) {
+        for (String patternString : patternStrings) {
+            if (Pattern.compile(patternString).matcher(data).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void assertSameAsEach(List<String> patternStrings, String data) {
+        assertEquals(findEach(patternStrings, data), new MultiPatternMatcher(patternStrings).find(data),
+                () -> patternStrings + " in '" + data + "'");
+    }
+
+    @Test
+    public void testOverlappingLiterals() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(List.of("she", "he", "hers", "his"));
+
+        assertTrue(matcher.find("ushers"));
+        assertTrue(matcher.find("this"));
+        assertTrue(matcher.find("ahe"));
+        assertFalse(matcher.find("shs hrs"));
+        assertFalse(matcher.find(""));
+
+        // a literal which is a suffix of a partial match of another literal
+        MultiPatternMatcher suffix = new MultiPatternMatcher(List.of("abcd", "bce"));
+        assertTrue(suffix.find("xabcex"));
+        assertFalse(suffix.find("abcabd"));
+    }
+
+    @Test
+    public void testNonAsciiLiterals() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(List.of("Größe", "温度"));
+
+        assertTrue(matcher.find("Die Größe ist 3"));
+        assertTrue(matcher.find("温度: 21"));
+        assertFalse(matcher.find("Grösse"));
+        assertFalse(matcher.find("温"));
+    }
+
+    @Test
+    public void testRegexFallback() {
+        // combined into one alternation
+        assertTrue(new MultiPatternMatcher(List.of("ERROR.*disk", "WARN\\s+\\d+")).find("WARN  42"));
+        // checked on their own, they would refer to other groups or flags when combined
+        MultiPatternMatcher backReference = new MultiPatternMatcher(List.of("x(y)", "(a)\\1"));
+        assertTrue(backReference.find("aa"));
+        assertFalse(backReference.find("ab"));
+        MultiPatternMatcher inlineFlag = new MultiPatternMatcher(List.of("(?i)error", "Warn.*"));
+        assertTrue(inlineFlag.find("ERROR"));
+        assertFalse(inlineFlag.find("WARN"));
+        MultiPatternMatcher quoted = new MultiPatternMatcher(List.of("\\Qa|b\\E", "c+"));
+        assertTrue(quoted.find("a|b"));
+        assertFalse(quoted.find("ab"));
+    }
+
+    @Test
+    public void testEmptyPatterns() {
+        assertTrue(new MultiPatternMatcher(List.of()).isEmpty());
+        assertFalse(new MultiPatternMatcher(List.of()).find("anything"));
+        assertFalse(new MultiPatternMatcher(List.of("")).isEmpty());
+        assertTrue(new MultiPatternMatcher(List.of("")).find("anything"));
+    }
+
+    @Test
+    public void testInvalidPattern() {
+        assertThrows(PatternSyntaxException.class, () -> new MultiPatternMatcher(List.of("ok", "(unclosed")));
+    }
+
+    @Test
+    public void testSameResultsAsPatternLoop() {
+        Random random = new Random(4711);
+        for (int i = 0; i < 2000; i++) {
+            List<String> patternStrings = new ArrayList<>();
+            int count = 1 + random.nextInt(6);
+            for (int j = 0; j < count; j++) {
+                patternStrings.add(PATTERNS[random.nextInt(PATTERNS.length - 1)]);
+            }
+            StringBuilder data = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                data.append(LINE_CHARACTERS.charAt(random.nextInt(LINE_CHARACTERS.length())));
+            }
+            assertSameAsEach(patternStrings, data.toString());
+        }
+        for (String pattern : PATTERNS) {
+            assertSameAsEach(List.of(pattern), "");
+            assertSameAsEach(List.of(pattern, "zz"), "xabcx");
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.logreader.internal.searchengine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link SearchEngine}.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class SearchEngineTest {
+
+    @Test
+    public void testBlacklistTakesPrecedence() {
+        SearchEngine engine = new SearchEngine("ERROR|Exception|disk \\d+% full", "ERROR.*heartbeat|Timeout");
+
+        assertTrue(engine.isMatching("[ERROR] Failed to start binding"));
+        assertTrue(engine.isMatching("disk 95% full"));
+        assertFalse(engine.isMatching("[ERROR] Missed heartbeat"));
+        assertFalse(engine.isMatching("TimeoutException"));
+        assertFalse(engine.isMatching("[INFO] Started"));
+        assertEquals(2, engine.getMatchCount());
+
+        engine.clearMatchCount();
+        assertEquals(0, engine.getMatchCount());
+    }
+
+    @Test
+    public void testWithoutBlacklist() {
+        SearchEngine engine = new SearchEngine("WARN", null);
+
+        assertTrue(engine.isMatching("[WARN ] Low battery"));
+        assertFalse(engine.isMatching("[INFO ] All fine"));
+        assertEquals(1, engine.getMatchCount());
+
+        SearchEngine emptyBlacklist = new SearchEngine("WARN", "");
+        assertTrue(emptyBlacklist.isMatching("[WARN ] Low battery"));
+    }
+}
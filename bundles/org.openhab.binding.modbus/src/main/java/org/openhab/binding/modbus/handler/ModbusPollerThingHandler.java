@@ -22,7 +22,9 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.modbus.internal.AtomicStampedValue;
 import org.openhab.binding.modbus.internal.ModbusBindingConstantsInternal;
+import org.openhab.binding.modbus.internal.ModbusPollPlanner;
 import org.openhab.binding.modbus.internal.config.ModbusPollerConfiguration;
+import org.openhab.binding.modbus.internal.handler.AbstractModbusEndpointThingHandler;
 import org.openhab.binding.modbus.internal.handler.ModbusDataThingHandler;
 import org.openhab.core.io.transport.modbus.AsyncModbusFailure;
 import org.openhab.core.io.transport.modbus.AsyncModbusReadResult;
@@ -33,7 +35,6 @@ import org.openhab.core.io.transport.modbus.ModbusReadCallback;
 import org.openhab.core.io.transport.modbus.ModbusReadFunctionCode;
 import org.openhab.core.io.transport.modbus.ModbusReadRequestBlueprint;
 import org.openhab.core.io.transport.modbus.ModbusRegisterArray;
-import org.openhab.core.io.transport.modbus.PollTask;
 import org.openhab.core.thing.Bridge;
 import org.openhab.core.thing.ChannelUID;
 import org.openhab.core.thing.Thing;
@@ -188,7 +189,8 @@ public class ModbusPollerThingHandler extends BaseBridgeHandler {
 
     private @NonNullByDefault({}) ModbusPollerConfiguration config;
     private long cacheMillis;
-    private volatile @Nullable PollTask pollTask;
+    private volatile @Nullable ModbusPollPlanner pollPlanner;
+    private volatile ModbusPollPlanner.@Nullable Registration pollRegistration;
     private volatile @Nullable ModbusReadRequestBlueprint request;
     private volatile boolean disposed;
     private volatile List<ModbusDataThingHandler> childCallbacks = new CopyOnWriteArrayList<>();
@@ -308,12 +310,14 @@ public class ModbusPollerThingHandler extends BaseBridgeHandler {
         if (config == null) {
             return;
         }
-        PollTask localPollTask = this.pollTask;
-        if (localPollTask != null) {
+        ModbusPollPlanner localPollPlanner = this.pollPlanner;
+        ModbusPollPlanner.Registration localPollRegistration = this.pollRegistration;
+        if (localPollPlanner != null && localPollRegistration != null) {
             logger.debug("Unregistering polling from ModbusManager");
-            comms.unregisterRegularPoll(localPollTask);
+            localPollPlanner.unregisterRegularPoll(localPollRegistration);
         }
-        this.pollTask = null;
+        this.pollRegistration = null;
+        this.pollPlanner = null;
         request = null;
         comms = null;
         updateStatus(ThingStatus.OFFLINE);
@@ -328,7 +332,7 @@ public class ModbusPollerThingHandler extends BaseBridgeHandler {
     @SuppressWarnings("null")
     private synchronized void registerPollTask() throws EndpointNotInitializedException {
         logger.trace("registerPollTask()");
-        if (pollTask != null) {
+        if (pollRegistration != null) {
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR);
             logger.debug("pollTask should be unregistered before registering a new one!");
             return;
@@ -363,9 +367,19 @@ public class ModbusPollerThingHandler extends BaseBridgeHandler {
             updateStatus(ThingStatus.ONLINE, ThingStatusDetail.NONE, "Not polling");
         } else {
             logger.debug("Registering polling with ModbusManager");
-            pollTask = localComms.registerRegularPoll(localRequest, config.getRefresh(), 0, callbackDelegator,
-                    callbackDelegator);
-            assert pollTask != null;
+            // the endpoint may merge this poll with the polls of other pollers
+            ModbusPollPlanner localPollPlanner = null;
+            if (slaveEndpointThingHandler instanceof AbstractModbusEndpointThingHandler) {
+                localPollPlanner = ((AbstractModbusEndpointThingHandler<?, ?>) slaveEndpointThingHandler)
+                        .getPollPlanner();
+            }
+            if (localPollPlanner == null) {
+                localPollPlanner = new ModbusPollPlanner(localComms, ModbusPollPlanner.COALESCING_DISABLED,
+                        thing.getUID().toString());
+            }
+            pollPlanner = localPollPlanner;
+            pollRegistration = localPollPlanner.registerRegularPoll(localRequest, config.getRefresh(),
+                    callbackDelegator, callbackDelegator);
             updateStatus(ThingStatus.ONLINE);
         }
     }
@@ -0,0 +1,350 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.io.transport.modbus.AsyncModbusFailure;
+import org.openhab.core.io.transport.modbus.AsyncModbusReadResult;
+import org.openhab.core.io.transport.modbus.BitArray;
+import org.openhab.core.io.transport.modbus.ModbusCommunicationInterface;
+import org.openhab.core.io.transport.modbus.ModbusConstants;
+import org.openhab.core.io.transport.modbus.ModbusFailureCallback;
+import org.openhab.core.io.transport.modbus.ModbusReadCallback;
+import org.openhab.core.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.core.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.core.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.core.io.transport.modbus.PollTask;
+import org.openhab.core.io.transport.modbus.exception.ModbusSlaveErrorResponseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Plans the regular polls of all pollers of an endpoint.
+ *
+ * Polls with the same slave, function code and poll period are merged into as few reads as possible: ranges that
+ * overlap or are at most {@code maxGap} registers (or bits) apart are read with a single request, as long as the
+ * request stays within the protocol limits. The result of a merged read is sliced and passed to the callbacks of each
+ * poller with its original request, so pollers and their data things do not notice the difference.
+ *
+ * Some slaves reject reads that span unmapped addresses. If a merged read fails with an illegal data address or
+ * value, the polls of that group are no longer merged.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusPollPlanner {
+
+    /**
+     * Gap tolerance disabling the coalescing, every poll is registered as is
+     */
+    public static final int COALESCING_DISABLED = -1;
+
+    private static final int STATISTICS_LOG_INTERVAL = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(ModbusPollPlanner.class);
+
+    private final ModbusCommunicationInterface comms;
+    private final int maxGap;
+    private final String name;
+    private final Map<GroupKey, Group> groups = new HashMap<>();
+
+    private final AtomicLong mergedReads = new AtomicLong();
+    private final AtomicLong savedReads = new AtomicLong();
+
+    /**
+     * A regular poll registered with the planner
+     */
+    public static class Registration {
+        private final ModbusReadRequestBlueprint request;
+        private final long pollPeriodMillis;
+        private final ModbusReadCallback resultCallback;
+        private final ModbusFailureCallback<ModbusReadRequestBlueprint> failureCallback;
+        private @Nullable PollTask directPollTask;
+
+        private Registration(ModbusReadRequestBlueprint request, long pollPeriodMillis,
+                ModbusReadCallback resultCallback, ModbusFailureCallback<ModbusReadRequestBlueprint> failureCallback) {
+            this.request = request;
+            this.pollPeriodMillis = pollPeriodMillis;
+            this.resultCallback = resultCallback;
+            this.failureCallback = failureCallback;
+        }
+
+        private int start() {
+            return request.getReference();
+        }
+
+        private int end() {
+            return request.getReference() + request.getDataLength();
+        }
+    }
+
+    /**
+     * @param comms communication interface of the endpoint
+     * @param maxGap maximum number of unused registers or bits between two merged ranges, or
+     *            {@link #COALESCING_DISABLED}
+     * @param name name of the endpoint, used for logging
+     */
+    public ModbusPollPlanner(ModbusCommunicationInterface comms, int maxGap, String name) {
+        this.comms = comms;
+        this.maxGap = maxGap;
+        this.name = name;
+    }
+
+    /**
+     * Register a regular poll
+     *
+     * @param request the request of the poller
+     * @param pollPeriodMillis the poll period
+     * @param resultCallback callback receiving the results of the request
+     * @param failureCallback callback receiving the failures of the request
+     * @return the registration, needed for unregistering the poll
+     */
+    public synchronized Registration registerRegularPoll(ModbusReadRequestBlueprint request, long pollPeriodMillis,
+            ModbusReadCallback resultCallback, ModbusFailureCallback<ModbusReadRequestBlueprint> failureCallback) {
+        Registration registration = new Registration(request, pollPeriodMillis, resultCallback, failureCallback);
+        if (maxGap < 0) {
+            registration.directPollTask = comms.registerRegularPoll(request, pollPeriodMillis, 0, resultCallback,
+                    failureCallback);
+        } else {
+            Group group = groups.computeIfAbsent(new GroupKey(request, pollPeriodMillis), Group::new);
+            group.members.add(registration);
+            group.plan();
+        }
+        return registration;
+    }
+
+    /**
+     * Unregister a regular poll
+     *
+     * @param registration the registration returned when registering the poll
+     */
+    public synchronized void unregisterRegularPoll(Registration registration) {
+        PollTask directPollTask = registration.directPollTask;
+        if (directPollTask != null) {
+            comms.unregisterRegularPoll(directPollTask);
+            registration.directPollTask = null;
+            return;
+        }
+        GroupKey key = new GroupKey(registration.request, registration.pollPeriodMillis);
+        Group group = groups.get(key);
+        if (group != null && group.members.remove(registration)) {
+            if (group.members.isEmpty()) {
+                group.cancel();
+                groups.remove(key);
+            } else {
+                group.plan();
+            }
+        }
+    }
+
+    private synchronized void disableMerging(Group group) {
+        if (group.mergingEnabled && groups.get(group.key) == group) {
+            group.mergingEnabled = false;
+            group.plan();
+        }
+    }
+
+    private void countMergedRead(int members) {
+        long reads = mergedReads.incrementAndGet();
+        long saved = savedReads.addAndGet(members - 1);
+        if (reads % STATISTICS_LOG_INTERVAL == 0) {
+            logger.debug("Endpoint {}: {} merged reads saved {} round-trips", name, reads, saved);
+        }
+    }
+
+    /**
+     * Polls that can be merged
+     */
+    private static class GroupKey {
+        private final int slaveId;
+        private final ModbusReadFunctionCode functionCode;
+        private final long pollPeriodMillis;
+
+        private GroupKey(ModbusReadRequestBlueprint request, long pollPeriodMillis) {
+            this.slaveId = request.getUnitID();
+            this.functionCode = request.getFunctionCode();
+            this.pollPeriodMillis = pollPeriodMillis;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            GroupKey that = (GroupKey) o;
+            return slaveId == that.slaveId && functionCode == that.functionCode
+                    && pollPeriodMillis == that.pollPeriodMillis;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(slaveId, functionCode, pollPeriodMillis);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("slave %d, %s, every %d ms", slaveId, functionCode, pollPeriodMillis);
+        }
+    }
+
+    private class Group {
+        private final GroupKey key;
+        private final List<Registration> members = new ArrayList<>();
+        private final List<PollTask> pollTasks = new ArrayList<>();
+        private final List<MergedRead> reads = new ArrayList<>();
+        private boolean mergingEnabled = true;
+
+        private Group(GroupKey key) {
+            this.key = key;
+        }
+
+        /**
+         * (Re-)register the reads of this group. Called with the planner locked.
+         */
+        private void plan() {
+            cancel();
+            List<List<Registration>> blocks = new ArrayList<>();
+            if (mergingEnabled) {
+                int maxLength = isBitRead(key.functionCode) ? ModbusConstants.MAX_BITS_READ_COUNT
+                        : ModbusConstants.MAX_REGISTERS_READ_COUNT;
+                List<Registration> sorted = new ArrayList<>(members);
+                sorted.sort(Comparator.comparingInt(Registration::start));
+                List<Registration> block = new ArrayList<>();
+                int blockStart = 0;
+                int blockEnd = 0;
+                for (Registration member : sorted) {
+                    if (!block.isEmpty() && member.start() - blockEnd <= maxGap
+                            && Math.max(blockEnd, member.end()) - blockStart <= maxLength) {
+                        blockEnd = Math.max(blockEnd, member.end());
+                    } else {
+                        block = new ArrayList<>();
+                        blocks.add(block);
+                        blockStart = member.start();
+                        blockEnd = member.end();
+                    }
+                    block.add(member);
+                }
+            } else {
+                members.forEach(member -> blocks.add(List.of(member)));
+            }
+
+            for (List<Registration> block : blocks) {
+                if (block.size() == 1) {
+                    Registration member = block.get(0);
+                    pollTasks.add(comms.registerRegularPoll(member.request, key.pollPeriodMillis, 0,
+                            member.resultCallback, member.failureCallback));
+                } else {
+                    MergedRead mergedRead = new MergedRead(this, block);
+                    reads.add(mergedRead);
+                    pollTasks.add(comms.registerRegularPoll(mergedRead.request, key.pollPeriodMillis, 0, mergedRead,
+                            mergedRead));
+                }
+            }
+            logger.debug("Endpoint {}: {} polls ({}) planned as {} reads", name, members.size(), key, blocks.size());
+        }
+
+        private void cancel() {
+            reads.forEach(read -> read.cancelled = true);
+            reads.clear();
+            pollTasks.forEach(comms::unregisterRegularPoll);
+            pollTasks.clear();
+        }
+    }
+
+    private static boolean isBitRead(ModbusReadFunctionCode functionCode) {
+        return functionCode == ModbusReadFunctionCode.READ_COILS
+                || functionCode == ModbusReadFunctionCode.READ_INPUT_DISCRETES;
+    }
+
+    /**
+     * A single read serving several polls
+     */
+    private class MergedRead implements ModbusReadCallback, ModbusFailureCallback<ModbusReadRequestBlueprint> {
+        private final Group group;
+        private final List<Registration> members;
+        private final ModbusReadRequestBlueprint request;
+        private volatile boolean cancelled;
+
+        private MergedRead(Group group, List<Registration> members) {
+            this.group = group;
+            this.members = List.copyOf(members);
+            int start = members.stream().mapToInt(Registration::start).min().orElse(0);
+            int end = members.stream().mapToInt(Registration::end).max().orElse(0);
+            int maxTries = members.stream().mapToInt(member -> member.request.getMaxTries()).max().orElse(1);
+            this.request = new ModbusReadRequestBlueprint(group.key.slaveId, group.key.functionCode, start,
+                    end - start, maxTries);
+        }
+
+        @Override
+        public void handle(AsyncModbusReadResult result) {
+            if (cancelled) {
+                return;
+            }
+            countMergedRead(members.size());
+            Optional<ModbusRegisterArray> registers = result.getRegisters();
+            Optional<BitArray> bits = result.getBits();
+            for (Registration member : members) {
+                int offset = member.start() - request.getReference();
+                int length = member.request.getDataLength();
+                if (registers.isPresent() && registers.get().size() >= offset + length) {
+                    byte[] bytes = registers.get().getBytes();
+                    member.resultCallback.handle(new AsyncModbusReadResult(member.request,
+                            new ModbusRegisterArray(Arrays.copyOfRange(bytes, offset * 2, (offset + length) * 2))));
+                } else if (bits.isPresent() && bits.get().size() >= offset + length) {
+                    BitArray memberBits = new BitArray(length);
+                    for (int i = 0; i < length; i++) {
+                        memberBits.setBit(i, bits.get().getBit(offset + i));
+                    }
+                    member.resultCallback.handle(new AsyncModbusReadResult(member.request, memberBits));
+                } else {
+                    member.failureCallback.handle(new AsyncModbusFailure<>(member.request,
+                            new IllegalStateException("Response of merged read " + request + " too short")));
+                }
+            }
+        }
+
+        @Override
+        public void handle(AsyncModbusFailure<ModbusReadRequestBlueprint> failure) {
+            if (cancelled) {
+                return;
+            }
+            for (Registration member : members) {
+                member.failureCallback.handle(new AsyncModbusFailure<>(member.request, failure.getCause()));
+            }
+            Exception cause = failure.getCause();
+            if (cause instanceof ModbusSlaveErrorResponseException) {
+                int code = ((ModbusSlaveErrorResponseException) cause).getExceptionCode();
+                if (code == ModbusSlaveErrorResponseException.ILLEGAL_DATA_ACCESS
+                        || code == ModbusSlaveErrorResponseException.ILLEGAL_DATA_VALUE) {
+                    logger.info("Endpoint {}: slave rejected merged read {}, polling {} separately", name, request,
+                            group.key);
+                    disableMerging(group);
+                }
+            }
+        }
+    }
+}
@@ -34,6 +34,7 @@ public class ModbusDataConfiguration {
     private boolean writeMultipleEvenWithSingleRegisterOrCoil;
     private int writeMaxTries = 3; // backwards compatibility and tests
     private long updateUnchangedValuesEveryMillis = 1000L;
+    private long decodeUnchangedDataEveryMillis;
 
     public @Nullable String getReadStart() {
         return readStart;
@@ -114,4 +115,12 @@ public class ModbusDataConfiguration {
     public void setUpdateUnchangedValuesEveryMillis(long updateUnchangedValuesEveryMillis) {
         this.updateUnchangedValuesEveryMillis = updateUnchangedValuesEveryMillis;
     }
+
+    public long getDecodeUnchangedDataEveryMillis() {
+        return decodeUnchangedDataEveryMillis;
+    }
+
+    public void setDecodeUnchangedDataEveryMillis(long decodeUnchangedDataEveryMillis) {
+        this.decodeUnchangedDataEveryMillis = decodeUnchangedDataEveryMillis;
+    }
 }
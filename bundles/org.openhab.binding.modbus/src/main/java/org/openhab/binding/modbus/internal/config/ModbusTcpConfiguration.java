@@ -32,6 +32,7 @@ public class ModbusTcpConfiguration {
     private int reconnectAfterMillis;
     private int connectTimeoutMillis = 10_000;
     private boolean enableDiscovery;
+    private int pollCoalescingGap = -1;
     private boolean rtuEncoded;
 
     public boolean getRtuEncoded() {
@@ -109,4 +110,12 @@ public class ModbusTcpConfiguration {
     public void setDiscoveryEnabled(boolean enableDiscovery) {
         this.enableDiscovery = enableDiscovery;
     }
+
+    public int getPollCoalescingGap() {
+        return pollCoalescingGap;
+    }
+
+    public void setPollCoalescingGap(int pollCoalescingGap) {
+        this.pollCoalescingGap = pollCoalescingGap;
+    }
 }
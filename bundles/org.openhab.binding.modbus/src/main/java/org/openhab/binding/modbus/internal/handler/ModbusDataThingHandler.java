@@ -95,6 +95,7 @@ import org.slf4j.LoggerFactory;
  * to avoid data race conditions.
  *
  * @author Sami Salonen - Initial contribution
+ * @author Michal Boronski - Skip decoding of unchanged polled data
  */
 @NonNullByDefault
 public class ModbusDataThingHandler extends BaseThingHandler {
@@ -142,6 +143,11 @@ public class ModbusDataThingHandler extends BaseThingHandler {
     private volatile @Nullable ModbusReadFunctionCode functionCode;
     private volatile @Nullable ModbusReadRequestBlueprint readRequest;
     private volatile long updateUnchangedValuesEveryMillis;
+    private volatile long decodeUnchangedDataEveryMillis;
+    // raw polled data last decoded, packed to a long (a value spans at most four registers)
+    private volatile long lastDecodedData;
+    // zero when there is no decoded data to compare against
+    private volatile long lastDecodedDataMillis;
     private volatile @NonNullByDefault({}) ModbusCommunicationInterface comms;
     private volatile boolean isWriteEnabled;
     private volatile boolean isReadEnabled;
@@ -177,6 +183,8 @@ public class ModbusDataThingHandler extends BaseThingHandler {
                 // There is no data to update
                 return;
             }
+            // Newly linked channels need the cached data decoded even if it has not changed
+            lastDecodedDataMillis = 0L;
             // We *schedule* the REFRESH to avoid dead-lock situation where poller is trying update this
             // data thing with cached data (resulting in deadlock in two synchronized methods: this (handleCommand) and
             // onRegisters.
@@ -403,6 +411,7 @@ public class ModbusDataThingHandler extends BaseThingHandler {
             logger.trace("initialize() of thing {} '{}' starting", thing.getUID(), thing.getLabel());
             ModbusDataConfiguration localConfig = config = getConfigAs(ModbusDataConfiguration.class);
             updateUnchangedValuesEveryMillis = localConfig.getUpdateUnchangedValuesEveryMillis();
+            decodeUnchangedDataEveryMillis = localConfig.getDecodeUnchangedDataEveryMillis();
             Bridge bridge = getBridge();
             if (bridge == null || !bridge.getStatus().equals(ThingStatus.ONLINE)) {
                 logger.debug("Thing {} '{}' has no bridge or it is not online", getThing().getUID(),
@@ -484,6 +493,9 @@ public class ModbusDataThingHandler extends BaseThingHandler {
         statusInfo = new ThingStatusInfo(ThingStatus.UNKNOWN, ThingStatusDetail.NONE, null);
         channelLastUpdated = new HashMap<>(NUMER_OF_CHANNELS_HINT);
         channelLastState = new HashMap<>(NUMER_OF_CHANNELS_HINT);
+        decodeUnchangedDataEveryMillis = 0L;
+        lastDecodedData = 0L;
+        lastDecodedDataMillis = 0L;
     }
 
     @Override
@@ -820,6 +832,19 @@ public class ModbusDataThingHandler extends BaseThingHandler {
         if (readValueType == null) {
             return;
         }
+        int firstRegister = readIndex.get() - pollStart;
+        int registerCount = Math.max(1, readValueType.getBits() / 16);
+        if (decodeUnchangedDataEveryMillis > 0L && firstRegister + registerCount <= registers.size()) {
+            long data = 0L;
+            for (int i = firstRegister; i < firstRegister + registerCount; i++) {
+                data = data << 16 | registers.getRegister(i);
+            }
+            if (isUnchangedData(data)) {
+                logger.trace("Thing {} registers unchanged, skipping decoding. Registers {} for request {}",
+                        thing.getUID(), registers, request);
+                return;
+            }
+        }
         State numericState;
 
         // extractIndex:
@@ -858,6 +883,11 @@ public class ModbusDataThingHandler extends BaseThingHandler {
             return;
         }
         boolean boolValue = bits.getBit(readIndex.get() - pollStart);
+        if (decodeUnchangedDataEveryMillis > 0L && isUnchangedData(boolValue ? 1L : 0L)) {
+            logger.trace("Thing {} bit unchanged, skipping decoding. Bits {} for request {}", thing.getUID(), bits,
+                    request);
+            return;
+        }
         DecimalType numericState = boolValue ? new DecimalType(BigDecimal.ONE) : DecimalType.ZERO;
         Map<ChannelUID, State> values = processUpdatedValue(numericState, boolValue);
         logger.debug(
@@ -883,6 +913,7 @@ public class ModbusDataThingHandler extends BaseThingHandler {
                     getThing().getUID(), getThing().getLabel(), error.getClass().getName(), error.toString(),
                     error.getMessage(), error);
         }
+        lastDecodedDataMillis = 0L;
         Map<ChannelUID, State> states = new HashMap<>();
         ChannelUID lastReadErrorUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_ERROR);
         if (isLinked(lastReadErrorUID)) {
@@ -951,6 +982,29 @@ public class ModbusDataThingHandler extends BaseThingHandler {
         }
     }
 
+    /**
+     * Check whether the polled data equals the data decoded last time, and the data does not need to be decoded again
+     * yet. Only the last read success channel is updated with unchanged data.
+     *
+     * @param data raw polled data of this thing
+     * @return true if decoding, transformation and state updates can be skipped
+     */
+    private boolean isUnchangedData(long data) {
+        long now = System.currentTimeMillis();
+        if (lastDecodedDataMillis > 0L && data == lastDecodedData
+                && now - lastDecodedDataMillis < decodeUnchangedDataEveryMillis) {
+            updateStatusIfChanged(ThingStatus.ONLINE);
+            ChannelUID lastReadSuccessUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_SUCCESS);
+            if (isLinked(lastReadSuccessUID)) {
+                updateExpiredChannel(now, lastReadSuccessUID, new DateTimeType());
+            }
+            return true;
+        }
+        lastDecodedData = data;
+        lastDecodedDataMillis = now;
+        return false;
+    }
+
     /**
      * Update linked channels
      *
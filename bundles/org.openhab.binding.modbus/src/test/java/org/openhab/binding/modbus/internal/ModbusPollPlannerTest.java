@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.openhab.core.io.transport.modbus.AsyncModbusFailure;
+import org.openhab.core.io.transport.modbus.AsyncModbusReadResult;
+import org.openhab.core.io.transport.modbus.BitArray;
+import org.openhab.core.io.transport.modbus.ModbusCommunicationInterface;
+import org.openhab.core.io.transport.modbus.ModbusFailureCallback;
+import org.openhab.core.io.transport.modbus.ModbusReadCallback;
+import org.openhab.core.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.core.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.core.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.core.io.transport.modbus.PollTask;
+
+/**
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusPollPlannerTest {
+
+    private @NonNullByDefault({}) ModbusCommunicationInterface comms;
+    private final List<ModbusReadRequestBlueprint> registeredRequests = new ArrayList<>();
+    private final List<ModbusReadCallback> registeredCallbacks = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        comms = mock(ModbusCommunicationInterface.class);
+        when(comms.registerRegularPoll(any(), anyLong(), anyLong(), any(), any())).thenAnswer(invocation -> {
+            registeredRequests.add(invocation.getArgument(0));
+            registeredCallbacks.add(invocation.getArgument(3));
+            return mock(PollTask.class);
+        });
+    }
+
+    private static ModbusReadRequestBlueprint request(ModbusReadFunctionCode functionCode, int start, int length) {
+        return new ModbusReadRequestBlueprint(1, functionCode, start, length, 3);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ModbusFailureCallback<ModbusReadRequestBlueprint> failureCallback() {
+        return mock(ModbusFailureCallback.class);
+    }
+
+    @Test
+    public void testDisabledRegistersPollsAsIs() {
+        ModbusPollPlanner planner = new ModbusPollPlanner(comms, ModbusPollPlanner.COALESCING_DISABLED, "test");
+        ModbusReadRequestBlueprint first = request(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 2);
+        ModbusReadRequestBlueprint second = request(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 2, 2);
+        ModbusReadCallback callback = mock(ModbusReadCallback.class);
+
+        ModbusPollPlanner.Registration registration = planner.registerRegularPoll(first, 1000, callback,
+                failureCallback());
+        planner.registerRegularPoll(second, 1000, callback, failureCallback());
+
+        assertEquals(List.of(first, second), registeredRequests);
+        assertSame(callback, registeredCallbacks.get(0));
+
+        planner.unregisterRegularPoll(registration);
+        verify(comms, times(1)).unregisterRegularPoll(any());
+    }
+
+    @Test
+    public void testMergesNearbyRangesAndSlicesResult() {
+        ModbusPollPlanner planner = new ModbusPollPlanner(comms, 2, "test");
+        ModbusReadRequestBlueprint first = request(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 10, 2);
+        ModbusReadRequestBlueprint second = request(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 14, 1);
+        ModbusReadRequestBlueprint far = request(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 100, 1);
+        ModbusReadRequestBlueprint otherPeriod = request(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 12, 1);
+        ModbusReadCallback firstCallback = mock(ModbusReadCallback.class);
+        ModbusReadCallback secondCallback = mock(ModbusReadCallback.class);
+
+        planner.registerRegularPoll(first, 1000, firstCallback, failureCallback());
+        planner.registerRegularPoll(second, 1000, secondCallback, failureCallback());
+        planner.registerRegularPoll(far, 1000, mock(ModbusReadCallback.class), failureCallback());
+        planner.registerRegularPoll(otherPeriod, 500, mock(ModbusReadCallback.class), failureCallback());
+
+        // the last plan of the 1000 ms group consists of one merged read and the far poll
+        List<ModbusReadRequestBlueprint> lastPlan = registeredRequests.subList(2, 4);
+        ModbusReadRequestBlueprint merged = lastPlan.stream().filter(r -> r.getReference() == 10).findFirst()
+                .orElseThrow();
+        assertEquals(5, merged.getDataLength());
+        assertTrue(lastPlan.contains(far));
+        assertSame(otherPeriod, registeredRequests.get(4));
+
+        ModbusReadCallback mergedCallback = registeredCallbacks.get(registeredRequests.indexOf(merged));
+        mergedCallback.handle(new AsyncModbusReadResult(merged, new ModbusRegisterArray(1, 2, 3, 4, 5)));
+
+        ArgumentCaptor<AsyncModbusReadResult> captor = ArgumentCaptor.forClass(AsyncModbusReadResult.class);
+        verify(firstCallback).handle(captor.capture());
+        assertSame(first, captor.getValue().getRequest());
+        assertEquals(new ModbusRegisterArray(1, 2), captor.getValue().getRegisters().get());
+        verify(secondCallback).handle(captor.capture());
+        assertSame(second, captor.getValue().getRequest());
+        assertEquals(new ModbusRegisterArray(5), captor.getValue().getRegisters().get());
+    }
+
+    @Test
+    public void testMergedBits() {
+        ModbusPollPlanner planner = new ModbusPollPlanner(comms, 0, "test");
+        ModbusReadRequestBlueprint first = request(ModbusReadFunctionCode.READ_COILS, 0, 2);
+        ModbusReadRequestBlueprint second = request(ModbusReadFunctionCode.READ_COILS, 1, 3);
+        ModbusReadCallback secondCallback = mock(ModbusReadCallback.class);
+
+        planner.registerRegularPoll(first, 1000, mock(ModbusReadCallback.class), failureCallback());
+        planner.registerRegularPoll(second, 1000, secondCallback, failureCallback());
+
+        ModbusReadRequestBlueprint merged = registeredRequests.get(registeredRequests.size() - 1);
+        assertEquals(0, merged.getReference());
+        assertEquals(4, merged.getDataLength());
+        registeredCallbacks.get(registeredCallbacks.size() - 1)
+                .handle(new AsyncModbusReadResult(merged, new BitArray(true, false, true, true, false, false)));
+
+        ArgumentCaptor<AsyncModbusReadResult> captor = ArgumentCaptor.forClass(AsyncModbusReadResult.class);
+        verify(secondCallback).handle(captor.capture());
+        BitArray bits = captor.getValue().getBits().get();
+        assertEquals(3, bits.size());
+        assertFalse(bits.getBit(0));
+        assertTrue(bits.getBit(1));
+        assertTrue(bits.getBit(2));
+    }
+
+    @Test
+    public void testFailureIsPassedToAllPollers() {
+        ModbusPollPlanner planner = new ModbusPollPlanner(comms, 0, "test");
+        ModbusReadRequestBlueprint first = request(ModbusReadFunctionCode.READ_INPUT_REGISTERS, 0, 2);
+        ModbusReadRequestBlueprint second = request(ModbusReadFunctionCode.READ_INPUT_REGISTERS, 2, 2);
+        ModbusFailureCallback<ModbusReadRequestBlueprint> firstFailureCallback = failureCallback();
+        ModbusFailureCallback<ModbusReadRequestBlueprint> secondFailureCallback = failureCallback();
+
+        planner.registerRegularPoll(first, 1000, mock(ModbusReadCallback.class), firstFailureCallback);
+        ModbusPollPlanner.Registration registration = planner.registerRegularPoll(second, 1000,
+                mock(ModbusReadCallback.class), secondFailureCallback);
+
+        ArgumentCaptor<ModbusFailureCallback<ModbusReadRequestBlueprint>> failureCaptor = ArgumentCaptor
+                .forClass(ModbusFailureCallback.class);
+        verify(comms, atLeastOnce()).registerRegularPoll(any(), anyLong(), anyLong(), any(), failureCaptor.capture());
+        ModbusReadRequestBlueprint merged = registeredRequests.get(registeredRequests.size() - 1);
+        failureCaptor.getValue().handle(new AsyncModbusFailure<>(merged, new Exception("timeout")));
+
+        verify(firstFailureCallback).handle(argThat(failure -> failure.getRequest() == first));
+        verify(secondFailureCallback).handle(argThat(failure -> failure.getRequest() == second));
+
+        // removing a poller re-plans the remaining ones
+        planner.unregisterRegularPoll(registration);
+        assertSame(first, registeredRequests.get(registeredRequests.size() - 1));
+    }
+}
@@ -19,8 +19,7 @@ import java.net.SocketException;
 import java.net.UnknownHostException;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -35,6 +34,8 @@ import org.openhab.binding.network.internal.utils.NetworkUtils;
 import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
 import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
 import org.openhab.binding.network.internal.utils.PingResult;
+import org.openhab.binding.network.internal.utils.ProbeEngine;
+import org.openhab.binding.network.internal.utils.ProbeSession;
 import org.openhab.core.cache.ExpiringCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +46,7 @@ import org.slf4j.LoggerFactory;
  * @author Marc Mettke - Initial contribution
  * @author David Gräff, 2017 - Rewritten
  * @author Jan N. Klug - refactored host name resolution
+ * @author Michal Boronski - Shared probe engine
  */
 @NonNullByDefault
 public class PresenceDetection implements IPRequestReceivedCallback {
@@ -79,7 +81,8 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     ExpiringCacheAsync<PresenceDetectionValue> cache;
     private final PresenceDetectionListener updateListener;
     private @Nullable ScheduledFuture<?> refreshJob;
-    protected @Nullable ExecutorService executorService;
+    protected @Nullable ProbeSession executorService;
+    private volatile boolean probesCancelled;
     private String dhcpState = "off";
     Integer currentCheck = 0;
     int detectionChecks;
@@ -279,14 +282,18 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         cache.getValue(callback);
     }
 
-    public ExecutorService getThreadsFor(int threadCount) {
-        return Executors.newFixedThreadPool(threadCount);
+    /**
+     * Returns a new session for the checks of a single detection run. The checks are executed on the thread pool
+     * shared by all presence detections, which bounds the number of threads and external ping processes.
+     */
+    public ProbeSession newProbeSession() {
+        return ProbeEngine.getInstance().newSession();
     }
 
     /**
      * Perform a presence detection with ICMP-, ARP ping and
-     * TCP connection attempts simultaneously. A fixed thread pool will be created with as many
-     * thread as necessary to perform all tests at once.
+     * TCP connection attempts simultaneously. ICMP and ARP pings are executed on the thread pool shared by all
+     * presence detections, TCP connection attempts are performed asynchronously without blocking a thread.
      *
      * This is a NO-OP, if there is already an ongoing detection or if the cached value
      * is not expired yet.
@@ -327,22 +334,14 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             return false;
         }
 
-        final ExecutorService executorService = getThreadsFor(detectionChecks);
+        final ProbeSession executorService = newProbeSession();
         this.executorService = executorService;
-
-        for (Integer tcpPort : tcpPorts) {
-            executorService.execute(() -> {
-                Thread.currentThread().setName("presenceDetectionTCP_" + hostname + " " + String.valueOf(tcpPort));
-                performServicePing(tcpPort);
-                checkIfFinished();
-            });
-        }
+        probesCancelled = false;
 
         // ARP ping for IPv4 addresses. Use single executor for Windows tool and
         // each own executor for each network interface for other tools
         if (arpPingMethod == ArpPingUtilEnum.ELI_FULKERSON_ARP_PING_FOR_WINDOWS) {
             executorService.execute(() -> {
-                Thread.currentThread().setName("presenceDetectionARP_" + hostname + " ");
                 // arp-ping.exe tool capable of handling multiple interfaces by itself
                 performARPping("");
                 checkIfFinished();
@@ -350,7 +349,6 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         } else if (interfaceNames != null) {
             for (final String interfaceName : interfaceNames) {
                 executorService.execute(() -> {
-                    Thread.currentThread().setName("presenceDetectionARP_" + hostname + " " + interfaceName);
                     performARPping(interfaceName);
                     checkIfFinished();
                 });
@@ -361,7 +359,6 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         if (pingMethod != null) {
             executorService.execute(() -> {
                 if (pingMethod != IpPingMethodEnum.JAVA_PING) {
-                    Thread.currentThread().setName("presenceDetectionICMP_" + hostname);
                     performSystemPing();
                 } else {
                     performJavaPing();
@@ -370,6 +367,11 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             });
         }
 
+        // TCP connection attempts are started last, they may complete immediately, e.g. if the connection is refused
+        for (Integer tcpPort : tcpPorts) {
+            performServicePing(tcpPort);
+        }
+
         if (waitForDetectionToFinish) {
             waitForPresenceDetection();
         }
@@ -385,20 +387,26 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      */
     private synchronized void submitFinalResult() {
         // Do nothing if we are not in a detection process
-        ExecutorService service = executorService;
+        ProbeSession service = executorService;
         if (service == null) {
             return;
         }
         // Finish the detection process
-        service.shutdownNow();
         executorService = null;
         detectionChecks = 0;
+        boolean probesQueued = service.hasQueuedProbes();
+        service.shutdownNow();
 
         PresenceDetectionValue v;
 
         // The cache will be expired by now if cache_time < timeoutInMS. But the device might be actually reachable.
         // Therefore use lastSeenInMS here and not cache.isExpired() to determine if we got a ping response.
         if (lastSeenInMS + timeoutInMS + 100 < System.currentTimeMillis()) {
+            if (probesQueued || probesCancelled) {
+                // Some checks did not run at all, so the device is not known to be unreachable
+                logger.debug("Presence detection for {} was cancelled, the presence is unknown", hostname);
+                return;
+            }
             // We haven't seen the device in the detection process
             v = new PresenceDetectionValue(hostname, -1);
         } else {
@@ -430,10 +438,12 @@ public class PresenceDetection implements IPRequestReceivedCallback {
 
     /**
      * Waits for the presence detection threads to finish. Returns immediately
-     * if no presence detection is performed right now.
+     * if no presence detection is performed right now. The timeout only starts
+     * when the last check was started, not while checks wait for the shared
+     * thread pool.
      */
     public void waitForPresenceDetection() {
-        ExecutorService service = executorService;
+        ProbeSession service = executorService;
         if (service == null) {
             return;
         }
@@ -443,8 +453,19 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             submitFinalResult();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt(); // Reset interrupt flag
-            service.shutdownNow();
+            cancelPresenceDetection();
+        }
+    }
+
+    /**
+     * Cancels an ongoing presence detection without submitting a final result.
+     */
+    public synchronized void cancelPresenceDetection() {
+        ProbeSession service = executorService;
+        if (service != null) {
             executorService = null;
+            detectionChecks = 0;
+            service.shutdownNow();
         }
     }
 
@@ -473,24 +494,36 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         return v;
     }
 
+    /**
+     * Asynchronously tries to establish a TCP connection to the given port. The check is counted as finished as soon as
+     * the connection attempt completed.
+     *
+     * @param tcpPort The tcp port
+     */
     protected void performServicePing(int tcpPort) {
         logger.trace("Perform TCP presence detection for {} on port: {}", hostname, tcpPort);
-        try {
-            InetAddress destinationAddress = destination.getValue();
-            if (destinationAddress != null) {
-                networkUtils.servicePing(destinationAddress.getHostAddress(), tcpPort, timeoutInMS).ifPresent(o -> {
-                    if (o.isSuccess()) {
+        ProbeSession session = executorService;
+        InetAddress destinationAddress = destination.getValue();
+        if (session == null || destinationAddress == null) {
+            checkIfFinished();
+            return;
+        }
+        networkUtils.servicePingAsync(session, destinationAddress.getHostAddress(), tcpPort, timeoutInMS)
+                .whenComplete((result, e) -> {
+                    if (e instanceof CancellationException) {
+                        probesCancelled = true;
+                    } else if (e != null) {
+                        // This should not happen and might be a user configuration issue, we log a warning message
+                        // therefore.
+                        logger.warn("Could not create a socket connection", e);
+                    } else if (result.isSuccess()) {
                         PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.TCP_CONNECTION,
-                                getLatency(o, preferResponseTimeAsLatency));
+                                getLatency(result, preferResponseTimeAsLatency));
                         v.addReachableTcpService(tcpPort);
                         updateListener.partialDetectionResult(v);
                     }
+                    checkIfFinished();
                 });
-            }
-        } catch (IOException e) {
-            // This should not happen and might be a user configuration issue, we log a warning message therefore.
-            logger.warn("Could not create a socket connection", e);
-        }
     }
 
     /**
@@ -14,13 +14,12 @@ package org.openhab.binding.network.internal.discovery;
 
 import static org.openhab.binding.network.internal.NetworkBindingConstants.*;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -52,6 +51,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Marc Mettke - Initial contribution
  * @author David Graeff - Rewritten
+ * @author Michal Boronski - Scan on the shared probe engine
  */
 @NonNullByDefault
 @Component(service = DiscoveryService.class, configurationPid = "discovery.network")
@@ -67,7 +67,8 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     private Set<Integer> tcpServicePorts = Collections
             .unmodifiableSet(Stream.of(80, 548, 554, 1025).collect(Collectors.toSet()));
     private AtomicInteger scannedIPcount = new AtomicInteger(0);
-    private @Nullable ExecutorService executorService = null;
+    private volatile int scanSize;
+    private final List<PresenceDetection> runningDetections = new ArrayList<>();
     private final NetworkBindingConfiguration configuration = new NetworkBindingConfiguration();
     private final NetworkUtils networkUtils = new NetworkUtils();
 
@@ -97,9 +98,7 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     @Override
     @Deactivate
     protected void deactivate() {
-        if (executorService != null) {
-            executorService.shutdown();
-        }
+        cancelDetections();
         super.deactivate();
     }
 
@@ -118,26 +117,29 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
 
     @Override
     public void finalDetectionResult(PresenceDetectionValue value) {
+        int count = scannedIPcount.incrementAndGet();
+        if (count == scanSize) {
+            logger.trace("Scan of {} IPs successful", count);
+            // the detection calls this method while holding its own lock
+            scheduler.execute(this::stopScan);
+        }
     }
 
     /**
-     * Starts the DiscoveryThread for each IP on each interface on the network
+     * Starts a presence detection for each IP on each interface on the network. The checks of all detections run on
+     * the probe engine shared with the things, which bounds the number of threads and external processes.
      */
     @Override
     protected void startScan() {
-        if (executorService == null) {
-            executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
-        }
-        final ExecutorService service = executorService;
-        if (service == null) {
-            return;
-        }
+        cancelDetections();
         removeOlderResults(getTimestampOfLastScan(), null);
         logger.trace("Starting Network Device Discovery");
 
         final Set<String> networkIPs = networkUtils.getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE);
         scannedIPcount.set(0);
+        scanSize = networkIPs.size();
 
+        List<PresenceDetection> detections = new ArrayList<>();
         for (String ip : networkIPs) {
             final PresenceDetection s = new PresenceDetection(this, 2000);
             s.setHostname(ip);
@@ -149,34 +151,30 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
             s.setUseArpPing(true, configuration.arpPingToolPath, configuration.arpPingUtilMethod);
             // TCP devices
             s.setServicePorts(tcpServicePorts);
-
-            service.execute(() -> {
-                Thread.currentThread().setName("Discovery thread " + ip);
-                s.performPresenceDetection(true);
-                int count = scannedIPcount.incrementAndGet();
-                if (count == networkIPs.size()) {
-                    logger.trace("Scan of {} IPs successful", scannedIPcount);
-                    stopScan();
-                }
-            });
+            detections.add(s);
         }
+        synchronized (runningDetections) {
+            runningDetections.addAll(detections);
+        }
+        detections.forEach(detection -> detection.performPresenceDetection(false));
     }
 
     @Override
     protected synchronized void stopScan() {
         super.stopScan();
-        final ExecutorService service = executorService;
-        if (service == null) {
-            return;
-        }
+        cancelDetections();
+    }
 
-        try {
-            service.awaitTermination(PING_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt(); // Reset interrupt flag
+    /**
+     * Cancels the detections of the current scan.
+     */
+    private void cancelDetections() {
+        List<PresenceDetection> detections;
+        synchronized (runningDetections) {
+            detections = new ArrayList<>(runningDetections);
+            runningDetections.clear();
         }
-        service.shutdown();
-        executorService = null;
+        detections.forEach(PresenceDetection::cancelPresenceDetection);
     }
 
     public static ThingUID createServiceUID(String ip, int tcpPort) {
@@ -185,7 +183,7 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Submit newly discovered devices. This method is called by the spawned threads in {@link startScan}.
+     * Submit newly discovered devices. This method is called by the presence detections started in {@link startScan}.
      *
      * @param ip The device IP
      * @param tcpPort The TCP port
@@ -228,7 +226,7 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     }
 
     /**
-     * Submit newly discovered devices. This method is called by the spawned threads in {@link startScan}.
+     * Submit newly discovered devices. This method is called by the presence detections started in {@link startScan}.
      *
      * @param ip The device IP
      */
@@ -34,6 +34,7 @@ import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.SystemUtils;
@@ -168,6 +169,21 @@ public class NetworkUtils {
         }
     }
 
+    /**
+     * Asynchronously try to establish a tcp connection to the given port. The connection attempts of all hosts are
+     * multiplexed by the shared {@link ProbeEngine} and do not block a thread while waiting.
+     *
+     * @param session The session of the presence detection run
+     * @param host The IP address
+     * @param port The tcp port. Must be not 0.
+     * @param timeout Timeout in ms
+     * @return A future with the ping result. The result is unsuccessful if a timeout occurred or the connection was
+     *         denied. The future is cancelled if the session is shut down before the attempt finished.
+     */
+    public CompletableFuture<PingResult> servicePingAsync(ProbeSession session, String host, int port, int timeout) {
+        return session.connect(new InetSocketAddress(host, port), timeout);
+    }
+
     /**
      * Return the working method for the native system ping. If no native ping
      * works JavaPing is returned.
@@ -0,0 +1,322 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.NoRouteToHostException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link ProbeEngine} is shared by all presence detections of the binding, things as well as discovery.
+ *
+ * Blocking checks like system pings and arping calls are executed on a single bounded thread pool, which limits the
+ * number of threads and external processes regardless of the number of monitored hosts. TCP connection checks are
+ * multiplexed on a single selector thread using non-blocking channels and do not need a thread at all.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class ProbeEngine {
+
+    /** Maximum number of concurrently executed blocking checks (system ping, arping) */
+    public static final int MAX_CONCURRENT_PROBES = 32;
+    /** Maximum number of concurrently pending TCP connection attempts */
+    public static final int MAX_CONCURRENT_CONNECTS = 256;
+
+    private static final long SELECT_INTERVAL_MS = 50;
+
+    private static @Nullable ProbeEngine instance;
+
+    private final Logger logger = LoggerFactory.getLogger(ProbeEngine.class);
+
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor callbackExecutor;
+    private final Queue<ConnectRequest> waitingConnects = new ArrayDeque<>();
+    private volatile @Nullable Selector selector;
+
+    static class ConnectRequest {
+        private final InetSocketAddress address;
+        private final long timeoutInNanos;
+        private final @Nullable ProbeSession session;
+        private final CompletableFuture<PingResult> result = new CompletableFuture<>();
+        private volatile boolean cancelled;
+        private long startTime;
+        private @Nullable SocketChannel channel;
+
+        private ConnectRequest(InetSocketAddress address, int timeoutInMS, @Nullable ProbeSession session) {
+            this.address = address;
+            this.timeoutInNanos = TimeUnit.MILLISECONDS.toNanos(timeoutInMS);
+            this.session = session;
+        }
+
+        CompletableFuture<PingResult> getResult() {
+            return result;
+        }
+
+        private void start() {
+            startTime = System.nanoTime();
+            ProbeSession session = this.session;
+            if (session != null) {
+                session.probeStarted(this);
+            }
+        }
+
+        private double elapsedMS() {
+            return (System.nanoTime() - startTime) / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Returns the shared engine instance.
+     */
+    public static synchronized ProbeEngine getInstance() {
+        ProbeEngine engine = instance;
+        if (engine == null) {
+            engine = new ProbeEngine(MAX_CONCURRENT_PROBES);
+            instance = engine;
+        }
+        return engine;
+    }
+
+    ProbeEngine(int maxConcurrentProbes) {
+        executor = new ThreadPoolExecutor(maxConcurrentProbes, maxConcurrentProbes, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamedThreadFactory("network-probe", true));
+        executor.allowCoreThreadTimeOut(true);
+        callbackExecutor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new NamedThreadFactory("network-probe-callback", true));
+        callbackExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Creates a new session for a single presence detection run. The session executes its tasks on the shared bounded
+     * thread pool and its TCP connection attempts on the shared selector. Shutting down the session only affects the
+     * probes submitted to it.
+     *
+     * @return A new session
+     */
+    public ProbeSession newSession() {
+        return new ProbeSession(this);
+    }
+
+    /**
+     * Asynchronously tries to establish a TCP connection to the given address.
+     *
+     * The returned future completes with a successful {@link PingResult} if the connection could be established, with
+     * an unsuccessful one if the connection was refused, the host is unreachable or the timeout elapsed, and
+     * exceptionally on any other I/O error. It is cancelled if the engine is stopped before the attempt finished.
+     *
+     * The timeout starts when the connection attempt is issued, not while it waits for a free slot. The future is
+     * never completed on the selector thread.
+     *
+     * @param address The address to connect to
+     * @param timeoutInMS The timeout in milliseconds
+     * @return A future with the result of the connection attempt
+     */
+    public CompletableFuture<PingResult> connect(InetSocketAddress address, int timeoutInMS) {
+        return connect(address, timeoutInMS, null).result;
+    }
+
+    ConnectRequest connect(InetSocketAddress address, int timeoutInMS, @Nullable ProbeSession session) {
+        ConnectRequest request = new ConnectRequest(address, timeoutInMS, session);
+        try {
+            Selector selector;
+            synchronized (this) {
+                selector = startSelector();
+                waitingConnects.add(request);
+            }
+            selector.wakeup();
+        } catch (IOException e) {
+            callbackExecutor.execute(() -> request.result.completeExceptionally(e));
+        }
+        return request;
+    }
+
+    void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Cancels a connection attempt. A pending attempt is aborted by the selector thread.
+     */
+    void cancel(ConnectRequest request) {
+        request.cancelled = true;
+        callbackExecutor.execute(() -> request.result.cancel(false));
+        Selector selector = this.selector;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    private synchronized Selector startSelector() throws IOException {
+        Selector selector = this.selector;
+        if (selector == null) {
+            Selector newSelector = Selector.open();
+            this.selector = newSelector;
+            new NamedThreadFactory("network-probe-tcp", true).newThread(() -> selectLoop(newSelector)).start();
+            selector = newSelector;
+        }
+        return selector;
+    }
+
+    /**
+     * The selection keys of the selector are only accessed by this loop, which runs until the engine is stopped.
+     */
+    private void selectLoop(Selector selector) {
+        while (this.selector == selector) {
+            try {
+                startWaitingConnects(selector);
+                selector.select(SELECT_INTERVAL_MS);
+                Set<SelectionKey> selectedKeys = selector.selectedKeys();
+                for (SelectionKey key : selectedKeys) {
+                    finishConnect(key);
+                }
+                selectedKeys.clear();
+                expireConnects(selector);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("TCP presence detection failed unexpectedly: {}", e.getMessage());
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            ConnectRequest request = (ConnectRequest) key.attachment();
+            if (request != null) {
+                close(request);
+                cancel(request);
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void startWaitingConnects(Selector selector) {
+        while (selector.keys().size() < MAX_CONCURRENT_CONNECTS) {
+            ConnectRequest request;
+            synchronized (this) {
+                request = waitingConnects.poll();
+            }
+            if (request == null) {
+                return;
+            }
+            if (request.cancelled) {
+                continue;
+            }
+            request.start();
+            try {
+                SocketChannel channel = SocketChannel.open();
+                request.channel = channel;
+                channel.configureBlocking(false);
+                if (channel.connect(request.address)) {
+                    complete(request, true);
+                } else {
+                    channel.register(selector, SelectionKey.OP_CONNECT, request);
+                }
+            } catch (ConnectException | NoRouteToHostException e) {
+                complete(request, false);
+            } catch (IOException | RuntimeException e) {
+                fail(request, e);
+            }
+        }
+    }
+
+    private void finishConnect(SelectionKey key) {
+        ConnectRequest request = (ConnectRequest) key.attachment();
+        SocketChannel channel = (SocketChannel) key.channel();
+        try {
+            if (channel.finishConnect()) {
+                complete(request, true);
+            }
+        } catch (ConnectException | NoRouteToHostException e) {
+            complete(request, false);
+        } catch (IOException e) {
+            fail(request, e);
+        }
+    }
+
+    private void expireConnects(Selector selector) {
+        long now = System.nanoTime();
+        List<ConnectRequest> expired = new ArrayList<>();
+        List<ConnectRequest> cancelled = new ArrayList<>();
+        for (SelectionKey key : selector.keys()) {
+            ConnectRequest request = (ConnectRequest) key.attachment();
+            if (request == null) {
+                continue;
+            }
+            if (request.cancelled) {
+                cancelled.add(request);
+            } else if (now - request.startTime >= request.timeoutInNanos) {
+                expired.add(request);
+            }
+        }
+        cancelled.forEach(this::close);
+        expired.forEach(request -> complete(request, false));
+    }
+
+    private void complete(ConnectRequest request, boolean success) {
+        close(request);
+        PingResult result = new PingResult(success, request.elapsedMS());
+        callbackExecutor.execute(() -> request.result.complete(result));
+    }
+
+    private void fail(ConnectRequest request, Exception e) {
+        close(request);
+        callbackExecutor.execute(() -> request.result.completeExceptionally(e));
+    }
+
+    private void close(ConnectRequest request) {
+        SocketChannel channel = request.channel;
+        if (channel != null) {
+            try {
+                // closing the channel also cancels its selection key
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Stops the TCP selector thread. Pending connection attempts are cancelled. The shared thread pools wind down by
+     * themselves when idle.
+     */
+    public synchronized void stop() {
+        Selector selector = this.selector;
+        if (selector != null) {
+            this.selector = null;
+            // the selector thread notices the change and cancels its connection attempts
+            selector.wakeup();
+        }
+        ConnectRequest request;
+        while ((request = waitingConnects.poll()) != null) {
+            cancel(request);
+        }
+    }
+}
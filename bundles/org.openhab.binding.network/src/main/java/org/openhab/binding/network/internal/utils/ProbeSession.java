@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.network.internal.utils.ProbeEngine.ConnectRequest;
+
+/**
+ * The {@link ProbeSession} holds the probes of a single presence detection run. Tasks are executed on the thread pool
+ * of the {@link ProbeEngine}, TCP connection attempts on its selector.
+ *
+ * Probes may have to wait for a free thread or connection slot when the engine is busy. This time is not counted by
+ * {@link #awaitTermination(long, TimeUnit)}, whose timeout starts when the last probe of the session was started.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class ProbeSession extends AbstractExecutorService {
+    private final ProbeEngine engine;
+    private final Set<ProbeTask> tasks = new HashSet<>();
+    private final Set<ConnectRequest> connects = new HashSet<>();
+    private final Set<Object> queuedProbes = new HashSet<>();
+    private long lastStartTime = System.nanoTime();
+    private boolean shutdown;
+
+    private class ProbeTask extends FutureTask<@Nullable Void> {
+        private final Runnable command;
+
+        private ProbeTask(Runnable command) {
+            super(command, null);
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            probeStarted(this);
+            super.run();
+        }
+
+        @Override
+        protected void done() {
+            taskDone(this);
+        }
+    }
+
+    ProbeSession(ProbeEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public synchronized void execute(@Nullable Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        checkNotShutdown();
+        ProbeTask task = new ProbeTask(command);
+        tasks.add(task);
+        queuedProbes.add(task);
+        engine.execute(task);
+    }
+
+    /**
+     * Asynchronously tries to establish a TCP connection to the given address, see
+     * {@link ProbeEngine#connect(InetSocketAddress, int)}. The connection attempt is cancelled if the session is shut
+     * down by {@link #shutdownNow()} before it finished.
+     *
+     * @param address The address to connect to
+     * @param timeoutInMS The timeout in milliseconds, starting when the connection attempt is issued
+     * @return A future with the result of the connection attempt
+     */
+    public synchronized CompletableFuture<PingResult> connect(InetSocketAddress address, int timeoutInMS) {
+        checkNotShutdown();
+        ConnectRequest request = engine.connect(address, timeoutInMS, this);
+        connects.add(request);
+        queuedProbes.add(request);
+        request.getResult().whenComplete((result, e) -> connectDone(request));
+        return request.getResult();
+    }
+
+    private void checkNotShutdown() {
+        if (shutdown) {
+            throw new RejectedExecutionException("Presence detection already finished");
+        }
+    }
+
+    synchronized void probeStarted(Object probe) {
+        if (queuedProbes.remove(probe)) {
+            lastStartTime = System.nanoTime();
+            notifyAll();
+        }
+    }
+
+    private synchronized void taskDone(ProbeTask task) {
+        tasks.remove(task);
+        queuedProbes.remove(task);
+        notifyAll();
+    }
+
+    private synchronized void connectDone(ConnectRequest request) {
+        connects.remove(request);
+        queuedProbes.remove(request);
+        notifyAll();
+    }
+
+    /**
+     * Returns whether some probes of this session still wait for a free thread or connection slot.
+     */
+    public synchronized boolean hasQueuedProbes() {
+        return !queuedProbes.isEmpty();
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        shutdown = true;
+        notifyAll();
+    }
+
+    /**
+     * Interrupts the running tasks and cancels the pending connection attempts of this session.
+     *
+     * @return The tasks which were never started
+     */
+    @Override
+    public synchronized List<Runnable> shutdownNow() {
+        shutdown = true;
+        List<Runnable> notStarted = new ArrayList<>();
+        for (ProbeTask task : new ArrayList<>(tasks)) {
+            if (queuedProbes.contains(task)) {
+                notStarted.add(task.command);
+            }
+            task.cancel(true);
+        }
+        connects.forEach(engine::cancel);
+        tasks.clear();
+        connects.clear();
+        queuedProbes.clear();
+        notifyAll();
+        return notStarted;
+    }
+
+    @Override
+    public synchronized boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public synchronized boolean isTerminated() {
+        return shutdown && tasks.isEmpty() && connects.isEmpty();
+    }
+
+    /**
+     * Waits until the session is terminated. The timeout is measured from the start of the most recently started
+     * probe, while probes are waiting to be started this method keeps waiting.
+     */
+    @Override
+    public synchronized boolean awaitTermination(long timeout, @Nullable TimeUnit unit) throws InterruptedException {
+        long timeoutInNanos = unit != null ? unit.toNanos(timeout) : 0;
+        while (!isTerminated()) {
+            if (!queuedProbes.isEmpty()) {
+                wait();
+                continue;
+            }
+            long remainingNanos = lastStartTime + timeoutInNanos - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+        }
+        return true;
+    }
+}
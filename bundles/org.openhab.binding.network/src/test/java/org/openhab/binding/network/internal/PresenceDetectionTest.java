@@ -22,7 +22,7 @@ import java.io.IOException;
 import java.net.UnknownHostException;
 import java.util.Collections;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -41,6 +41,7 @@ import org.openhab.binding.network.internal.utils.NetworkUtils;
 import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
 import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
 import org.openhab.binding.network.internal.utils.PingResult;
+import org.openhab.binding.network.internal.utils.ProbeSession;
 
 /**
  * Tests cases for {@see PresenceDetectionValue}
@@ -55,7 +56,7 @@ public class PresenceDetectionTest {
     private PresenceDetection subject;
 
     private @Mock Consumer<PresenceDetectionValue> callback;
-    private @Mock ExecutorService executorService;
+    private @Mock ProbeSession executorService;
     private @Mock PresenceDetectionListener listener;
     private @Mock NetworkUtils networkUtils;
 
@@ -117,7 +118,8 @@ public class PresenceDetectionTest {
                 anyString(), anyInt());
         doReturn(Optional.of(new PingResult(true, 10))).when(networkUtils)
                 .nativeARPPing(eq(ArpPingUtilEnum.IPUTILS_ARPING), anyString(), anyString(), any(), anyInt());
-        doReturn(Optional.of(new PingResult(true, 10))).when(networkUtils).servicePing(anyString(), anyInt(), anyInt());
+        doReturn(CompletableFuture.completedFuture(new PingResult(true, 10))).when(networkUtils)
+                .servicePingAsync(any(), anyString(), anyInt(), anyInt());
 
         assertTrue(subject.performPresenceDetection(false));
         subject.waitForPresenceDetection();
@@ -140,9 +142,12 @@ public class PresenceDetectionTest {
                 anyString(), anyInt());
         doReturn(Optional.of(new PingResult(true, 10))).when(networkUtils)
                 .nativeARPPing(eq(ArpPingUtilEnum.IPUTILS_ARPING), anyString(), anyString(), any(), anyInt());
-        doReturn(Optional.of(new PingResult(true, 10))).when(networkUtils).servicePing(anyString(), anyInt(), anyInt());
+        CompletableFuture<PingResult> servicePing = new CompletableFuture<>();
+        // Each detection run gets its own connection attempt
+        doReturn(servicePing, new CompletableFuture<>()).when(networkUtils).servicePingAsync(any(), anyString(),
+                anyInt(), anyInt());
 
-        doReturn(executorService).when(subject).getThreadsFor(anyInt());
+        doReturn(executorService).when(subject).newProbeSession();
 
         // We expect no valid value
         assertTrue(subject.cache.isExpired());
@@ -153,12 +158,13 @@ public class PresenceDetectionTest {
         // There should be no straight callback yet
         verify(callback, times(0)).accept(any());
 
-        // Perform the different presence detection threads now
+        // Perform the different presence detection threads now, the TCP connection attempt does not need a thread
         ArgumentCaptor<Runnable> capture = ArgumentCaptor.forClass(Runnable.class);
-        verify(executorService, times(3)).execute(capture.capture());
+        verify(executorService, times(2)).execute(capture.capture());
         for (Runnable r : capture.getAllValues()) {
             r.run();
         }
+        servicePing.complete(new PingResult(true, 10));
         // "Wait" for the presence detection to finish
         subject.waitForPresenceDetection();
 
@@ -176,6 +182,45 @@ public class PresenceDetectionTest {
         verify(callback, times(2)).accept(any());
     }
 
+    @Test
+    public void cancelledChecksAreNotReportedAsUnreachable() throws InterruptedException, IOException {
+        doReturn(Optional.of(new PingResult(false, 10))).when(networkUtils)
+                .nativePing(eq(IpPingMethodEnum.WINDOWS_PING), anyString(), anyInt());
+        doReturn(Optional.of(new PingResult(false, 10))).when(networkUtils)
+                .nativeARPPing(eq(ArpPingUtilEnum.IPUTILS_ARPING), anyString(), anyString(), any(), anyInt());
+        CompletableFuture<PingResult> servicePing = new CompletableFuture<>();
+        doReturn(servicePing).when(networkUtils).servicePingAsync(any(), anyString(), anyInt(), anyInt());
+        doReturn(executorService).when(subject).newProbeSession();
+
+        assertTrue(subject.performPresenceDetection(false));
+        ArgumentCaptor<Runnable> capture = ArgumentCaptor.forClass(Runnable.class);
+        verify(executorService, times(2)).execute(capture.capture());
+        for (Runnable r : capture.getAllValues()) {
+            r.run();
+        }
+        // The TCP connection attempt is cancelled, e.g. because the binding is stopped
+        servicePing.cancel(false);
+
+        assertNull(subject.executorService);
+        verify(listener, never()).finalDetectionResult(any());
+    }
+
+    @Test
+    public void queuedChecksAreNotReportedAsUnreachable() throws InterruptedException {
+        doReturn(new CompletableFuture<>()).when(networkUtils).servicePingAsync(any(), anyString(), anyInt(),
+                anyInt());
+        doReturn(executorService).when(subject).newProbeSession();
+        doReturn(true).when(executorService).hasQueuedProbes();
+
+        assertTrue(subject.performPresenceDetection(false));
+        // None of the checks got a thread before the detection was finished
+        subject.waitForPresenceDetection();
+
+        verify(executorService).shutdownNow();
+        assertNull(subject.executorService);
+        verify(listener, never()).finalDetectionResult(any());
+    }
+
     @Test
     public void reuseValueTests() throws InterruptedException, IOException {
         final long START_TIME = 1000L;
@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the shared {@link ProbeEngine}.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+public class ProbeEngineTest {
+
+    private final ProbeEngine engine = new ProbeEngine(2);
+
+    @AfterEach
+    public void tearDown() {
+        engine.stop();
+    }
+
+    @Test
+    public void connectToOpenPort() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            PingResult result = engine
+                    .connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort()), 1000)
+                    .get(2, TimeUnit.SECONDS);
+            assertTrue(result.isSuccess());
+        }
+    }
+
+    @Test
+    public void connectToClosedPort() throws Exception {
+        int port;
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = serverSocket.getLocalPort();
+        }
+        PingResult result = engine.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1000)
+                .get(2, TimeUnit.SECONDS);
+        assertFalse(result.isSuccess());
+    }
+
+    @Test
+    public void connectResultIsNotDeliveredOnSelectorThread() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            String thread = engine
+                    .connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort()), 1000)
+                    .thenApply(result -> Thread.currentThread().getName()).get(2, TimeUnit.SECONDS);
+            assertFalse(thread.startsWith("network-probe-tcp"), thread);
+        }
+    }
+
+    @Test
+    public void connectAfterStop() throws Exception {
+        engine.stop();
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            PingResult result = engine
+                    .connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort()), 1000)
+                    .get(2, TimeUnit.SECONDS);
+            assertTrue(result.isSuccess());
+        }
+    }
+
+    @Test
+    public void timeoutStartsWhenLastProbeIsStarted() throws InterruptedException {
+        ProbeSession session = engine.newSession();
+        CountDownLatch release = new CountDownLatch(1);
+        // both threads of the engine are busy for longer than the timeout of the session
+        for (int i = 0; i < 2; i++) {
+            session.execute(() -> {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                }
+            });
+        }
+        CountDownLatch queuedProbeDone = new CountDownLatch(1);
+        session.execute(queuedProbeDone::countDown);
+        session.shutdown();
+        assertTrue(session.hasQueuedProbes());
+
+        new Thread(() -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException ignored) {
+            }
+            release.countDown();
+        }).start();
+
+        assertTrue(session.awaitTermination(200, TimeUnit.MILLISECONDS));
+        assertEquals(0, queuedProbeDone.getCount());
+        assertFalse(session.hasQueuedProbes());
+    }
+
+    @Test
+    public void sessionShutdownNowReturnsQueuedTasks() throws InterruptedException {
+        ProbeSession session = engine.newSession();
+        CountDownLatch started = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            session.execute(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(10000);
+                } catch (InterruptedException ignored) {
+                }
+            });
+        }
+        Runnable queued = () -> {
+        };
+        session.execute(queued);
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+
+        List<Runnable> notStarted = session.shutdownNow();
+        assertEquals(1, notStarted.size());
+        assertSame(queued, notStarted.get(0));
+        assertTrue(session.awaitTermination(2, TimeUnit.SECONDS));
+        assertFalse(session.hasQueuedProbes());
+    }
+
+    @Test
+    public void sessionShutdownNowInterruptsOwnTasksOnly() throws InterruptedException {
+        ExecutorService session1 = engine.newSession();
+        ExecutorService session2 = engine.newSession();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CountDownLatch otherSessionDone = new CountDownLatch(1);
+
+        session1.execute(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        assertFalse(session1.awaitTermination(50, TimeUnit.MILLISECONDS));
+
+        session1.shutdownNow();
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+        assertTrue(session1.awaitTermination(2, TimeUnit.SECONDS));
+        assertThrows(RejectedExecutionException.class, () -> session1.execute(() -> {
+        }));
+
+        session2.execute(otherSessionDone::countDown);
+        assertTrue(otherSessionDone.await(2, TimeUnit.SECONDS));
+        assertFalse(session2.isShutdown());
+    }
+}
@@ -16,6 +16,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.onewire.internal.OwException;
 import org.openhab.binding.onewire.internal.SensorId;
 import org.openhab.binding.onewire.internal.handler.OwBaseThingHandler;
@@ -74,6 +75,17 @@ public abstract class AbstractOwDevice {
      */
     public abstract void refresh(OwserverBridgeHandler owBridgeHandler, Boolean forcedRefresh) throws OwException;
 
+    /**
+     * get the path for starting the conversion of this sensor together with all other sensors on the same bus
+     *
+     * Reading the sensor after a simultaneous conversion does not need to wait for a conversion of its own.
+     *
+     * @return the owfs path of the simultaneous conversion, or null if not needed for this sensor
+     */
+    public @Nullable String getSimultaneousConversionPath() {
+        return null;
+    }
+
     /**
      * enables a channel on this device
      *
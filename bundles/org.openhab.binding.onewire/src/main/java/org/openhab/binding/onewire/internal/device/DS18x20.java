@@ -17,6 +17,7 @@ import static org.openhab.binding.onewire.internal.OwBindingConstants.*;
 import javax.measure.quantity.Temperature;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.onewire.internal.OwException;
 import org.openhab.binding.onewire.internal.SensorId;
 import org.openhab.binding.onewire.internal.handler.OwBaseThingHandler;
@@ -35,6 +36,7 @@ import org.slf4j.LoggerFactory;
  * The {@link DS18x20} class defines an DS18x20 or DS1822 device
  *
  * @author Jan N. Klug - Initial contribution
+ * @author Michal Boronski - Simultaneous conversion
  */
 @NonNullByDefault
 public class DS18x20 extends AbstractOwDevice {
@@ -73,6 +75,14 @@ public class DS18x20 extends AbstractOwDevice {
         isConfigured = true;
     }
 
+    @Override
+    public @Nullable String getSimultaneousConversionPath() {
+        if (isConfigured && enabledChannels.contains(CHANNEL_TEMPERATURE)) {
+            return "/" + sensorId.getPath() + "simultaneous/temperature";
+        }
+        return null;
+    }
+
     @Override
     public void refresh(OwserverBridgeHandler bridgeHandler, Boolean forcedRefresh) throws OwException {
         if (isConfigured && enabledChannels.contains(CHANNEL_TEMPERATURE)) {
@@ -204,6 +204,23 @@ public abstract class OwBaseThingHandler extends BaseThingHandler {
                 && this.thing.getStatusInfo().getStatusDetail() != ThingStatusDetail.BRIDGE_OFFLINE;
     }
 
+    /**
+     * collect the simultaneous conversions needed by the sensors of this thing, if it is due for a refresh
+     *
+     * @param now current time
+     * @param conversionPaths set for adding the owfs paths of the conversions
+     */
+    public void collectSimultaneousConversions(long now, Set<String> conversionPaths) {
+        if (now >= (lastRefresh + refreshInterval)) {
+            for (AbstractOwDevice sensor : sensors) {
+                String conversionPath = sensor.getSimultaneousConversionPath();
+                if (conversionPath != null) {
+                    conversionPaths.add(conversionPath);
+                }
+            }
+        }
+    }
+
     /**
      * refresh this thing
      *
@@ -18,6 +18,7 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
@@ -56,6 +57,7 @@ import org.slf4j.LoggerFactory;
  * The {@link OwserverBridgeHandler} class implements the refresher and the interface for reading from the bridge
  *
  * @author Jan N. Klug - Initial contribution
+ * @author Michal Boronski - Simultaneous conversion of all sensors on a bus
  */
 @NonNullByDefault
 public class OwserverBridgeHandler extends BaseBridgeHandler {
@@ -71,6 +73,7 @@ public class OwserverBridgeHandler extends BaseBridgeHandler {
     private final Queue<@Nullable Thing> thingPropertiesUpdateQueue = new ConcurrentLinkedQueue<>();
 
     private static final int RECONNECT_AFTER_FAIL_TIME = 5000; // in ms
+    private static final DecimalType SIMULTANEOUS_CONVERSION_START = new DecimalType(1);
     private final OwserverConnection owserverConnection;
 
     private final List<OwfsDirectChannelConfig> channelConfigs = new ArrayList<>();
@@ -142,6 +145,7 @@ public class OwserverBridgeHandler extends BaseBridgeHandler {
 
             // refresh thing channels
             List<Thing> thingList = getThing().getThings();
+            startSimultaneousConversions(thingList, now);
             int thingCount = thingList.size();
             Iterator<Thing> childListIterator = thingList.iterator();
             logger.trace("refreshTask with thread ID {} starts at {}, {} childs", Thread.currentThread().getId(), now,
@@ -202,6 +206,37 @@ public class OwserverBridgeHandler extends BaseBridgeHandler {
         }
     }
 
+    /**
+     * start the conversions of all sensors due for refresh at once (one request per bus), so that the following reads
+     * do not wait for a conversion of each sensor
+     *
+     * @param thingList all things of this bridge
+     * @param now current time
+     */
+    private void startSimultaneousConversions(List<Thing> thingList, long now) {
+        Set<String> conversionPaths = new HashSet<>();
+        for (Thing owThing : thingList) {
+            OwBaseThingHandler owHandler = (OwBaseThingHandler) owThing.getHandler();
+            if (owHandler != null && owHandler.isRefreshable()) {
+                owHandler.collectSimultaneousConversions(now, conversionPaths);
+            }
+        }
+        for (String conversionPath : conversionPaths) {
+            if (!refreshable) {
+                return;
+            }
+            try {
+                synchronized (owserverConnection) {
+                    owserverConnection.writeDecimalType(conversionPath, SIMULTANEOUS_CONVERSION_START);
+                }
+                logger.trace("started simultaneous conversion {}", conversionPath);
+            } catch (OwException e) {
+                // sensors are converted one by one when read
+                logger.debug("could not start simultaneous conversion {}: {}", conversionPath, e.getMessage());
+            }
+        }
+    }
+
     @Override
     public void dispose() {
         refreshable = false;
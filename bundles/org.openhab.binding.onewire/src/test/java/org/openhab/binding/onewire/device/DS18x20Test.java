@@ -12,6 +12,7 @@
  */
 package org.openhab.binding.onewire.device;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.times;
 import static org.openhab.binding.onewire.internal.OwBindingConstants.*;
@@ -35,6 +36,7 @@ import org.openhab.core.library.types.QuantityType;
  * Tests cases for {@link DS18x20}.
  *
  * @author Jan N. Klug - Initial contribution
+ * @author Michal Boronski - Test for simultaneous conversion
  */
 @NonNullByDefault
 public class DS18x20Test extends DeviceTestParent<DS18x20> {
@@ -79,4 +81,15 @@ public class DS18x20Test extends DeviceTestParent<DS18x20> {
         inOrder.verify(mockBridgeHandler, times(1)).readDecimalType(eq(testSensorId), any());
         inOrder.verify(mockThingHandler, times(0)).postUpdate(eq(CHANNEL_TEMPERATURE), any());
     }
+
+    @Test
+    public void simultaneousConversionTest() throws OwException {
+        final DS18x20 testDevice = instantiateDevice();
+
+        testDevice.configureChannels();
+        assertNull(testDevice.getSimultaneousConversionPath());
+
+        testDevice.enableChannel(CHANNEL_TEMPERATURE);
+        assertEquals("/simultaneous/temperature", testDevice.getSimultaneousConversionPath());
+    }
 }
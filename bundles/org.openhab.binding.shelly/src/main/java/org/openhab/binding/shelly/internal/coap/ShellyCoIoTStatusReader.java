@@ -0,0 +1,265 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.shelly.internal.coap;
+
+import static org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.COIOT_TAG_GENERIC;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.CoIotSensor;
+
+/**
+ * The {@link ShellyCoIoTStatusReader} reads the sensor values of a CoIoT status packet, e.g.
+ * {"G":[[0,112,0],[0,111,25.3],[0,9103,"event"]]}, in a single pass over the payload.
+ *
+ * Some firmware releases send malformed JSON with missing or duplicate separators ("][", "],,["). The reader treats
+ * separators like white space, so those packets are read as they are instead of being rewritten first.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+class ShellyCoIoTStatusReader {
+    private final String payload;
+    private int pos;
+
+    private ShellyCoIoTStatusReader(String payload) {
+        this.payload = payload;
+    }
+
+    /**
+     * Read the sensor values of a status packet
+     *
+     * @param payload CoIoT status payload
+     * @return sensor values in the order of the packet
+     * @throws IllegalArgumentException if the payload has no sensor list or the list is malformed
+     */
+    static List<CoIotSensor> read(String payload) throws IllegalArgumentException {
+        return new ShellyCoIoTStatusReader(payload).readGeneric();
+    }
+
+    private List<CoIotSensor> readGeneric() {
+        int tag = payload.indexOf("\"" + COIOT_TAG_GENERIC + "\"");
+        if (tag < 0) {
+            throw new IllegalArgumentException("Sensor list missing");
+        }
+        pos = tag + COIOT_TAG_GENERIC.length() + 2;
+        skipSeparators();
+        expect(':');
+        skipSeparators();
+        expect('[');
+
+        List<CoIotSensor> sensors = new ArrayList<>();
+        while (true) {
+            skipSeparators();
+            char c = next();
+            if (c == ']') {
+                return sensors;
+            } else if (c != '[') {
+                throw error("sensor entry expected");
+            }
+            readNumber(); // always 0
+            CoIotSensor sensor = new CoIotSensor();
+            sensor.id = Long.toString((long) readNumber());
+            skipSeparators();
+            char v = peek();
+            if (v == '"') {
+                sensor.valueStr = readString();
+                sensor.value = -1;
+            } else if (v == '[') {
+                pos++;
+                sensor.valueArray = new ArrayList<>();
+                while (true) {
+                    skipSeparators();
+                    char e = peek();
+                    if (e == ']') {
+                        pos++;
+                        break;
+                    } else if (e == '"') {
+                        sensor.valueArray.add(readString());
+                    } else {
+                        skipValue();
+                    }
+                }
+            } else if (v == '-' || v == '+' || (v >= '0' && v <= '9')) {
+                sensor.value = readNumber();
+                sensor.valueStr = "";
+            } else {
+                // e.g. null, the sensor has no value
+                skipValue();
+                skipEntry();
+                continue;
+            }
+            skipEntry();
+            sensors.add(sensor);
+        }
+    }
+
+    /**
+     * Skip the end of an entry including any further values
+     */
+    private void skipEntry() {
+        int depth = 0;
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                pos--;
+                readString();
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']' && depth-- == 0) {
+                return;
+            }
+        }
+    }
+
+    private double readNumber() {
+        skipSeparators();
+        int start = pos;
+        while (pos < payload.length() && "+-.0123456789eE".indexOf(payload.charAt(pos)) >= 0) {
+            pos++;
+        }
+        if (start == pos) {
+            throw error("number expected");
+        }
+        try {
+            return Double.parseDouble(payload.substring(start, pos));
+        } catch (NumberFormatException e) {
+            throw error("invalid number");
+        }
+    }
+
+    private String readString() {
+        expect('"');
+        @Nullable
+        StringBuilder value = null;
+        int start = pos;
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return value == null ? payload.substring(start, pos - 1) : value.toString();
+            } else if (c == '\\') {
+                if (value == null) {
+                    value = new StringBuilder(payload.substring(start, pos - 1));
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'u':
+                        if (pos + 4 > payload.length()) {
+                            throw error("invalid escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(payload.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("invalid escape");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        value.append(escaped);
+                }
+            } else if (value != null) {
+                value.append(c);
+            }
+        }
+    }
+
+    /**
+     * Skip a single value, nested arrays and objects are skipped as a whole
+     */
+    private void skipValue() {
+        char c = peek();
+        if (c == '"') {
+            readString();
+        } else if (c == '[' || c == '{') {
+            pos++;
+            int depth = 0;
+            while (true) {
+                char n = peek();
+                if (n == '"') {
+                    readString();
+                    continue;
+                }
+                pos++;
+                if (n == '[' || n == '{') {
+                    depth++;
+                } else if ((n == ']' || n == '}') && depth-- == 0) {
+                    return;
+                }
+            }
+        } else {
+            skipLiteral();
+        }
+    }
+
+    private void skipLiteral() {
+        int start = pos;
+        while (pos < payload.length()
+                && (Character.isLetterOrDigit(payload.charAt(pos)) || "+-.".indexOf(payload.charAt(pos)) >= 0)) {
+            pos++;
+        }
+        if (start == pos) {
+            throw error("value expected");
+        }
+    }
+
+    private void skipSeparators() {
+        while (pos < payload.length()) {
+            char c = payload.charAt(pos);
+            if (c != ',' && !Character.isWhitespace(c)) {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            throw error("'" + expected + "' expected");
+        }
+    }
+
+    private char peek() {
+        if (pos >= payload.length()) {
+            throw error("unexpected end");
+        }
+        return payload.charAt(pos);
+    }
+
+    private char next() {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Malformed sensor list at position " + pos + ": " + message);
+    }
+}
@@ -18,6 +18,8 @@ import static org.openhab.binding.shelly.internal.util.ShellyUtils.*;
 
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,9 +44,7 @@ import org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.CoIotDescrBlk;
 import org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.CoIotDescrSen;
 import org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.CoIotDevDescrTypeAdapter;
 import org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.CoIotDevDescription;
-import org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.CoIotGenericSensorList;
 import org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.CoIotSensor;
-import org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.CoIotSensorTypeAdapter;
 import org.openhab.binding.shelly.internal.config.ShellyThingConfiguration;
 import org.openhab.binding.shelly.internal.handler.ShellyBaseHandler;
 import org.openhab.binding.shelly.internal.handler.ShellyColorUtils;
@@ -61,6 +61,7 @@ import com.google.gson.JsonSyntaxException;
  * The {@link ShellyCoapHandler} handles the CoIoT/CoAP registration and events.
  *
  * @author Markus Michels - Initial contribution
+ * @author Michal Boronski - Precompiled sensor bindings and streaming status reader
  */
 @NonNullByDefault
 public class ShellyCoapHandler implements ShellyCoapListener {
@@ -90,9 +91,23 @@ public class ShellyCoapHandler implements ShellyCoapListener {
     private String lastPayload = "";
     private Map<String, CoIotDescrBlk> blkMap = new LinkedHashMap<>();
     private Map<String, CoIotDescrSen> sensorMap = new LinkedHashMap<>();
+    private volatile Map<String, CoIotSensorBinding> sensorBindings = Collections.emptyMap();
     private ShellyDeviceProfile profile;
     private ShellyHttpApi api;
 
+    /**
+     * A sensor id of the device description with its fixed definition and the block it is linked to
+     */
+    private static class CoIotSensorBinding {
+        private final CoIotDescrSen sen;
+        private final CoIotDescrBlk blk;
+
+        private CoIotSensorBinding(CoIotDescrSen sen, CoIotDescrBlk blk) {
+            this.sen = sen;
+            this.blk = blk;
+        }
+    }
+
     public ShellyCoapHandler(ShellyBaseHandler thingHandler, ShellyCoapServer coapServer) {
         this.thingHandler = thingHandler;
         this.thingName = thingHandler.thingName;
@@ -102,7 +117,6 @@ public class ShellyCoapHandler implements ShellyCoapListener {
         this.coiot = new ShellyCoIoTVersion2(thingName, thingHandler, blkMap, sensorMap); // Default: V2
 
         gsonBuilder.registerTypeAdapter(CoIotDevDescription.class, new CoIotDevDescrTypeAdapter());
-        gsonBuilder.registerTypeAdapter(CoIotGenericSensorList.class, new CoIotSensorTypeAdapter());
         gson = gsonBuilder.create();
     }
 
@@ -273,12 +287,10 @@ public class ShellyCoapHandler implements ShellyCoapListener {
                 return;
             }
 
-            // fixed malformed JSON :-(
-            payload = fixJSON(payload);
-
             try {
                 if (uri.equalsIgnoreCase(COLOIT_URI_DEVDESC) || (uri.isEmpty() && payload.contains(COIOT_TAG_BLK))) {
-                    handleDeviceDescription(devId, payload);
+                    // fixed malformed JSON :-(
+                    handleDeviceDescription(devId, fixJSON(payload));
                 } else if (uri.equalsIgnoreCase(COLOIT_URI_DEVSTATUS)
                         || (uri.isEmpty() && payload.contains(COIOT_TAG_GENERIC))) {
                     handleStatusUpdate(devId, payload, serial);
@@ -349,6 +361,7 @@ public class ShellyCoapHandler implements ShellyCoapListener {
                 }
             }
             coiot.completeMissingSensorDefinition(sensorMap);
+            compileSensorBindings();
 
             if (!valid) {
                 logger.debug(
@@ -399,6 +412,28 @@ public class ShellyCoapHandler implements ShellyCoapListener {
         return true;
     }
 
+    /**
+     * Resolve the sensor definitions and their blocks once for every sensor id, so status updates are dispatched
+     * with a single lookup.
+     */
+    private synchronized void compileSensorBindings() {
+        Map<String, CoIotSensorBinding> bindings = new HashMap<>();
+        for (Map.Entry<String, CoIotDescrSen> entry : sensorMap.entrySet()) {
+            try {
+                CoIotDescrSen sen = coiot.fixDescription(entry.getValue(), blkMap);
+                CoIotDescrBlk blk = blkMap.get(sen.links);
+                if (blk == null) {
+                    logger.debug("{}: Unable to find BLK for link {} from sen.id={}", thingName, sen.links, sen.id);
+                    continue;
+                }
+                bindings.put(entry.getKey(), new CoIotSensorBinding(sen, blk));
+            } catch (NullPointerException | IllegalArgumentException e) {
+                logger.debug("{}: Unable to decode sensor definition for id={} -> skip", thingName, entry.getKey(), e);
+            }
+        }
+        sensorBindings = bindings;
+    }
+
     /**
      * Process CoIoT status update message. If a status update is received, but the device description has not been
      * received yet a GET is send to query device description.
@@ -429,14 +464,15 @@ public class ShellyCoapHandler implements ShellyCoapListener {
             handleDeviceDescription(devId, savedDescr);
         }
 
-        // Parse Json,
-        CoIotGenericSensorList list = fromJson(gson, fixJSON(payload), CoIotGenericSensorList.class);
-        if (list.generic == null) {
-            logger.debug("{}: Sensor list has invalid format! Payload: {}", devId, payload);
+        List<CoIotSensor> sensorUpdates;
+        try {
+            sensorUpdates = ShellyCoIoTStatusReader.read(payload);
+        } catch (IllegalArgumentException e) {
+            logger.debug("{}: Sensor list has invalid format ({})! Payload: {}", devId, e.getMessage(), payload);
             return;
         }
 
-        List<CoIotSensor> sensorUpdates = list.generic;
+        Map<String, CoIotSensorBinding> bindings = sensorBindings;
         Map<String, State> updates = new TreeMap<String, State>();
         logger.debug("{}: {} CoAP sensor updates received", thingName, sensorUpdates.size());
         int failed = 0;
@@ -444,20 +480,15 @@ public class ShellyCoapHandler implements ShellyCoapListener {
         for (int i = 0; i < sensorUpdates.size(); i++) {
             try {
                 CoIotSensor s = sensorUpdates.get(i);
-                CoIotDescrSen sen = sensorMap.get(s.id);
-                if (sen == null) {
-                    logger.debug("{}: Unable to sensor definition for id={}, payload={}", thingName, s.id, payload);
-                    continue;
-                }
-                // find matching sensor definition from device description, use the Link ID as index
-                CoIotDescrBlk element = null;
-                sen = coiot.fixDescription(sen, blkMap);
-                element = blkMap.get(sen.links);
-                if (element == null) {
-                    logger.debug("{}: Unable to find BLK for link {} from sen.id={}, payload={}", thingName, sen.links,
-                            sen.id, payload);
+                // sensor definition and block from the device description, resolved when the description was received
+                CoIotSensorBinding binding = bindings.get(s.id);
+                if (binding == null) {
+                    logger.debug("{}: Unable to find sensor definition for id={}, payload={}", thingName, s.id,
+                            payload);
                     continue;
                 }
+                CoIotDescrSen sen = binding.sen;
+                CoIotDescrBlk element = binding.blk;
                 logger.trace("{}:  Sensor value[{}]: id={}, Value={} ({}, Type={}, Range={}, Link={}: {})", thingName,
                         i, s.id, getString(s.valueStr).isEmpty() ? s.value : s.valueStr, sen.desc, sen.type, sen.range,
                         sen.links, element.desc);
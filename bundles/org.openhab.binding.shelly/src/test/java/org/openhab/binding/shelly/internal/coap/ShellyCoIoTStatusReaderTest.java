@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.shelly.internal.coap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.CoIotSensor;
+
+/**
+ * Tests the reading of CoIoT status packets by the {@link ShellyCoIoTStatusReader}.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class ShellyCoIoTStatusReaderTest {
+
+    // Shelly 1PM, firmware 1.9.x
+    private static final String SHELLY_1PM = "{\"G\":[[0,9103,1],[0,1101,0],[0,4101,0.00],[0,4103,1543],"
+            + "[0,6105,0],[0,3104,41.82],[0,3105,107.28],[0,6101,0],[0,9101,\"normal\"]]}";
+    // Shelly Button1 with the input event history of CoIoT v1
+    private static final String SHELLY_BUTTON = "{\"G\":[[0,2102,\"S\"],[0,2103,12],[0,3115,0],[0,3111,95],"
+            + "[0,9102,[\"button\",\"S\"]]]}";
+    // Shelly H&T with the missing separators of early firmware releases
+    private static final String SHELLY_HT_MALFORMED = "{\"G\":[[0,3101,22.75][0,3102,72.95],,[0,3103,45.5]]}";
+
+    private static void assertNumber(String id, double value, CoIotSensor sensor) {
+        assertEquals(id, sensor.id);
+        assertEquals(value, sensor.value);
+        assertEquals("", sensor.valueStr);
+    }
+
+    private static void assertString(String id, String value, CoIotSensor sensor) {
+        assertEquals(id, sensor.id);
+        assertEquals(value, sensor.valueStr);
+        assertEquals(-1, sensor.value);
+    }
+
+    @Test
+    public void testStatusPacketIsRead() {
+        List<CoIotSensor> sensors = ShellyCoIoTStatusReader.read(SHELLY_1PM);
+
+        assertEquals(9, sensors.size());
+        assertNumber("9103", 1, sensors.get(0));
+        assertNumber("4101", 0, sensors.get(2));
+        assertNumber("4103", 1543, sensors.get(3));
+        assertNumber("3104", 41.82, sensors.get(5));
+        assertString("9101", "normal", sensors.get(8));
+    }
+
+    @Test
+    public void testNumericForms() {
+        List<CoIotSensor> sensors = ShellyCoIoTStatusReader
+                .read("{\"G\":[[0,111,-12.5],[0,112,1.5e3],[0,113,2E-2],[0,114,+7],[0,115,-0],[0,116,1e300]]}");
+
+        assertEquals(6, sensors.size());
+        assertNumber("111", -12.5, sensors.get(0));
+        assertNumber("112", 1500, sensors.get(1));
+        assertNumber("113", 0.02, sensors.get(2));
+        assertNumber("114", 7, sensors.get(3));
+        assertNumber("115", -0.0, sensors.get(4));
+        assertNumber("116", 1e300, sensors.get(5));
+    }
+
+    @Test
+    public void testEscapedStrings() {
+        List<CoIotSensor> sensors = ShellyCoIoTStatusReader.read("{\"G\":[[0,9101,\"a \\\"quoted\\\" \\\\ value\"],"
+                + "[0,9102,\"tab\\tnew\\nline\\/\\u00e9\"],[0,9103,\"with ] and [ and ,\"],[0,9104,\"\"]]}");
+
+        assertEquals(4, sensors.size());
+        assertString("9101", "a \"quoted\" \\ value", sensors.get(0));
+        assertString("9102", "tab\tnew\nline/\u00e9", sensors.get(1));
+        assertString("9103", "with ] and [ and ,", sensors.get(2));
+        assertString("9104", "", sensors.get(3));
+    }
+
+    @Test
+    public void testValueArrays() {
+        List<CoIotSensor> sensors = ShellyCoIoTStatusReader.read(SHELLY_BUTTON);
+
+        assertEquals(5, sensors.size());
+        assertString("2102", "S", sensors.get(0));
+        assertNumber("2103", 12, sensors.get(1));
+        assertEquals("9102", sensors.get(4).id);
+        assertEquals(List.of("button", "S"), sensors.get(4).valueArray);
+    }
+
+    @Test
+    public void testNestedArraysAreSkipped() {
+        List<CoIotSensor> sensors = ShellyCoIoTStatusReader
+                .read("{\"G\":[[0,9102,[\"L\",[1,[2,\"]\"]],{\"a\":[3]},null,\"S\"]],[0,9103,[[]]],"
+                        + "[0,9104,5,[6,[7]],\"extra\"],[0,9105,[4,5]],[0,9106,{\"b\":\"}\"}],[0,9107,8]]}");
+
+        assertEquals(5, sensors.size());
+        assertEquals(List.of("L", "S"), sensors.get(0).valueArray);
+        assertEquals(List.of(), sensors.get(1).valueArray);
+        assertNumber("9104", 5, sensors.get(2));
+        assertEquals(List.of(), sensors.get(3).valueArray);
+        // sensors without a usable value are skipped
+        assertNumber("9107", 8, sensors.get(4));
+    }
+
+    @Test
+    public void testNullValueIsSkipped() {
+        List<CoIotSensor> sensors = ShellyCoIoTStatusReader.read("{\"G\":[[0,3101,null],[0,3102,true],[0,3103,1]]}");
+
+        assertEquals(1, sensors.size());
+        assertNumber("3103", 1, sensors.get(0));
+    }
+
+    @Test
+    public void testMalformedSeparatorsAreAccepted() {
+        List<CoIotSensor> sensors = ShellyCoIoTStatusReader.read(SHELLY_HT_MALFORMED);
+
+        assertEquals(3, sensors.size());
+        assertNumber("3101", 22.75, sensors.get(0));
+        assertNumber("3102", 72.95, sensors.get(1));
+        assertNumber("3103", 45.5, sensors.get(2));
+
+        assertEquals(2, ShellyCoIoTStatusReader.read("{ \"G\" : [ [0, 1, 2] , [0, 3, \"x\"] ] }").size());
+        assertEquals(0, ShellyCoIoTStatusReader.read("{\"G\":[]}").size());
+    }
+
+    @Test
+    public void testTruncatedPacketIsRejected() {
+        // every prefix of a packet is incomplete
+        for (String packet : List.of(SHELLY_1PM, SHELLY_BUTTON, "{\"G\":[[0,9101,\"a\\u00e9\\\"b\"]]}")) {
+            for (int length = 0; length < packet.length() - 1; length++) {
+                String truncated = packet.substring(0, length);
+                assertThrows(IllegalArgumentException.class, () -> ShellyCoIoTStatusReader.read(truncated),
+                        truncated);
+            }
+        }
+    }
+
+    @Test
+    public void testMalformedPacketIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ShellyCoIoTStatusReader.read("{\"blk\":[]}"));
+        assertThrows(IllegalArgumentException.class, () -> ShellyCoIoTStatusReader.read("{\"G\":{}}"));
+        assertThrows(IllegalArgumentException.class, () -> ShellyCoIoTStatusReader.read("{\"G\":[0,112,1]}"));
+        assertThrows(IllegalArgumentException.class, () -> ShellyCoIoTStatusReader.read("{\"G\":[[0,\"112\",1]]}"));
+        assertThrows(IllegalArgumentException.class, () -> ShellyCoIoTStatusReader.read("{\"G\":[[0,112,1.2.3]]}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> ShellyCoIoTStatusReader.read("{\"G\":[[0,9101,\"\\u00g9\"]]}"));
+    }
+}
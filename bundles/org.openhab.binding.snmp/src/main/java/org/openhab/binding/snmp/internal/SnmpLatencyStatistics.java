@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.snmp.internal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link SnmpLatencyStatistics} collects the response times of the requests sent to a target
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+class SnmpLatencyStatistics {
+    private int count;
+    private long total;
+    private long max;
+
+    synchronized void record(long nanos) {
+        count++;
+        total += nanos;
+        max = Math.max(max, nanos);
+    }
+
+    synchronized void reset() {
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+
+    synchronized int getCount() {
+        return count;
+    }
+
+    synchronized long getAverageMillis() {
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(total / count);
+    }
+
+    synchronized long getMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(max);
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.snmp.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.snmp4j.PDU;
+import org.snmp4j.smi.OID;
+import org.snmp4j.smi.VariableBinding;
+
+/**
+ * The {@link SnmpRequestPlanner} packs the OIDs polled from a target into as few requests as possible.
+ *
+ * OIDs are sent in GET requests of at most a given number of variables. If GETBULK is allowed, consecutive instances
+ * of a table column (e.g. the counters of all interfaces) are requested with a single repeater instead, and columns
+ * with the same instances share one GETBULK request.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+class SnmpRequestPlanner {
+    static final int MIN_BULK_INSTANCES = 4;
+
+    private SnmpRequestPlanner() {
+    }
+
+    /**
+     * Plan the requests for a set of OIDs
+     *
+     * @param oids the OIDs to request, duplicates are requested once
+     * @param maxVariables maximum number of variables requested or returned by a single request
+     * @param useBulk true if the target supports GETBULK (SNMP v2c)
+     * @return the requests, GETBULK requests first
+     */
+    static List<PDU> plan(Collection<OID> oids, int maxVariables, boolean useBulk) {
+        int max = Math.max(1, maxVariables);
+        TreeSet<OID> remaining = new TreeSet<>(oids);
+        List<PDU> requests = new ArrayList<>();
+
+        if (useBulk && max >= MIN_BULK_INSTANCES) {
+            // column -> sorted instance numbers
+            Map<OID, TreeSet<Integer>> columns = new LinkedHashMap<>();
+            for (OID oid : remaining) {
+                if (oid.size() > 1 && oid.last() > 0) {
+                    columns.computeIfAbsent(column(oid), c -> new TreeSet<>()).add(oid.last());
+                }
+            }
+            // first instance and number of instances -> columns having exactly these instances
+            Map<Long, List<OID>> runs = new TreeMap<>();
+            columns.forEach((column, instances) -> {
+                int first = -1;
+                int previous = -1;
+                for (int instance : instances) {
+                    if (first >= 0 && instance != previous + 1) {
+                        addRun(runs, column, first, previous - first + 1, max);
+                        first = -1;
+                    }
+                    if (first < 0) {
+                        first = instance;
+                    }
+                    previous = instance;
+                }
+                if (first >= 0) {
+                    addRun(runs, column, first, previous - first + 1, max);
+                }
+            });
+            runs.forEach((key, runColumns) -> {
+                int first = (int) (key >>> 32);
+                int length = (int) (long) key;
+                int columnsPerRequest = Math.max(1, max / length);
+                for (int i = 0; i < runColumns.size(); i += columnsPerRequest) {
+                    List<VariableBinding> variables = new ArrayList<>();
+                    for (OID column : runColumns.subList(i, Math.min(runColumns.size(), i + columnsPerRequest))) {
+                        variables.add(new VariableBinding(new OID(column).append(first - 1)));
+                        for (int instance = first; instance < first + length; instance++) {
+                            remaining.remove(new OID(column).append(instance));
+                        }
+                    }
+                    PDU pdu = new PDU(PDU.GETBULK, variables);
+                    pdu.setNonRepeaters(0);
+                    pdu.setMaxRepetitions(length);
+                    requests.add(pdu);
+                }
+            });
+        }
+
+        List<VariableBinding> variables = new ArrayList<>();
+        for (OID oid : remaining) {
+            variables.add(new VariableBinding(oid));
+            if (variables.size() == max) {
+                requests.add(new PDU(PDU.GET, variables));
+                variables = new ArrayList<>();
+            }
+        }
+        if (!variables.isEmpty()) {
+            requests.add(new PDU(PDU.GET, variables));
+        }
+        return requests;
+    }
+
+    /**
+     * Get the OIDs a request asks for
+     *
+     * @param pdu a request created by {@link #plan(Collection, int, boolean)}
+     * @return the requested OIDs, for a GETBULK request the instances following the repeaters
+     */
+    static Set<OID> getRequestedOids(PDU pdu) {
+        if (pdu.getType() != PDU.GETBULK) {
+            return pdu.getVariableBindings().stream().map(VariableBinding::getOid).collect(Collectors.toSet());
+        }
+        Set<OID> oids = new HashSet<>();
+        for (VariableBinding variable : pdu.getVariableBindings()) {
+            OID start = variable.getOid();
+            OID column = column(start);
+            for (int i = 1; i <= pdu.getMaxRepetitions(); i++) {
+                oids.add(new OID(column).append(start.last() + i));
+            }
+        }
+        return oids;
+    }
+
+    private static void addRun(Map<Long, List<OID>> runs, OID column, int first, int length, int max) {
+        if (length < MIN_BULK_INSTANCES) {
+            return;
+        }
+        for (int start = first; start < first + length; start += max) {
+            int pieceLength = Math.min(max, first + length - start);
+            if (pieceLength >= MIN_BULK_INSTANCES) {
+                runs.computeIfAbsent(((long) start << 32) | pieceLength, k -> new ArrayList<>()).add(column);
+            }
+        }
+    }
+
+    private static OID column(OID oid) {
+        return new OID(oid.getValue(), 0, oid.size() - 1);
+    }
+}
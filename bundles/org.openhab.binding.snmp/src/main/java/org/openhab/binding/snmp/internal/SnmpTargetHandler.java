@@ -18,9 +18,13 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
@@ -78,11 +82,13 @@ import org.snmp4j.smi.VariableBinding;
  * sent to one of the channels or update remote channels
  *
  * @author Jan N. Klug - Initial contribution
+ * @author Michal Boronski - Pack polled OIDs into few requests
  */
 @NonNullByDefault
 public class SnmpTargetHandler extends BaseThingHandler implements ResponseListener, CommandResponder {
     private static final Pattern HEXSTRING_VALIDITY = Pattern.compile("([a-f0-9]{2}[ :-]?)+");
     private static final Pattern HEXSTRING_EXTRACTOR = Pattern.compile("[^a-f0-9]");
+    private static final int MAX_VARIABLES_PER_REQUEST = 50;
 
     private final Logger logger = LoggerFactory.getLogger(SnmpTargetHandler.class);
 
@@ -98,6 +104,14 @@ public class SnmpTargetHandler extends BaseThingHandler implements ResponseListe
     private @NonNullByDefault({}) Set<SnmpInternalChannelConfiguration> writeChannelSet;
     private @NonNullByDefault({}) Set<SnmpInternalChannelConfiguration> trapChannelSet;
 
+    // requests of the current refresh cycle, sent one after the other
+    private final Object pollLock = new Object();
+    private final Deque<PDU> pollQueue = new ArrayDeque<>();
+    private @Nullable PDU pollRequest;
+    private long pollRequestSent;
+    private int maxVariables = MAX_VARIABLES_PER_REQUEST;
+    private final SnmpLatencyStatistics statistics = new SnmpLatencyStatistics();
+
     public SnmpTargetHandler(Thing thing, SnmpService snmpService) {
         super(thing);
         this.snmpService = snmpService;
@@ -164,6 +178,7 @@ public class SnmpTargetHandler extends BaseThingHandler implements ResponseListe
         }
 
         timeoutCounter = 0;
+        maxVariables = MAX_VARIABLES_PER_REQUEST;
 
         updateStatus(ThingStatus.UNKNOWN);
         refresh = scheduler.scheduleWithFixedDelay(this::refresh, 0, config.refresh, TimeUnit.SECONDS);
@@ -175,6 +190,10 @@ public class SnmpTargetHandler extends BaseThingHandler implements ResponseListe
         if (r != null && !r.isCancelled()) {
             r.cancel(true);
         }
+        synchronized (pollLock) {
+            pollQueue.clear();
+            pollRequest = null;
+        }
         snmpService.removeCommandResponder(this);
     }
 
@@ -192,8 +211,21 @@ public class SnmpTargetHandler extends BaseThingHandler implements ResponseListe
             ((Snmp) event.getSource()).cancel(event.getRequest(), this);
         }
 
+        PDU request = event.getRequest();
+        boolean isPollRequest;
+        synchronized (pollLock) {
+            isPollRequest = request != null && request == pollRequest;
+            if (isPollRequest) {
+                statistics.record(System.nanoTime() - pollRequestSent);
+            }
+        }
+
         PDU response = event.getResponse();
         if (response == null) {
+            if (isPollRequest) {
+                // the target is not answering, skip the rest of this cycle
+                abortPoll();
+            }
             Exception e = event.getError();
             if (e == null) { // no response, no error -> request timed out
                 timeoutCounter++;
@@ -212,11 +244,54 @@ public class SnmpTargetHandler extends BaseThingHandler implements ResponseListe
         }
         logger.trace("{} received {}", thing.getUID(), response);
 
+        if (!isPollRequest || request == null) {
+            response.getVariableBindings().forEach(variable -> {
+                if (variable != null) {
+                    updateChannels(variable.getOid(), variable.getVariable(), readChannelSet);
+                }
+            });
+            return;
+        }
+
+        Set<OID> requestedOids = SnmpRequestPlanner.getRequestedOids(request);
+        if (response.getErrorStatus() == PDU.tooBig) {
+            // the response does not fit into a message of the target, retry with smaller requests
+            int requestSize = request.getType() == PDU.GETBULK ? requestedOids.size() : request.size();
+            if (requestSize <= 1) {
+                logger.warn("{} can't request {}: response too big", thing.getUID(), requestedOids);
+                sendNextPollRequest();
+                return;
+            }
+            synchronized (pollLock) {
+                maxVariables = Math.max(1, Math.min(maxVariables, requestSize / 2));
+                logger.debug("{} response too big, requesting at most {} variables", thing.getUID(), maxVariables);
+                List<PDU> requests = SnmpRequestPlanner.plan(requestedOids, maxVariables,
+                        request.getType() == PDU.GETBULK);
+                for (int i = requests.size() - 1; i >= 0; i--) {
+                    pollQueue.addFirst(requests.get(i));
+                }
+            }
+            sendNextPollRequest();
+            return;
+        }
+
+        Set<OID> missingOids = new TreeSet<>(requestedOids);
         response.getVariableBindings().forEach(variable -> {
-            if (variable != null) {
+            // a GETBULK response may contain OIDs beyond the requested instances
+            if (variable != null && missingOids.remove(variable.getOid())) {
                 updateChannels(variable.getOid(), variable.getVariable(), readChannelSet);
             }
         });
+        if (request.getType() == PDU.GETBULK && !missingOids.isEmpty()) {
+            // the instances do not exist or the target truncated the response, GET them to know
+            synchronized (pollLock) {
+                List<PDU> requests = SnmpRequestPlanner.plan(missingOids, maxVariables, false);
+                for (int i = requests.size() - 1; i >= 0; i--) {
+                    pollQueue.addFirst(requests.get(i));
+                }
+            }
+        }
+        sendNextPollRequest();
     }
 
     @Override
@@ -472,14 +547,61 @@ public class SnmpTargetHandler extends BaseThingHandler implements ResponseListe
                 return;
             }
         }
-        PDU pdu = new PDU(PDU.GET,
-                readChannelSet.stream().map(c -> new VariableBinding(c.oid)).collect(Collectors.toList()));
-        if (!pdu.getVariableBindings().isEmpty()) {
+        synchronized (pollLock) {
+            if (pollRequest != null) {
+                // a request is only lost if the SNMP service was not available when it was sent
+                long maxDuration = TimeUnit.MILLISECONDS.toNanos((long) config.timeout * (config.retries + 2));
+                if (System.nanoTime() - pollRequestSent < maxDuration) {
+                    logger.debug("{} is still polling, skipping refresh", thing.getUID());
+                    return;
+                }
+                pollQueue.clear();
+            }
+            List<OID> oids = readChannelSet.stream().map(c -> c.oid).collect(Collectors.toList());
+            List<PDU> requests = SnmpRequestPlanner.plan(oids, maxVariables,
+                    config.protocol.toInteger() == SnmpConstants.version2c);
+            if (requests.isEmpty()) {
+                return;
+            }
+            pollQueue.addAll(requests);
+            statistics.reset();
+        }
+        sendNextPollRequest();
+    }
+
+    private void sendNextPollRequest() {
+        synchronized (pollLock) {
+            PDU pdu = pollQueue.poll();
+            pollRequest = pdu;
+            if (pdu == null) {
+                logger.debug("{} polled with {} requests, average latency {} ms, maximum latency {} ms",
+                        thing.getUID(), statistics.getCount(), statistics.getAverageMillis(),
+                        statistics.getMaxMillis());
+                return;
+            }
+            pollRequestSent = System.nanoTime();
             try {
                 snmpService.send(pdu, target, null, this);
             } catch (IOException e) {
                 logger.info("Could not send PDU", e);
+                abortPoll();
             }
         }
     }
+
+    private void abortPoll() {
+        synchronized (pollLock) {
+            pollQueue.clear();
+            pollRequest = null;
+        }
+    }
+
+    /**
+     * Get the latency statistics of the requests of the last refresh cycle
+     *
+     * @return the statistics
+     */
+    SnmpLatencyStatistics getStatistics() {
+        return statistics;
+    }
 }
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.snmp.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.snmp4j.PDU;
+import org.snmp4j.smi.OID;
+
+/**
+ * Tests cases for {@link SnmpRequestPlanner}.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+public class SnmpRequestPlannerTest {
+    private static final String IF_IN_OCTETS = "1.3.6.1.2.1.2.2.1.10.";
+    private static final String IF_OUT_OCTETS = "1.3.6.1.2.1.2.2.1.16.";
+
+    private static List<OID> columns(int first, int last) {
+        List<OID> oids = new ArrayList<>();
+        for (int i = first; i <= last; i++) {
+            oids.add(new OID(IF_IN_OCTETS + i));
+            oids.add(new OID(IF_OUT_OCTETS + i));
+        }
+        return oids;
+    }
+
+    private static Set<OID> requested(List<PDU> requests) {
+        Set<OID> oids = new HashSet<>();
+        requests.forEach(pdu -> oids.addAll(SnmpRequestPlanner.getRequestedOids(pdu)));
+        return oids;
+    }
+
+    @Test
+    public void testGetRequestsArePacked() {
+        List<OID> oids = columns(1, 30);
+        oids.add(new OID(IF_IN_OCTETS + "1"));
+
+        List<PDU> requests = SnmpRequestPlanner.plan(oids, 25, false);
+
+        assertEquals(3, requests.size());
+        requests.forEach(pdu -> assertEquals(PDU.GET, pdu.getType()));
+        assertEquals(25, requests.get(0).size());
+        assertEquals(25, requests.get(1).size());
+        assertEquals(10, requests.get(2).size());
+        assertEquals(new HashSet<>(oids), requested(requests));
+    }
+
+    @Test
+    public void testColumnsAreRequestedWithBulk() {
+        List<OID> oids = columns(1, 20);
+        oids.add(new OID("1.3.6.1.2.1.1.5.0"));
+        oids.add(new OID(IF_IN_OCTETS + "40"));
+
+        List<PDU> requests = SnmpRequestPlanner.plan(oids, 50, true);
+
+        assertEquals(2, requests.size());
+        PDU bulk = requests.get(0);
+        assertEquals(PDU.GETBULK, bulk.getType());
+        assertEquals(20, bulk.getMaxRepetitions());
+        assertEquals(0, bulk.getNonRepeaters());
+        assertEquals(new OID(IF_IN_OCTETS + "0"), bulk.get(0).getOid());
+        assertEquals(new OID(IF_OUT_OCTETS + "0"), bulk.get(1).getOid());
+        PDU get = requests.get(1);
+        assertEquals(PDU.GET, get.getType());
+        assertEquals(2, get.size());
+        assertEquals(new HashSet<>(oids), requested(requests));
+    }
+
+    @Test
+    public void testBulkRequestsRespectMaximumSize() {
+        List<OID> oids = columns(1, 60);
+
+        List<PDU> requests = SnmpRequestPlanner.plan(oids, 50, true);
+
+        // instances 1-50 of each column on their own, instances 51-60 of both columns together
+        assertEquals(3, requests.size());
+        requests.forEach(pdu -> {
+            assertEquals(PDU.GETBULK, pdu.getType());
+            assertTrue(pdu.size() * pdu.getMaxRepetitions() <= 50);
+        });
+        assertEquals(new HashSet<>(oids), requested(requests));
+    }
+
+    @Test
+    public void testShortRunsAreRequestedWithGet() {
+        List<OID> oids = columns(1, 3);
+
+        List<PDU> requests = SnmpRequestPlanner.plan(oids, 50, true);
+
+        assertEquals(1, requests.size());
+        assertEquals(PDU.GET, requests.get(0).getType());
+        assertEquals(6, requests.get(0).size());
+    }
+}
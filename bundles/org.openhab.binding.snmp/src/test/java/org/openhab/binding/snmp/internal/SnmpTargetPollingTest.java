@@ -0,0 +1,236 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.snmp.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.openhab.binding.snmp.internal.SnmpBindingConstants.THING_TYPE_TARGET;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.config.core.Configuration;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.StringType;
+import org.openhab.core.test.java.JavaTest;
+import org.openhab.core.thing.Channel;
+import org.openhab.core.thing.ChannelUID;
+import org.openhab.core.thing.Thing;
+import org.openhab.core.thing.ThingStatus;
+import org.openhab.core.thing.ThingUID;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
+import org.openhab.core.thing.binding.builder.ChannelBuilder;
+import org.openhab.core.thing.binding.builder.ThingBuilder;
+import org.openhab.core.thing.type.ChannelTypeUID;
+import org.snmp4j.CommandResponder;
+import org.snmp4j.PDU;
+import org.snmp4j.Target;
+import org.snmp4j.event.ResponseEvent;
+import org.snmp4j.event.ResponseListener;
+import org.snmp4j.smi.Integer32;
+import org.snmp4j.smi.Null;
+import org.snmp4j.smi.OID;
+import org.snmp4j.smi.OctetString;
+import org.snmp4j.smi.Variable;
+import org.snmp4j.smi.VariableBinding;
+
+/**
+ * Tests the polling of {@link SnmpTargetHandler} against an agent stand-in.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class SnmpTargetPollingTest extends JavaTest {
+    private static final ThingUID THING_UID = new ThingUID(THING_TYPE_TARGET, "testthing");
+    private static final String IF_IN_OCTETS = "1.3.6.1.2.1.2.2.1.10.";
+    private static final String IF_OUT_OCTETS = "1.3.6.1.2.1.2.2.1.16.";
+    private static final String SYS_NAME = "1.3.6.1.2.1.1.5.0";
+    private static final int INTERFACES = 60;
+
+    private final ThingHandlerCallback thingHandlerCallback = mock(ThingHandlerCallback.class);
+    private final AgentStandIn agent = new AgentStandIn();
+    private @Nullable SnmpTargetHandler thingHandler;
+
+    @AfterEach
+    public void tearDown() {
+        SnmpTargetHandler localHandler = thingHandler;
+        if (localHandler != null) {
+            localHandler.dispose();
+        }
+    }
+
+    private SnmpTargetHandler setup(String protocol) {
+        Map<String, Object> thingConfig = new HashMap<>();
+        thingConfig.put("hostname", "localhost");
+        thingConfig.put("protocol", protocol);
+        ThingBuilder thingBuilder = ThingBuilder.create(THING_TYPE_TARGET, THING_UID).withLabel("Test thing")
+                .withConfiguration(new Configuration(thingConfig));
+
+        for (int i = 1; i <= INTERFACES; i++) {
+            agent.values.put(new OID(IF_IN_OCTETS + i), new Integer32(1000 + i));
+            agent.values.put(new OID(IF_OUT_OCTETS + i), new Integer32(2000 + i));
+            thingBuilder.withChannel(channel("in" + i, IF_IN_OCTETS + i, SnmpBindingConstants.CHANNEL_TYPE_UID_NUMBER));
+            thingBuilder
+                    .withChannel(channel("out" + i, IF_OUT_OCTETS + i, SnmpBindingConstants.CHANNEL_TYPE_UID_NUMBER));
+        }
+        agent.values.put(new OID(SYS_NAME), new OctetString("switch"));
+        thingBuilder.withChannel(channel("name", SYS_NAME, SnmpBindingConstants.CHANNEL_TYPE_UID_STRING));
+        // an interface the agent does not know
+        thingBuilder.withChannel(
+                channel("in99", IF_IN_OCTETS + "99", SnmpBindingConstants.CHANNEL_TYPE_UID_NUMBER, "-1"));
+
+        Thing thing = thingBuilder.build();
+        SnmpTargetHandler localHandler = new SnmpTargetHandler(thing, agent);
+        thing.setHandler(localHandler);
+        localHandler.setCallback(thingHandlerCallback);
+        doAnswer(answer -> {
+            ((Thing) answer.getArgument(0)).setStatusInfo(answer.getArgument(1));
+            return null;
+        }).when(thingHandlerCallback).statusUpdated(any(), any());
+        thingHandler = localHandler;
+        localHandler.initialize();
+        return localHandler;
+    }
+
+    private Channel channel(String id, String oid, ChannelTypeUID channelTypeUID) {
+        return channel(id, oid, channelTypeUID, null);
+    }
+
+    private Channel channel(String id, String oid, ChannelTypeUID channelTypeUID, @Nullable String exceptionValue) {
+        Map<String, Object> channelConfig = new HashMap<>();
+        channelConfig.put("oid", oid);
+        channelConfig.put("mode", SnmpChannelMode.READ.name());
+        if (exceptionValue != null) {
+            channelConfig.put("exceptionValue", exceptionValue);
+        }
+        String itemType = SnmpBindingConstants.CHANNEL_TYPE_UID_NUMBER.equals(channelTypeUID) ? "Number" : "String";
+        return ChannelBuilder.create(new ChannelUID(THING_UID, id), itemType).withType(channelTypeUID)
+                .withConfiguration(new Configuration(channelConfig)).build();
+    }
+
+    private void verifyAllChannelsUpdated() {
+        for (int i = 1; i <= INTERFACES; i++) {
+            verify(thingHandlerCallback, timeout(1000)).stateUpdated(eq(new ChannelUID(THING_UID, "in" + i)),
+                    eq(new DecimalType(1000 + i)));
+            verify(thingHandlerCallback, timeout(1000)).stateUpdated(eq(new ChannelUID(THING_UID, "out" + i)),
+                    eq(new DecimalType(2000 + i)));
+        }
+        verify(thingHandlerCallback, timeout(1000)).stateUpdated(eq(new ChannelUID(THING_UID, "name")),
+                eq(new StringType("switch")));
+        verify(thingHandlerCallback, timeout(1000)).stateUpdated(eq(new ChannelUID(THING_UID, "in99")),
+                eq(new DecimalType(-1)));
+        waitForAssert(() -> assertEquals(ThingStatus.ONLINE, getStatus()));
+    }
+
+    private @Nullable ThingStatus getStatus() {
+        SnmpTargetHandler localHandler = thingHandler;
+        return localHandler == null ? null : localHandler.getThing().getStatus();
+    }
+
+    @Test
+    public void testVersion1IsPolledWithGet() {
+        SnmpTargetHandler handler = setup("v1");
+
+        verifyAllChannelsUpdated();
+        synchronized (agent) {
+            // 122 OIDs in requests of at most 50 variables
+            assertEquals(3, agent.requests.size());
+            agent.requests.forEach(pdu -> assertEquals(PDU.GET, pdu.getType()));
+        }
+        assertEquals(3, handler.getStatistics().getCount());
+    }
+
+    @Test
+    public void testVersion2cIsPolledWithBulk() {
+        setup("v2c");
+
+        verifyAllChannelsUpdated();
+        synchronized (agent) {
+            // three GETBULK requests for the columns, one GET for the rest
+            assertEquals(4, agent.requests.size());
+            assertEquals(3, agent.requests.stream().filter(pdu -> pdu.getType() == PDU.GETBULK).count());
+        }
+    }
+
+    @Test
+    public void testRequestsAreSplitIfResponseIsTooBig() {
+        agent.maxVariables = 20;
+        setup("v2c");
+
+        verifyAllChannelsUpdated();
+        synchronized (agent) {
+            assertTrue(agent.requests.stream().anyMatch(pdu -> pdu.getType() == PDU.GETBULK));
+            assertTrue(agent.requests.stream().allMatch(
+                    pdu -> SnmpRequestPlanner.getRequestedOids(pdu).size() <= 20 || agent.tooBig.contains(pdu)));
+        }
+    }
+
+    /**
+     * Answers requests like an agent with the given values, responses with more than the given number of variables
+     * are too big
+     */
+    private static class AgentStandIn implements SnmpService {
+        private final TreeMap<OID, Variable> values = new TreeMap<>();
+        private final List<PDU> requests = new ArrayList<>();
+        private final List<PDU> tooBig = new ArrayList<>();
+        private int maxVariables = Integer.MAX_VALUE;
+
+        @Override
+        public void addCommandResponder(CommandResponder listener) {
+        }
+
+        @Override
+        public void removeCommandResponder(CommandResponder listener) {
+        }
+
+        @Override
+        public void send(PDU pdu, Target target, @Nullable Object userHandle, ResponseListener listener) {
+            PDU response = new PDU();
+            response.setType(PDU.RESPONSE);
+            synchronized (this) {
+                requests.add(pdu);
+                if (pdu.getType() == PDU.GETBULK) {
+                    for (int i = 0; i < pdu.getMaxRepetitions(); i++) {
+                        for (int j = 0; j < pdu.size(); j++) {
+                            OID previous = i == 0 ? pdu.get(j).getOid()
+                                    : response.get(response.size() - pdu.size()).getOid();
+                            OID next = values.higherKey(previous);
+                            response.add(next == null ? new VariableBinding(previous, Null.endOfMibView)
+                                    : new VariableBinding(next, values.get(next)));
+                        }
+                    }
+                } else {
+                    for (VariableBinding variable : pdu.getVariableBindings()) {
+                        Variable value = values.get(variable.getOid());
+                        response.add(new VariableBinding(variable.getOid(),
+                                value == null ? Null.noSuchInstance : value));
+                    }
+                }
+                if (response.size() > maxVariables) {
+                    tooBig.add(pdu);
+                    response = new PDU(PDU.RESPONSE, pdu.getVariableBindings());
+                    response.setErrorStatus(PDU.tooBig);
+                }
+            }
+            listener.onResponse(new ResponseEvent(this, null, pdu, response, null));
+        }
+    }
+}
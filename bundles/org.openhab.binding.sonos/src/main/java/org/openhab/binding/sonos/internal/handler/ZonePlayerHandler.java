@@ -29,6 +29,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -183,6 +184,8 @@ public class ZonePlayerHandler extends BaseThingHandler implements UpnpIOPartici
     private final Object jobLock = new Object();
 
     private final Map<String, String> stateMap = Collections.synchronizedMap(new HashMap<>());
+    // the last LastChange document of each service, as these share the single LastChange entry of the state map
+    private final Map<String, String> lastChangeMap = new ConcurrentHashMap<>();
 
     private @Nullable ScheduledFuture<?> pollingJob;
     private @Nullable SonosZonePlayerState savedState;
@@ -485,6 +488,12 @@ public class ZonePlayerHandler extends BaseThingHandler implements UpnpIOPartici
                 return;
             }
 
+            if (isUnchangedLastChange(variable, value, service)) {
+                logger.trace("Ignoring unchanged LastChange of service '{}' for thing '{}'", service,
+                        getThing().getUID());
+                return;
+            }
+
             this.stateMap.put(variable, value);
 
             // pre-process some variables, eg XML processing
@@ -1066,6 +1075,19 @@ public class ZonePlayerHandler extends BaseThingHandler implements UpnpIOPartici
         return "LastChange".equals(variable);
     }
 
+    /**
+     * Players resend their full AVTransport and RenderingControl state on every subscription renewal and for changes
+     * of other group members. Such a LastChange does not need to be parsed again if it is the same as the last one of
+     * the service.
+     */
+    private boolean isUnchangedLastChange(String variable, String value, String service) {
+        if (!"LastChange".equals(variable)
+                || !(SERVICE_AV_TRANSPORT.equals(service) || SERVICE_RENDERING_CONTROL.equals(service))) {
+            return false;
+        }
+        return value.equals(lastChangeMap.put(service, value));
+    }
+
     private void updateGroupCoordinator() {
         try {
             coordinatorHandler = getHandlerByName(getCoordinator());
@@ -1087,6 +1109,8 @@ public class ZonePlayerHandler extends BaseThingHandler implements UpnpIOPartici
                     Boolean state = subscriptionState.get(subscription);
                     if (state == null || !state) {
                         logger.debug("{}: Subscribing to service {}...", getUDN(), subscription);
+                        // the state sent with a new subscription has to be processed in full
+                        lastChangeMap.remove(subscription);
                         service.addSubscription(this, subscription, SUBSCRIPTION_DURATION);
                         subscriptionState.put(subscription, true);
                     }
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.sonos.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the reuse of readers and the sharing of the zone group topology by the {@link SonosXMLParser}.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class SonosXMLParserTest {
+
+    private static final String DIDL_NAMESPACES = "xmlns=\"urn:schemas-upnp-org:metadata-1-0/DIDL-Lite/\" "
+            + "xmlns:dc=\"http://purl.org/dc/elements/1.1/\" xmlns:upnp=\"urn:schemas-upnp-org:metadata-1-0/upnp/\" "
+            + "xmlns:r=\"urn:schemas-rinconnetworks-com:metadata-1-0/\"";
+
+    private static String favorite(String id, String title) {
+        String resourceMetaData = "<DIDL-Lite " + DIDL_NAMESPACES + "><item id=\"" + id
+                + "\" parentID=\"FV:2\"><dc:title>" + title
+                + "</dc:title><upnp:class>object.item.audioItem.audioBroadcast</upnp:class>"
+                + "<desc id=\"cdudn\">SA_RINCON65031_</desc></item></DIDL-Lite>";
+        return "<item id=\"FV:2/" + id + "\" parentID=\"FV:2\"><dc:title>" + title + "</dc:title>"
+                + "<upnp:class>object.itemobject.item.sonos-favorite</upnp:class><r:resMD>"
+                + resourceMetaData.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                + "</r:resMD></item>";
+    }
+
+    private static String zoneGroupState(String zoneName) {
+        return "<ZoneGroupState><ZoneGroups><ZoneGroup Coordinator=\"RINCON_000E58A0000001400\" "
+                + "ID=\"RINCON_000E58A0000001400:1\"><ZoneGroupMember UUID=\"RINCON_000E58A0000001400\" ZoneName=\""
+                + zoneName + "\"/></ZoneGroup></ZoneGroups></ZoneGroupState>";
+    }
+
+    @Test
+    public void testNestedParseUsesOwnReader() {
+        String xml = "<DIDL-Lite " + DIDL_NAMESPACES + ">" + favorite("radio1", "Radio 1")
+                + favorite("radio2", "Radio 2") + "</DIDL-Lite>";
+
+        // the resource meta data of each entry is parsed while the outer document is still being parsed
+        List<SonosEntry> entries = SonosXMLParser.getEntriesFromString(xml);
+
+        assertEquals(2, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            SonosEntry entry = entries.get(i);
+            assertEquals("Radio " + (i + 1), entry.getTitle());
+            SonosResourceMetaData metaData = Objects.requireNonNull(entry.getResourceMetaData());
+            assertEquals("radio" + (i + 1), metaData.getId());
+            assertEquals("Radio " + (i + 1), metaData.getTitle());
+            assertEquals("SA_RINCON65031_", metaData.getDesc());
+        }
+
+        // the reader is returned to the pool after the nested parse and still usable
+        assertEquals(entries.size(), SonosXMLParser.getEntriesFromString(xml).size());
+    }
+
+    @Test
+    public void testReaderIsReusableAfterParseError() {
+        assertEquals(Map.of(), SonosXMLParser.getRenderingControlFromXML("<Event><InstanceID val=\"0\">"));
+
+        Map<String, String> values = SonosXMLParser.getRenderingControlFromXML(
+                "<Event><InstanceID val=\"0\"><Volume channel=\"Master\" val=\"20\"/></InstanceID></Event>");
+
+        assertEquals(Map.of("VolumeMaster", "20"), values);
+    }
+
+    @Test
+    public void testZoneGroupTopologyIsShared() {
+        String xml = zoneGroupState("Kitchen");
+
+        List<SonosZoneGroup> groups = SonosXMLParser.getZoneGroupFromXML(xml);
+        assertEquals(1, groups.size());
+        assertEquals("RINCON_000E58A0000001400", groups.get(0).getCoordinator());
+        assertEquals(List.of("Kitchen"), groups.get(0).getMemberZoneNames());
+        assertThrows(UnsupportedOperationException.class, () -> groups.clear());
+
+        // all players of a household send the same topology, it is parsed once for all of them
+        assertSame(groups, SonosXMLParser.getZoneGroupFromXML(new String(xml)));
+    }
+
+    @Test
+    public void testChangedZoneGroupTopologyIsParsed() {
+        List<SonosZoneGroup> groups = SonosXMLParser.getZoneGroupFromXML(zoneGroupState("Living Room"));
+
+        List<SonosZoneGroup> changedGroups = SonosXMLParser.getZoneGroupFromXML(zoneGroupState("Bathroom"));
+
+        assertNotSame(groups, changedGroups);
+        assertEquals(List.of("Bathroom"), changedGroups.get(0).getMemberZoneNames());
+        assertSame(changedGroups, SonosXMLParser.getZoneGroupFromXML(zoneGroupState("Bathroom")));
+        // only the last topology is kept
+        assertNotSame(groups, SonosXMLParser.getZoneGroupFromXML(zoneGroupState("Living Room")));
+    }
+}
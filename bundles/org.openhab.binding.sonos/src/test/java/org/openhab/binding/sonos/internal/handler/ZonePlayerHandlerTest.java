@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.sonos.internal.handler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.sonos.internal.SonosBindingConstants;
+import org.openhab.binding.sonos.internal.SonosStateDescriptionOptionProvider;
+import org.openhab.binding.sonos.internal.config.ZonePlayerConfiguration;
+import org.openhab.core.config.core.Configuration;
+import org.openhab.core.io.transport.upnp.UpnpIOService;
+import org.openhab.core.thing.Thing;
+import org.openhab.core.thing.ThingRegistry;
+import org.openhab.core.thing.ThingStatus;
+import org.openhab.core.thing.ThingUID;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
+
+/**
+ * Tests the skipping of unchanged LastChange events by the {@link ZonePlayerHandler}.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class ZonePlayerHandlerTest {
+
+    private static final String UDN = "RINCON_000E58A0000001400";
+    private static final String RENDERING_CONTROL = "RenderingControl";
+    private static final String AV_TRANSPORT = "AVTransport";
+    private static final long TIMEOUT = 5000;
+
+    private final Thing thing = mock(Thing.class);
+    private final UpnpIOService upnpIOService = mock(UpnpIOService.class);
+    private @NonNullByDefault({}) ZonePlayerHandler handler;
+
+    private static String renderingControlLastChange(int volume) {
+        return "<Event xmlns=\"urn:schemas-upnp-org:metadata-1-0/RCS/\"><InstanceID val=\"0\">"
+                + "<Volume channel=\"Master\" val=\"" + volume + "\"/></InstanceID></Event>";
+    }
+
+    private static String avTransportLastChange(String playMode) {
+        return "<Event xmlns=\"urn:schemas-upnp-org:metadata-1-0/AVT/\"><InstanceID val=\"0\">"
+                + "<CurrentPlayMode val=\"" + playMode + "\"/></InstanceID></Event>";
+    }
+
+    @BeforeEach
+    public void setUp() {
+        when(thing.getUID()).thenReturn(new ThingUID(SonosBindingConstants.ONE_THING_TYPE_UID, "test"));
+        when(thing.getThingTypeUID()).thenReturn(SonosBindingConstants.ONE_THING_TYPE_UID);
+        when(thing.getStatus()).thenReturn(ThingStatus.ONLINE);
+        when(thing.getConfiguration()).thenReturn(new Configuration(Map.of(ZonePlayerConfiguration.UDN, UDN)));
+        when(thing.getProperties()).thenReturn(Map.of());
+        when(upnpIOService.isRegistered(any())).thenReturn(true);
+        when(upnpIOService.invokeAction(any(), any(), any(), any())).thenReturn(Map.of("SerialNumber", "1"));
+
+        handler = new ZonePlayerHandler(mock(ThingRegistry.class), thing, upnpIOService, null,
+                mock(SonosStateDescriptionOptionProvider.class));
+        handler.setCallback(mock(ThingHandlerCallback.class));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        handler.dispose();
+    }
+
+    @Test
+    public void testUnchangedLastChangeIsSkipped() {
+        handler.onValueReceived("LastChange", renderingControlLastChange(20), RENDERING_CONTROL);
+        assertEquals("20", handler.getVolume());
+
+        // e.g. the result of a GetVolume action
+        handler.onValueReceived("VolumeMaster", "30", RENDERING_CONTROL);
+        assertEquals("30", handler.getVolume());
+
+        // the same LastChange is not parsed again
+        handler.onValueReceived("LastChange", renderingControlLastChange(20), RENDERING_CONTROL);
+        assertEquals("30", handler.getVolume());
+
+        handler.onValueReceived("LastChange", renderingControlLastChange(25), RENDERING_CONTROL);
+        assertEquals("25", handler.getVolume());
+    }
+
+    @Test
+    public void testLastChangeIsComparedPerService() {
+        handler.onValueReceived("LastChange", avTransportLastChange("SHUFFLE"), AV_TRANSPORT);
+        assertTrue(handler.isShuffleActive());
+        handler.onValueReceived("LastChange", renderingControlLastChange(20), RENDERING_CONTROL);
+
+        handler.onValueReceived("CurrentPlayMode", "NORMAL", AV_TRANSPORT);
+        assertFalse(handler.isShuffleActive());
+
+        // the LastChange of the other service does not replace the last one of the AVTransport
+        handler.onValueReceived("LastChange", avTransportLastChange("SHUFFLE"), AV_TRANSPORT);
+        assertFalse(handler.isShuffleActive());
+    }
+
+    @Test
+    public void testLastChangeIsParsedAfterResubscription() {
+        handler.onValueReceived("LastChange", renderingControlLastChange(20), RENDERING_CONTROL);
+        handler.onValueReceived("VolumeMaster", "30", RENDERING_CONTROL);
+
+        // the poll subscribes to all services
+        handler.initialize();
+        verify(upnpIOService, timeout(TIMEOUT)).addSubscription(eq(handler), eq(RENDERING_CONTROL), anyInt());
+
+        // the state sent with the new subscription is processed in full, even if it did not change
+        handler.onValueReceived("LastChange", renderingControlLastChange(20), RENDERING_CONTROL);
+        assertEquals("20", handler.getVolume());
+    }
+}
@@ -51,6 +51,7 @@ import org.slf4j.LoggerFactory;
  * @author Svilen Valkanov - Initial contribution
  * @author Lyubomir Papzov - Separate the creation of the systeminfo object and its initialization
  * @author Wouter Born - Add null annotations
+ * @author Michal Boronski - Refresh the system information once per update cycle
  */
 @NonNullByDefault
 public class SysteminfoHandler extends BaseThingHandler {
@@ -237,6 +238,8 @@ public class SysteminfoHandler extends BaseThingHandler {
     }
 
     private void publishData(Set<ChannelUID> channels) {
+        // Query the system once per cycle, all channels are served from the same snapshot
+        systeminfo.refresh();
         Iterator<ChannelUID> iter = channels.iterator();
         while (iter.hasNext()) {
             ChannelUID channeUID = iter.next();
@@ -520,6 +523,7 @@ public class SysteminfoHandler extends BaseThingHandler {
         if (thing.getStatus().equals(ThingStatus.ONLINE)) {
             if (command instanceof RefreshType) {
                 logger.debug("Refresh command received for channel {}!", channelUID);
+                systeminfo.refresh();
                 publishDataForChannel(channelUID);
             } else {
                 logger.debug("Unsupported command {}! Supported commands: REFRESH", command);
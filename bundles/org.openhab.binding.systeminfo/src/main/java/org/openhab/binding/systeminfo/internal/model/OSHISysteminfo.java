@@ -15,6 +15,11 @@ package org.openhab.binding.systeminfo.internal.model;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -49,6 +54,7 @@ import oshi.util.EdidUtil;
  * @author Christoph Weitkamp - Update to OSHI 3.13.0 - Replaced deprecated method
  *         CentralProcessor#getSystemSerialNumber()
  * @author Wouter Born - Update to OSHI 4.0.0 and add null annotations
+ * @author Michal Boronski - Read dynamic values once per refresh cycle from a shared snapshot
  *
  * @see <a href="https://github.com/oshi/oshi">OSHI GitHub repository</a>
  */
@@ -76,6 +82,94 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     public static final int PRECISION_AFTER_DECIMAL_SIGN = 1;
 
+    /**
+     * Refreshes requested within this time reuse the current snapshot, e.g. when several things or the high and medium
+     * priority channels are refreshed at the same time.
+     */
+    static final long MIN_SNAPSHOT_AGE_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private volatile Snapshot snapshot = new Snapshot();
+
+    /**
+     * Dynamic system information taken at one point in time. Each value is read from the system on first access and
+     * then kept for the lifetime of the snapshot, so devices and processes not linked to any channel are never queried
+     * and all channels of the same device share a single query.
+     */
+    private static class Snapshot {
+        private final long timestamp = System.nanoTime();
+        private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+        @SuppressWarnings("unchecked")
+        private <T> T get(String key, Supplier<T> supplier) {
+            return (T) values.computeIfAbsent(key, k -> supplier.get());
+        }
+    }
+
+    private static class MemoryValues {
+        private final long total;
+        private final long available;
+        private final long swapTotal;
+        private final long swapUsed;
+
+        private MemoryValues(GlobalMemory memory) {
+            total = memory.getTotal();
+            available = memory.getAvailable();
+            swapTotal = memory.getVirtualMemory().getSwapTotal();
+            swapUsed = memory.getVirtualMemory().getSwapUsed();
+        }
+    }
+
+    private static class SensorValues {
+        private final double cpuTemperature;
+        private final double cpuVoltage;
+        private final int[] fanSpeeds;
+
+        private SensorValues(Sensors sensors) {
+            cpuTemperature = sensors.getCpuTemperature();
+            cpuVoltage = sensors.getCpuVoltage();
+            fanSpeeds = sensors.getFanSpeeds();
+        }
+    }
+
+    private static class StorageValues {
+        private final long totalSpace;
+        private final long usableSpace;
+
+        private StorageValues(OSFileStore fileStore) {
+            fileStore.updateAttributes();
+            totalSpace = fileStore.getTotalSpace();
+            usableSpace = fileStore.getUsableSpace();
+        }
+    }
+
+    private static class NetworkValues {
+        private final String[] ipv4addr;
+        private final long packetsRecv;
+        private final long packetsSent;
+        private final long bytesRecv;
+        private final long bytesSent;
+
+        private NetworkValues(NetworkIF network) {
+            network.updateAttributes();
+            ipv4addr = network.getIPv4addr();
+            packetsRecv = network.getPacketsRecv();
+            packetsSent = network.getPacketsSent();
+            bytesRecv = network.getBytesRecv();
+            bytesSent = network.getBytesSent();
+        }
+    }
+
+    private static class BatteryValues {
+        private final double timeRemainingEstimated;
+        private final double remainingCapacityPercent;
+
+        private BatteryValues(PowerSource powerSource) {
+            powerSource.updateAttributes();
+            timeRemainingEstimated = powerSource.getTimeRemainingEstimated();
+            remainingCapacityPercent = powerSource.getRemainingCapacityPercent();
+        }
+    }
+
     /**
      * Some of the methods used in this constructor execute native code and require execute permissions
      *
@@ -88,7 +182,10 @@ public class OSHISysteminfo implements SysteminfoInterface {
     public void initializeSysteminfo() {
         logger.debug("OSHISysteminfo service starts initializing");
 
-        SystemInfo systemInfo = new SystemInfo();
+        initializeSysteminfo(new SystemInfo());
+    }
+
+    void initializeSysteminfo(SystemInfo systemInfo) {
         hal = systemInfo.getHardware();
 
         // Doesn't need regular update, they may be queried repeatedly
@@ -103,6 +200,14 @@ public class OSHISysteminfo implements SysteminfoInterface {
         fileStores = operatingSystem.getFileSystem().getFileStores();
         powerSources = hal.getPowerSources();
         drives = hal.getDiskStores();
+        snapshot = new Snapshot();
+    }
+
+    @Override
+    public void refresh() {
+        if (System.nanoTime() - snapshot.timestamp >= MIN_SNAPSHOT_AGE_NANOS) {
+            snapshot = new Snapshot();
+        }
     }
 
     private <T> T getDevice(List<@Nullable T> devices, int index) throws DeviceNotFoundException {
@@ -120,11 +225,35 @@ public class OSHISysteminfo implements SysteminfoInterface {
     }
 
     private OSProcess getProcess(int pid) throws DeviceNotFoundException {
-        OSProcess process = operatingSystem.getProcess(pid);
-        if (process == null) {
+        Optional<OSProcess> process = snapshot.get("process" + pid,
+                () -> Optional.ofNullable(operatingSystem.getProcess(pid)));
+        if (process.isEmpty()) {
             throw new DeviceNotFoundException("Error while getting information for process with PID " + pid);
         }
-        return process;
+        return process.get();
+    }
+
+    private MemoryValues getMemoryValues() {
+        return snapshot.get("memory", () -> new MemoryValues(memory));
+    }
+
+    private SensorValues getSensorValues() {
+        return snapshot.get("sensors", () -> new SensorValues(sensors));
+    }
+
+    private StorageValues getStorageValues(int index) throws DeviceNotFoundException {
+        OSFileStore fileStore = getDevice(fileStores, index);
+        return snapshot.get("storage" + index, () -> new StorageValues(fileStore));
+    }
+
+    private NetworkValues getNetworkValues(int index) throws DeviceNotFoundException {
+        NetworkIF network = getDevice(networks, index);
+        return snapshot.get("network" + index, () -> new NetworkValues(network));
+    }
+
+    private BatteryValues getBatteryValues(int index) throws DeviceNotFoundException {
+        PowerSource powerSource = getDevice(powerSources, index);
+        return snapshot.get("battery" + index, () -> new BatteryValues(powerSource));
     }
 
     @Override
@@ -180,22 +309,23 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getMemoryTotal() {
-        long totalMemory = memory.getTotal();
+        long totalMemory = getMemoryValues().total;
         totalMemory = getSizeInMB(totalMemory);
         return new DecimalType(totalMemory);
     }
 
     @Override
     public DecimalType getMemoryAvailable() {
-        long availableMemory = memory.getAvailable();
+        long availableMemory = getMemoryValues().available;
         availableMemory = getSizeInMB(availableMemory);
         return new DecimalType(availableMemory);
     }
 
     @Override
     public DecimalType getMemoryUsed() {
-        long totalMemory = memory.getTotal();
-        long availableMemory = memory.getAvailable();
+        MemoryValues memoryValues = getMemoryValues();
+        long totalMemory = memoryValues.total;
+        long availableMemory = memoryValues.available;
         long usedMemory = totalMemory - availableMemory;
         usedMemory = getSizeInMB(usedMemory);
         return new DecimalType(usedMemory);
@@ -203,28 +333,23 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getStorageTotal(int index) throws DeviceNotFoundException {
-        OSFileStore fileStore = getDevice(fileStores, index);
-        fileStore.updateAttributes();
-        long totalSpace = fileStore.getTotalSpace();
+        long totalSpace = getStorageValues(index).totalSpace;
         totalSpace = getSizeInMB(totalSpace);
         return new DecimalType(totalSpace);
     }
 
     @Override
     public DecimalType getStorageAvailable(int index) throws DeviceNotFoundException {
-        OSFileStore fileStore = getDevice(fileStores, index);
-        fileStore.updateAttributes();
-        long freeSpace = fileStore.getUsableSpace();
+        long freeSpace = getStorageValues(index).usableSpace;
         freeSpace = getSizeInMB(freeSpace);
         return new DecimalType(freeSpace);
     }
 
     @Override
     public DecimalType getStorageUsed(int index) throws DeviceNotFoundException {
-        OSFileStore fileStore = getDevice(fileStores, index);
-        fileStore.updateAttributes();
-        long totalSpace = fileStore.getTotalSpace();
-        long freeSpace = fileStore.getUsableSpace();
+        StorageValues storageValues = getStorageValues(index);
+        long totalSpace = storageValues.totalSpace;
+        long freeSpace = storageValues.usableSpace;
         long usedSpace = totalSpace - freeSpace;
         usedSpace = getSizeInMB(usedSpace);
         return new DecimalType(usedSpace);
@@ -232,10 +357,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getStorageAvailablePercent(int deviceIndex) throws DeviceNotFoundException {
-        OSFileStore fileStore = getDevice(fileStores, deviceIndex);
-        fileStore.updateAttributes();
-        long totalSpace = fileStore.getTotalSpace();
-        long freeSpace = fileStore.getUsableSpace();
+        StorageValues storageValues = getStorageValues(deviceIndex);
+        long totalSpace = storageValues.totalSpace;
+        long freeSpace = storageValues.usableSpace;
         if (totalSpace > 0) {
             double freePercentDecimal = (double) freeSpace / (double) totalSpace;
             BigDecimal freePercent = getPercentsValue(freePercentDecimal);
@@ -247,10 +371,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getStorageUsedPercent(int deviceIndex) throws DeviceNotFoundException {
-        OSFileStore fileStore = getDevice(fileStores, deviceIndex);
-        fileStore.updateAttributes();
-        long totalSpace = fileStore.getTotalSpace();
-        long freeSpace = fileStore.getUsableSpace();
+        StorageValues storageValues = getStorageValues(deviceIndex);
+        long totalSpace = storageValues.totalSpace;
+        long freeSpace = storageValues.usableSpace;
         long usedSpace = totalSpace - freeSpace;
         if (totalSpace > 0) {
             double usedPercentDecimal = (double) usedSpace / (double) totalSpace;
@@ -284,9 +407,7 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public StringType getNetworkIp(int index) throws DeviceNotFoundException {
-        NetworkIF netInterface = getDevice(networks, index);
-        netInterface.updateAttributes();
-        String[] ipAddresses = netInterface.getIPv4addr();
+        String[] ipAddresses = getNetworkValues(index).ipv4addr;
         String ipv4 = getDevice(ipAddresses, 0);
         return new StringType(ipv4);
     }
@@ -323,21 +444,21 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getSensorsCpuTemperature() {
-        BigDecimal cpuTemp = new BigDecimal(sensors.getCpuTemperature());
+        BigDecimal cpuTemp = new BigDecimal(getSensorValues().cpuTemperature);
         cpuTemp = cpuTemp.setScale(PRECISION_AFTER_DECIMAL_SIGN, RoundingMode.HALF_UP);
         return cpuTemp.signum() == 1 ? new DecimalType(cpuTemp) : null;
     }
 
     @Override
     public @Nullable DecimalType getSensorsCpuVoltage() {
-        BigDecimal cpuVoltage = new BigDecimal(sensors.getCpuVoltage());
+        BigDecimal cpuVoltage = new BigDecimal(getSensorValues().cpuVoltage);
         cpuVoltage = cpuVoltage.setScale(PRECISION_AFTER_DECIMAL_SIGN, RoundingMode.HALF_UP);
         return cpuVoltage.signum() == 1 ? new DecimalType(cpuVoltage) : null;
     }
 
     @Override
     public @Nullable DecimalType getSensorsFanSpeed(int index) throws DeviceNotFoundException {
-        int[] fanSpeeds = sensors.getFanSpeeds();
+        int[] fanSpeeds = getSensorValues().fanSpeeds;
         int speed = 0;// 0 means unable to measure speed
         if (index < fanSpeeds.length) {
             speed = fanSpeeds[index];
@@ -347,9 +468,7 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getBatteryRemainingTime(int index) throws DeviceNotFoundException {
-        PowerSource powerSource = getDevice(powerSources, index);
-        powerSource.updateAttributes();
-        double remainingTimeInSeconds = powerSource.getTimeRemainingEstimated();
+        double remainingTimeInSeconds = getBatteryValues(index).timeRemainingEstimated;
         // The getTimeRemaining() method returns (-1.0) if is calculating or (-2.0) if the time is unlimited.
         BigDecimal remainingTime = getTimeInMinutes(remainingTimeInSeconds);
         return remainingTime.signum() == 1 ? new DecimalType(remainingTime) : null;
@@ -357,9 +476,7 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getBatteryRemainingCapacity(int index) throws DeviceNotFoundException {
-        PowerSource powerSource = getDevice(powerSources, index);
-        powerSource.updateAttributes();
-        double remainingCapacity = powerSource.getRemainingCapacityPercent();
+        double remainingCapacity = getBatteryValues(index).remainingCapacityPercent;
         BigDecimal remainingCapacityPercents = getPercentsValue(remainingCapacity);
         return new DecimalType(remainingCapacityPercents);
     }
@@ -373,8 +490,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getMemoryAvailablePercent() {
-        long availableMemory = memory.getAvailable();
-        long totalMemory = memory.getTotal();
+        MemoryValues memoryValues = getMemoryValues();
+        long availableMemory = memoryValues.available;
+        long totalMemory = memoryValues.total;
         if (totalMemory > 0) {
             double freePercentDecimal = (double) availableMemory / (double) totalMemory;
             BigDecimal freePercent = getPercentsValue(freePercentDecimal);
@@ -386,8 +504,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getMemoryUsedPercent() {
-        long availableMemory = memory.getAvailable();
-        long totalMemory = memory.getTotal();
+        MemoryValues memoryValues = getMemoryValues();
+        long availableMemory = memoryValues.available;
+        long totalMemory = memoryValues.total;
         long usedMemory = totalMemory - availableMemory;
         if (totalMemory > 0) {
             double usedPercentDecimal = (double) usedMemory / (double) totalMemory;
@@ -421,15 +540,16 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getSwapTotal() {
-        long swapTotal = memory.getVirtualMemory().getSwapTotal();
+        long swapTotal = getMemoryValues().swapTotal;
         swapTotal = getSizeInMB(swapTotal);
         return new DecimalType(swapTotal);
     }
 
     @Override
     public @Nullable DecimalType getSwapAvailable() {
-        long swapTotal = memory.getVirtualMemory().getSwapTotal();
-        long swapUsed = memory.getVirtualMemory().getSwapUsed();
+        MemoryValues memoryValues = getMemoryValues();
+        long swapTotal = memoryValues.swapTotal;
+        long swapUsed = memoryValues.swapUsed;
         long swapAvailable = swapTotal - swapUsed;
         swapAvailable = getSizeInMB(swapAvailable);
         return new DecimalType(swapAvailable);
@@ -437,15 +557,16 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getSwapUsed() {
-        long swapUsed = memory.getVirtualMemory().getSwapUsed();
+        long swapUsed = getMemoryValues().swapUsed;
         swapUsed = getSizeInMB(swapUsed);
         return new DecimalType(swapUsed);
     }
 
     @Override
     public @Nullable DecimalType getSwapAvailablePercent() {
-        long swapTotal = memory.getVirtualMemory().getSwapTotal();
-        long swapUsed = memory.getVirtualMemory().getSwapUsed();
+        MemoryValues memoryValues = getMemoryValues();
+        long swapTotal = memoryValues.swapTotal;
+        long swapUsed = memoryValues.swapUsed;
         long swapAvailable = swapTotal - swapUsed;
         if (swapTotal > 0) {
             double swapAvailablePercentDecimal = (double) swapAvailable / (double) swapTotal;
@@ -458,8 +579,9 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public @Nullable DecimalType getSwapUsedPercent() {
-        long swapTotal = memory.getVirtualMemory().getSwapTotal();
-        long swapUsed = memory.getVirtualMemory().getSwapUsed();
+        MemoryValues memoryValues = getMemoryValues();
+        long swapTotal = memoryValues.swapTotal;
+        long swapUsed = memoryValues.swapUsed;
         if (swapTotal > 0) {
             double swapUsedPercentDecimal = (double) swapUsed / (double) swapTotal;
             BigDecimal swapUsedPercent = getPercentsValue(swapUsedPercentDecimal);
@@ -534,7 +656,7 @@ public class OSHISysteminfo implements SysteminfoInterface {
             default:
                 index = 2;
         }
-        double processorLoads[] = cpu.getSystemLoadAverage(index + 1);
+        double processorLoads[] = snapshot.get("load", () -> cpu.getSystemLoadAverage(3));
         BigDecimal result = new BigDecimal(processorLoads[index]);
         result = result.setScale(PRECISION_AFTER_DECIMAL_SIGN, RoundingMode.HALF_UP);
         return result;
@@ -542,13 +664,13 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getCpuUptime() {
-        long seconds = operatingSystem.getSystemUptime();
+        long seconds = snapshot.get("uptime", () -> operatingSystem.getSystemUptime());
         return new DecimalType(getTimeInMinutes(seconds));
     }
 
     @Override
     public DecimalType getCpuThreads() {
-        int threadCount = operatingSystem.getThreadCount();
+        int threadCount = snapshot.get("threads", () -> operatingSystem.getThreadCount());
         return new DecimalType(threadCount);
     }
 
@@ -561,33 +683,25 @@ public class OSHISysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getNetworkPacketsReceived(int networkIndex) throws DeviceNotFoundException {
-        NetworkIF network = getDevice(networks, networkIndex);
-        network.updateAttributes();
-        long packRecv = network.getPacketsRecv();
+        long packRecv = getNetworkValues(networkIndex).packetsRecv;
         return new DecimalType(packRecv);
     }
 
     @Override
     public DecimalType getNetworkPacketsSent(int networkIndex) throws DeviceNotFoundException {
-        NetworkIF network = getDevice(networks, networkIndex);
-        network.updateAttributes();
-        long packSent = network.getPacketsSent();
+        long packSent = getNetworkValues(networkIndex).packetsSent;
         return new DecimalType(packSent);
     }
 
     @Override
     public DecimalType getNetworkDataSent(int networkIndex) throws DeviceNotFoundException {
-        NetworkIF network = getDevice(networks, networkIndex);
-        network.updateAttributes();
-        long bytesSent = network.getBytesSent();
+        long bytesSent = getNetworkValues(networkIndex).bytesSent;
         return new DecimalType(getSizeInMB(bytesSent));
     }
 
     @Override
     public DecimalType getNetworkDataReceived(int networkIndex) throws DeviceNotFoundException {
-        NetworkIF network = getDevice(networks, networkIndex);
-        network.updateAttributes();
-        long bytesRecv = network.getBytesRecv();
+        long bytesRecv = getNetworkValues(networkIndex).bytesRecv;
         return new DecimalType(getSizeInMB(bytesRecv));
     }
 
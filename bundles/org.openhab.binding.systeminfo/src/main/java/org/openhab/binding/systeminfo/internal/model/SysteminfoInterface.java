@@ -31,6 +31,14 @@ public interface SysteminfoInterface {
      */
     public void initializeSysteminfo();
 
+    /**
+     * Take a new snapshot of the dynamic system information (memory, CPU load, storage, network, processes and
+     * others). All getters return the values of the current snapshot, so the system is queried only once per refresh
+     * cycle, regardless of the number of channels. Refreshes requested shortly after each other, e.g. by several
+     * things, share the same snapshot.
+     */
+    public void refresh();
+
     // Operating system info
     /**
      * Get the Family of the operating system /e.g. Windows,Unix,.../
@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.systeminfo.internal.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.StringType;
+
+import oshi.SystemInfo;
+import oshi.hardware.HWDiskStore;
+import oshi.hardware.HardwareAbstractionLayer;
+import oshi.hardware.NetworkIF;
+import oshi.software.os.FileSystem;
+import oshi.software.os.OSFileStore;
+import oshi.software.os.OSProcess;
+import oshi.software.os.OperatingSystem;
+
+/**
+ * Tests the reading of dynamic values once per refresh cycle by the {@link OSHISysteminfo}.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class OSHISysteminfoTest {
+
+    private static final int PID = 42;
+    private static final long MB = 1024 * 1024;
+
+    private final SystemInfo systemInfo = mock(SystemInfo.class);
+    private final HardwareAbstractionLayer hal = mock(HardwareAbstractionLayer.class);
+    private final OperatingSystem operatingSystem = mock(OperatingSystem.class);
+    private final FileSystem fileSystem = mock(FileSystem.class);
+    private final OSProcess process = mock(OSProcess.class);
+    private final NetworkIF network = mock(NetworkIF.class);
+    private final OSFileStore fileStore = mock(OSFileStore.class);
+    private final HWDiskStore drive = mock(HWDiskStore.class);
+
+    private final OSHISysteminfo systeminfo = new OSHISysteminfo();
+
+    @BeforeEach
+    public void setUp() {
+        when(systemInfo.getHardware()).thenReturn(hal);
+        when(systemInfo.getOperatingSystem()).thenReturn(operatingSystem);
+        when(hal.getNetworkIFs()).thenReturn(List.of(network));
+        when(hal.getDisplays()).thenReturn(List.of());
+        when(hal.getPowerSources()).thenReturn(List.of());
+        when(hal.getDiskStores()).thenReturn(List.of(drive));
+        when(operatingSystem.getFileSystem()).thenReturn(fileSystem);
+        when(fileSystem.getFileStores()).thenReturn(List.of(fileStore));
+
+        when(operatingSystem.getProcess(PID)).thenReturn(process);
+        when(process.getName()).thenReturn("java");
+        when(process.getPath()).thenReturn("/usr/bin/java");
+        when(process.getKernelTime()).thenReturn(400L);
+        when(process.getUserTime()).thenReturn(600L);
+        when(process.getUpTime()).thenReturn(1000L);
+        when(process.getResidentSetSize()).thenReturn(64 * MB);
+        when(process.getThreadCount()).thenReturn(12);
+
+        when(network.getIPv4addr()).thenReturn(new String[] { "192.168.0.2" });
+        when(network.getPacketsRecv()).thenReturn(10L);
+        when(network.getPacketsSent()).thenReturn(20L);
+        when(network.getBytesRecv()).thenReturn(3 * MB);
+        when(network.getBytesSent()).thenReturn(4 * MB);
+
+        when(fileStore.getTotalSpace()).thenReturn(1000 * MB);
+        when(fileStore.getUsableSpace()).thenReturn(250 * MB);
+
+        when(drive.getName()).thenReturn("/dev/sda");
+
+        systeminfo.initializeSysteminfo(systemInfo);
+    }
+
+    private void readProcessChannels() throws DeviceNotFoundException {
+        assertEquals(new StringType("java"), systeminfo.getProcessName(PID));
+        assertEquals(new StringType("/usr/bin/java"), systeminfo.getProcessPath(PID));
+        assertEquals(new DecimalType(100), systeminfo.getProcessCpuUsage(PID));
+        assertEquals(new DecimalType(64), systeminfo.getProcessMemoryUsage(PID));
+        assertEquals(new DecimalType(12), systeminfo.getProcessThreads(PID));
+    }
+
+    private void readNetworkChannels() throws DeviceNotFoundException {
+        assertEquals(new StringType("192.168.0.2"), systeminfo.getNetworkIp(0));
+        assertEquals(new DecimalType(10), systeminfo.getNetworkPacketsReceived(0));
+        assertEquals(new DecimalType(20), systeminfo.getNetworkPacketsSent(0));
+        assertEquals(new DecimalType(3), systeminfo.getNetworkDataReceived(0));
+        assertEquals(new DecimalType(4), systeminfo.getNetworkDataSent(0));
+    }
+
+    private void readStorageChannels() throws DeviceNotFoundException {
+        assertEquals(new DecimalType(1000), systeminfo.getStorageTotal(0));
+        assertEquals(new DecimalType(250), systeminfo.getStorageAvailable(0));
+        assertEquals(new DecimalType(750), systeminfo.getStorageUsed(0));
+        assertEquals(new DecimalType(25), systeminfo.getStorageAvailablePercent(0));
+        assertEquals(new DecimalType(75), systeminfo.getStorageUsedPercent(0));
+    }
+
+    private void readAllChannels() throws DeviceNotFoundException {
+        readProcessChannels();
+        readNetworkChannels();
+        readStorageChannels();
+    }
+
+    private static void waitForSnapshotAge() throws InterruptedException {
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(OSHISysteminfo.MIN_SNAPSHOT_AGE_NANOS) + 50);
+    }
+
+    @Test
+    public void testChannelsAreServedFromOneSnapshot() throws DeviceNotFoundException {
+        readAllChannels();
+        readAllChannels();
+
+        verify(operatingSystem, times(1)).getProcess(PID);
+        verify(network, times(1)).updateAttributes();
+        verify(fileStore, times(1)).updateAttributes();
+    }
+
+    @Test
+    public void testDevicesWithoutChannelsAreNotQueried() throws DeviceNotFoundException {
+        readProcessChannels();
+
+        verify(network, never()).updateAttributes();
+        verify(fileStore, never()).updateAttributes();
+    }
+
+    @Test
+    public void testRefreshTakesNewSnapshot() throws DeviceNotFoundException, InterruptedException {
+        readAllChannels();
+        when(network.getPacketsRecv()).thenReturn(11L);
+        when(fileStore.getUsableSpace()).thenReturn(200 * MB);
+
+        // the values of the current snapshot are kept until the next refresh
+        assertEquals(new DecimalType(10), systeminfo.getNetworkPacketsReceived(0));
+        assertEquals(new DecimalType(250), systeminfo.getStorageAvailable(0));
+
+        waitForSnapshotAge();
+        systeminfo.refresh();
+        readProcessChannels();
+
+        assertEquals(new DecimalType(11), systeminfo.getNetworkPacketsReceived(0));
+        assertEquals(new DecimalType(200), systeminfo.getStorageAvailable(0));
+        verify(operatingSystem, times(2)).getProcess(PID);
+        verify(network, times(2)).updateAttributes();
+        verify(fileStore, times(2)).updateAttributes();
+    }
+
+    @Test
+    public void testRefreshWithinMinSnapshotAgeKeepsSnapshot() throws DeviceNotFoundException, InterruptedException {
+        waitForSnapshotAge();
+        systeminfo.refresh();
+        readAllChannels();
+
+        // e.g. the medium priority channels or another thing refreshed right after the high priority channels
+        systeminfo.refresh();
+        readAllChannels();
+
+        verify(operatingSystem, times(1)).getProcess(PID);
+        verify(network, times(1)).updateAttributes();
+        verify(fileStore, times(1)).updateAttributes();
+    }
+
+    @Test
+    public void testMissingProcessIsQueriedOncePerSnapshot() throws InterruptedException {
+        when(operatingSystem.getProcess(PID)).thenReturn(null);
+
+        assertThrows(DeviceNotFoundException.class, () -> systeminfo.getProcessName(PID));
+        assertThrows(DeviceNotFoundException.class, () -> systeminfo.getProcessThreads(PID));
+        verify(operatingSystem, times(1)).getProcess(PID);
+
+        when(operatingSystem.getProcess(PID)).thenReturn(process);
+        waitForSnapshotAge();
+        systeminfo.refresh();
+
+        assertDoesNotThrow(() -> readProcessChannels());
+        verify(operatingSystem, times(2)).getProcess(PID);
+    }
+
+    @Test
+    public void testStaticDeviceInformationIsReadFromInitialization() throws DeviceNotFoundException {
+        assertEquals(new StringType("/dev/sda"), systeminfo.getDriveName(0));
+        assertThrows(DeviceNotFoundException.class, () -> systeminfo.getDriveName(1));
+        assertThrows(DeviceNotFoundException.class, () -> systeminfo.getStorageTotal(1));
+
+        verify(hal, times(1)).getDiskStores();
+        verify(drive, never()).updateAttributes();
+    }
+}
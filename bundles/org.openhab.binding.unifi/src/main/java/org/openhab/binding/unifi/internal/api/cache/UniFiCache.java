@@ -12,10 +12,14 @@
  */
 package org.openhab.binding.unifi.internal.api.cache;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,7 +32,11 @@ import org.slf4j.LoggerFactory;
  * Objects are then retrieved simply by using the <code>suffix</code> key component and all combinations of
  * <code>prefix:suffix</code> are searched in the order of their priority.
  *
+ * A cache can be kept in sync with the controller using {@link #sync(Collection)}, which keeps the cached instances of
+ * values that can be updated in place.
+ *
  * @author Matthew Bowman - Initial contribution
+ * @author Michal Boronski - Incremental sync
  */
 public abstract class UniFiCache<T> {
 
@@ -52,6 +60,8 @@ public abstract class UniFiCache<T> {
 
     private Map<String, T> map = new HashMap<>();
 
+    private final Set<T> values = Collections.newSetFromMap(new IdentityHashMap<>());
+
     private String[] prefixes;
 
     protected UniFiCache(String... prefixes) {
@@ -62,8 +72,8 @@ public abstract class UniFiCache<T> {
         T value = null;
         for (String prefix : prefixes) {
             String key = prefix + SEPARATOR + id;
-            if (map.containsKey(key)) {
-                value = map.get(key);
+            value = map.get(key);
+            if (value != null) {
                 logger.trace("Cache HIT : '{}' -> {}", key, value);
                 break;
             } else {
@@ -81,14 +91,94 @@ public abstract class UniFiCache<T> {
                 map.put(key, value);
             }
         }
+        values.add(value);
     }
 
     public final void putAll(UniFiCache<T> cache) {
         map.putAll(cache.map);
+        values.addAll(cache.values);
     }
 
     public final Collection<T> values() {
-        return map.values().stream().distinct().collect(Collectors.toList());
+        return new ArrayList<>(values);
+    }
+
+    /**
+     * Synchronizes the cache with the current state of the controller. A new value with the key of a cached value, i.e.
+     * its suffix for the first prefix, may be merged into the cached one by {@link #update(Object, Object)}, so the
+     * cached instance is kept. All other new values are added and all other cached values are removed, including values
+     * added with {@link #put(Object)}.
+     *
+     * @param newValues all values of the controller
+     * @return the removed values
+     */
+    public final List<T> sync(Collection<T> newValues) {
+        Map<String, T> cachedByKey = new HashMap<>();
+        for (T value : values) {
+            String key = getSuffix(value, prefixes[0]);
+            if (key != null && !key.isBlank()) {
+                cachedByKey.putIfAbsent(key, value);
+            }
+        }
+        Set<T> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<T> added = new ArrayList<>();
+        for (T value : newValues) {
+            String key = getSuffix(value, prefixes[0]);
+            T cached = key == null || key.isBlank() ? null : cachedByKey.remove(key);
+            if (cached != null && update(cached, value)) {
+                kept.add(cached);
+            } else {
+                added.add(value);
+            }
+        }
+
+        List<T> removed = new ArrayList<>();
+        for (T value : values) {
+            if (!kept.contains(value)) {
+                removed.add(value);
+            }
+        }
+        for (T value : removed) {
+            remove(value);
+        }
+        if (!removed.isEmpty()) {
+            // a removed value may have shared a key with a kept one
+            values.forEach(this::putIfAbsent);
+        }
+        added.forEach(this::put);
+        logger.trace("Cache SYNC : {} value(s), {} updated, {} added, {} removed", newValues.size(), kept.size(),
+                added.size(), removed.size());
+        return removed;
+    }
+
+    /**
+     * Merges a new value into the cached value with the same key. Only values whose keys did not change can be merged.
+     *
+     * @param cached the cached value
+     * @param value the new value with the same key
+     * @return true if the cached value was updated, false if it must be replaced by the new value
+     */
+    protected boolean update(T cached, T value) {
+        return false;
+    }
+
+    private void remove(T value) {
+        for (String prefix : prefixes) {
+            String suffix = getSuffix(value, prefix);
+            if (suffix != null && !suffix.isBlank()) {
+                map.remove(prefix + SEPARATOR + suffix, value);
+            }
+        }
+        values.remove(value);
+    }
+
+    private void putIfAbsent(T value) {
+        for (String prefix : prefixes) {
+            String suffix = getSuffix(value, prefix);
+            if (suffix != null && !suffix.isBlank()) {
+                map.putIfAbsent(prefix + SEPARATOR + suffix, value);
+            }
+        }
     }
 
     protected abstract String getSuffix(T value, String prefix);
@@ -21,7 +21,10 @@ import org.openhab.binding.unifi.internal.api.model.UniFiClient;
  * The cache uses the following prefixes: <code>mac</code>, <code>ip</code>, <code>hostname</code>, and
  * <code>alias</code>
  *
+ * On a sync, cached clients are kept if only their uptime, last seen time or signal strength changed.
+ *
  * @author Matthew Bowman - Initial contribution
+ * @author Michal Boronski - Update clients in place
  */
 public class UniFiClientCache extends UniFiCache<UniFiClient> {
 
@@ -43,4 +46,9 @@ public class UniFiClientCache extends UniFiCache<UniFiClient> {
         }
         return null;
     }
+
+    @Override
+    protected boolean update(UniFiClient cached, UniFiClient client) {
+        return cached.update(client);
+    }
 }
@@ -13,6 +13,7 @@
 package org.openhab.binding.unifi.internal.api.model;
 
 import java.util.Calendar;
+import java.util.Objects;
 
 import org.openhab.binding.unifi.internal.api.UniFiException;
 import org.openhab.binding.unifi.internal.api.util.UniFiTidyLowerCaseStringDeserializer;
@@ -26,6 +27,7 @@ import com.google.gson.annotations.SerializedName;
  *
  * @author Matthew Bowman - Initial contribution
  * @author Patrik Wimnell - Blocking / Unblocking client support
+ * @author Michal Boronski - Update in place
  */
 public abstract class UniFiClient {
 
@@ -48,10 +50,11 @@ public abstract class UniFiClient {
     @JsonAdapter(UniFiTidyLowerCaseStringDeserializer.class)
     protected String alias;
 
-    protected Integer uptime;
+    // uptime and lastSeen change on every refresh and are updated in place, see update(UniFiClient)
+    protected volatile Integer uptime;
 
     @JsonAdapter(UniFiTimestampDeserializer.class)
-    protected Calendar lastSeen;
+    protected volatile Calendar lastSeen;
 
     protected boolean blocked;
 
@@ -107,6 +110,46 @@ public abstract class UniFiClient {
         return controller.getDevice(getDeviceMac());
     }
 
+    /**
+     * Updates this client with the state of the same client reported by a later refresh, if only its uptime, last seen
+     * time or other constantly changing values differ.
+     *
+     * @param client the same client reported by a later refresh
+     * @return true if this client was updated, false if its state changed and it must be replaced
+     */
+    public final boolean update(UniFiClient client) {
+        if (getClass() != client.getClass() || !isSameState(client)) {
+            return false;
+        }
+        updateVolatileState(client);
+        return true;
+    }
+
+    /**
+     * Checks if the given client has the same state as this one, ignoring the values copied by
+     * {@link #updateVolatileState(UniFiClient)}. Values must not become null or non-null by such an update.
+     *
+     * @param client a client of the same class
+     * @return true if the client has the same state
+     */
+    protected boolean isSameState(UniFiClient client) {
+        return Objects.equals(id, client.id) && Objects.equals(siteId, client.siteId) && Objects.equals(mac, client.mac)
+                && Objects.equals(ip, client.ip) && Objects.equals(hostname, client.hostname)
+                && Objects.equals(alias, client.alias) && blocked == client.blocked
+                && Objects.equals(getDeviceMac(), client.getDeviceMac()) && (uptime == null) == (client.uptime == null)
+                && (lastSeen == null) == (client.lastSeen == null);
+    }
+
+    /**
+     * Copies the constantly changing values of the given client into this one.
+     *
+     * @param client a client of the same class with the same state
+     */
+    protected void updateVolatileState(UniFiClient client) {
+        uptime = client.uptime;
+        lastSeen = client.lastSeen;
+    }
+
     // Functional API
 
     public void block(boolean blocked) throws UniFiException {
@@ -12,7 +12,12 @@
  */
 package org.openhab.binding.unifi.internal.api.model;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -20,6 +25,7 @@ import org.eclipse.jetty.client.HttpClient;
 import org.openhab.binding.unifi.internal.api.UniFiException;
 import org.openhab.binding.unifi.internal.api.UniFiExpiredSessionException;
 import org.openhab.binding.unifi.internal.api.UniFiNotAuthorizedException;
+import org.openhab.binding.unifi.internal.api.cache.UniFiCache;
 import org.openhab.binding.unifi.internal.api.cache.UniFiClientCache;
 import org.openhab.binding.unifi.internal.api.cache.UniFiDeviceCache;
 import org.openhab.binding.unifi.internal.api.cache.UniFiSiteCache;
@@ -40,19 +46,28 @@ import com.google.gson.GsonBuilder;
  *
  * @author Matthew Bowman - Initial contribution
  * @author Patrik Wimnell - Blocking / Unblocking client support
+ * @author Michal Boronski - Incremental sync, refresh insights only periodically
  */
 @NonNullByDefault
 public class UniFiController {
 
+    /**
+     * Interval for refreshing the insights (all clients seen within the last days) from the controller. Between these
+     * refreshes, clients which went offline are taken from the previous active clients.
+     */
+    private static final long INSIGHTS_REFRESH_INTERVAL = TimeUnit.MINUTES.toMillis(5);
+
     private final Logger logger = LoggerFactory.getLogger(UniFiController.class);
 
-    private UniFiSiteCache sitesCache = new UniFiSiteCache();
+    private final UniFiSiteCache sitesCache = new UniFiSiteCache();
+
+    private final UniFiDeviceCache devicesCache = new UniFiDeviceCache();
 
-    private UniFiDeviceCache devicesCache = new UniFiDeviceCache();
+    private final UniFiClientCache clientsCache = new UniFiClientCache();
 
-    private UniFiClientCache clientsCache = new UniFiClientCache();
+    private final UniFiClientCache insightsCache = new UniFiClientCache();
 
-    private UniFiClientCache insightsCache = new UniFiClientCache();
+    private long insightsRefreshTime = 0;
 
     private final HttpClient httpClient;
 
@@ -133,13 +148,45 @@ public class UniFiController {
 
     public void refresh() throws UniFiException {
         synchronized (this) {
-            sitesCache = getSites();
-            devicesCache = getDevices();
-            clientsCache = getClients();
-            insightsCache = getInsights();
+            sync("Site", sitesCache, getSites());
+            sync("Device", devicesCache, getDevices());
+            List<UniFiClient> clients = getClients();
+            List<UniFiClient> insights = null;
+            long now = System.currentTimeMillis();
+            if (now - insightsRefreshTime >= INSIGHTS_REFRESH_INTERVAL) {
+                insights = getInsights();
+                insightsRefreshTime = now;
+            }
+            syncClients(clients, insights);
         }
     }
 
+    /**
+     * Synchronize the client caches with the clients reported by the controller.
+     *
+     * @param clients the active clients
+     * @param insights all clients seen within the last days, or null if they were not requested
+     */
+    synchronized void syncClients(List<UniFiClient> clients, @Nullable List<UniFiClient> insights) {
+        List<UniFiClient> removed = sync("Client", clientsCache, clients);
+        if (insights != null) {
+            sync("Insight", insightsCache, insights);
+        } else {
+            // the insights only change for clients going offline, their last active state is the latest one
+            for (UniFiClient client : removed) {
+                String mac = client.getMac();
+                if (mac != null && clientsCache.get(mac) == null) {
+                    insightsCache.put(client);
+                }
+            }
+        }
+    }
+
+    private <T> List<T> sync(String name, UniFiCache<T> cache, List<T> values) {
+        logger.debug("Found {} UniFi {}(s): {}", values.size(), name, lazyFormatAsList(values.toArray()));
+        return cache.sync(values);
+    }
+
     // Site API
 
     public @Nullable UniFiSite getSite(@Nullable String id) {
@@ -226,88 +273,48 @@ public class UniFiController {
         return result;
     }
 
-    private UniFiSiteCache getSites() throws UniFiException {
+    private List<UniFiSite> getSites() throws UniFiException {
         UniFiControllerRequest<UniFiSite[]> req = newRequest(UniFiSite[].class);
         req.setAPIPath("/api/self/sites");
-        UniFiSite[] sites = executeRequest(req);
-        UniFiSiteCache cache = new UniFiSiteCache();
-        if (sites != null) {
-            logger.debug("Found {} UniFi Site(s): {}", sites.length, lazyFormatAsList(sites));
-            for (UniFiSite site : sites) {
-                cache.put(site);
-            }
-        }
-        return cache;
+        return asList(executeRequest(req));
     }
 
-    private UniFiDeviceCache getDevices() throws UniFiException {
-        UniFiDeviceCache cache = new UniFiDeviceCache();
+    private List<UniFiDevice> getDevices() throws UniFiException {
+        List<UniFiDevice> devices = new ArrayList<>();
         Collection<UniFiSite> sites = sitesCache.values();
         for (UniFiSite site : sites) {
-            cache.putAll(getDevices(site));
-        }
-        return cache;
-    }
-
-    private UniFiDeviceCache getDevices(UniFiSite site) throws UniFiException {
-        UniFiControllerRequest<UniFiDevice[]> req = newRequest(UniFiDevice[].class);
-        req.setAPIPath("/api/s/" + site.getName() + "/stat/device");
-        UniFiDevice[] devices = executeRequest(req);
-        UniFiDeviceCache cache = new UniFiDeviceCache();
-        if (devices != null) {
-            logger.debug("Found {} UniFi Device(s): {}", devices.length, lazyFormatAsList(devices));
-            for (UniFiDevice device : devices) {
-                cache.put(device);
-            }
+            UniFiControllerRequest<UniFiDevice[]> req = newRequest(UniFiDevice[].class);
+            req.setAPIPath("/api/s/" + site.getName() + "/stat/device");
+            devices.addAll(asList(executeRequest(req)));
         }
-        return cache;
+        return devices;
     }
 
-    private UniFiClientCache getClients() throws UniFiException {
-        UniFiClientCache cache = new UniFiClientCache();
+    private List<UniFiClient> getClients() throws UniFiException {
+        List<UniFiClient> clients = new ArrayList<>();
         Collection<UniFiSite> sites = sitesCache.values();
         for (UniFiSite site : sites) {
-            cache.putAll(getClients(site));
+            UniFiControllerRequest<UniFiClient[]> req = newRequest(UniFiClient[].class);
+            req.setAPIPath("/api/s/" + site.getName() + "/stat/sta");
+            clients.addAll(asList(executeRequest(req)));
         }
-        return cache;
+        return clients;
     }
 
-    private UniFiClientCache getClients(UniFiSite site) throws UniFiException {
-        UniFiControllerRequest<UniFiClient[]> req = newRequest(UniFiClient[].class);
-        req.setAPIPath("/api/s/" + site.getName() + "/stat/sta");
-        UniFiClient[] clients = executeRequest(req);
-        UniFiClientCache cache = new UniFiClientCache();
-        if (clients != null) {
-            logger.debug("Found {} UniFi Client(s): {}", clients.length, lazyFormatAsList(clients));
-            for (UniFiClient client : clients) {
-                cache.put(client);
-            }
-        }
-        return cache;
-    }
-
-    private UniFiClientCache getInsights() throws UniFiException {
-        UniFiClientCache cache = new UniFiClientCache();
+    private List<UniFiClient> getInsights() throws UniFiException {
+        List<UniFiClient> clients = new ArrayList<>();
         Collection<UniFiSite> sites = sitesCache.values();
         for (UniFiSite site : sites) {
-            cache.putAll(getInsights(site));
+            UniFiControllerRequest<UniFiClient[]> req = newRequest(UniFiClient[].class);
+            req.setAPIPath("/api/s/" + site.getName() + "/stat/alluser");
+            req.setQueryParameter("within", 168); // scurb: Changed to 7 days.
+            clients.addAll(asList(executeRequest(req)));
         }
-        return cache;
+        return clients;
     }
 
-    private UniFiClientCache getInsights(UniFiSite site) throws UniFiException {
-        UniFiControllerRequest<UniFiClient[]> req = newRequest(UniFiClient[].class);
-        req.setAPIPath("/api/s/" + site.getName() + "/stat/alluser");
-        req.setQueryParameter("within", 168); // scurb: Changed to 7 days.
-        UniFiClient[] clients = executeRequest(req);
-        UniFiClientCache cache = new UniFiClientCache();
-        if (clients != null) {
-            logger.debug("Found {} UniFi Insights(s): {}", clients.length, lazyFormatAsList(clients));
-            for (UniFiClient client : clients) {
-                cache.put(client);
-            }
-        }
-        return cache;
+    private static <T> List<T> asList(T @Nullable [] values) {
+        return values == null ? Collections.emptyList() : Arrays.asList(values);
     }
 
     private static Object lazyFormatAsList(Object[] arr) {
@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.unifi.internal.api.model;
 
+import java.util.Objects;
+
 import org.openhab.binding.unifi.internal.api.util.UniFiTidyLowerCaseStringDeserializer;
 
 import com.google.gson.annotations.JsonAdapter;
@@ -22,6 +24,7 @@ import com.google.gson.annotations.JsonAdapter;
  * A wireless client is not physically connected to the network - typically it is connected via a Wi-Fi adapter.
  *
  * @author Matthew Bowman - Initial contribution
+ * @author Michal Boronski - Update in place
  */
 public class UniFiWirelessClient extends UniFiClient {
 
@@ -30,7 +33,7 @@ public class UniFiWirelessClient extends UniFiClient {
 
     private String essid;
 
-    private Integer rssi;
+    private volatile Integer rssi;
 
     public UniFiWirelessClient(UniFiController controller) {
         super(controller);
@@ -53,4 +56,17 @@ public class UniFiWirelessClient extends UniFiClient {
     public Integer getRssi() {
         return rssi;
     }
+
+    @Override
+    protected boolean isSameState(UniFiClient client) {
+        UniFiWirelessClient wirelessClient = (UniFiWirelessClient) client;
+        return super.isSameState(client) && Objects.equals(essid, wirelessClient.essid)
+                && (rssi == null) == (wirelessClient.rssi == null);
+    }
+
+    @Override
+    protected void updateVolatileState(UniFiClient client) {
+        super.updateVolatileState(client);
+        rssi = ((UniFiWirelessClient) client).rssi;
+    }
 }
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.unifi.internal.api.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jetty.client.HttpClient;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.unifi.internal.api.util.UniFiClientDeserializer;
+import org.openhab.binding.unifi.internal.api.util.UniFiClientInstanceCreator;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Tests the incremental sync of the caches of {@link UniFiController}.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class UniFiControllerTest {
+
+    private final UniFiController controller = new UniFiController(new HttpClient(), "localhost", 8443, "user",
+            "password", false);
+
+    private final Gson gson;
+
+    public UniFiControllerTest() {
+        UniFiClientInstanceCreator clientInstanceCreator = new UniFiClientInstanceCreator(controller);
+        gson = new GsonBuilder().setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+                .registerTypeAdapter(UniFiClient.class, new UniFiClientDeserializer())
+                .registerTypeAdapter(UniFiWiredClient.class, clientInstanceCreator)
+                .registerTypeAdapter(UniFiWirelessClient.class, clientInstanceCreator).create();
+    }
+
+    private UniFiClient client(String mac, String ip, int uptime) {
+        return gson.fromJson("{\"_id\":\"" + mac + "\",\"mac\":\"" + mac + "\",\"ip\":\"" + ip
+                + "\",\"hostname\":\"host-" + mac + "\",\"is_wired\":true,\"sw_mac\":\"00:00:00:00:00:01\","
+                + "\"uptime\":" + uptime + ",\"tx_bytes\":" + System.nanoTime() + "}", UniFiClient.class);
+    }
+
+    private UniFiClient wirelessClient(String mac, String apMac, int uptime, int lastSeen, int rssi) {
+        return gson.fromJson("{\"_id\":\"" + mac + "\",\"mac\":\"" + mac + "\",\"ip\":\"10.0.1.1\","
+                + "\"is_wired\":false,\"ap_mac\":\"" + apMac + "\",\"essid\":\"home\",\"uptime\":" + uptime
+                + ",\"last_seen\":" + lastSeen + ",\"rssi\":" + rssi + "}", UniFiClient.class);
+    }
+
+    private static List<UniFiClient> list(UniFiClient... clients) {
+        return Arrays.asList(clients);
+    }
+
+    @Test
+    public void testUnchangedClientsAreKept() {
+        controller.syncClients(list(client("aa", "10.0.0.1", 10), client("bb", "10.0.0.2", 10)),
+                Collections.emptyList());
+        UniFiClient a = controller.getClient("aa");
+        UniFiClient b = controller.getClient("bb");
+        assertNotNull(a);
+        assertNotNull(b);
+
+        // only the uptime changed for a, b has a new address
+        controller.syncClients(list(client("aa", "10.0.0.1", 20), client("bb", "10.0.0.3", 10)), null);
+
+        assertSame(a, controller.getClient("aa"));
+        assertEquals(20, a.getUptime());
+        UniFiClient newB = controller.getClient("bb");
+        assertNotNull(newB);
+        assertNotSame(b, newB);
+        assertEquals("10.0.0.3", newB.getIp());
+        assertSame(newB, controller.getClient("10.0.0.3"));
+        assertNull(controller.getClient("10.0.0.2"));
+    }
+
+    @Test
+    public void testOfflineClientsAreCopiedIntoInsights() {
+        controller.syncClients(list(client("aa", "10.0.0.1", 10), client("bb", "10.0.0.2", 10)),
+                list(client("cc", "10.0.0.4", 5)));
+        UniFiClient b = controller.getClient("bb");
+
+        // b goes offline between two refreshes of the insights
+        controller.syncClients(list(client("aa", "10.0.0.1", 20)), null);
+
+        assertSame(b, controller.getClient("bb"));
+        assertSame(b, controller.getClient("10.0.0.2"));
+        assertNotNull(controller.getClient("cc"));
+        assertNotNull(controller.getClient("aa"));
+
+        // the next refresh of the insights replaces the copies
+        controller.syncClients(list(client("aa", "10.0.0.1", 30)), list(client("cc", "10.0.0.4", 5)));
+
+        assertNull(controller.getClient("bb"));
+        assertNotNull(controller.getClient("cc"));
+    }
+
+    @Test
+    public void testClientsChangedWhileOnlineAreNotCopiedIntoInsights() {
+        controller.syncClients(list(client("aa", "10.0.0.1", 10)), Collections.emptyList());
+
+        controller.syncClients(list(client("aa", "10.0.0.1", 20)), null);
+        controller.syncClients(Collections.emptyList(), null);
+
+        // only the last state of the client is in the insights
+        UniFiClient a = controller.getClient("aa");
+        assertNotNull(a);
+        assertEquals(20, a.getUptime());
+    }
+
+    @Test
+    public void testRefreshWithOnlyVolatileChangesCreatesNoNewClients() {
+        controller.syncClients(list(wirelessClient("aa", "ap-1", 10, 1000, -60), client("bb", "10.0.0.2", 10)),
+                Collections.emptyList());
+        UniFiClient a = controller.getClient("aa");
+        UniFiClient b = controller.getClient("bb");
+        assertNotNull(a);
+        assertNotNull(b);
+
+        controller.syncClients(list(wirelessClient("aa", "ap-1", 20, 1010, -70), client("bb", "10.0.0.2", 20)),
+                list(wirelessClient("aa", "ap-1", 20, 1010, -70), client("bb", "10.0.0.2", 20)));
+
+        assertSame(a, controller.getClient("aa"));
+        assertSame(a, controller.getClient("10.0.1.1"));
+        assertSame(b, controller.getClient("bb"));
+        assertEquals(20, a.getUptime());
+        assertEquals(1010_000L, a.getLastSeen().getTimeInMillis());
+        assertEquals(-70, ((UniFiWirelessClient) a).getRssi());
+        assertEquals(20, b.getUptime());
+
+        // a roamed to another access point
+        controller.syncClients(list(wirelessClient("aa", "ap-2", 30, 1020, -50), client("bb", "10.0.0.2", 30)), null);
+
+        UniFiClient roamed = controller.getClient("aa");
+        assertNotNull(roamed);
+        assertNotSame(a, roamed);
+        assertSame(b, controller.getClient("bb"));
+    }
+}
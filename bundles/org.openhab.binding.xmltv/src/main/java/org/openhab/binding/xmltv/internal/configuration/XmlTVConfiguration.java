@@ -21,5 +21,6 @@ package org.openhab.binding.xmltv.internal.configuration;
 public class XmlTVConfiguration {
     public String filePath;
     public Integer refresh;
+    public Integer horizon = 48;
     public String encoding;
 }
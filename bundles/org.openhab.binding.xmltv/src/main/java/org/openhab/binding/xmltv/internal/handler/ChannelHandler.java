@@ -20,7 +20,6 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -56,6 +55,7 @@ import org.slf4j.LoggerFactory;
  * made available in regard of the channel and current program
  *
  * @author Gaël L'hopital - Initial contribution
+ * @author Michal Boronski - Programmes from the index of the bridge
  */
 @NonNullByDefault
 public class ChannelHandler extends BaseThingHandler {
@@ -105,17 +105,16 @@ public class ChannelHandler extends BaseThingHandler {
                     String channelId = (String) getConfig().get(XmlChannelConfiguration.CHANNEL_ID);
 
                     if (mediaChannel == null) {
-                        Optional<MediaChannel> channel = tv.getMediaChannels().stream()
-                                .filter(mediaChannel -> mediaChannel.getId().equals(channelId)).findFirst();
-                        if (channel.isPresent()) {
-                            mediaChannel = channel.get();
-                            mediaIcon = downloadIcon(mediaChannel.getIcons());
+                        MediaChannel channel = handler.getMediaChannel(channelId);
+                        if (channel != null) {
+                            mediaChannel = channel;
+                            mediaIcon = downloadIcon(channel.getIcons());
                         }
                     }
 
                     programmes.clear();
-                    tv.getProgrammes().stream().filter(
-                            p -> p.getChannel().equals(channelId) && p.getProgrammeStop().isAfter(Instant.now()))
+                    Instant now = Instant.now();
+                    handler.getProgrammes(channelId).stream().filter(p -> p.getProgrammeStop().isAfter(now))
                             .forEach(p -> programmes.add(p));
 
                     updateStatus(ThingStatus.ONLINE);
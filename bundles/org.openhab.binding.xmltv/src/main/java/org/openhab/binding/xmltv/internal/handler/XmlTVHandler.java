@@ -14,30 +14,45 @@ package org.openhab.binding.xmltv.internal.handler;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.adapters.CollapsedStringAdapter;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.xmltv.internal.configuration.XmlChannelConfiguration;
 import org.openhab.binding.xmltv.internal.configuration.XmlTVConfiguration;
+import org.openhab.binding.xmltv.internal.jaxb.MediaChannel;
 import org.openhab.binding.xmltv.internal.jaxb.Programme;
 import org.openhab.binding.xmltv.internal.jaxb.Tv;
 import org.openhab.core.thing.Bridge;
 import org.openhab.core.thing.ChannelUID;
+import org.openhab.core.thing.Thing;
 import org.openhab.core.thing.ThingStatus;
 import org.openhab.core.thing.ThingStatusDetail;
 import org.openhab.core.thing.binding.BaseBridgeHandler;
+import org.openhab.core.thing.binding.ThingHandler;
 import org.openhab.core.types.Command;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,15 +61,30 @@ import org.slf4j.LoggerFactory;
  * The {@link XmlTVHandler} is responsible for handling XMLTV file and dispatch
  * information made available to according Media Channels
  *
+ * The file is read as a stream: all channels are kept for the discovery, but only the programmes of channels having a
+ * thing and starting within the configured horizon are unmarshalled and kept, sorted by start for each channel. Channel
+ * ids of the file and of the things are compared after {@link #normalizeChannelId(String)}.
+ *
  * @author Gaël L'hopital - Initial contribution
+ * @author Michal Boronski - Streaming of the file with a programme index per channel
  */
 @NonNullByDefault
 public class XmlTVHandler extends BaseBridgeHandler {
+    private static final String ELEMENT_CHANNEL = "channel";
+    private static final String ELEMENT_PROGRAMME = "programme";
+    private static final String ATTRIBUTE_CHANNEL = "channel";
+    private static final String ATTRIBUTE_STOP = "stop";
+    private static final CollapsedStringAdapter CHANNEL_ID_ADAPTER = new CollapsedStringAdapter();
+
     private final Logger logger = LoggerFactory.getLogger(XmlTVHandler.class);
     private final XMLInputFactory xif = XMLInputFactory.newFactory();
     private final JAXBContext jc;
 
-    private @Nullable Tv currentXmlFile;
+    private volatile @Nullable Tv currentXmlFile;
+    private volatile Map<String, MediaChannel> mediaChannels = Map.of();
+    private volatile Map<String, List<Programme>> programmes = Map.of();
+    // The channels whose programmes were looked for by the last reload, even if none were found
+    private volatile Set<String> indexedChannelIds = Set.of();
     private @NonNullByDefault({}) ScheduledFuture<?> reloadJob;
 
     public XmlTVHandler(Bridge thing) throws JAXBException {
@@ -68,44 +98,163 @@ public class XmlTVHandler extends BaseBridgeHandler {
         XmlTVConfiguration config = getConfigAs(XmlTVConfiguration.class);
         logger.debug("Initializing {} for input file '{}'", getClass(), config.filePath);
 
-        reloadJob = scheduler.scheduleWithFixedDelay(() -> {
-            currentXmlFile = null;
-            XMLStreamReader xsr = null;
+        reloadJob = scheduler.scheduleWithFixedDelay(this::loadXmlFile, 0, config.refresh, TimeUnit.HOURS);
+    }
+
+    private synchronized void loadXmlFile() {
+        XmlTVConfiguration config = getConfigAs(XmlTVConfiguration.class);
+        currentXmlFile = null;
+        XMLStreamReader xsr = null;
+        // This can take some seconds depending upon weight of the XmlTV source file
+        try (InputStream stream = new FileInputStream(new File(config.filePath))) {
+            xsr = xif.createXMLStreamReader(stream, config.encoding);
+            Instant now = Instant.now();
+            Set<String> channelIds = getChannelIds();
+            Instant horizon = config.horizon > 0
+                    ? now.plus(Duration.ofHours(Math.max(config.horizon, 2L * config.refresh)))
+                    : Instant.MAX;
+
+            Tv xmlFile = new Tv();
+            Map<String, List<Programme>> channelProgrammes = new HashMap<>();
+            // Whether the file has any programme not yet finished
+            boolean upToDate = false;
             try {
-                // This can take some seconds depending upon weight of the XmlTV source file
-                xsr = xif.createXMLStreamReader(new FileInputStream(new File(config.filePath)), config.encoding);
-
-                try {
-                    Unmarshaller unmarshaller = jc.createUnmarshaller();
-                    Tv xmlFile = (Tv) unmarshaller.unmarshal(xsr);
-                    // Remove all finished programmes
-                    xmlFile.getProgrammes().removeIf(programme -> Instant.now().isAfter(programme.getProgrammeStop()));
-
-                    if (!xmlFile.getProgrammes().isEmpty()) {
-                        // Sort programmes by starting instant
-                        Collections.sort(xmlFile.getProgrammes(), Comparator.comparing(Programme::getProgrammeStart));
-                        // Ready to deliver data to ChannelHandlers
-                        currentXmlFile = xmlFile;
-                        updateStatus(ThingStatus.ONLINE);
-                    } else {
-                        updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.DISABLED, "XMLTV file seems outdated");
+                Unmarshaller unmarshaller = jc.createUnmarshaller();
+                int event = xsr.next();
+                while (event != XMLStreamConstants.END_DOCUMENT) {
+                    if (event == XMLStreamConstants.START_ELEMENT && ELEMENT_CHANNEL.equals(xsr.getLocalName())) {
+                        xmlFile.getMediaChannels().add(unmarshaller.unmarshal(xsr, MediaChannel.class).getValue());
+                        // the reader is positioned after the element
+                        event = xsr.getEventType();
+                        continue;
+                    } else if (event == XMLStreamConstants.START_ELEMENT
+                            && ELEMENT_PROGRAMME.equals(xsr.getLocalName())) {
+                        String channelId = xsr.getAttributeValue(null, ATTRIBUTE_CHANNEL);
+                        if (channelId != null && channelIds.contains(normalizeChannelId(channelId))) {
+                            Programme programme = unmarshaller.unmarshal(xsr, Programme.class).getValue();
+                            upToDate |= addProgramme(channelProgrammes, programme, now, horizon);
+                            event = xsr.getEventType();
+                            continue;
+                        }
+                        if (!upToDate) {
+                            upToDate = isNotFinished(xsr.getAttributeValue(null, ATTRIBUTE_STOP), now);
+                        }
+                        skipElement(xsr);
                     }
+                    event = xsr.next();
+                }
+            } catch (JAXBException e) {
+                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.HANDLER_INITIALIZING_ERROR, e.getMessage());
+                return;
+            }
+
+            if (upToDate) {
+                Map<String, MediaChannel> channelsById = new HashMap<>();
+                xmlFile.getMediaChannels()
+                        .forEach(channel -> channelsById.putIfAbsent(normalizeChannelId(channel.getId()), channel));
+                // Sort programmes by starting instant
+                channelProgrammes.replaceAll((channelId, list) -> {
+                    list.sort(Comparator.comparing(Programme::getProgrammeStart));
+                    return Collections.unmodifiableList(list);
+                });
+                mediaChannels = channelsById;
+                programmes = channelProgrammes;
+                indexedChannelIds = channelIds;
+                // Ready to deliver data to ChannelHandlers
+                currentXmlFile = xmlFile;
+                updateStatus(ThingStatus.ONLINE);
+            } else {
+                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.DISABLED, "XMLTV file seems outdated");
+            }
+        } catch (XMLStreamException | IOException e) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
+        } finally {
+            try {
+                if (xsr != null) {
                     xsr.close();
-                } catch (JAXBException e) {
-                    updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.HANDLER_INITIALIZING_ERROR, e.getMessage());
                 }
-            } catch (XMLStreamException | FileNotFoundException e) {
+            } catch (XMLStreamException e) {
                 updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
-            } finally {
-                try {
-                    if (xsr != null) {
-                        xsr.close();
-                    }
-                } catch (XMLStreamException e) {
-                    updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Adds a programme to the programmes of its channel, if it is not finished and starts before the horizon
+     *
+     * @return true if the programme is not finished
+     */
+    private boolean addProgramme(Map<String, List<Programme>> channelProgrammes, Programme programme, Instant now,
+            Instant horizon) {
+        try {
+            if (!now.isAfter(programme.getProgrammeStop())) {
+                if (programme.getProgrammeStart().isBefore(horizon)) {
+                    channelProgrammes
+                            .computeIfAbsent(normalizeChannelId(programme.getChannel()), channelId -> new ArrayList<>())
+                            .add(programme);
                 }
+                return true;
+            }
+        } catch (DateTimeParseException e) {
+            logger.debug("Ignoring programme of channel '{}' with invalid date: {}", programme.getChannel(),
+                    e.getMessage());
+        }
+        return false;
+    }
+
+    private boolean isNotFinished(@Nullable String stop, Instant now) {
+        try {
+            return stop != null && !now.isAfter(Programme.parseDate(stop));
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Skips the element the reader is positioned at, including its content
+     */
+    private void skipElement(XMLStreamReader xsr) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = xsr.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
             }
-        }, 0, config.refresh, TimeUnit.HOURS);
+        }
+    }
+
+    /**
+     * Normalizes a channel id of the file or of a thing configuration, so both can be compared. The whitespace is
+     * collapsed as by the unmarshalling of the channel attributes.
+     *
+     * @param channelId the channel id
+     * @return the channel id without surrounding whitespace and with inner whitespace collapsed to single spaces
+     */
+    static String normalizeChannelId(String channelId) {
+        return CHANNEL_ID_ADAPTER.unmarshal(channelId);
+    }
+
+    private Set<String> getChannelIds() {
+        Set<String> channelIds = new HashSet<>();
+        for (Thing thing : getThing().getThings()) {
+            Object channelId = thing.getConfiguration().get(XmlChannelConfiguration.CHANNEL_ID);
+            if (channelId instanceof String) {
+                channelIds.add(normalizeChannelId((String) channelId));
+            }
+        }
+        return channelIds;
+    }
+
+    @Override
+    public void childHandlerInitialized(ThingHandler childHandler, Thing childThing) {
+        Object channelId = childThing.getConfiguration().get(XmlChannelConfiguration.CHANNEL_ID);
+        if (currentXmlFile != null && channelId instanceof String
+                && !indexedChannelIds.contains(normalizeChannelId((String) channelId))) {
+            // The programmes of the channel have not been looked for by the last reload
+            scheduler.execute(this::loadXmlFile);
+        }
     }
 
     @Override
@@ -126,4 +275,20 @@ public class XmlTVHandler extends BaseBridgeHandler {
     public Tv getXmlFile() {
         return currentXmlFile;
     }
+
+    /**
+     * @param channelId id of the channel in the XMLTV file
+     * @return the channel or null, if the file does not contain it
+     */
+    public @Nullable MediaChannel getMediaChannel(String channelId) {
+        return mediaChannels.get(normalizeChannelId(channelId));
+    }
+
+    /**
+     * @param channelId id of a channel having a thing
+     * @return the programmes of the channel within the horizon of the last reload, sorted by start
+     */
+    public List<Programme> getProgrammes(String channelId) {
+        return programmes.getOrDefault(normalizeChannelId(channelId), List.of());
+    }
 }
@@ -15,6 +15,7 @@ package org.openhab.binding.xmltv.internal.jaxb;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -27,11 +28,13 @@ import javax.xml.bind.annotation.adapters.CollapsedStringAdapter;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 
 /**
  * Java class for a programme XML element
  *
  * @author Gaël L'hopital - Initial contribution
+ * @author Michal Boronski - Parse start and stop only once
  */
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlType
@@ -58,6 +61,9 @@ public class Programme {
     @XmlJavaTypeAdapter(CollapsedStringAdapter.class)
     protected String channel = "";
 
+    private transient @Nullable Instant programmeStart;
+    private transient @Nullable Instant programmeStop;
+
     public List<WithLangType> getTitles() {
         return titles;
     }
@@ -67,18 +73,32 @@ public class Programme {
     }
 
     public Instant getProgrammeStart() {
-        long epoch = iso860DateToEpoch(start);
-        return Instant.ofEpochMilli(epoch);
+        Instant instant = programmeStart;
+        if (instant == null) {
+            instant = parseDate(start);
+            programmeStart = instant;
+        }
+        return instant;
     }
 
     public Instant getProgrammeStop() {
-        long epoch = iso860DateToEpoch(stop);
-        return Instant.ofEpochMilli(epoch);
+        Instant instant = programmeStop;
+        if (instant == null) {
+            instant = parseDate(stop);
+            programmeStop = instant;
+        }
+        return instant;
     }
 
-    private long iso860DateToEpoch(String date) {
-        long epoch = ZonedDateTime.parse(date, XMLTV_DATE_FORMAT).toInstant().toEpochMilli();
-        return epoch;
+    /**
+     * Parses a date of the XMLTV format, e.g. the start or stop attribute of a programme
+     *
+     * @param date date like "20211001203000 +0200"
+     * @return the parsed instant
+     * @throws DateTimeParseException if the date can not be parsed
+     */
+    public static Instant parseDate(String date) throws DateTimeParseException {
+        return ZonedDateTime.parse(date, XMLTV_DATE_FORMAT).toInstant();
     }
 
     public List<Icon> getIcons() {
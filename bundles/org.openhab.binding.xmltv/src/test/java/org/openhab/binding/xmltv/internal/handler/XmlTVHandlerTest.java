@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2010-2021 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.xmltv.internal.handler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import javax.xml.bind.JAXBException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openhab.binding.xmltv.internal.configuration.XmlChannelConfiguration;
+import org.openhab.core.config.core.Configuration;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.Thing;
+import org.openhab.core.thing.ThingStatus;
+import org.openhab.core.thing.ThingStatusDetail;
+import org.openhab.core.thing.binding.ThingHandler;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
+
+/**
+ * Tests the reading of the XMLTV file by the {@link XmlTVHandler}.
+ *
+ * @author Michal Boronski - Initial contribution
+ */
+@NonNullByDefault
+public class XmlTVHandlerTest {
+
+    private static final DateTimeFormatter XMLTV_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss Z")
+            .withZone(ZoneOffset.UTC);
+    private static final long TIMEOUT = 5000;
+
+    private @TempDir @NonNullByDefault({}) Path tempDir;
+
+    private final Instant now = Instant.now();
+    private final Bridge bridge = mock(Bridge.class);
+    private final ThingHandlerCallback callback = mock(ThingHandlerCallback.class);
+    private final List<Thing> things = new CopyOnWriteArrayList<>();
+    private @NonNullByDefault({}) XmlTVHandler handler;
+
+    private String programme(String channel, int startHours, int stopHours) {
+        return "<programme start=\"" + XMLTV_DATE_FORMAT.format(now.plus(Duration.ofHours(startHours)))
+                + "\" stop=\"" + XMLTV_DATE_FORMAT.format(now.plus(Duration.ofHours(stopHours))) + "\" channel=\""
+                + channel + "\"><title lang=\"fr\">" + channel.trim() + " " + startHours + "</title></programme>";
+    }
+
+    private void createHandler(String... programmes) throws IOException, JAXBException {
+        Path file = tempDir.resolve("tvguide.xml");
+        //@formatter:off
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<tv>" +
+                    "<channel id=\" tf1.fr \"><display-name>TF1</display-name></channel>" +
+                    "<channel id=\"france2.fr\"><display-name>France 2</display-name></channel>" +
+                    String.join("", programmes) +
+                "</tv>";
+        //@formatter:on
+        Files.writeString(file, xml, StandardCharsets.UTF_8);
+
+        when(bridge.getConfiguration()).thenReturn(new Configuration(
+                Map.of("filePath", file.toString(), "refresh", 1, "horizon", 3, "encoding", "UTF-8")));
+        when(bridge.getThings()).thenReturn(things);
+        handler = new XmlTVHandler(bridge);
+        handler.setCallback(callback);
+    }
+
+    private Thing addThing(String channelId) {
+        Thing thing = mock(Thing.class);
+        when(thing.getConfiguration())
+                .thenReturn(new Configuration(Map.of(XmlChannelConfiguration.CHANNEL_ID, channelId)));
+        things.add(thing);
+        return thing;
+    }
+
+    private void verifyStatus(int times, ThingStatus status) {
+        verify(callback, timeout(TIMEOUT).times(times)).statusUpdated(eq(bridge),
+                argThat(info -> info.getStatus() == status));
+    }
+
+    private List<String> getTitles(String channelId) {
+        return handler.getProgrammes(channelId).stream().map(programme -> programme.getTitles().get(0).getValue())
+                .collect(Collectors.toList());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (handler != null) {
+            handler.dispose();
+        }
+    }
+
+    @Test
+    public void testProgrammesWithinHorizonAreIndexed() throws IOException, JAXBException {
+        createHandler(programme("tf1.fr", 2, 3), programme("tf1.fr", -3, -1), programme("tf1.fr", -1, 2),
+                programme("tf1.fr", 4, 5), programme("france2.fr", -1, 1));
+        addThing("tf1.fr");
+
+        handler.initialize();
+        verifyStatus(1, ThingStatus.ONLINE);
+
+        // finished programmes and programmes starting after the horizon are dropped, the others sorted by start
+        assertEquals(List.of("tf1.fr -1", "tf1.fr 2"), getTitles("tf1.fr"));
+        // programmes of channels without a thing are skipped, but all channels are kept for the discovery
+        assertEquals(List.of(), handler.getProgrammes("france2.fr"));
+        assertNotNull(handler.getMediaChannel("france2.fr"));
+        assertEquals(List.of(), Objects.requireNonNull(handler.getXmlFile()).getProgrammes());
+    }
+
+    @Test
+    public void testChannelIdsAreNormalized() throws IOException, JAXBException {
+        createHandler(programme(" tf1.fr\t", -1, 1));
+        addThing("tf1.fr ");
+
+        handler.initialize();
+        verifyStatus(1, ThingStatus.ONLINE);
+
+        assertEquals(List.of("tf1.fr -1"), getTitles("tf1.fr"));
+        assertEquals(List.of("tf1.fr -1"), getTitles(" tf1.fr "));
+        assertNotNull(handler.getMediaChannel("tf1.fr"));
+        assertEquals("tf1.fr", handler.getProgrammes("tf1.fr").get(0).getChannel());
+    }
+
+    @Test
+    public void testSkippedProgrammesKeepFileUpToDate() throws IOException, JAXBException {
+        createHandler(programme("tf1.fr", -3, -1), programme("france2.fr", -1, 1));
+        addThing("tf1.fr");
+
+        handler.initialize();
+
+        // the only running programme is skipped, but its stop attribute is still checked
+        verifyStatus(1, ThingStatus.ONLINE);
+        assertEquals(List.of(), handler.getProgrammes("tf1.fr"));
+    }
+
+    @Test
+    public void testOutdatedFileIsRejected() throws IOException, JAXBException {
+        createHandler(programme("tf1.fr", -3, -1), programme("france2.fr", -2, -1));
+        addThing("tf1.fr");
+
+        handler.initialize();
+
+        verify(callback, timeout(TIMEOUT)).statusUpdated(eq(bridge),
+                argThat(info -> info.getStatus() == ThingStatus.OFFLINE
+                        && info.getStatusDetail() == ThingStatusDetail.DISABLED));
+        assertNull(handler.getXmlFile());
+    }
+
+    @Test
+    public void testNewChannelReloadsFile() throws IOException, JAXBException {
+        createHandler(programme("tf1.fr", -1, 1), programme("france2.fr", -1, 1));
+        addThing("tf1.fr");
+        handler.initialize();
+        verifyStatus(1, ThingStatus.ONLINE);
+        assertEquals(List.of(), handler.getProgrammes("france2.fr"));
+
+        Thing france2 = addThing(" france2.fr");
+        handler.childHandlerInitialized(mock(ThingHandler.class), france2);
+
+        verifyStatus(2, ThingStatus.ONLINE);
+        assertEquals(List.of("france2.fr -1"), getTitles("france2.fr"));
+        assertEquals(List.of("tf1.fr -1"), getTitles("tf1.fr"));
+
+        // channels indexed by the last reload do not trigger another one
+        handler.childHandlerInitialized(mock(ThingHandler.class), things.get(0));
+        handler.childHandlerInitialized(mock(ThingHandler.class), france2);
+        verify(callback, after(200).times(2)).statusUpdated(eq(bridge),
+                argThat(info -> info.getStatus() == ThingStatus.ONLINE));
+    }
+}
@@ -920,6 +920,50 @@ public class ModbusDataHandlerTest extends AbstractModbusOSGiTest {
         waitForAssert(() -> verify((ModbusPollerThingHandler) poller.getHandler()).refresh());
     }
 
+    @Test
+    public void testUnchangedRegistersAreNotDecoded() {
+        ModbusSlaveEndpoint endpoint = new ModbusTCPSlaveEndpoint("thisishost", 502, false);
+
+        // Minimally mocked request
+        ModbusReadRequestBlueprint request = Mockito.mock(ModbusReadRequestBlueprint.class);
+        doReturn(3).when(request).getDataLength();
+        doReturn(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS).when(request).getFunctionCode();
+
+        PollTask task = Mockito.mock(PollTask.class);
+        doReturn(endpoint).when(task).getEndpoint();
+        doReturn(request).when(task).getRequest();
+
+        Bridge poller = createPollerMock("poller1", task);
+
+        Configuration dataConfig = new Configuration();
+        dataConfig.put("readStart", "1");
+        dataConfig.put("readTransform", "default");
+        dataConfig.put("readValueType", "int32");
+        dataConfig.put("updateUnchangedValuesEveryMillis", 0);
+        dataConfig.put("decodeUnchangedDataEveryMillis", 60000);
+
+        ModbusDataThingHandler dataHandler = createDataHandler("read1", poller,
+                builder -> builder.withConfiguration(dataConfig), bundleContext);
+        assertThat(dataHandler.getThing().getStatus(), is(equalTo(ThingStatus.ONLINE)));
+        // REFRESH commands force decoding, wait for the ones initiated by the core
+        waitForAssert(
+                () -> verify((ModbusPollerThingHandler) poller.getHandler(), times(CHANNEL_TO_ACCEPTED_TYPE.size()))
+                        .refresh());
+
+        dataHandler.onReadResult(new AsyncModbusReadResult(request, new ModbusRegisterArray(1, 0, 5)));
+        // register outside of the value changes
+        dataHandler.onReadResult(new AsyncModbusReadResult(request, new ModbusRegisterArray(2, 0, 5)));
+        dataHandler.onReadResult(new AsyncModbusReadResult(request, new ModbusRegisterArray(2, 0, 6)));
+
+        String numberItem = getItemName(new ChannelUID(dataHandler.getThing().getUID(), CHANNEL_NUMBER));
+        String lastReadSuccessItem = getItemName(
+                new ChannelUID(dataHandler.getThing().getUID(), CHANNEL_LAST_READ_SUCCESS));
+        waitForAssert(() -> {
+            assertEquals(List.of(new DecimalType(5), new DecimalType(6)), getStateUpdates(numberItem));
+            assertEquals(3, Objects.requireNonNull(getStateUpdates(lastReadSuccessItem)).size());
+        });
+    }
+
     private static Stream<Arguments> provideArgsForUpdateThenCommandFromItem()
 
     {